@@ -90,6 +90,14 @@ public class Figma2JsonApp extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        // Flush cache entries that are still being written in the background
+        if (mainController != null) {
+            mainController.shutdown();
+        }
+    }
+
     private MenuBar createMenuBar() {
         MenuBar menuBar = new MenuBar();
 
@@ -296,6 +304,9 @@ public class Figma2JsonApp extends Application {
     private void restartApplication() {
         // Close current stage and reload with new locale
         primaryStage.close();
+        if (mainController != null) {
+            mainController.shutdown();
+        }
         
         // Reset preferences helper for new instance
         preferencesHelper = null;
@@ -2,17 +2,38 @@ package com.tlcsdm.figma2json.api;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.tlcsdm.figma2json.converter.JsonTokenPipe;
 import com.tlcsdm.figma2json.util.SettingsManager.AuthMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.net.URLEncoder;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Client for Figma REST API using JDK HttpClient.
@@ -21,12 +42,24 @@ public class FigmaApiClient {
 
     private static final Logger logger = LoggerFactory.getLogger(FigmaApiClient.class);
     private static final String DEFAULT_BASE_URL = "https://api.figma.com/v1";
+    /**
+     * Depth of the outline compared to find changed pages: the pages and their top-level layers.
+     */
+    private static final int SYNC_OUTLINE_DEPTH = 2;
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+    private static final int DEFAULT_PAGES_PER_REQUEST = 1;
+    private static final int MAX_RATE_LIMIT_RETRIES = 3;
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 5;
+    private static final long MAX_RETRY_AFTER_SECONDS = 120;
 
     private final HttpClient httpClient;
     private final Gson gson;
     private String accessToken;
     private String baseUrl = DEFAULT_BASE_URL;
     private AuthMode authMode = AuthMode.OAUTH;
+    private volatile boolean shardedDownload;
+    private volatile int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private volatile int pagesPerRequest = DEFAULT_PAGES_PER_REQUEST;
 
     public FigmaApiClient() {
         this.httpClient = HttpClient.newBuilder()
@@ -82,6 +115,62 @@ public class FigmaApiClient {
         this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl : DEFAULT_BASE_URL;
     }
 
+    /**
+     * Sets whether complete files are downloaded in parallel page batches
+     * through {@link #getFileSharded(String)} wherever this client needs a full
+     * download, such as {@link #downloadFile(String)} and the fallback of
+     * {@link #syncFile(String, FigmaFile)}.
+     *
+     * @param shardedDownload true to download pages in parallel, false for a single request (default)
+     */
+    public void setShardedDownload(boolean shardedDownload) {
+        this.shardedDownload = shardedDownload;
+    }
+
+    /**
+     * Checks whether complete files are downloaded in parallel page batches.
+     *
+     * @return true if sharded downloads are used
+     */
+    public boolean isShardedDownload() {
+        return shardedDownload;
+    }
+
+    /**
+     * Sets how many page batches a sharded download requests at the same time.
+     *
+     * @param maxConcurrentRequests the number of concurrent requests, at least 1
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("Invalid concurrent request count: " + maxConcurrentRequests);
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * Sets how many pages a sharded download requests per batch.
+     *
+     * @param pagesPerRequest the number of pages per request, at least 1
+     */
+    public void setPagesPerRequest(int pagesPerRequest) {
+        if (pagesPerRequest < 1) {
+            throw new IllegalArgumentException("Invalid pages per request: " + pagesPerRequest);
+        }
+        this.pagesPerRequest = pagesPerRequest;
+    }
+
+    /**
+     * Downloads a complete Figma file using the configured download strategy.
+     *
+     * @param fileKey the file key
+     * @return CompletableFuture containing the FigmaFile
+     * @see #setShardedDownload(boolean)
+     */
+    public CompletableFuture<FigmaFile> downloadFile(String fileKey) {
+        return shardedDownload ? getFileSharded(fileKey) : getFile(fileKey);
+    }
+
     /**
      * Gets a Figma file by its key.
      *
@@ -105,6 +194,30 @@ public class FigmaApiClient {
                 });
     }
 
+    /**
+     * Gets the current version of a Figma file without downloading its layers.
+     * Only the document and its pages are requested, which makes this a cheap
+     * way to check whether a cached copy is still up to date.
+     *
+     * @param fileKey the file key
+     * @return CompletableFuture containing the file version
+     */
+    public CompletableFuture<String> getFileVersion(String fileKey) {
+        String url = baseUrl + "/files/" + fileKey + "?depth=1";
+        logger.debug("Requesting Figma file version: {}", url);
+        HttpRequest request = buildRequest(url);
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    logger.debug("Response status: {}", response.statusCode());
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException("API request failed with status: " + response.statusCode() +
+                                ", body: " + response.body());
+                    }
+                    return gson.fromJson(response.body(), FigmaFile.class).getVersion();
+                });
+    }
+
     /**
      * Gets a specific node from a Figma file.
      *
@@ -129,6 +242,284 @@ public class FigmaApiClient {
                 });
     }
 
+    /**
+     * Gets a specific node from a Figma file and streams the response, reformatted
+     * by the given pipe, into a writer. The payload is never held in memory as a
+     * whole, neither as a string nor as a JSON tree. The writer is not closed.
+     *
+     * @param fileKey the file key
+     * @param nodeId  the node ID
+     * @param pipe    the pipe that reformats or filters the response
+     * @param writer  the target of the reformatted JSON
+     * @return CompletableFuture completing once the response has been written
+     */
+    public CompletableFuture<Void> getNode(String fileKey, String nodeId, JsonTokenPipe pipe, Writer writer) {
+        String url = baseUrl + "/files/" + fileKey + "/nodes?ids=" + nodeId;
+        logger.debug("Requesting Figma node: {}", url);
+        HttpRequest request = buildRequest(url);
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenAccept(response -> {
+                    logger.debug("Response status: {}", response.statusCode());
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new RuntimeException("API request failed with status: " + response.statusCode() +
+                                    ", body: " + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                        }
+                        pipe.pipe(new InputStreamReader(body, StandardCharsets.UTF_8), writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Gets a Figma file by downloading its pages in parallel.
+     * <p>
+     * A single request for a large file is limited by the throughput of one
+     * connection and by the time Figma needs to serialize the whole document.
+     * This method requests the page list with {@code depth=1} first, then
+     * fetches the pages in batches through the nodes endpoint, with at most
+     * {@link #setMaxConcurrentRequests(int) a bounded number} of requests in
+     * flight, and assembles the complete document. Requests that hit the rate
+     * limit are retried after the delay given by the {@code Retry-After} header.
+     *
+     * @param fileKey the file key
+     * @return CompletableFuture containing the FigmaFile
+     */
+    public CompletableFuture<FigmaFile> getFileSharded(String fileKey) {
+        String url = baseUrl + "/files/" + fileKey + "?depth=1";
+        logger.debug("Requesting Figma page list: {}", url);
+        return getJsonWithRetry(url).thenCompose(body -> {
+            FigmaFile file = gson.fromJson(body, FigmaFile.class);
+            List<Node> pages = file.getDocument() != null ? file.getDocument().getChildren() : null;
+            if (pages == null || pages.isEmpty()) {
+                return CompletableFuture.completedFuture(file);
+            }
+            Queue<List<String>> batches = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < pages.size(); i += pagesPerRequest) {
+                List<String> batch = new ArrayList<>();
+                for (Node page : pages.subList(i, Math.min(i + pagesPerRequest, pages.size()))) {
+                    batch.add(page.getId());
+                }
+                batches.add(batch);
+            }
+            Map<String, Node> downloaded = new ConcurrentHashMap<>();
+            Map<String, Component> components = new ConcurrentHashMap<>();
+            int workers = Math.min(maxConcurrentRequests, batches.size());
+            logger.debug("Downloading {} pages of {} in {} batches, {} at a time",
+                    pages.size(), fileKey, batches.size(), workers);
+            CompletableFuture<?>[] chains = new CompletableFuture<?>[workers];
+            for (int i = 0; i < workers; i++) {
+                chains[i] = downloadBatches(fileKey, batches, downloaded, components);
+            }
+            return CompletableFuture.allOf(chains).thenApply(done -> {
+                List<Node> assembled = new ArrayList<>(pages.size());
+                for (Node page : pages) {
+                    Node node = downloaded.get(page.getId());
+                    if (node == null) {
+                        throw new IllegalStateException("Page missing from nodes response: " + page.getId());
+                    }
+                    assembled.add(node);
+                }
+                file.getDocument().setChildren(assembled);
+                if (!components.isEmpty()) {
+                    Map<String, Component> merged = new LinkedHashMap<>(components);
+                    if (file.getComponents() != null) {
+                        merged.putAll(file.getComponents());
+                    }
+                    file.setComponents(merged);
+                }
+                return file;
+            });
+        });
+    }
+
+    /**
+     * Takes batches from the queue one after another until it is empty, so the
+     * number of chains started bounds the number of requests in flight.
+     */
+    private CompletableFuture<Void> downloadBatches(String fileKey, Queue<List<String>> batches,
+                                                    Map<String, Node> downloaded, Map<String, Component> components) {
+        List<String> batch = batches.poll();
+        if (batch == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String url = baseUrl + "/files/" + fileKey + "/nodes?ids="
+                + URLEncoder.encode(String.join(",", batch), StandardCharsets.UTF_8);
+        return getJsonWithRetry(url).thenCompose(body -> {
+            JsonObject nodes = JsonParser.parseString(body).getAsJsonObject().getAsJsonObject("nodes");
+            if (nodes != null) {
+                for (Map.Entry<String, JsonElement> entry : nodes.entrySet()) {
+                    if (!entry.getValue().isJsonObject()) {
+                        continue;
+                    }
+                    JsonObject result = entry.getValue().getAsJsonObject();
+                    downloaded.put(entry.getKey(), gson.fromJson(result.get("document"), Node.class));
+                    JsonObject nodeComponents = result.getAsJsonObject("components");
+                    if (nodeComponents != null) {
+                        for (Map.Entry<String, JsonElement> component : nodeComponents.entrySet()) {
+                            components.putIfAbsent(component.getKey(),
+                                    gson.fromJson(component.getValue(), Component.class));
+                        }
+                    }
+                }
+            }
+            return downloadBatches(fileKey, batches, downloaded, components);
+        });
+    }
+
+    /**
+     * Gets the version history of a Figma file.
+     *
+     * @param fileKey the file key
+     * @return CompletableFuture containing the versions, newest first
+     */
+    public CompletableFuture<List<FileVersion>> getFileVersions(String fileKey) {
+        String url = baseUrl + "/files/" + fileKey + "/versions";
+        logger.debug("Requesting Figma file versions: {}", url);
+        return getJson(url).thenApply(body -> {
+            JsonArray versions = JsonParser.parseString(body).getAsJsonObject().getAsJsonArray("versions");
+            List<FileVersion> result = new ArrayList<>();
+            if (versions != null) {
+                for (JsonElement version : versions) {
+                    result.add(gson.fromJson(version, FileVersion.class));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Gets several nodes of a Figma file with their subtrees in a single request.
+     *
+     * @param fileKey the file key
+     * @param nodeIds the node IDs
+     * @return CompletableFuture containing the nodes by ID; IDs unknown to Figma are omitted
+     */
+    public CompletableFuture<Map<String, Node>> getNodes(String fileKey, Collection<String> nodeIds) {
+        String ids = URLEncoder.encode(String.join(",", nodeIds), StandardCharsets.UTF_8);
+        String url = baseUrl + "/files/" + fileKey + "/nodes?ids=" + ids;
+        logger.debug("Requesting {} Figma nodes: {}", nodeIds.size(), url);
+        return getJsonWithRetry(url).thenApply(body -> {
+            JsonObject nodes = JsonParser.parseString(body).getAsJsonObject().getAsJsonObject("nodes");
+            Map<String, Node> result = new LinkedHashMap<>();
+            if (nodes != null) {
+                for (Map.Entry<String, JsonElement> entry : nodes.entrySet()) {
+                    if (entry.getValue().isJsonObject()) {
+                        JsonElement document = entry.getValue().getAsJsonObject().get("document");
+                        result.put(entry.getKey(), gson.fromJson(document, Node.class));
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Brings a cached copy of a file up to date, downloading only the pages that changed.
+     * <p>
+     * The version history tells whether the file changed at all. If it did, an
+     * outline of the file holding the pages and their top-level layers is
+     * compared with the cached copy, and only the pages whose outline differs are
+     * downloaded and spliced into the cached document. Figma reports no
+     * revision per page, so edits nested inside a top-level layer are not visible
+     * in the outline: when the version changed but no page outline did, or every
+     * page changed, the complete file is downloaded instead.
+     * <p>
+     * For the same reason, a spliced file may still hold pages with such nested
+     * edits. It keeps the version and modification time of the cached copy, so
+     * it is never taken for the new version; the next sync finds no outline
+     * changes left and downloads the complete file.
+     *
+     * @param fileKey the file key
+     * @param cached  the cached copy, or null to download the complete file
+     * @return CompletableFuture containing the sync result
+     */
+    public CompletableFuture<SyncResult> syncFile(String fileKey, FigmaFile cached) {
+        if (cached == null || cached.getDocument() == null || cached.getDocument().getChildren() == null) {
+            return downloadFile(fileKey).thenApply(file -> new SyncResult(file, false, true, List.of()));
+        }
+        return getFileVersions(fileKey).thenCompose(versions -> {
+            if (!versions.isEmpty() && versions.get(0).getId().equals(cached.getVersion())) {
+                return CompletableFuture.completedFuture(new SyncResult(cached, true, false, List.of()));
+            }
+            String url = baseUrl + "/files/" + fileKey + "?depth=" + SYNC_OUTLINE_DEPTH;
+            logger.debug("Requesting Figma file outline: {}", url);
+            return getJson(url).thenCompose(body -> {
+                FigmaFile outline = gson.fromJson(body, FigmaFile.class);
+                if (outline.getVersion() != null && outline.getVersion().equals(cached.getVersion())) {
+                    return CompletableFuture.completedFuture(new SyncResult(cached, true, false, List.of()));
+                }
+                List<String> changedPages = findChangedPages(cached, outline);
+                List<Node> pages = outline.getDocument() != null ? outline.getDocument().getChildren() : null;
+                if (changedPages.isEmpty() || pages == null || changedPages.size() == pages.size()) {
+                    logger.debug("Changes of {} not attributable to single pages, downloading the file", fileKey);
+                    return downloadFile(fileKey).thenApply(file -> new SyncResult(file, false, true, List.of()));
+                }
+                logger.debug("Refreshing {} of {} pages of {}", changedPages.size(), pages.size(), fileKey);
+                return getNodes(fileKey, changedPages).thenApply(nodes ->
+                        new SyncResult(splice(cached, outline, nodes), false, false, changedPages));
+            });
+        });
+    }
+
+    /**
+     * Finds the pages of the outline that are new or whose outline differs from the cached page.
+     */
+    private List<String> findChangedPages(FigmaFile cached, FigmaFile outline) {
+        Map<String, JsonElement> cachedOutlines = new HashMap<>();
+        for (Node page : cached.getDocument().getChildren()) {
+            cachedOutlines.put(page.getId(), outlineOf(page));
+        }
+        List<String> changed = new ArrayList<>();
+        if (outline.getDocument() != null && outline.getDocument().getChildren() != null) {
+            for (Node page : outline.getDocument().getChildren()) {
+                if (!outlineOf(page).equals(cachedOutlines.get(page.getId()))) {
+                    changed.add(page.getId());
+                }
+            }
+        }
+        return changed;
+    }
+
+    private JsonElement outlineOf(Node page) {
+        Node copy = page.copyWithoutChildren();
+        if (page.getChildren() != null) {
+            List<Node> layers = new ArrayList<>(page.getChildren().size());
+            for (Node layer : page.getChildren()) {
+                layers.add(layer.copyWithoutChildren());
+            }
+            copy.setChildren(layers);
+        }
+        return gson.toJsonTree(copy);
+    }
+
+    /**
+     * Builds the synced file from the outline's metadata and page order, taking
+     * changed pages from the downloaded nodes and all others from the cached copy.
+     * The pages taken from the cached copy may be outdated, so the file keeps
+     * the cached version and modification time.
+     */
+    private static FigmaFile splice(FigmaFile cached, FigmaFile outline, Map<String, Node> downloaded) {
+        Map<String, Node> cachedPages = new HashMap<>();
+        for (Node page : cached.getDocument().getChildren()) {
+            cachedPages.put(page.getId(), page);
+        }
+        List<Node> pages = new ArrayList<>();
+        for (Node page : outline.getDocument().getChildren()) {
+            Node current = downloaded.getOrDefault(page.getId(), cachedPages.get(page.getId()));
+            if (current == null) {
+                throw new IllegalStateException("Page missing from nodes response: " + page.getId());
+            }
+            pages.add(current);
+        }
+        outline.getDocument().setChildren(pages);
+        outline.setVersion(cached.getVersion());
+        outline.setLastModified(cached.getLastModified());
+        return outline;
+    }
+
     /**
      * Gets file synchronously for testing.
      *
@@ -181,6 +572,58 @@ public class FigmaApiClient {
         return null;
     }
 
+    private CompletableFuture<String> getJson(String url) {
+        return httpClient.sendAsync(buildRequest(url), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    logger.debug("Response status: {}", response.statusCode());
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException("API request failed with status: " + response.statusCode() +
+                                ", body: " + response.body());
+                    }
+                    return response.body();
+                });
+    }
+
+    /**
+     * Requests JSON like {@link #getJson(String)}, but retries requests rejected
+     * by the rate limit after the delay the server asks for.
+     */
+    private CompletableFuture<String> getJsonWithRetry(String url) {
+        return sendWithRetry(url, 0).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("API request failed with status: " + response.statusCode() +
+                        ", body: " + response.body());
+            }
+            return response.body();
+        });
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendWithRetry(String url, int attempt) {
+        return httpClient.sendAsync(buildRequest(url), HttpResponse.BodyHandlers.ofString())
+                .thenCompose(response -> {
+                    logger.debug("Response status: {}", response.statusCode());
+                    if (response.statusCode() != 429 || attempt >= MAX_RATE_LIMIT_RETRIES) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    long delay = retryAfterSeconds(response);
+                    logger.info("Rate limited by Figma, retrying in {} s: {}", delay, url);
+                    return CompletableFuture.supplyAsync(() -> url,
+                                    CompletableFuture.delayedExecutor(delay, TimeUnit.SECONDS))
+                            .thenCompose(retryUrl -> sendWithRetry(retryUrl, attempt + 1));
+                });
+    }
+
+    private static long retryAfterSeconds(HttpResponse<?> response) {
+        try {
+            return response.headers().firstValue("Retry-After")
+                    .map(value -> Math.min(Math.max(0, Long.parseLong(value.trim())), MAX_RETRY_AFTER_SECONDS))
+                    .orElse(DEFAULT_RETRY_AFTER_SECONDS);
+        } catch (NumberFormatException e) {
+            // An HTTP date instead of seconds
+            return DEFAULT_RETRY_AFTER_SECONDS;
+        }
+    }
+
     private HttpRequest buildRequest(String url) {
         HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
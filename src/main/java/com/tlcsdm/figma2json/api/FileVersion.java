@@ -0,0 +1,46 @@
+package com.tlcsdm.figma2json.api;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Represents an entry of a Figma file's version history.
+ */
+public class FileVersion {
+    private String id;
+    @SerializedName("created_at")
+    private String createdAt;
+    private String label;
+    private String description;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -26,6 +26,7 @@ public class Node {
     private String blendMode;
     private Double opacity;
     private Map<String, Object> constraints;
+    private Map<String, String> styles;
 
     public String getId() {
         return id;
@@ -139,6 +140,44 @@ public class Node {
         this.constraints = constraints;
     }
 
+    /**
+     * Gets the styles applied to the node, keyed by what they style (e.g. "fill",
+     * "text", "effect"), with the style ids as values.
+     *
+     * @return the style references, or null if the node uses no styles
+     */
+    public Map<String, String> getStyles() {
+        return styles;
+    }
+
+    public void setStyles(Map<String, String> styles) {
+        this.styles = styles;
+    }
+
+    /**
+     * Creates a copy of this node without its children. Property values are shared, not copied.
+     *
+     * @return the shallow copy
+     */
+    public Node copyWithoutChildren() {
+        Node copy = new Node();
+        copy.id = id;
+        copy.name = name;
+        copy.type = type;
+        copy.visible = visible;
+        copy.absoluteBoundingBox = absoluteBoundingBox;
+        copy.fills = fills;
+        copy.strokes = strokes;
+        copy.strokeWeight = strokeWeight;
+        copy.cornerRadius = cornerRadius;
+        copy.effects = effects;
+        copy.blendMode = blendMode;
+        copy.opacity = opacity;
+        copy.constraints = constraints;
+        copy.styles = styles;
+        return copy;
+    }
+
     @Override
     public String toString() {
         return name != null ? name : id;
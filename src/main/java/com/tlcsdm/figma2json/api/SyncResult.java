@@ -0,0 +1,57 @@
+package com.tlcsdm.figma2json.api;
+
+import java.util.List;
+
+/**
+ * Result of an incremental file sync.
+ */
+public final class SyncResult {
+
+    private final FigmaFile file;
+    private final boolean upToDate;
+    private final boolean fullDownload;
+    private final List<String> refreshedPageIds;
+
+    SyncResult(FigmaFile file, boolean upToDate, boolean fullDownload, List<String> refreshedPageIds) {
+        this.file = file;
+        this.upToDate = upToDate;
+        this.fullDownload = fullDownload;
+        this.refreshedPageIds = List.copyOf(refreshedPageIds);
+    }
+
+    /**
+     * Gets the synchronized file. This is the cached instance if it was already up to date.
+     *
+     * @return the current file
+     */
+    public FigmaFile getFile() {
+        return file;
+    }
+
+    /**
+     * Checks whether the cached file already was the latest version.
+     *
+     * @return true if nothing was downloaded besides the version check
+     */
+    public boolean isUpToDate() {
+        return upToDate;
+    }
+
+    /**
+     * Checks whether the complete file had to be downloaded.
+     *
+     * @return true if the sync fell back to a full download
+     */
+    public boolean isFullDownload() {
+        return fullDownload;
+    }
+
+    /**
+     * Gets the pages that were downloaded and spliced into the cached document.
+     *
+     * @return the ids of the refreshed pages, empty for up-to-date files and full downloads
+     */
+    public List<String> getRefreshedPageIds() {
+        return refreshedPageIds;
+    }
+}
@@ -0,0 +1,278 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Converter for exporting Figma data in a compact, self-describing binary format.
+ * <p>
+ * The format has the data model of JSON: every value is tagged, numbers are
+ * varints or floats where that keeps their value, and repeated keys, types and
+ * names are stored once in a string table that is built while streaming.
+ * Documents are written with a single pass over the node tree and read back
+ * with {@link BinaryReader}, without a JSON parser on either side.
+ * <p>
+ * The binary output is written by {@link #convert(Node, OutputStream)}. The
+ * text based methods, {@link #convert(Node, Writer)}, {@link #convert(Node)} and
+ * {@link #convertRawJson(String)}, write the same bytes Base64-encoded. Null
+ * properties are omitted by default; pretty printing does not apply.
+ */
+public class BinaryConverter implements FigmaConverter {
+
+    private static final OutputProfile DEFAULT_PROFILE = OutputProfile.builder()
+            .prettyPrinting(false)
+            .serializeNulls(false)
+            .build();
+
+    private final OutputProfile profile;
+    private final NodeBinaryWriter nodeWriter;
+
+    public BinaryConverter() {
+        this(DEFAULT_PROFILE);
+    }
+
+    /**
+     * Creates a converter that writes nodes according to the given profile.
+     *
+     * @param profile the output profile; pretty printing is ignored
+     */
+    public BinaryConverter(OutputProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Output profile must not be null");
+        }
+        this.profile = profile;
+        this.nodeWriter = new NodeBinaryWriter(profile);
+    }
+
+    /**
+     * Gets the output profile of this converter.
+     *
+     * @return the output profile
+     */
+    public OutputProfile getProfile() {
+        return profile;
+    }
+
+    @Override
+    public String getFormat() {
+        return "BINARY";
+    }
+
+    @Override
+    public void convert(Node node, OutputStream out) throws IOException {
+        NodeTraversal.traverse(node, List.of(nodeWriter.newSink(out)));
+    }
+
+    /**
+     * Writes the binary output Base64-encoded, without line breaks.
+     */
+    @Override
+    public void convert(Node node, Writer writer) throws IOException {
+        try (OutputStream base64 = Base64.getEncoder().wrap(new AsciiOutputStream(writer))) {
+            convert(node, base64);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Creates a sink that writes the nodes of a shared traversal in the binary format.
+     */
+    @Override
+    public NodeSink newSink(OutputStream out) throws IOException {
+        return nodeWriter.newSink(out);
+    }
+
+    /**
+     * Creates a sink that writes the binary output Base64-encoded to a writer.
+     */
+    @Override
+    public NodeSink newSink(Writer writer) throws IOException {
+        OutputStream base64 = Base64.getEncoder().wrap(new AsciiOutputStream(writer));
+        NodeSink sink = nodeWriter.newSink(base64);
+        return new NodeSink() {
+            @Override
+            public boolean beginNode(Node node) throws IOException {
+                return sink.beginNode(node);
+            }
+
+            @Override
+            public void endNode(Node node, boolean childrenVisited) throws IOException {
+                sink.endNode(node, childrenVisited);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                sink.finish();
+                // Writes the final Base64 block; the writer itself stays open
+                base64.close();
+                writer.flush();
+            }
+        };
+    }
+
+    /**
+     * Transcodes raw JSON into the binary format and returns it Base64-encoded.
+     * Nulls are dropped like the profile says; all other values are kept.
+     */
+    @Override
+    public String convertRawJson(String rawJson) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rawJson.length() / 2);
+        try {
+            convertRawJson(new StringReader(rawJson), bytes);
+        } catch (MalformedJsonException | EOFException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            // String readers and byte array streams do not fail otherwise
+            throw new JsonIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Transcodes one raw JSON document from a reader into the binary format, in
+     * memory proportional to its nesting depth. Neither stream is closed.
+     * Integer literals outside the range of a long are stored as doubles.
+     *
+     * @param reader the raw JSON
+     * @param out    the target
+     * @throws IOException if reading or writing fails, or the input is not valid JSON
+     */
+    public void convertRawJson(Reader reader, OutputStream out) throws IOException {
+        JsonReader in = new JsonReader(reader);
+        // Same leniency as JsonParser, so every payload it accepts is accepted here
+        in.setStrictness(Strictness.LENIENT);
+        // Deeply nested groups are valid, the transcoding below does not recurse
+        in.setNestingLimit(Integer.MAX_VALUE);
+        BinaryEncoder encoder = new BinaryEncoder(out);
+        encoder.writeHeader();
+        transcode(in, encoder);
+        if (in.peek() != JsonToken.END_DOCUMENT) {
+            throw new MalformedJsonException("Did not consume the entire document");
+        }
+        encoder.flush();
+    }
+
+    private void transcode(JsonReader in, BinaryEncoder out) throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = in.peek();
+            switch (token) {
+                case BEGIN_ARRAY -> {
+                    in.beginArray();
+                    out.beginArray();
+                    depth++;
+                }
+                case BEGIN_OBJECT -> {
+                    in.beginObject();
+                    out.beginMap();
+                    depth++;
+                }
+                case END_ARRAY -> {
+                    in.endArray();
+                    out.end();
+                    depth--;
+                }
+                case END_OBJECT -> {
+                    in.endObject();
+                    out.end();
+                    depth--;
+                }
+                case NAME -> {
+                    String name = in.nextName();
+                    if (in.peek() == JsonToken.NULL && !profile.isSerializeNulls()) {
+                        in.nextNull();
+                    } else {
+                        out.value(name);
+                    }
+                }
+                case STRING -> out.value(in.nextString());
+                case NUMBER -> writeNumber(out, in.nextString());
+                case BOOLEAN -> out.value(in.nextBoolean());
+                case NULL -> {
+                    in.nextNull();
+                    out.nullValue();
+                }
+                case END_DOCUMENT -> throw new EOFException("End of input");
+            }
+        } while (depth > 0);
+    }
+
+    private static void writeNumber(BinaryEncoder out, String literal) throws IOException {
+        if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+            try {
+                out.value(Long.parseLong(literal));
+                return;
+            } catch (NumberFormatException e) {
+                // Too large for a long
+            }
+        }
+        out.value(Double.parseDouble(literal));
+    }
+
+    /**
+     * Includes the output profile.
+     */
+    @Override
+    public String getOutputKey() {
+        return FigmaConverter.super.getOutputKey() + ":" + profile;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "f2jb";
+    }
+
+    /**
+     * Passes the ASCII bytes of a Base64 encoder on to a writer as chars.
+     */
+    private static final class AsciiOutputStream extends OutputStream {
+        private final Writer writer;
+        private char[] chars = new char[0];
+
+        AsciiOutputStream(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            writer.write(b & 0x7F);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (chars.length < len) {
+                chars = new char[len];
+            }
+            for (int i = 0; i < len; i++) {
+                chars[i] = (char) b[off + i];
+            }
+            writer.write(chars, 0, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The writer belongs to the caller
+            writer.flush();
+        }
+    }
+}
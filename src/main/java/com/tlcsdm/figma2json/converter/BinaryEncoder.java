@@ -0,0 +1,156 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.util.Varints;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.tlcsdm.figma2json.converter.BinaryFormat.*;
+
+/**
+ * Streams values in the {@link BinaryFormat} to an output stream.
+ * <p>
+ * The encoder only checks what it cannot leave to the caller: containers must
+ * be balanced and map keys written with {@link #value(String)} by the caller.
+ * Output is buffered; {@link #flush()} writes it through.
+ */
+final class BinaryEncoder {
+
+    private static final int BUFFER_SIZE = 8192;
+    // Longest varint plus the tag
+    private static final int MAX_SCALAR_SIZE = Varints.MAX_VARLONG_SIZE + 1;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final Map<String, Integer> strings = new HashMap<>();
+    private int position;
+
+    BinaryEncoder(OutputStream out) {
+        this.out = out;
+    }
+
+    void writeHeader() throws IOException {
+        ensure(MAGIC.length + 1);
+        System.arraycopy(MAGIC, 0, buffer, position, MAGIC.length);
+        position += MAGIC.length;
+        buffer[position++] = (byte) VERSION;
+    }
+
+    void nullValue() throws IOException {
+        tag(TAG_NULL);
+    }
+
+    void value(boolean value) throws IOException {
+        tag(value ? TAG_TRUE : TAG_FALSE);
+    }
+
+    void value(long value) throws IOException {
+        ensure(MAX_SCALAR_SIZE);
+        buffer[position++] = TAG_INT;
+        putVarlong(Varints.zigZag(value));
+    }
+
+    /**
+     * Writes a double as an integer or a float if that keeps its value, as a double otherwise.
+     */
+    void value(double value) throws IOException {
+        if (Varints.isIntegral(value)) {
+            value((long) value);
+            return;
+        }
+        float single = (float) value;
+        if (single == value) {
+            ensure(5);
+            buffer[position++] = TAG_FLOAT;
+            putInt(Float.floatToRawIntBits(single));
+        } else {
+            ensure(9);
+            buffer[position++] = TAG_DOUBLE;
+            long bits = Double.doubleToRawLongBits(value);
+            putInt((int) (bits >>> 32));
+            putInt((int) bits);
+        }
+    }
+
+    /**
+     * Writes a string, or a reference to it if it was written before.
+     */
+    void value(String value) throws IOException {
+        if (value.length() <= MAX_SHARED_STRING_LENGTH) {
+            Integer index = strings.get(value);
+            if (index != null) {
+                ensure(MAX_SCALAR_SIZE);
+                buffer[position++] = TAG_STRING_REF;
+                putVarlong(index);
+                return;
+            }
+            if (strings.size() < MAX_STRING_TABLE_SIZE) {
+                strings.put(value, strings.size());
+                writeString(TAG_STRING_DEF, value);
+                return;
+            }
+        }
+        writeString(TAG_STRING, value);
+    }
+
+    void beginArray() throws IOException {
+        tag(TAG_ARRAY);
+    }
+
+    void beginMap() throws IOException {
+        tag(TAG_MAP);
+    }
+
+    void end() throws IOException {
+        tag(TAG_END);
+    }
+
+    void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    private void writeString(int tag, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(MAX_SCALAR_SIZE);
+        buffer[position++] = (byte) tag;
+        putVarlong(bytes.length);
+        if (bytes.length > buffer.length - position) {
+            out.write(buffer, 0, position);
+            position = 0;
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void tag(int tag) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) tag;
+    }
+
+    private void putVarlong(long value) {
+        position = Varints.putVarlong(buffer, position, value);
+    }
+
+    private void putInt(int value) {
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensure(int size) throws IOException {
+        if (buffer.length - position < size) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
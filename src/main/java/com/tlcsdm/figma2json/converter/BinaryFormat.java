@@ -0,0 +1,54 @@
+package com.tlcsdm.figma2json.converter;
+
+/**
+ * Constants shared by the binary export writer and {@link BinaryReader}.
+ * <p>
+ * A binary export is the magic, a version byte and one value. Every value
+ * starts with a one-byte tag, so documents can be decoded without a schema:
+ * <pre>
+ * NULL | FALSE | TRUE
+ * INT        zigzag varint, see {@link com.tlcsdm.figma2json.util.Varints}
+ * FLOAT      4-byte big-endian IEEE float, for doubles a float holds exactly
+ * DOUBLE     8-byte big-endian IEEE double
+ * STRING     varint byte length, UTF-8 bytes
+ * STRING_DEF like STRING, and appends the string to the string table
+ * STRING_REF varint index into the string table
+ * ARRAY      values, END
+ * MAP        key and value pairs with string keys, END
+ * </pre>
+ * The string table is built while the document is read, so the writer can
+ * stream and still store repeated keys, types and names only once. Containers
+ * are terminated instead of counted for the same reason.
+ */
+final class BinaryFormat {
+
+    static final byte[] MAGIC = {'F', '2', 'J', 'B'};
+    static final int VERSION = 1;
+
+    static final int TAG_NULL = 0;
+    static final int TAG_FALSE = 1;
+    static final int TAG_TRUE = 2;
+    static final int TAG_INT = 3;
+    static final int TAG_FLOAT = 4;
+    static final int TAG_DOUBLE = 5;
+    static final int TAG_STRING = 6;
+    static final int TAG_STRING_DEF = 7;
+    static final int TAG_STRING_REF = 8;
+    static final int TAG_ARRAY = 9;
+    static final int TAG_MAP = 10;
+    static final int TAG_END = 11;
+
+    /**
+     * Longest string, in chars, that is added to the string table. Longer
+     * strings are rarely repeated and would only grow the table.
+     */
+    static final int MAX_SHARED_STRING_LENGTH = 64;
+
+    /**
+     * Largest number of strings in the string table, which bounds the memory of writer and reader.
+     */
+    static final int MAX_STRING_TABLE_SIZE = 1 << 16;
+
+    private BinaryFormat() {
+    }
+}
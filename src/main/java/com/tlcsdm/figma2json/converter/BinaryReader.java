@@ -0,0 +1,310 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.util.Varints;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tlcsdm.figma2json.converter.BinaryFormat.*;
+
+/**
+ * Reads documents written by {@link BinaryConverter}.
+ * <p>
+ * A document is read either as a plain value, with maps, lists, strings,
+ * booleans, longs and doubles, or straight into a {@link Node} tree. Node trees
+ * are read with an explicit stack, so their depth is not limited by the call
+ * stack. The reader buffers its input; the stream is not closed.
+ */
+public final class BinaryReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final List<String> strings = new ArrayList<>();
+    private int position;
+    private int limit;
+
+    /**
+     * Creates a reader and reads the document header.
+     *
+     * @param in the stream to read from
+     * @throws IOException if the stream is not a binary export or cannot be read
+     */
+    public BinaryReader(InputStream in) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input stream must not be null");
+        }
+        this.in = in;
+        for (byte magic : MAGIC) {
+            if (readByte() != magic) {
+                throw new IOException("Not a figma2json binary export");
+            }
+        }
+        int version = readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary format version: " + version);
+        }
+    }
+
+    /**
+     * Reads the next value. Maps keep the order they were written in, integers
+     * are returned as longs and other numbers as doubles.
+     *
+     * @return the value, may be null
+     * @throws IOException if reading fails or the data is malformed
+     */
+    public Object readValue() throws IOException {
+        return readValue(readByte(), false);
+    }
+
+    /**
+     * Reads the next value as a node with its subtree. Numbers in free-form
+     * properties are doubles, as when the node is parsed from JSON by Gson.
+     * Unknown keys are skipped.
+     *
+     * @return the node, or null if a null value was written
+     * @throws IOException if reading fails or the value is not a node
+     */
+    public Node readNode() throws IOException {
+        int tag = readByte();
+        if (tag == TAG_NULL) {
+            return null;
+        }
+        expect(tag, TAG_MAP);
+        Node root = new Node();
+        Node current = root;
+        Deque<Node> parents = new ArrayDeque<>();
+        boolean inChildren = false;
+        while (true) {
+            tag = readByte();
+            if (inChildren) {
+                if (tag == TAG_END) {
+                    inChildren = false;
+                } else if (tag == TAG_NULL) {
+                    current.getChildren().add(null);
+                } else {
+                    expect(tag, TAG_MAP);
+                    Node child = new Node();
+                    current.getChildren().add(child);
+                    parents.push(current);
+                    current = child;
+                    inChildren = false;
+                }
+                continue;
+            }
+            if (tag == TAG_END) {
+                if (parents.isEmpty()) {
+                    return root;
+                }
+                current = parents.pop();
+                inChildren = true;
+                continue;
+            }
+            String key = readString(tag);
+            if (NodeField.CHILDREN.getJsonName().equals(key)) {
+                tag = readByte();
+                if (tag == TAG_NULL) {
+                    current.setChildren(null);
+                } else {
+                    expect(tag, TAG_ARRAY);
+                    current.setChildren(new ArrayList<>());
+                    inChildren = true;
+                }
+            } else {
+                readField(current, key);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readField(Node node, String key) throws IOException {
+        switch (key) {
+            case "id" -> node.setId(readNullableString());
+            case "name" -> node.setName(readNullableString());
+            case "type" -> node.setType(readNullableString());
+            case "visible" -> node.setVisible(cast(readValue(readByte(), true), Boolean.class, key));
+            case "absoluteBoundingBox" -> node.setAbsoluteBoundingBox(readBoundingBox());
+            case "fills" -> node.setFills(cast(readValue(readByte(), true), List.class, key));
+            case "strokes" -> node.setStrokes(cast(readValue(readByte(), true), List.class, key));
+            case "strokeWeight" -> node.setStrokeWeight(cast(readValue(readByte(), true), Double.class, key));
+            case "cornerRadius" -> node.setCornerRadius(cast(readValue(readByte(), true), Double.class, key));
+            case "effects" -> node.setEffects(cast(readValue(readByte(), true), List.class, key));
+            case "blendMode" -> node.setBlendMode(readNullableString());
+            case "opacity" -> node.setOpacity(cast(readValue(readByte(), true), Double.class, key));
+            case "constraints" -> node.setConstraints(cast(readValue(readByte(), true), Map.class, key));
+            case "styles" -> node.setStyles(cast(readValue(readByte(), true), Map.class, key));
+            default -> readValue(readByte(), false);
+        }
+    }
+
+    private BoundingBox readBoundingBox() throws IOException {
+        int tag = readByte();
+        if (tag == TAG_NULL) {
+            return null;
+        }
+        expect(tag, TAG_MAP);
+        BoundingBox box = new BoundingBox();
+        while ((tag = readByte()) != TAG_END) {
+            String key = readString(tag);
+            Double value = cast(readValue(readByte(), true), Double.class, key);
+            switch (key) {
+                case "x" -> box.setX(value);
+                case "y" -> box.setY(value);
+                case "width" -> box.setWidth(value);
+                case "height" -> box.setHeight(value);
+                default -> {
+                    // Unknown geometry is ignored
+                }
+            }
+        }
+        return box;
+    }
+
+    private String readNullableString() throws IOException {
+        int tag = readByte();
+        return tag == TAG_NULL ? null : readString(tag);
+    }
+
+    private Object readValue(int tag, boolean numbersAsDouble) throws IOException {
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_INT: {
+                long raw = readVarlong();
+                long value = Varints.unZigZag(raw);
+                return numbersAsDouble ? (Object) (double) value : (Object) value;
+            }
+            case TAG_FLOAT:
+                return (double) Float.intBitsToFloat(readInt());
+            case TAG_DOUBLE: {
+                long high = readInt() & 0xFFFFFFFFL;
+                return Double.longBitsToDouble(high << 32 | (readInt() & 0xFFFFFFFFL));
+            }
+            case TAG_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                while ((tag = readByte()) != TAG_END) {
+                    list.add(readValue(tag, numbersAsDouble));
+                }
+                return list;
+            }
+            case TAG_MAP: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                while ((tag = readByte()) != TAG_END) {
+                    String key = readString(tag);
+                    map.put(key, readValue(readByte(), numbersAsDouble));
+                }
+                return map;
+            }
+            default:
+                return readString(tag);
+        }
+    }
+
+    private String readString(int tag) throws IOException {
+        switch (tag) {
+            case TAG_STRING:
+                return readUtf8(readLength());
+            case TAG_STRING_DEF: {
+                if (strings.size() >= MAX_STRING_TABLE_SIZE) {
+                    throw new IOException("String table overflow");
+                }
+                String value = readUtf8(readLength());
+                strings.add(value);
+                return value;
+            }
+            case TAG_STRING_REF: {
+                long index = readVarlong();
+                if (index >= strings.size()) {
+                    throw new IOException("Invalid string reference: " + index);
+                }
+                return strings.get((int) index);
+            }
+            default:
+                throw new IOException("Unexpected value tag: " + tag);
+        }
+    }
+
+    private String readUtf8(int length) throws IOException {
+        if (length <= limit - position) {
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        int copied = limit - position;
+        System.arraycopy(buffer, position, bytes, 0, copied);
+        position = limit;
+        while (copied < length) {
+            int read = in.read(bytes, copied, length - copied);
+            if (read < 0) {
+                throw new EOFException("Truncated binary export");
+            }
+            copied += read;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readLength() throws IOException {
+        long length = readVarlong();
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        return (int) length;
+    }
+
+    private static void expect(int tag, int expected) throws IOException {
+        if (tag != expected) {
+            throw new IOException("Unexpected value tag: " + tag + ", expected " + expected);
+        }
+    }
+
+    private static <T> T cast(Object value, Class<T> type, String key) throws IOException {
+        if (value != null && !type.isInstance(value)) {
+            throw new IOException("Unexpected value for " + key + ": " + value.getClass().getSimpleName());
+        }
+        return type.cast(value);
+    }
+
+    private long readVarlong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int readInt() throws IOException {
+        return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                throw new EOFException("Truncated binary export");
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+}
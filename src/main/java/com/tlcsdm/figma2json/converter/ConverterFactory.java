@@ -14,6 +14,9 @@ public class ConverterFactory {
     static {
         // Register default converters
         registerConverter(new JsonConverter());
+        registerConverter(new BinaryConverter());
+        registerConverter(new NdjsonConverter());
+        registerConverter(new ReferenceJsonConverter());
     }
 
     /**
@@ -2,11 +2,28 @@ package com.tlcsdm.figma2json.converter;
 
 import com.tlcsdm.figma2json.api.Node;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Interface for converting Figma nodes to different output formats.
+ * <p>
+ * Implementations write their output to a {@link Writer}, so large exports
+ * can be streamed to disk without building the whole document in memory.
  */
 public interface FigmaConverter {
 
+    /**
+     * Buffer size used when converting to an output stream.
+     */
+    int STREAM_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Gets the format identifier.
      *
@@ -14,13 +31,114 @@ public interface FigmaConverter {
      */
     String getFormat();
 
+    /**
+     * Converts a Figma node to the target format and writes it to a writer.
+     * The writer is flushed but not closed.
+     *
+     * @param node   the Figma node to convert
+     * @param writer the writer to write the converted content to
+     * @throws IOException if writing fails
+     */
+    void convert(Node node, Writer writer) throws IOException;
+
+    /**
+     * Converts a Figma node to the target format and writes it to an output
+     * stream as UTF-8. The stream is flushed but not closed.
+     *
+     * @param node the Figma node to convert
+     * @param out  the stream to write the converted content to
+     * @throws IOException if writing fails
+     */
+    default void convert(Node node, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+        convert(node, writer);
+        writer.flush();
+        out.flush();
+    }
+
     /**
      * Converts a Figma node to the target format.
+     * Prefer the streaming variants for large nodes.
      *
      * @param node the Figma node to convert
      * @return the converted content as a string
      */
-    String convert(Node node);
+    default String convert(Node node) {
+        StringWriter writer = new StringWriter();
+        try {
+            convert(node, writer);
+        } catch (IOException e) {
+            // A StringWriter never fails
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Creates a sink that converts the nodes of a {@link NodeTraversal} and writes
+     * them to a writer, so several converters can share one walk of a tree. The
+     * writer is flushed but not closed.
+     * <p>
+     * The default sink only receives the root and converts it with
+     * {@link #convert(Node, Writer)}, which walks the tree again. Streaming
+     * converters override this to write while the shared walk runs.
+     *
+     * @param writer the writer to write the converted content to
+     * @return the sink
+     * @throws IOException if the sink cannot be created
+     */
+    default NodeSink newSink(Writer writer) throws IOException {
+        return new NodeSink() {
+            @Override
+            public boolean beginNode(Node node) {
+                return false;
+            }
+
+            @Override
+            public void endNode(Node node, boolean childrenVisited) throws IOException {
+                convert(node, writer);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    /**
+     * Creates a sink that converts the nodes of a {@link NodeTraversal} and
+     * writes them to an output stream, in the same encoding as
+     * {@link #convert(Node, OutputStream)}. The stream is flushed but not closed.
+     * <p>
+     * The default sink writes UTF-8 through {@link #newSink(Writer)}.
+     *
+     * @param out the stream to write the converted content to
+     * @return the sink
+     * @throws IOException if the sink cannot be created
+     */
+    default NodeSink newSink(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+        NodeSink sink = newSink(writer);
+        return new NodeSink() {
+            @Override
+            public boolean beginNode(Node node) throws IOException {
+                return sink.beginNode(node);
+            }
+
+            @Override
+            public void endNode(Node node, boolean childrenVisited) throws IOException {
+                sink.endNode(node, childrenVisited);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                sink.finish();
+                writer.flush();
+                out.flush();
+            }
+        };
+    }
 
     /**
      * Converts raw JSON data to the target format.
@@ -30,6 +148,17 @@ public interface FigmaConverter {
      */
     String convertRawJson(String rawJson);
 
+    /**
+     * Identifies the output this converter writes. Converters with the same key
+     * write the same content for the same node, so the key can be stored next
+     * to exported files to tell whether they are still up to date.
+     *
+     * @return the output key, by default the implementation class and format
+     */
+    default String getOutputKey() {
+        return getClass().getName() + ":" + getFormat();
+    }
+
     /**
      * Gets the file extension for the output format.
      *
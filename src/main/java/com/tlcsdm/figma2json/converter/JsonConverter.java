@@ -1,23 +1,102 @@
 package com.tlcsdm.figma2json.converter;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import com.tlcsdm.figma2json.api.Node;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+
 /**
- * Converter for exporting Figma data as formatted JSON.
+ * Converter for exporting Figma data as JSON.
+ * <p>
+ * Output is pretty-printed with nulls by default; use {@link #withProfile(OutputProfile)}
+ * for minified output, rounded geometry or a subset of the node fields, and
+ * {@link #withParallelism(ForkJoinPool)} to serialize large trees on several threads.
  */
 public class JsonConverter implements FigmaConverter {
 
-    private final Gson gson;
+    private final OutputProfile profile;
+    private final NodeJsonWriter nodeWriter;
+    private final JsonTokenPipe rawPipe;
+    private final ParallelNodeJsonWriter parallelWriter;
 
     public JsonConverter() {
-        this.gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .serializeNulls()
-                .create();
+        this(OutputProfile.DEFAULT);
+    }
+
+    /**
+     * Creates a converter that writes nodes according to the given profile.
+     *
+     * @param profile the output profile
+     */
+    public JsonConverter(OutputProfile profile) {
+        this(profile, null, ParallelNodeJsonWriter.DEFAULT_THRESHOLD);
+    }
+
+    private JsonConverter(OutputProfile profile, ForkJoinPool pool, int parallelThreshold) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Output profile must not be null");
+        }
+        this.profile = profile;
+        this.nodeWriter = new NodeJsonWriter(profile);
+        this.rawPipe = new JsonTokenPipe(profile);
+        this.parallelWriter = pool != null
+                ? new ParallelNodeJsonWriter(profile, nodeWriter, pool, parallelThreshold) : null;
+    }
+
+    /**
+     * Creates a converter with the same format that writes according to another profile.
+     *
+     * @param profile the output profile
+     * @return a converter using the profile
+     */
+    public JsonConverter withProfile(OutputProfile profile) {
+        if (profile.equals(this.profile)) {
+            return this;
+        }
+        return parallelWriter != null
+                ? new JsonConverter(profile, parallelWriter.getPool(), parallelWriter.getThreshold())
+                : new JsonConverter(profile);
+    }
+
+    /**
+     * Creates a converter with the same profile that serializes large node trees
+     * in parallel on the given pool. The output is identical to the sequential
+     * output; trees too small to split are written sequentially.
+     *
+     * @param pool the pool to serialize subtrees on, or null for sequential output
+     * @return a converter using the pool
+     */
+    public JsonConverter withParallelism(ForkJoinPool pool) {
+        return withParallelism(pool, ParallelNodeJsonWriter.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a converter that serializes subtrees of at least the given number of nodes in parallel.
+     *
+     * @param pool      the pool to serialize subtrees on, or null for sequential output
+     * @param threshold the minimum node count of a subtree serialized as a separate task
+     * @return a converter using the pool
+     */
+    JsonConverter withParallelism(ForkJoinPool pool, int threshold) {
+        if (pool == null) {
+            return parallelWriter == null ? this : new JsonConverter(profile);
+        }
+        if (parallelWriter != null && parallelWriter.getPool() == pool && parallelWriter.getThreshold() == threshold) {
+            return this;
+        }
+        return new JsonConverter(profile, pool, threshold);
+    }
+
+    /**
+     * Gets the output profile of this converter.
+     *
+     * @return the output profile
+     */
+    public OutputProfile getProfile() {
+        return profile;
     }
 
     @Override
@@ -26,15 +105,55 @@ public class JsonConverter implements FigmaConverter {
     }
 
     @Override
-    public String convert(Node node) {
-        return gson.toJson(node);
+    public void convert(Node node, Writer writer) throws IOException {
+        // Not closed, the caller owns the writer
+        JsonWriter jsonWriter = nodeWriter.newJsonWriter(writer);
+        if (parallelWriter != null) {
+            parallelWriter.write(node, jsonWriter);
+        } else {
+            nodeWriter.write(node, jsonWriter);
+        }
+        jsonWriter.flush();
+    }
+
+    /**
+     * Creates a sink that writes the nodes of a shared traversal as JSON while it runs.
+     * The output is identical to {@link #convert(Node, Writer)}; subtrees are not
+     * serialized in parallel.
+     */
+    @Override
+    public NodeSink newSink(Writer writer) throws IOException {
+        return nodeWriter.newSink(writer);
     }
 
+    /**
+     * Re-formats raw JSON according to the output profile. Field projection and
+     * geometry rounding only apply to nodes, raw JSON keeps all its values.
+     * The JSON is streamed token by token, no tree is built.
+     */
     @Override
     public String convertRawJson(String rawJson) {
-        // Parse and re-format with pretty printing
-        JsonElement element = JsonParser.parseString(rawJson);
-        return gson.toJson(element);
+        return rawPipe.reformat(rawJson);
+    }
+
+    /**
+     * Re-formats raw JSON from a reader to a writer according to the output profile,
+     * in memory proportional to the nesting depth. Neither stream is closed.
+     *
+     * @param reader the raw JSON
+     * @param writer the target
+     * @throws IOException if reading or writing fails, or the input is not valid JSON
+     */
+    public void convertRawJson(Reader reader, Writer writer) throws IOException {
+        rawPipe.pipe(reader, writer);
+    }
+
+    /**
+     * Includes the output profile; parallel serialization does not change the output.
+     */
+    @Override
+    public String getOutputKey() {
+        return FigmaConverter.super.getOutputKey() + ":" + profile;
     }
 
     @Override
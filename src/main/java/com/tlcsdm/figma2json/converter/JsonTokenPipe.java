@@ -0,0 +1,169 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.function.Predicate;
+
+/**
+ * Copies raw JSON token by token from a {@link JsonReader} to a {@link JsonWriter}.
+ * <p>
+ * No tree is built, so re-indenting, minifying or filtering a payload takes
+ * memory proportional to its nesting depth rather than its size. The output
+ * follows an {@link OutputProfile}: pretty or minified, with or without null
+ * members. Numbers are copied as their original literals and strings are
+ * escaped like Gson does, so the result is identical to parsing the payload
+ * with {@link com.google.gson.JsonParser} and writing the tree with the same
+ * Gson configuration. Unlike a tree, duplicate member names are kept as they are.
+ */
+public final class JsonTokenPipe {
+
+    private final OutputProfile profile;
+    private final Predicate<String> memberFilter;
+
+    /**
+     * Creates a pipe that writes according to the given profile and keeps all members.
+     *
+     * @param profile the output profile; field projection and geometry rounding do not apply
+     */
+    public JsonTokenPipe(OutputProfile profile) {
+        this(profile, name -> true);
+    }
+
+    private JsonTokenPipe(OutputProfile profile, Predicate<String> memberFilter) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Output profile must not be null");
+        }
+        this.profile = profile;
+        this.memberFilter = memberFilter;
+    }
+
+    /**
+     * Creates a pipe that additionally drops object members, at any depth,
+     * whose name is rejected by the filter. Dropped values are skipped without being read into memory.
+     *
+     * @param filter the filter, returning true for member names to keep
+     * @return a new pipe
+     */
+    public JsonTokenPipe filtering(Predicate<String> filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Member filter must not be null");
+        }
+        return new JsonTokenPipe(profile, memberFilter.and(filter));
+    }
+
+    /**
+     * Gets the output profile of this pipe.
+     *
+     * @return the output profile
+     */
+    public OutputProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Reformats a JSON document held in a string.
+     *
+     * @param json the JSON document
+     * @return the reformatted document
+     * @throws JsonSyntaxException if the input is not valid JSON
+     */
+    public String reformat(String json) {
+        StringWriter writer = new StringWriter(json.length());
+        try {
+            pipe(new StringReader(json), writer);
+        } catch (MalformedJsonException | EOFException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            // String readers and writers do not fail otherwise
+            throw new JsonIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Reformats one JSON document from a reader to a writer. Neither stream is
+     * closed and the writer is flushed.
+     *
+     * @param reader the source
+     * @param writer the target
+     * @throws IOException if reading or writing fails, or the input is not valid JSON
+     */
+    public void pipe(Reader reader, Writer writer) throws IOException {
+        JsonReader in = new JsonReader(reader);
+        // Same leniency as JsonParser, so every payload it accepts is accepted here
+        in.setStrictness(Strictness.LENIENT);
+        // Deeply nested groups are valid, the copy below does not recurse
+        in.setNestingLimit(Integer.MAX_VALUE);
+        JsonWriter out = profile.gson().newJsonWriter(writer);
+        copy(in, out);
+        if (in.peek() != JsonToken.END_DOCUMENT) {
+            throw new MalformedJsonException("Did not consume the entire document");
+        }
+        out.flush();
+    }
+
+    /**
+     * Copies the next value, with everything nested in it, from a reader to a writer.
+     *
+     * @param in  the JSON reader, positioned before a value
+     * @param out the JSON writer
+     * @throws IOException if reading or writing fails, or the input is not valid JSON
+     */
+    public void copy(JsonReader in, JsonWriter out) throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = in.peek();
+            switch (token) {
+                case BEGIN_ARRAY -> {
+                    in.beginArray();
+                    out.beginArray();
+                    depth++;
+                }
+                case END_ARRAY -> {
+                    in.endArray();
+                    out.endArray();
+                    depth--;
+                }
+                case BEGIN_OBJECT -> {
+                    in.beginObject();
+                    out.beginObject();
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    in.endObject();
+                    out.endObject();
+                    depth--;
+                }
+                case NAME -> {
+                    String name = in.nextName();
+                    if (memberFilter.test(name)) {
+                        out.name(name);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                case STRING -> out.value(in.nextString());
+                // The literal is kept, so no precision is lost to a double round trip
+                case NUMBER -> out.jsonValue(in.nextString());
+                case BOOLEAN -> out.value(in.nextBoolean());
+                case NULL -> {
+                    in.nextNull();
+                    out.nullValue();
+                }
+                case END_DOCUMENT -> throw new EOFException("End of input");
+            }
+        } while (depth > 0);
+    }
+}
@@ -0,0 +1,206 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonWriter;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converter for exporting Figma nodes as newline-delimited JSON, one flat record per node.
+ * <p>
+ * Every node of the tree becomes a single line with its id, the id of its
+ * parent, its depth, the path of names from the root, and its name, type,
+ * bounding box and style references. Records are written in depth-first order
+ * while the tree is walked, so the output can be piped, split at any line break
+ * and ingested in parallel without parsing a whole document. For example:
+ * <pre>
+ * {"id":"1:2","depth":0,"path":["Home"],"name":"Home","type":"FRAME","bbox":{...}}
+ * {"id":"1:3","parentId":"1:2","depth":1,"path":["Home","Title"],"name":"Title","type":"TEXT","styles":{"text":"S:1"}}
+ * </pre>
+ * The output profile selects the name, type, bounding box and style fields and
+ * the geometry precision; records never contain nulls or line breaks.
+ */
+public class NdjsonConverter implements FigmaConverter {
+
+    private static final Gson GSON = new Gson();
+
+    private final OutputProfile profile;
+    private final NodeJsonWriter nodeWriter;
+
+    public NdjsonConverter() {
+        this(OutputProfile.DEFAULT);
+    }
+
+    /**
+     * Creates a converter that writes records according to the given profile.
+     *
+     * @param profile the output profile; pretty printing and nulls do not apply
+     */
+    public NdjsonConverter(OutputProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Output profile must not be null");
+        }
+        this.profile = profile;
+        this.nodeWriter = new NodeJsonWriter(profile);
+    }
+
+    /**
+     * Gets the output profile of this converter.
+     *
+     * @return the output profile
+     */
+    public OutputProfile getProfile() {
+        return profile;
+    }
+
+    @Override
+    public String getFormat() {
+        return "NDJSON";
+    }
+
+    @Override
+    public void convert(Node node, Writer writer) throws IOException {
+        NodeTraversal.traverse(node, List.of(newSink(writer)));
+    }
+
+    /**
+     * Creates a sink that writes a record for every node of a shared traversal.
+     */
+    @Override
+    public NodeSink newSink(Writer writer) throws IOException {
+        JsonWriter out = GSON.newJsonWriter(writer);
+        // Each record is a top-level value of its own
+        out.setStrictness(Strictness.LENIENT);
+        List<String> ids = new ArrayList<>();
+        List<String> path = new ArrayList<>();
+        return new NodeSink() {
+            @Override
+            public boolean beginNode(Node node) throws IOException {
+                if (node == null) {
+                    return false;
+                }
+                path.add(node.getName());
+                writeRecord(out, node, ids.isEmpty() ? null : ids.get(ids.size() - 1), path);
+                writer.write('\n');
+                ids.add(node.getId());
+                return profile.includes(NodeField.CHILDREN) && node.getChildren() != null;
+            }
+
+            @Override
+            public void endNode(Node node, boolean childrenVisited) {
+                if (node != null) {
+                    ids.remove(ids.size() - 1);
+                    path.remove(path.size() - 1);
+                }
+            }
+
+            @Override
+            public void finish() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    private void writeRecord(JsonWriter out, Node node, String parentId, List<String> path) throws IOException {
+        out.beginObject();
+        out.name("id").value(node.getId());
+        out.name("parentId").value(parentId);
+        out.name("depth").value(path.size() - 1);
+        out.name("path").beginArray();
+        for (String name : path) {
+            // Unnamed nodes keep their place in the path
+            out.value(name != null ? name : "");
+        }
+        out.endArray();
+        if (profile.includes(NodeField.NAME)) {
+            out.name("name").value(node.getName());
+        }
+        if (profile.includes(NodeField.TYPE)) {
+            out.name("type").value(node.getType());
+        }
+        BoundingBox box = node.getAbsoluteBoundingBox();
+        if (box != null && profile.includes(NodeField.ABSOLUTE_BOUNDING_BOX)) {
+            out.name("bbox").beginObject();
+            writeGeometry(out, "x", box.getX());
+            writeGeometry(out, "y", box.getY());
+            writeGeometry(out, "width", box.getWidth());
+            writeGeometry(out, "height", box.getHeight());
+            out.endObject();
+        }
+        Map<String, String> styles = node.getStyles();
+        if (styles != null && !styles.isEmpty() && profile.includes(NodeField.STYLES)) {
+            out.name("styles");
+            nodeWriter.writeValue(out, styles);
+        }
+        out.endObject();
+    }
+
+    private void writeGeometry(JsonWriter out, String name, Double value) throws IOException {
+        if (value != null) {
+            out.name(name);
+            nodeWriter.writeGeometry(out, value);
+        }
+    }
+
+    /**
+     * Flattens the nodes of a raw API response. A response with a {@code document}
+     * is flattened from its document, a response of the nodes endpoint from the
+     * document of every requested node in turn, and anything else is read as a node.
+     */
+    @Override
+    public String convertRawJson(String rawJson) {
+        JsonElement element = JsonParser.parseString(rawJson);
+        if (!element.isJsonObject()) {
+            throw new JsonSyntaxException("Expected a JSON object");
+        }
+        JsonObject object = element.getAsJsonObject();
+        List<JsonElement> roots = new ArrayList<>();
+        if (object.has("document")) {
+            roots.add(object.get("document"));
+        } else if (object.has("nodes") && object.get("nodes").isJsonObject()) {
+            for (JsonElement entry : object.getAsJsonObject("nodes").asMap().values()) {
+                if (entry.isJsonObject() && entry.getAsJsonObject().has("document")) {
+                    roots.add(entry.getAsJsonObject().get("document"));
+                }
+            }
+        } else {
+            roots.add(object);
+        }
+        StringWriter writer = new StringWriter();
+        try {
+            for (JsonElement root : roots) {
+                convert(GSON.fromJson(root, Node.class), writer);
+            }
+        } catch (IOException e) {
+            // A StringWriter never fails
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Includes the output profile.
+     */
+    @Override
+    public String getOutputKey() {
+        return FigmaConverter.super.getOutputKey() + ":" + profile;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "ndjson";
+    }
+}
@@ -0,0 +1,233 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes nodes in the {@link BinaryFormat} according to an {@link OutputProfile}.
+ * <p>
+ * Nodes are maps with the same keys, in the same order, as the JSON written by
+ * {@link NodeJsonWriter}; pretty printing does not apply. The writer is a
+ * {@link NodeSink}, so a tree is written while it is walked and never recursed.
+ */
+final class NodeBinaryWriter {
+
+    private final OutputProfile profile;
+
+    NodeBinaryWriter(OutputProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Creates a sink that writes a header and the nodes of a traversal.
+     *
+     * @param stream the target stream, not closed by the sink
+     * @return the sink
+     * @throws IOException if the header cannot be written
+     */
+    NodeSink newSink(OutputStream stream) throws IOException {
+        BinaryEncoder out = new BinaryEncoder(stream);
+        out.writeHeader();
+        return new NodeSink() {
+            @Override
+            public boolean beginNode(Node node) throws IOException {
+                if (node == null) {
+                    out.nullValue();
+                    return false;
+                }
+                return writeHead(node, out);
+            }
+
+            @Override
+            public void endNode(Node node, boolean childrenVisited) throws IOException {
+                if (node == null) {
+                    return;
+                }
+                if (childrenVisited) {
+                    out.end();
+                }
+                writeTail(node, out);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    private boolean writeHead(Node node, BinaryEncoder out) throws IOException {
+        out.beginMap();
+        writeString(out, NodeField.ID, node.getId());
+        writeString(out, NodeField.NAME, node.getName());
+        writeString(out, NodeField.TYPE, node.getType());
+        if (include(out, NodeField.VISIBLE, node.getVisible())) {
+            out.value(node.getVisible().booleanValue());
+        }
+        if (include(out, NodeField.CHILDREN, node.getChildren())) {
+            out.beginArray();
+            return true;
+        }
+        return false;
+    }
+
+    private void writeTail(Node node, BinaryEncoder out) throws IOException {
+        if (include(out, NodeField.ABSOLUTE_BOUNDING_BOX, node.getAbsoluteBoundingBox())) {
+            writeBoundingBox(out, node.getAbsoluteBoundingBox());
+        }
+        writeValue(out, NodeField.FILLS, node.getFills());
+        writeValue(out, NodeField.STROKES, node.getStrokes());
+        writeGeometry(out, NodeField.STROKE_WEIGHT, node.getStrokeWeight());
+        writeGeometry(out, NodeField.CORNER_RADIUS, node.getCornerRadius());
+        writeValue(out, NodeField.EFFECTS, node.getEffects());
+        writeString(out, NodeField.BLEND_MODE, node.getBlendMode());
+        if (include(out, NodeField.OPACITY, node.getOpacity())) {
+            out.value(node.getOpacity().doubleValue());
+        }
+        writeValue(out, NodeField.CONSTRAINTS, node.getConstraints());
+        writeValue(out, NodeField.STYLES, node.getStyles());
+        out.end();
+    }
+
+    /**
+     * Writes the key of an included field. Null values are written right
+     * away, or skipped entirely if nulls are not serialized.
+     *
+     * @return true if the caller has to write the non-null value
+     */
+    private boolean include(BinaryEncoder out, NodeField field, Object value) throws IOException {
+        if (!profile.includes(field)) {
+            return false;
+        }
+        if (value == null) {
+            if (profile.isSerializeNulls()) {
+                out.value(field.getJsonName());
+                out.nullValue();
+            }
+            return false;
+        }
+        out.value(field.getJsonName());
+        return true;
+    }
+
+    private void writeString(BinaryEncoder out, NodeField field, String value) throws IOException {
+        if (include(out, field, value)) {
+            out.value(value);
+        }
+    }
+
+    private void writeGeometry(BinaryEncoder out, NodeField field, Double value) throws IOException {
+        if (include(out, field, value)) {
+            out.value(profile.roundGeometry(value));
+        }
+    }
+
+    private void writeValue(BinaryEncoder out, NodeField field, Object value) throws IOException {
+        if (include(out, field, value)) {
+            writeValue(out, value);
+        }
+    }
+
+    private void writeBoundingBox(BinaryEncoder out, BoundingBox box) throws IOException {
+        out.beginMap();
+        writeGeometryProperty(out, "x", box.getX());
+        writeGeometryProperty(out, "y", box.getY());
+        writeGeometryProperty(out, "width", box.getWidth());
+        writeGeometryProperty(out, "height", box.getHeight());
+        out.end();
+    }
+
+    private void writeGeometryProperty(BinaryEncoder out, String name, Double value) throws IOException {
+        if (value == null) {
+            if (profile.isSerializeNulls()) {
+                out.value(name);
+                out.nullValue();
+            }
+            return;
+        }
+        out.value(name);
+        out.value(profile.roundGeometry(value));
+    }
+
+    /**
+     * Writes a free-form property value. Values other than the ones Gson parses
+     * into are converted to a JSON tree first.
+     */
+    private void writeValue(BinaryEncoder out, Object value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else if (value instanceof String string) {
+            out.value(string);
+        } else if (value instanceof Boolean bool) {
+            out.value(bool.booleanValue());
+        } else if (value instanceof Number number) {
+            writeNumber(out, number);
+        } else if (value instanceof Map<?, ?> map) {
+            out.beginMap();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                out.value(String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+            out.end();
+        } else if (value instanceof Collection<?> collection) {
+            out.beginArray();
+            for (Object element : collection) {
+                writeValue(out, element);
+            }
+            out.end();
+        } else {
+            writeElement(out, profile.gson().toJsonTree(value));
+        }
+    }
+
+    private void writeElement(BinaryEncoder out, JsonElement element) throws IOException {
+        if (element.isJsonNull()) {
+            out.nullValue();
+        } else if (element instanceof JsonPrimitive primitive) {
+            if (primitive.isBoolean()) {
+                out.value(primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                writeNumber(out, primitive.getAsNumber());
+            } else {
+                out.value(primitive.getAsString());
+            }
+        } else if (element instanceof JsonArray array) {
+            out.beginArray();
+            for (JsonElement child : array) {
+                writeElement(out, child);
+            }
+            out.end();
+        } else {
+            out.beginMap();
+            for (Map.Entry<String, JsonElement> entry : ((JsonObject) element).entrySet()) {
+                if (!entry.getValue().isJsonNull() || profile.isSerializeNulls()) {
+                    out.value(entry.getKey());
+                    writeElement(out, entry.getValue());
+                }
+            }
+            out.end();
+        }
+    }
+
+    static void writeNumber(BinaryEncoder out, Number number) throws IOException {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte) {
+            out.value(number.longValue());
+        } else if (number instanceof BigInteger big && big.bitLength() < Long.SIZE) {
+            out.value(big.longValue());
+        } else {
+            // Doubles, floats, lazily parsed and big numbers
+            out.value(number.doubleValue());
+        }
+    }
+}
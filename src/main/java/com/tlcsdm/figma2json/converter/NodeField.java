@@ -0,0 +1,37 @@
+package com.tlcsdm.figma2json.converter;
+
+/**
+ * Serializable fields of a {@link com.tlcsdm.figma2json.api.Node}, in output order.
+ */
+public enum NodeField {
+    ID("id"),
+    NAME("name"),
+    TYPE("type"),
+    VISIBLE("visible"),
+    CHILDREN("children"),
+    ABSOLUTE_BOUNDING_BOX("absoluteBoundingBox"),
+    FILLS("fills"),
+    STROKES("strokes"),
+    STROKE_WEIGHT("strokeWeight"),
+    CORNER_RADIUS("cornerRadius"),
+    EFFECTS("effects"),
+    BLEND_MODE("blendMode"),
+    OPACITY("opacity"),
+    CONSTRAINTS("constraints"),
+    STYLES("styles");
+
+    private final String jsonName;
+
+    NodeField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * Gets the property name used in JSON output.
+     *
+     * @return the JSON property name
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+}
@@ -0,0 +1,285 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes content hashes of a node and its subtree.
+ * <p>
+ * Hashes are SHA-256 digests of a canonical encoding of the node: fields in
+ * a fixed order, map keys sorted, integers by value and other numbers by their
+ * exact bits. Two nodes with the same content have the same hash regardless of
+ * the key order the API used, which makes the hash usable to tell whether an
+ * exported file is up to date.
+ * <p>
+ * The hashes form a Merkle tree: the hash of a node covers its own fields and
+ * the hashes of its children, so equal hashes mean equal subtrees and
+ * {@link #hashSubtrees(Node)} gets the hash of every node in a single pass.
+ * {@link #hashStructures(Node)} hashes the same way, except that ids and the
+ * place of a subtree do not count, so it finds repeated subtrees.
+ */
+public final class NodeHasher {
+
+    // Value tags of the canonical encoding
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DECIMAL = 4;
+    private static final byte STRING = 5;
+    private static final byte LIST = 6;
+    private static final byte MAP = 7;
+    private static final byte NODE = 8;
+    private static final byte END = 9;
+    private static final byte RELATIVE = 10;
+
+    private NodeHasher() {
+    }
+
+    /**
+     * Hashes a node with its subtree.
+     *
+     * @param node the node, may be null
+     * @return the hash as 64 lowercase hex digits
+     */
+    public static String hash(Node node) {
+        return HexFormat.of().formatHex(digest(node, null, false));
+    }
+
+    /**
+     * Hashes a node and every node of its subtree. The hash of the root is the
+     * one {@link #hash(Node)} returns.
+     *
+     * @param root the root node, may be null
+     * @return the hashes as 64 lowercase hex digits, keyed by node identity
+     */
+    public static Map<Node, String> hashSubtrees(Node root) {
+        Map<Node, String> hashes = new IdentityHashMap<>();
+        digest(root, hashes, false);
+        return hashes;
+    }
+
+    /**
+     * Hashes the structure of a node and every node of its subtree, ignoring
+     * node ids and where a subtree is placed. Coordinates within a subtree are
+     * hashed relative to the parent of each node, so two subtrees have the same
+     * structure hash if they are equal apart from their ids and a common offset.
+     * A coordinate is hashed as it is where the parent has none to be relative to.
+     *
+     * @param root the root node, may be null
+     * @return the hashes as 64 lowercase hex digits, keyed by node identity
+     */
+    public static Map<Node, String> hashStructures(Node root) {
+        Map<Node, String> hashes = new IdentityHashMap<>();
+        digest(root, hashes, true);
+        return hashes;
+    }
+
+    private static byte[] digest(Node root, Map<Node, String> hashes, boolean structural) {
+        Digest digest = new Digest(hashes, structural);
+        try {
+            NodeTraversal.traverse(root, List.of(digest));
+        } catch (IOException e) {
+            // The digest does no I/O
+            throw new UncheckedIOException(e);
+        }
+        return digest.root;
+    }
+
+    /**
+     * Hashes the traversed nodes bottom-up. Every node being walked has a digest
+     * of its own, which receives the hashes of its children as they end.
+     */
+    private static final class Digest implements NodeSink {
+        private final Map<Node, String> hashes;
+        private final boolean structural;
+        private final Deque<MessageDigest> open = new ArrayDeque<>();
+        private final Deque<Node> nodes = new ArrayDeque<>();
+        private final Deque<MessageDigest> pool = new ArrayDeque<>();
+        private final byte[] scratch = new byte[Long.BYTES];
+        private MessageDigest sha256;
+        private byte[] root;
+
+        Digest(Map<Node, String> hashes, boolean structural) {
+            this.hashes = hashes;
+            this.structural = structural;
+        }
+
+        @Override
+        public boolean beginNode(Node node) {
+            if (node == null) {
+                return false;
+            }
+            sha256 = pool.isEmpty() ? newDigest() : pool.pop();
+            open.push(sha256);
+            nodes.push(node);
+            sha256.update(NODE);
+            value(structural ? null : node.getId());
+            value(node.getName());
+            value(node.getType());
+            value(node.getVisible());
+            BoundingBox box = node.getAbsoluteBoundingBox();
+            if (box == null) {
+                sha256.update(NULL);
+            } else {
+                sha256.update(LIST);
+                if (structural) {
+                    // The parent hashes the place; only whether there is one counts here
+                    value(box.getX() != null);
+                    value(box.getY() != null);
+                } else {
+                    value(box.getX());
+                    value(box.getY());
+                }
+                value(box.getWidth());
+                value(box.getHeight());
+                sha256.update(END);
+            }
+            value(node.getFills());
+            value(node.getStrokes());
+            value(node.getStrokeWeight());
+            value(node.getCornerRadius());
+            value(node.getEffects());
+            value(node.getBlendMode());
+            value(node.getOpacity());
+            value(node.getConstraints());
+            value(node.getStyles());
+            if (node.getChildren() == null) {
+                sha256.update(NULL);
+                return false;
+            }
+            sha256.update(LIST);
+            return true;
+        }
+
+        @Override
+        public void endNode(Node node, boolean childrenVisited) {
+            if (node == null) {
+                if (open.isEmpty()) {
+                    root = newDigest().digest(new byte[]{NULL});
+                } else {
+                    open.peek().update(NULL);
+                }
+                return;
+            }
+            MessageDigest digest = open.pop();
+            nodes.pop();
+            if (childrenVisited) {
+                digest.update(END);
+            }
+            digest.update(END);
+            byte[] hash = digest.digest();
+            pool.push(digest);
+            if (hashes != null) {
+                hashes.put(node, HexFormat.of().formatHex(hash));
+            }
+            if (open.isEmpty()) {
+                root = hash;
+            } else {
+                sha256 = open.peek();
+                sha256.update(hash);
+                if (structural) {
+                    place(nodes.peek(), node);
+                }
+            }
+        }
+
+        @Override
+        public void finish() {
+            // The caller takes the root hash
+        }
+
+        private static MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform provides SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+        /**
+         * Hashes the place of a child, relative to its parent where both have coordinates.
+         */
+        private void place(Node parent, Node child) {
+            BoundingBox parentBox = parent.getAbsoluteBoundingBox();
+            BoundingBox box = child.getAbsoluteBoundingBox();
+            if (box == null) {
+                return;
+            }
+            coordinate(parentBox != null ? parentBox.getX() : null, box.getX());
+            coordinate(parentBox != null ? parentBox.getY() : null, box.getY());
+        }
+
+        private void coordinate(Double parent, Double child) {
+            if (parent != null && child != null) {
+                sha256.update(RELATIVE);
+                number(Double.doubleToLongBits(child - parent));
+            } else {
+                value(child);
+            }
+        }
+
+        private void value(Object value) {
+            if (value == null) {
+                sha256.update(NULL);
+            } else if (value instanceof Boolean bool) {
+                sha256.update(bool ? TRUE : FALSE);
+            } else if (value instanceof String string) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                sha256.update(STRING);
+                number(bytes.length);
+                sha256.update(bytes);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                    || value instanceof Byte) {
+                sha256.update(INTEGER);
+                number(((Number) value).longValue());
+            } else if (value instanceof Number number) {
+                // Integral doubles are written with a fraction, so they do not hash like integers
+                sha256.update(DECIMAL);
+                number(Double.doubleToLongBits(number.doubleValue()));
+            } else if (value instanceof Map<?, ?> map) {
+                // Sorted, so the key order of the source does not matter
+                List<String> keys = new ArrayList<>(map.size());
+                for (Object key : map.keySet()) {
+                    keys.add(String.valueOf(key));
+                }
+                keys.sort(null);
+                sha256.update(MAP);
+                for (String key : keys) {
+                    value(key);
+                    value(map.get(key));
+                }
+                sha256.update(END);
+            } else if (value instanceof Collection<?> collection) {
+                sha256.update(LIST);
+                for (Object element : collection) {
+                    value(element);
+                }
+                sha256.update(END);
+            } else {
+                value(value.toString());
+            }
+        }
+
+        private void number(long value) {
+            for (int i = 0; i < Long.BYTES; i++) {
+                scratch[i] = (byte) (value >>> (56 - 8 * i));
+            }
+            sha256.update(scratch);
+        }
+    }
+}
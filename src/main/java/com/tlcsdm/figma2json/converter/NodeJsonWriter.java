@@ -0,0 +1,302 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.stream.JsonWriter;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes nodes as JSON according to an {@link OutputProfile}.
+ * <p>
+ * Fields are written by hand in the declaration order of {@link Node}, so
+ * excluded fields and subtrees are never visited. With the default profile
+ * the output is byte-for-byte what Gson produces for the same node.
+ */
+final class NodeJsonWriter {
+
+    private final OutputProfile profile;
+
+    NodeJsonWriter(OutputProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Creates a JSON writer configured for the profile. The writer is not closed by this class.
+     *
+     * @param writer the target writer
+     * @return the JSON writer
+     * @throws IOException if the writer cannot be created
+     */
+    JsonWriter newJsonWriter(Writer writer) throws IOException {
+        return profile.gson().newJsonWriter(writer);
+    }
+
+    /**
+     * Writes a node with its subtree.
+     *
+     * @param node the node, may be null
+     * @param out  the JSON writer
+     * @throws IOException if writing fails
+     */
+    void write(Node node, JsonWriter out) throws IOException {
+        write(node, out, child -> null);
+    }
+
+    /**
+     * Writes a node with its subtree, taking the JSON of some descendants from
+     * elsewhere. Prepared JSON must have been written by this class for the
+     * indentation level at which it is inserted.
+     *
+     * @param node     the node, may be null
+     * @param out      the JSON writer
+     * @param prepared returns the JSON of a descendant, or null to write the descendant here
+     * @throws IOException if writing fails
+     */
+    void write(Node node, JsonWriter out, Function<Node, String> prepared) throws IOException {
+        if (node == null) {
+            out.nullValue();
+            return;
+        }
+        // An explicit stack, so the nesting depth is not limited by the thread stack
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(begin(node, out));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.children().hasNext()) {
+                Node child = frame.children().next();
+                String json = prepared.apply(child);
+                if (json != null) {
+                    out.jsonValue(json);
+                } else if (child == null) {
+                    out.nullValue();
+                } else {
+                    stack.push(begin(child, out));
+                }
+            } else {
+                stack.pop();
+                if (frame.opened()) {
+                    out.endArray();
+                }
+                writeTail(frame.node(), out);
+            }
+        }
+    }
+
+    private Frame begin(Node node, JsonWriter out) throws IOException {
+        boolean opened = writeHead(node, out);
+        Iterator<Node> children = opened ? node.getChildren().iterator() : Collections.emptyIterator();
+        return new Frame(node, opened, children);
+    }
+
+    /**
+     * Begins a node object and writes the fields up to its children. If the
+     * children are written, the children array is left open for the caller.
+     *
+     * @param node the node
+     * @param out  the JSON writer
+     * @return true if the children array was opened
+     * @throws IOException if writing fails
+     */
+    boolean writeHead(Node node, JsonWriter out) throws IOException {
+        out.beginObject();
+        writeString(out, NodeField.ID, node.getId());
+        writeString(out, NodeField.NAME, node.getName());
+        writeString(out, NodeField.TYPE, node.getType());
+        if (include(out, NodeField.VISIBLE, node.getVisible())) {
+            out.value(node.getVisible());
+        }
+        if (include(out, NodeField.CHILDREN, node.getChildren())) {
+            out.beginArray();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes the fields after the children and ends the node object. A children
+     * array opened by {@link #writeHead} must have been closed.
+     *
+     * @param node the node
+     * @param out  the JSON writer
+     * @throws IOException if writing fails
+     */
+    void writeTail(Node node, JsonWriter out) throws IOException {
+        if (include(out, NodeField.ABSOLUTE_BOUNDING_BOX, node.getAbsoluteBoundingBox())) {
+            writeBoundingBox(out, node.getAbsoluteBoundingBox());
+        }
+        writeValue(out, NodeField.FILLS, node.getFills());
+        writeValue(out, NodeField.STROKES, node.getStrokes());
+        writeGeometry(out, NodeField.STROKE_WEIGHT, node.getStrokeWeight());
+        writeGeometry(out, NodeField.CORNER_RADIUS, node.getCornerRadius());
+        writeValue(out, NodeField.EFFECTS, node.getEffects());
+        writeString(out, NodeField.BLEND_MODE, node.getBlendMode());
+        if (include(out, NodeField.OPACITY, node.getOpacity())) {
+            out.value(node.getOpacity().doubleValue());
+        }
+        writeValue(out, NodeField.CONSTRAINTS, node.getConstraints());
+        writeValue(out, NodeField.STYLES, node.getStyles());
+        out.endObject();
+    }
+
+    /**
+     * Creates a sink that writes the nodes of a traversal as JSON.
+     *
+     * @param writer the target writer, not closed by the sink
+     * @return the sink
+     * @throws IOException if the writer cannot be created
+     */
+    NodeSink newSink(Writer writer) throws IOException {
+        JsonWriter out = newJsonWriter(writer);
+        return new NodeSink() {
+            @Override
+            public boolean beginNode(Node node) throws IOException {
+                if (node == null) {
+                    out.nullValue();
+                    return false;
+                }
+                return writeHead(node, out);
+            }
+
+            @Override
+            public void endNode(Node node, boolean childrenVisited) throws IOException {
+                if (node == null) {
+                    return;
+                }
+                if (childrenVisited) {
+                    out.endArray();
+                }
+                writeTail(node, out);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    /**
+     * Writes the name of an included field. Null values are written right
+     * away, or skipped entirely if nulls are not serialized.
+     *
+     * @return true if the caller has to write the non-null value
+     */
+    private boolean include(JsonWriter out, NodeField field, Object value) throws IOException {
+        if (!profile.includes(field)) {
+            return false;
+        }
+        if (value == null) {
+            if (profile.isSerializeNulls()) {
+                out.name(field.getJsonName()).nullValue();
+            }
+            return false;
+        }
+        out.name(field.getJsonName());
+        return true;
+    }
+
+    private void writeString(JsonWriter out, NodeField field, String value) throws IOException {
+        if (include(out, field, value)) {
+            out.value(value);
+        }
+    }
+
+    private void writeGeometry(JsonWriter out, NodeField field, Double value) throws IOException {
+        if (include(out, field, value)) {
+            writeGeometry(out, value);
+        }
+    }
+
+    private void writeValue(JsonWriter out, NodeField field, Object value) throws IOException {
+        if (include(out, field, value)) {
+            writeValue(out, value);
+        }
+    }
+
+    private void writeBoundingBox(JsonWriter out, BoundingBox box) throws IOException {
+        out.beginObject();
+        writeGeometryProperty(out, "x", box.getX());
+        writeGeometryProperty(out, "y", box.getY());
+        writeGeometryProperty(out, "width", box.getWidth());
+        writeGeometryProperty(out, "height", box.getHeight());
+        out.endObject();
+    }
+
+    private void writeGeometryProperty(JsonWriter out, String name, Double value) throws IOException {
+        if (value == null) {
+            if (profile.isSerializeNulls()) {
+                out.name(name).nullValue();
+            }
+            return;
+        }
+        out.name(name);
+        writeGeometry(out, value);
+    }
+
+    /**
+     * Writes a geometry value rounded to the precision of the profile.
+     */
+    void writeGeometry(JsonWriter out, Double value) throws IOException {
+        if (profile.getGeometryPrecision() == OutputProfile.FULL_PRECISION) {
+            out.value(value.doubleValue());
+            return;
+        }
+        double rounded = profile.roundGeometry(value);
+        if (rounded == Math.rint(rounded) && Math.abs(rounded) < 1e15) {
+            out.value((long) rounded);
+        } else {
+            out.value(rounded);
+        }
+    }
+
+    /**
+     * Writes a free-form property value the way Gson writes the values it parsed.
+     */
+    void writeValue(JsonWriter out, Object value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else if (value instanceof String string) {
+            out.value(string);
+        } else if (value instanceof Boolean bool) {
+            out.value(bool);
+        } else if (value instanceof Double number) {
+            out.value(number.doubleValue());
+        } else if (value instanceof Number number) {
+            out.value(number);
+        } else if (value instanceof Map<?, ?> map) {
+            out.beginObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                out.name(String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+            out.endObject();
+        } else if (value instanceof Collection<?> collection) {
+            out.beginArray();
+            for (Object element : collection) {
+                writeValue(out, element);
+            }
+            out.endArray();
+        } else {
+            profile.gson().toJson(value, value.getClass(), out);
+        }
+    }
+
+    /**
+     * A node being written.
+     *
+     * @param node     the node
+     * @param opened   whether its children array was opened
+     * @param children the children not written yet
+     */
+    private record Frame(Node node, boolean opened, Iterator<Node> children) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+
+/**
+ * Receives the nodes of a {@link NodeTraversal} in document order.
+ * <p>
+ * Every node is reported by a call to {@link #beginNode(Node)}, followed by its
+ * children if the sink asked for them, followed by {@link #endNode(Node, boolean)}.
+ * A sink that does not ask for the children of a node never sees its subtree,
+ * and the traversal skips subtrees no sink asked for.
+ */
+public interface NodeSink {
+
+    /**
+     * Called when the traversal enters a node.
+     *
+     * @param node the node, may be null for null entries in a children list
+     * @return true to receive the children of the node
+     * @throws IOException if writing fails
+     */
+    boolean beginNode(Node node) throws IOException;
+
+    /**
+     * Called when the traversal leaves a node.
+     *
+     * @param node            the node, as passed to {@link #beginNode(Node)}
+     * @param childrenVisited the value returned by {@link #beginNode(Node)}
+     * @throws IOException if writing fails
+     */
+    void endNode(Node node, boolean childrenVisited) throws IOException;
+
+    /**
+     * Called once after the root node has ended. The sink flushes its output but does not close it.
+     *
+     * @throws IOException if writing fails
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,92 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Walks a node tree once and reports it to several {@link NodeSink}s.
+ * <p>
+ * Converters that stream their output, such as {@link JsonConverter}, provide
+ * sinks that write while the tree is walked, so several formats or profiles
+ * are produced in a single pass. The walk uses an explicit stack and the set
+ * of sinks interested in a subtree is tracked as a bit mask, so a subtree is
+ * only entered while at least one sink wants it.
+ */
+public final class NodeTraversal {
+
+    /**
+     * Maximum number of sinks of one traversal.
+     */
+    public static final int MAX_SINKS = Long.SIZE;
+
+    private NodeTraversal() {
+    }
+
+    /**
+     * Walks a node tree and reports it to all sinks, then finishes them.
+     *
+     * @param root  the root node
+     * @param sinks the sinks, at most {@link #MAX_SINKS}
+     * @throws IOException if a sink fails
+     */
+    public static void traverse(Node root, List<? extends NodeSink> sinks) throws IOException {
+        if (sinks.size() > MAX_SINKS) {
+            throw new IllegalArgumentException("Too many sinks: " + sinks.size());
+        }
+        if (sinks.isEmpty()) {
+            return;
+        }
+        long all = sinks.size() == MAX_SINKS ? -1L : (1L << sinks.size()) - 1;
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(begin(root, all, sinks));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.children.hasNext()) {
+                stack.push(begin(frame.children.next(), frame.wanting, sinks));
+            } else {
+                stack.pop();
+                end(frame, sinks);
+            }
+        }
+        for (NodeSink sink : sinks) {
+            sink.finish();
+        }
+    }
+
+    private static Frame begin(Node node, long receiving, List<? extends NodeSink> sinks) throws IOException {
+        long wanting = 0;
+        for (long mask = receiving; mask != 0; mask &= mask - 1) {
+            int index = Long.numberOfTrailingZeros(mask);
+            if (sinks.get(index).beginNode(node)) {
+                wanting |= 1L << index;
+            }
+        }
+        Iterator<Node> children = wanting != 0 && node != null && node.getChildren() != null
+                ? node.getChildren().iterator() : Collections.emptyIterator();
+        return new Frame(node, receiving, wanting, children);
+    }
+
+    private static void end(Frame frame, List<? extends NodeSink> sinks) throws IOException {
+        for (long mask = frame.receiving; mask != 0; mask &= mask - 1) {
+            int index = Long.numberOfTrailingZeros(mask);
+            sinks.get(index).endNode(frame.node, (frame.wanting & (1L << index)) != 0);
+        }
+    }
+
+    /**
+     * A node being walked.
+     *
+     * @param node      the node
+     * @param receiving the sinks that received the node
+     * @param wanting   the sinks that receive its children
+     * @param children  the children not visited yet
+     */
+    private record Frame(Node node, long receiving, long wanting, Iterator<Node> children) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gson type adapter that reads and writes node trees with an explicit stack.
+ * <p>
+ * Gson's reflective adapter recurses once per nesting level, so deeply nested
+ * groups can overflow the thread stack, and its readers reject documents
+ * nested deeper than their nesting limit. This adapter walks the children
+ * iteratively and lifts the nesting limit of the reader while it reads a
+ * tree. The JSON is the same as Gson's reflective adapter reads and writes,
+ * including the handling of nulls configured on the writer:
+ * <pre>
+ * Gson gson = new GsonBuilder()
+ *         .registerTypeAdapter(Node.class, new NodeTypeAdapter())
+ *         .create();
+ * </pre>
+ */
+public final class NodeTypeAdapter extends TypeAdapter<Node> {
+
+    private static final Gson GSON = new Gson();
+    private static final TypeAdapter<String> STRING = GSON.getAdapter(String.class);
+    private static final TypeAdapter<Boolean> BOOLEAN = GSON.getAdapter(Boolean.class);
+    private static final TypeAdapter<Double> DOUBLE = GSON.getAdapter(Double.class);
+    private static final TypeAdapter<BoundingBox> BOUNDING_BOX = GSON.getAdapter(BoundingBox.class);
+    private static final TypeAdapter<List<Object>> LIST = GSON.getAdapter(new TypeToken<>() {
+    });
+    private static final TypeAdapter<Map<String, Object>> OBJECT_MAP = GSON.getAdapter(new TypeToken<>() {
+    });
+    private static final TypeAdapter<Map<String, String>> STRING_MAP = GSON.getAdapter(new TypeToken<>() {
+    });
+
+    /**
+     * Writes like Gson: with nulls, leaving it to the JSON writer to drop them.
+     */
+    private final NodeJsonWriter nodeWriter = new NodeJsonWriter(OutputProfile.DEFAULT);
+
+    @Override
+    public void write(JsonWriter out, Node node) throws IOException {
+        nodeWriter.write(node, out);
+    }
+
+    @Override
+    public Node read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int nestingLimit = in.getNestingLimit();
+        in.setNestingLimit(Integer.MAX_VALUE);
+        try {
+            return readTree(in);
+        } finally {
+            in.setNestingLimit(nestingLimit);
+        }
+    }
+
+    private static Node readTree(JsonReader in) throws IOException {
+        Node root = new Node();
+        in.beginObject();
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            Node node = frame.node;
+            if (frame.inChildren) {
+                if (!in.hasNext()) {
+                    in.endArray();
+                    frame.inChildren = false;
+                } else if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    node.getChildren().add(null);
+                } else {
+                    Node child = new Node();
+                    in.beginObject();
+                    node.getChildren().add(child);
+                    stack.push(new Frame(child));
+                }
+            } else if (!in.hasNext()) {
+                in.endObject();
+                stack.pop();
+            } else {
+                String name = in.nextName();
+                if (name.equals(NodeField.CHILDREN.getJsonName()) && in.peek() != JsonToken.NULL) {
+                    in.beginArray();
+                    node.setChildren(new ArrayList<>());
+                    frame.inChildren = true;
+                } else {
+                    readField(node, name, in);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Reads a field other than a non-null children array. Unknown fields are skipped like Gson does.
+     */
+    private static void readField(Node node, String name, JsonReader in) throws IOException {
+        switch (name) {
+            case "id" -> node.setId(STRING.read(in));
+            case "name" -> node.setName(STRING.read(in));
+            case "type" -> node.setType(STRING.read(in));
+            case "visible" -> node.setVisible(BOOLEAN.read(in));
+            case "children" -> {
+                in.nextNull();
+                node.setChildren(null);
+            }
+            case "absoluteBoundingBox" -> node.setAbsoluteBoundingBox(BOUNDING_BOX.read(in));
+            case "fills" -> node.setFills(LIST.read(in));
+            case "strokes" -> node.setStrokes(LIST.read(in));
+            case "strokeWeight" -> node.setStrokeWeight(DOUBLE.read(in));
+            case "cornerRadius" -> node.setCornerRadius(DOUBLE.read(in));
+            case "effects" -> node.setEffects(LIST.read(in));
+            case "blendMode" -> node.setBlendMode(STRING.read(in));
+            case "opacity" -> node.setOpacity(DOUBLE.read(in));
+            case "constraints" -> node.setConstraints(OBJECT_MAP.read(in));
+            case "styles" -> node.setStyles(STRING_MAP.read(in));
+            default -> in.skipValue();
+        }
+    }
+
+    /**
+     * A node being read.
+     */
+    private static final class Frame {
+        private final Node node;
+        private boolean inChildren;
+
+        Frame(Node node) {
+            this.node = node;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Controls the shape of converter output: pretty or minified, whether null
+ * properties are written, how precisely geometry is written, and which node
+ * fields are included.
+ * <p>
+ * A profile is compiled once when it is built, so serializing with it only
+ * skips the excluded work instead of removing fields from a finished document.
+ * Profiles are immutable and can be shared between threads.
+ */
+public final class OutputProfile {
+
+    /**
+     * Pretty-printed output with nulls and full precision, identical to the classic JSON export.
+     */
+    public static final OutputProfile DEFAULT = builder().build();
+
+    /**
+     * Minified output without nulls and geometry rounded to two decimals.
+     */
+    public static final OutputProfile COMPACT = builder()
+            .prettyPrinting(false)
+            .serializeNulls(false)
+            .geometryPrecision(2)
+            .build();
+
+    /**
+     * Geometry precision that keeps values as they are.
+     */
+    public static final int FULL_PRECISION = -1;
+
+    private static final int MAX_PRECISION = 10;
+
+    private final boolean prettyPrinting;
+    private final boolean serializeNulls;
+    private final int geometryPrecision;
+    private final Set<NodeField> fields;
+    private final boolean[] included;
+    private final double geometryScale;
+    private final Gson gson;
+
+    private OutputProfile(Builder builder) {
+        this.prettyPrinting = builder.prettyPrinting;
+        this.serializeNulls = builder.serializeNulls;
+        this.geometryPrecision = builder.geometryPrecision;
+        this.fields = EnumSet.copyOf(builder.fields);
+        this.included = new boolean[NodeField.values().length];
+        for (NodeField field : fields) {
+            included[field.ordinal()] = true;
+        }
+        this.geometryScale = geometryPrecision >= 0 ? Math.pow(10, geometryPrecision) : 0;
+        GsonBuilder gsonBuilder = new GsonBuilder();
+        if (prettyPrinting) {
+            gsonBuilder.setPrettyPrinting();
+        }
+        if (serializeNulls) {
+            gsonBuilder.serializeNulls();
+        }
+        this.gson = gsonBuilder.create();
+    }
+
+    /**
+     * Creates a builder starting from the default profile.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a builder starting from this profile.
+     *
+     * @return a new builder with the settings of this profile
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .prettyPrinting(prettyPrinting)
+                .serializeNulls(serializeNulls)
+                .geometryPrecision(geometryPrecision)
+                .fields(fields);
+    }
+
+    public boolean isPrettyPrinting() {
+        return prettyPrinting;
+    }
+
+    public boolean isSerializeNulls() {
+        return serializeNulls;
+    }
+
+    /**
+     * Gets the number of decimals geometry is rounded to.
+     *
+     * @return the number of decimals, or {@link #FULL_PRECISION}
+     */
+    public int getGeometryPrecision() {
+        return geometryPrecision;
+    }
+
+    /**
+     * Gets the node fields included in the output.
+     *
+     * @return an unmodifiable set of fields
+     */
+    public Set<NodeField> getFields() {
+        return Set.copyOf(fields);
+    }
+
+    /**
+     * Checks whether a node field is included in the output.
+     *
+     * @param field the field
+     * @return true if the field is written
+     */
+    public boolean includes(NodeField field) {
+        return included[field.ordinal()];
+    }
+
+    /**
+     * Rounds a geometry value to the configured precision.
+     *
+     * @param value the value
+     * @return the rounded value, or the value itself at full precision
+     */
+    double roundGeometry(double value) {
+        if (geometryScale == 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+            return value;
+        }
+        return Math.round(value * geometryScale) / geometryScale;
+    }
+
+    /**
+     * Gets a Gson instance configured for this profile, for writers and values
+     * that are not handled field by field.
+     */
+    Gson gson() {
+        return gson;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutputProfile other)) {
+            return false;
+        }
+        return prettyPrinting == other.prettyPrinting && serializeNulls == other.serializeNulls
+                && geometryPrecision == other.geometryPrecision && fields.equals(other.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(prettyPrinting, serializeNulls, geometryPrecision, fields);
+    }
+
+    @Override
+    public String toString() {
+        return "OutputProfile{pretty=" + prettyPrinting + ", nulls=" + serializeNulls
+                + ", precision=" + geometryPrecision + ", fields=" + fields + "}";
+    }
+
+    /**
+     * Builder for {@link OutputProfile}.
+     */
+    public static final class Builder {
+        private boolean prettyPrinting = true;
+        private boolean serializeNulls = true;
+        private int geometryPrecision = FULL_PRECISION;
+        private Set<NodeField> fields = EnumSet.allOf(NodeField.class);
+
+        private Builder() {
+        }
+
+        /**
+         * Sets whether output is indented over multiple lines.
+         *
+         * @param prettyPrinting true for pretty output (default), false for minified output
+         * @return this builder
+         */
+        public Builder prettyPrinting(boolean prettyPrinting) {
+            this.prettyPrinting = prettyPrinting;
+            return this;
+        }
+
+        /**
+         * Sets whether properties without a value are written as null.
+         *
+         * @param serializeNulls true to write nulls (default), false to omit them
+         * @return this builder
+         */
+        public Builder serializeNulls(boolean serializeNulls) {
+            this.serializeNulls = serializeNulls;
+            return this;
+        }
+
+        /**
+         * Sets the number of decimals bounding boxes, stroke weights and corner
+         * radii are rounded to. Rounded whole numbers are written without decimals.
+         *
+         * @param decimals the number of decimals (0-10), or {@link #FULL_PRECISION} (default)
+         * @return this builder
+         */
+        public Builder geometryPrecision(int decimals) {
+            if (decimals != FULL_PRECISION && (decimals < 0 || decimals > MAX_PRECISION)) {
+                throw new IllegalArgumentException("Invalid geometry precision: " + decimals);
+            }
+            this.geometryPrecision = decimals;
+            return this;
+        }
+
+        /**
+         * Sets the node fields to write. Nodes below an excluded
+         * {@link NodeField#CHILDREN} field are not visited at all.
+         *
+         * @param fields the fields to include, all fields by default
+         * @return this builder
+         */
+        public Builder fields(Set<NodeField> fields) {
+            if (fields == null) {
+                throw new IllegalArgumentException("Fields must not be null");
+            }
+            this.fields = fields.isEmpty() ? EnumSet.noneOf(NodeField.class) : EnumSet.copyOf(fields);
+            return this;
+        }
+
+        /**
+         * Sets the node fields to write.
+         *
+         * @param first the first field to include
+         * @param rest  further fields to include
+         * @return this builder
+         */
+        public Builder fields(NodeField first, NodeField... rest) {
+            return fields(EnumSet.of(first, rest));
+        }
+
+        public OutputProfile build() {
+            return new OutputProfile(this);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.FormattingStyle;
+import com.google.gson.stream.JsonWriter;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Writes large node trees with subtrees serialized in parallel.
+ * <p>
+ * The tree is measured first, then cut into subtrees of at least the threshold
+ * size, and small enough that every pool thread gets several of them. Each
+ * subtree is written by {@link NodeJsonWriter} into its own buffer on the pool,
+ * with its line breaks re-indented for the level at which it is inserted. The
+ * calling thread writes the nodes above the cut and splices the buffers in
+ * document order, so the output is byte-for-byte that of the sequential writer.
+ * Only a bounded number of buffers is in flight at any time, which keeps the
+ * memory use independent of the size of the tree.
+ */
+final class ParallelNodeJsonWriter {
+
+    /**
+     * Default minimum number of nodes in a subtree serialized as a separate task.
+     */
+    static final int DEFAULT_THRESHOLD = 2000;
+    private static final int TASKS_PER_THREAD = 4;
+    private static final int IN_FLIGHT_PER_THREAD = 2;
+    /**
+     * Nesting levels a node adds to its children: its object and its children array.
+     */
+    private static final int LEVELS_PER_NODE = 2;
+
+    private final OutputProfile profile;
+    private final NodeJsonWriter nodeWriter;
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    ParallelNodeJsonWriter(OutputProfile profile, NodeJsonWriter nodeWriter, ForkJoinPool pool, int threshold) {
+        this.profile = profile;
+        this.nodeWriter = nodeWriter;
+        this.pool = pool;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    ForkJoinPool getPool() {
+        return pool;
+    }
+
+    int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Writes a node with its subtree. Trees below the size of one task are written sequentially.
+     *
+     * @param root the node, may be null
+     * @param out  the JSON writer, created by {@link NodeJsonWriter#newJsonWriter}
+     * @throws IOException if writing fails
+     */
+    void write(Node root, JsonWriter out) throws IOException {
+        if (root == null || !profile.includes(NodeField.CHILDREN)) {
+            nodeWriter.write(root, out);
+            return;
+        }
+        Map<Node, Integer> sizes = new IdentityHashMap<>();
+        int total = measure(root, sizes);
+        int target = Math.max(threshold, total / (pool.getParallelism() * TASKS_PER_THREAD));
+        if (total <= target) {
+            nodeWriter.write(root, out);
+            return;
+        }
+        List<Split> splits = new ArrayList<>();
+        plan(root, sizes, target, splits);
+        Splicer splicer = new Splicer(splits, out.getFormattingStyle());
+        try {
+            nodeWriter.write(root, out, splicer);
+        } finally {
+            splicer.cancel();
+        }
+    }
+
+    /**
+     * Counts the nodes of a subtree and records the sizes of subtrees that may become tasks.
+     */
+    private int measure(Node root, Map<Node, Integer> sizes) {
+        // Parents come before their children in pre-order, so the reverse counts children first
+        List<Node> preOrder = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            preOrder.add(node);
+            if (node.getChildren() != null) {
+                for (Node child : node.getChildren()) {
+                    if (child != null) {
+                        pending.push(child);
+                    }
+                }
+            }
+        }
+        Map<Node, Integer> counts = new IdentityHashMap<>();
+        for (int i = preOrder.size() - 1; i >= 0; i--) {
+            Node node = preOrder.get(i);
+            int size = 1;
+            if (node.getChildren() != null) {
+                for (Node child : node.getChildren()) {
+                    size += child != null ? counts.get(child) : 1;
+                }
+                if (size >= threshold) {
+                    sizes.put(node, size);
+                }
+            }
+            counts.put(node, size);
+        }
+        return counts.get(root);
+    }
+
+    /**
+     * Collects the subtrees to serialize as tasks in document order. Children
+     * larger than the target are split further, smaller ones are left to the caller.
+     */
+    private static void plan(Node root, Map<Node, Integer> sizes, int target, List<Split> splits) {
+        Deque<Split> pending = new ArrayDeque<>();
+        pending.push(new Split(root, 0));
+        while (!pending.isEmpty()) {
+            Split split = pending.pop();
+            if (split.node() != root && sizes.get(split.node()) <= target) {
+                splits.add(split);
+                continue;
+            }
+            List<Node> children = split.node().getChildren();
+            // Pushed in reverse, so they are taken off the stack in document order
+            for (int i = children.size() - 1; i >= 0; i--) {
+                Node child = children.get(i);
+                if (sizes.containsKey(child)) {
+                    pending.push(new Split(child, split.level() + 1));
+                }
+            }
+        }
+    }
+
+    private String serialize(Split split, String indent) throws IOException {
+        StringWriter buffer = new StringWriter();
+        JsonWriter out = nodeWriter.newJsonWriter(buffer);
+        nodeWriter.write(split.node(), out);
+        out.flush();
+        String json = buffer.toString();
+        if (indent.isEmpty()) {
+            return json;
+        }
+        // Strings are escaped, so every line break in the output is a formatting one
+        return json.replace("\n", "\n" + indent.repeat(split.level() * LEVELS_PER_NODE));
+    }
+
+    /**
+     * Submits the subtree tasks ahead of the writer and hands out their results in order.
+     */
+    private final class Splicer implements Function<Node, String> {
+        private final List<Split> splits;
+        private final String indent;
+        private final Deque<ForkJoinTask<String>> inFlight = new ArrayDeque<>();
+        private final int window = pool.getParallelism() * IN_FLIGHT_PER_THREAD;
+        private int submitted;
+        private int spliced;
+
+        Splicer(List<Split> splits, FormattingStyle style) {
+            this.splits = splits;
+            this.indent = style.getNewline().isEmpty() ? "" : style.getIndent();
+            fill();
+        }
+
+        @Override
+        public String apply(Node node) {
+            if (spliced == splits.size() || splits.get(spliced).node() != node) {
+                return null;
+            }
+            spliced++;
+            ForkJoinTask<String> task = inFlight.removeFirst();
+            fill();
+            return task.join();
+        }
+
+        private void fill() {
+            while (submitted < splits.size() && inFlight.size() < window) {
+                Split split = splits.get(submitted++);
+                inFlight.addLast(pool.submit(() -> serialize(split, indent)));
+            }
+        }
+
+        void cancel() {
+            for (ForkJoinTask<String> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A subtree serialized as a separate task.
+     *
+     * @param node  the subtree root
+     * @param level the nesting level of the root, 0 for the written node
+     */
+    private record Split(Node node, int level) {
+    }
+}
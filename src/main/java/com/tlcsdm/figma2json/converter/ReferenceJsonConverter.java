@@ -0,0 +1,478 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Converter for exporting Figma nodes as JSON in which repeated subtrees are written once.
+ * <p>
+ * Subtrees that are equal apart from their node ids and their place, such as
+ * the instances of a component, are found with
+ * {@link NodeHasher#hashStructures(Node)}. Each of them is written once into a
+ * {@code definitions} section, and every occurrence in the {@code document}
+ * is replaced by a reference with the ids of its nodes, in depth-first order,
+ * and the coordinates of its root:
+ * <pre>
+ * {
+ *   "definitions": {"0": {"id": "1:5", "name": "Button", "children": [...]}},
+ *   "document": {"id": "1:1", "children": [
+ *     {"$ref": "#/definitions/0", "ids": ["1:5", "1:6"], "x": 10.0, "y": 20.0},
+ *     {"$ref": "#/definitions/0", "ids": ["1:7", "1:8"], "x": 10.0, "y": 80.0}
+ *   ]}
+ * }
+ * </pre>
+ * The coordinates of the other nodes are those of the definition, moved by the
+ * same offset as the root. A subtree is only referenced where that gives back
+ * exactly the values the plain export would contain, so
+ * {@link ReferenceJsonLoader} restores the tree without any loss. Nodes are
+ * written according to the output profile, like {@link JsonConverter} does.
+ */
+public class ReferenceJsonConverter implements FigmaConverter {
+
+    /**
+     * Smallest subtree, in nodes, that is replaced by a reference by default.
+     */
+    public static final int DEFAULT_MIN_SUBTREE_SIZE = 2;
+
+    static final String DEFINITIONS = "definitions";
+    static final String DOCUMENT = "document";
+    static final String REF = "$ref";
+    static final String REF_PREFIX = "#/definitions/";
+    static final String IDS = "ids";
+    static final String X = "x";
+    static final String Y = "y";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceJsonConverter.class);
+    private static final Gson GSON = new Gson();
+
+    private final OutputProfile profile;
+    private final NodeJsonWriter nodeWriter;
+    private final int minSubtreeSize;
+
+    public ReferenceJsonConverter() {
+        this(OutputProfile.DEFAULT);
+    }
+
+    /**
+     * Creates a converter that writes nodes according to the given profile.
+     *
+     * @param profile the output profile
+     */
+    public ReferenceJsonConverter(OutputProfile profile) {
+        this(profile, DEFAULT_MIN_SUBTREE_SIZE);
+    }
+
+    /**
+     * Creates a converter that writes nodes according to the given profile.
+     *
+     * @param profile        the output profile
+     * @param minSubtreeSize the number of nodes a subtree needs to be replaced by a reference, at least 1
+     */
+    public ReferenceJsonConverter(OutputProfile profile, int minSubtreeSize) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Output profile must not be null");
+        }
+        if (minSubtreeSize < 1) {
+            throw new IllegalArgumentException("Minimum subtree size must be at least 1");
+        }
+        this.profile = profile;
+        this.nodeWriter = new NodeJsonWriter(profile);
+        this.minSubtreeSize = minSubtreeSize;
+    }
+
+    /**
+     * Gets the output profile of this converter.
+     *
+     * @return the output profile
+     */
+    public OutputProfile getProfile() {
+        return profile;
+    }
+
+    @Override
+    public String getFormat() {
+        return "JSON_REF";
+    }
+
+    @Override
+    public void convert(Node node, Writer writer) throws IOException {
+        ReferenceReport report = write(node, writer);
+        logger.info("Reference export: {}", report);
+    }
+
+    /**
+     * Writes a node with references for its repeated subtrees and reports the
+     * size savings. The writer is flushed but not closed.
+     *
+     * @param node   the Figma node to convert
+     * @param writer the writer to write the converted content to
+     * @return the size savings
+     * @throws IOException if writing fails
+     */
+    public ReferenceReport write(Node node, Writer writer) throws IOException {
+        Plan plan = plan(node);
+        CountingWriter counter = new CountingWriter(writer);
+        JsonWriter out = nodeWriter.newJsonWriter(counter);
+        long[] definitionChars = new long[plan.definitions().size()];
+        out.beginObject();
+        out.name(DEFINITIONS).beginObject();
+        for (int i = 0; i < definitionChars.length; i++) {
+            out.name(String.valueOf(i));
+            long start = counter.count;
+            writeTree(plan.definitions().get(i), out, counter, Map.of(), null);
+            definitionChars[i] = counter.count - start;
+        }
+        out.endObject();
+        out.name(DOCUMENT);
+        long start = counter.count;
+        long[] saved = new long[1];
+        writeTree(node, out, counter, plan.references(),
+                (definition, chars) -> saved[0] += definitionChars[definition] - chars);
+        long documentChars = counter.count - start;
+        out.endObject();
+        out.flush();
+        long referencedNodes = 0;
+        for (Node reference : plan.references().keySet()) {
+            referencedNodes += plan.sizes().get(reference);
+        }
+        return new ReferenceReport(definitionChars.length, plan.references().size(), referencedNodes,
+                counter.count, documentChars + saved[0]);
+    }
+
+    /**
+     * Reads a raw API response, from its {@code document} if it has one, and
+     * writes it with references for its repeated subtrees.
+     */
+    @Override
+    public String convertRawJson(String rawJson) {
+        JsonElement element = JsonParser.parseString(rawJson);
+        if (!element.isJsonObject()) {
+            throw new JsonSyntaxException("Expected a JSON object");
+        }
+        JsonObject object = element.getAsJsonObject();
+        JsonElement root = object.has("document") ? object.get("document") : object;
+        return convert(GSON.fromJson(root, Node.class));
+    }
+
+    /**
+     * Includes the output profile and the minimum subtree size.
+     */
+    @Override
+    public String getOutputKey() {
+        return FigmaConverter.super.getOutputKey() + ":" + profile + ":" + minSubtreeSize;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "json";
+    }
+
+    /**
+     * Decides which subtrees are replaced by references. Subtrees are taken from
+     * the top down, so a repeated subtree is never also referenced from inside
+     * another repeated one; a structure that only repeats inside referenced
+     * subtrees is written in place.
+     */
+    private Plan plan(Node root) {
+        Map<Node, String> hashes = NodeHasher.hashStructures(root);
+        Map<Node, Integer> sizes = subtreeSizes(root);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String hash : hashes.values()) {
+            counts.merge(hash, 1, Integer::sum);
+        }
+        Map<String, List<Node>> groups = new LinkedHashMap<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pushChildren(root, pending);
+        boolean changed = true;
+        while (changed) {
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                String hash = hashes.get(node);
+                if (counts.get(hash) < 2 || sizes.get(node) < minSubtreeSize) {
+                    pushChildren(node, pending);
+                    continue;
+                }
+                List<Node> group = groups.computeIfAbsent(hash, key -> new ArrayList<>());
+                if (group.isEmpty() || restoresExactly(group.get(0), node)) {
+                    group.add(node);
+                } else {
+                    pushChildren(node, pending);
+                }
+            }
+            changed = false;
+            for (Iterator<List<Node>> it = groups.values().iterator(); it.hasNext(); ) {
+                List<Node> group = it.next();
+                if (group.size() < 2) {
+                    // Repeats only inside other references, so look for smaller repeats within
+                    it.remove();
+                    group.forEach(node -> pushChildren(node, pending));
+                    changed = true;
+                }
+            }
+        }
+        List<Node> definitions = new ArrayList<>(groups.size());
+        Map<Node, Integer> references = new IdentityHashMap<>();
+        for (List<Node> group : groups.values()) {
+            for (Node node : group) {
+                references.put(node, definitions.size());
+            }
+            definitions.add(group.get(0));
+        }
+        return new Plan(definitions, references, sizes);
+    }
+
+    private static void pushChildren(Node node, Deque<Node> pending) {
+        if (node != null && node.getChildren() != null) {
+            for (Node child : node.getChildren()) {
+                if (child != null) {
+                    pending.push(child);
+                }
+            }
+        }
+    }
+
+    private static Map<Node, Integer> subtreeSizes(Node root) {
+        Map<Node, Integer> sizes = new IdentityHashMap<>();
+        Deque<int[]> counts = new ArrayDeque<>();
+        NodeSink counter = new NodeSink() {
+            @Override
+            public boolean beginNode(Node node) {
+                counts.push(new int[]{node != null ? 1 : 0});
+                return true;
+            }
+
+            @Override
+            public void endNode(Node node, boolean childrenVisited) {
+                int size = counts.pop()[0];
+                if (node != null) {
+                    sizes.put(node, size);
+                }
+                if (!counts.isEmpty()) {
+                    counts.peek()[0] += size;
+                }
+            }
+
+            @Override
+            public void finish() {
+                // The sizes are collected while walking
+            }
+        };
+        try {
+            NodeTraversal.traverse(root, List.of(counter));
+        } catch (IOException e) {
+            // Counting does no I/O
+            throw new UncheckedIOException(e);
+        }
+        return sizes;
+    }
+
+    /**
+     * Checks that a reference to a definition gives back the coordinates of an
+     * occurrence exactly, as written with the geometry precision of the profile.
+     * Everything else is equal for subtrees with the same structure hash.
+     */
+    private boolean restoresExactly(Node definition, Node occurrence) {
+        if (!profile.includes(NodeField.ABSOLUTE_BOUNDING_BOX)) {
+            return true;
+        }
+        Deque<Node[]> stack = new ArrayDeque<>();
+        stack.push(new Node[]{definition, occurrence});
+        while (!stack.isEmpty()) {
+            Node[] pair = stack.pop();
+            List<Node> children = pair[0].getChildren();
+            if (children == null) {
+                continue;
+            }
+            BoundingBox definitionBox = pair[0].getAbsoluteBoundingBox();
+            BoundingBox occurrenceBox = pair[1].getAbsoluteBoundingBox();
+            for (int i = 0; i < children.size(); i++) {
+                Node child = children.get(i);
+                Node other = pair[1].getChildren().get(i);
+                if (child == null) {
+                    continue;
+                }
+                BoundingBox box = child.getAbsoluteBoundingBox();
+                BoundingBox otherBox = other.getAbsoluteBoundingBox();
+                if (box != null) {
+                    Double x = place(round(occurrenceBox != null ? occurrenceBox.getX() : null),
+                            round(definitionBox != null ? definitionBox.getX() : null), round(box.getX()));
+                    Double y = place(round(occurrenceBox != null ? occurrenceBox.getY() : null),
+                            round(definitionBox != null ? definitionBox.getY() : null), round(box.getY()));
+                    if (!Objects.equals(x, round(otherBox.getX())) || !Objects.equals(y, round(otherBox.getY()))) {
+                        return false;
+                    }
+                }
+                stack.push(new Node[]{child, other});
+            }
+        }
+        return true;
+    }
+
+    private Double round(Double value) {
+        return value != null ? profile.roundGeometry(value) : null;
+    }
+
+    /**
+     * Computes a coordinate of a referenced node from its definition.
+     *
+     * @param parent           the coordinate of the parent of the restored node
+     * @param definitionParent the coordinate of the parent in the definition
+     * @param definition       the coordinate of the node in the definition
+     * @return the coordinate of the restored node
+     */
+    static Double place(Double parent, Double definitionParent, Double definition) {
+        if (parent == null || definitionParent == null || definition == null) {
+            return definition;
+        }
+        return parent + (definition - definitionParent);
+    }
+
+    /**
+     * Writes a tree, replacing the given nodes by references.
+     *
+     * @param root       the root node
+     * @param out        the JSON writer
+     * @param counter    the writer the JSON writer writes to
+     * @param references the index of the definition, keyed by the nodes it replaces
+     * @param listener   receives the size of every reference, may be null without references
+     */
+    private void writeTree(Node root, JsonWriter out, CountingWriter counter, Map<Node, Integer> references,
+                           ReferenceListener listener) throws IOException {
+        NodeSink sink = new NodeSink() {
+            @Override
+            public boolean beginNode(Node node) throws IOException {
+                if (node == null) {
+                    out.nullValue();
+                    return false;
+                }
+                Integer definition = references.get(node);
+                if (definition != null) {
+                    long start = counter.count;
+                    writeReference(node, definition, out);
+                    listener.written(definition, counter.count - start);
+                    return false;
+                }
+                return nodeWriter.writeHead(node, out);
+            }
+
+            @Override
+            public void endNode(Node node, boolean childrenVisited) throws IOException {
+                if (node == null || references.containsKey(node)) {
+                    return;
+                }
+                if (childrenVisited) {
+                    out.endArray();
+                }
+                nodeWriter.writeTail(node, out);
+            }
+
+            @Override
+            public void finish() {
+                // The caller finishes the document
+            }
+        };
+        NodeTraversal.traverse(root, List.of(sink));
+    }
+
+    private void writeReference(Node node, int definition, JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(REF).value(REF_PREFIX + definition);
+        if (profile.includes(NodeField.ID)) {
+            out.name(IDS).beginArray();
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(node);
+            while (!stack.isEmpty()) {
+                Node current = stack.pop();
+                out.value(current.getId());
+                List<Node> children = current.getChildren();
+                for (int i = children != null ? children.size() - 1 : -1; i >= 0; i--) {
+                    if (children.get(i) != null) {
+                        stack.push(children.get(i));
+                    }
+                }
+            }
+            out.endArray();
+        }
+        BoundingBox box = node.getAbsoluteBoundingBox();
+        if (box != null && profile.includes(NodeField.ABSOLUTE_BOUNDING_BOX)) {
+            if (box.getX() != null) {
+                out.name(X);
+                nodeWriter.writeGeometry(out, box.getX());
+            }
+            if (box.getY() != null) {
+                out.name(Y);
+                nodeWriter.writeGeometry(out, box.getY());
+            }
+        }
+        out.endObject();
+    }
+
+    /**
+     * Receives the size of every reference written.
+     */
+    private interface ReferenceListener {
+        void written(int definition, long chars);
+    }
+
+    /**
+     * The subtrees written as definitions and the nodes replaced by references.
+     *
+     * @param definitions the first occurrence of every definition
+     * @param references  the index of the definition, keyed by the nodes it replaces
+     * @param sizes       the number of nodes of every subtree
+     */
+    private record Plan(List<Node> definitions, Map<Node, Integer> references, Map<Node, Integer> sizes) {
+    }
+
+    /**
+     * Counts the characters passed on to a writer.
+     */
+    private static final class CountingWriter extends FilterWriter {
+        long count;
+
+        CountingWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void write(String string, int offset, int length) throws IOException {
+            out.write(string, offset, length);
+            count += length;
+        }
+    }
+}
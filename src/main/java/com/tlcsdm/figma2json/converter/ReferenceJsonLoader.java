@@ -0,0 +1,216 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.tlcsdm.figma2json.converter.ReferenceJsonConverter.*;
+
+/**
+ * Reads exports written by {@link ReferenceJsonConverter} and expands their
+ * references again, giving the node tree the plain JSON export was written from.
+ * <p>
+ * Every reference becomes a copy of its definition with the ids and
+ * coordinates of the occurrence. Property values other than coordinates are
+ * shared between the copies of a definition.
+ */
+public final class ReferenceJsonLoader {
+
+    private static final Gson GSON = new Gson();
+
+    private ReferenceJsonLoader() {
+    }
+
+    /**
+     * Loads an export from a string.
+     *
+     * @param json the export
+     * @return the root node with all references expanded, may be null
+     * @throws JsonParseException if the export is malformed or has unknown references
+     */
+    public static Node load(String json) {
+        try {
+            return load(new StringReader(json));
+        } catch (IOException e) {
+            // A StringReader never fails
+            throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * Loads an export from a reader. The reader is not closed.
+     *
+     * @param reader the export
+     * @return the root node with all references expanded, may be null
+     * @throws IOException        if reading fails
+     * @throws JsonParseException if the export is malformed or has unknown references
+     */
+    public static Node load(Reader reader) throws IOException {
+        Map<String, Node> definitions = new HashMap<>();
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ExpandingFactory(definitions))
+                .create();
+        JsonReader in = new JsonReader(reader);
+        JsonElement pending = null;
+        Node root = null;
+        boolean hasDocument = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case DEFINITIONS -> {
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String name = in.nextName();
+                        definitions.put(REF_PREFIX + name, GSON.fromJson(in, Node.class));
+                    }
+                    in.endObject();
+                }
+                case DOCUMENT -> {
+                    hasDocument = true;
+                    // References can only be expanded once the definitions are known
+                    if (definitions.isEmpty()) {
+                        pending = JsonParser.parseReader(in);
+                    } else {
+                        root = gson.fromJson(in, Node.class);
+                    }
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (!hasDocument) {
+            throw new JsonSyntaxException("Missing " + DOCUMENT);
+        }
+        return pending != null ? gson.fromJson(pending, Node.class) : root;
+    }
+
+    /**
+     * Reads nodes with Gson, expanding the ones that are references.
+     */
+    private record ExpandingFactory(Map<String, Node> definitions) implements TypeAdapterFactory {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != Node.class) {
+                return null;
+            }
+            TypeAdapter<Node> delegate = gson.getDelegateAdapter(this, TypeToken.get(Node.class));
+            // Reads subtrees of an already parsed tree without copying them
+            TypeAdapter<JsonElement> elements = gson.getAdapter(JsonElement.class);
+            return (TypeAdapter<T>) new TypeAdapter<Node>() {
+                @Override
+                public void write(JsonWriter out, Node value) throws IOException {
+                    delegate.write(out, value);
+                }
+
+                @Override
+                public Node read(JsonReader in) throws IOException {
+                    JsonElement element = elements.read(in);
+                    if (element.isJsonObject() && element.getAsJsonObject().has(REF)) {
+                        return expand(element.getAsJsonObject());
+                    }
+                    return delegate.fromJsonTree(element);
+                }
+            };
+        }
+
+        private Node expand(JsonObject reference) {
+            String ref = reference.get(REF).getAsString();
+            Node definition = definitions.get(ref);
+            if (definition == null) {
+                throw new JsonSyntaxException("Unknown reference: " + ref);
+            }
+            JsonArray ids = reference.has(IDS) ? reference.getAsJsonArray(IDS) : null;
+            int next = 0;
+            Node root = copy(definition, ids, next++);
+            BoundingBox rootBox = root.getAbsoluteBoundingBox();
+            if (rootBox != null) {
+                rootBox.setX(coordinate(reference, X));
+                rootBox.setY(coordinate(reference, Y));
+            }
+            Deque<Node[]> stack = new ArrayDeque<>();
+            stack.push(new Node[]{definition, root});
+            while (!stack.isEmpty()) {
+                Node[] pair = stack.pop();
+                Node source = pair[0];
+                Node target = pair[1];
+                if (source.getChildren() == null) {
+                    continue;
+                }
+                BoundingBox sourceBox = source.getAbsoluteBoundingBox();
+                BoundingBox targetBox = target.getAbsoluteBoundingBox();
+                target.setChildren(new ArrayList<>(source.getChildren().size()));
+                for (Node child : source.getChildren()) {
+                    Node copy = child != null ? copy(child, ids, next++) : null;
+                    target.getChildren().add(copy);
+                    if (copy == null) {
+                        continue;
+                    }
+                    BoundingBox box = copy.getAbsoluteBoundingBox();
+                    if (box != null) {
+                        box.setX(place(targetBox != null ? targetBox.getX() : null,
+                                sourceBox != null ? sourceBox.getX() : null, box.getX()));
+                        box.setY(place(targetBox != null ? targetBox.getY() : null,
+                                sourceBox != null ? sourceBox.getY() : null, box.getY()));
+                    }
+                    stack.push(new Node[]{child, copy});
+                }
+            }
+            if (ids != null && next != ids.size()) {
+                throw new JsonSyntaxException("Reference " + ref + " has " + ids.size() + " ids for " + next + " nodes");
+            }
+            return root;
+        }
+
+        /**
+         * Copies a node of a definition with its own bounding box, so coordinates can be changed.
+         */
+        private static Node copy(Node node, JsonArray ids, int index) {
+            Node copy = node.copyWithoutChildren();
+            if (ids != null) {
+                if (index >= ids.size()) {
+                    throw new JsonSyntaxException("Reference has too few ids");
+                }
+                JsonElement id = ids.get(index);
+                copy.setId(id.isJsonNull() ? null : id.getAsString());
+            }
+            BoundingBox box = node.getAbsoluteBoundingBox();
+            if (box != null) {
+                BoundingBox own = new BoundingBox();
+                own.setX(box.getX());
+                own.setY(box.getY());
+                own.setWidth(box.getWidth());
+                own.setHeight(box.getHeight());
+                copy.setAbsoluteBoundingBox(own);
+            }
+            return copy;
+        }
+
+        private static Double coordinate(JsonObject reference, String name) {
+            JsonElement value = reference.get(name);
+            return value == null || value.isJsonNull() ? null : value.getAsDouble();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.tlcsdm.figma2json.converter;
+
+/**
+ * Size savings of an export written by {@link ReferenceJsonConverter}.
+ */
+public final class ReferenceReport {
+
+    private final int definitions;
+    private final int references;
+    private final long referencedNodes;
+    private final long charsWritten;
+    private final long estimatedPlainChars;
+
+    ReferenceReport(int definitions, int references, long referencedNodes, long charsWritten,
+                    long estimatedPlainChars) {
+        this.definitions = definitions;
+        this.references = references;
+        this.referencedNodes = referencedNodes;
+        this.charsWritten = charsWritten;
+        this.estimatedPlainChars = estimatedPlainChars;
+    }
+
+    /**
+     * Gets the number of subtrees written to the definitions.
+     *
+     * @return the definition count
+     */
+    public int getDefinitionCount() {
+        return definitions;
+    }
+
+    /**
+     * Gets the number of subtrees that were replaced by a reference.
+     *
+     * @return the reference count
+     */
+    public int getReferenceCount() {
+        return references;
+    }
+
+    /**
+     * Gets the number of nodes in all subtrees that were replaced by a reference.
+     *
+     * @return the referenced node count
+     */
+    public long getReferencedNodeCount() {
+        return referencedNodes;
+    }
+
+    /**
+     * Gets the size of the written export.
+     *
+     * @return the number of characters written
+     */
+    public long getCharsWritten() {
+        return charsWritten;
+    }
+
+    /**
+     * Gets the size the export would have had without references. The estimate
+     * does not account for the deeper indentation of pretty-printed subtrees.
+     *
+     * @return the estimated number of characters of the plain JSON export
+     */
+    public long getEstimatedPlainChars() {
+        return estimatedPlainChars;
+    }
+
+    /**
+     * Gets the estimated number of characters the references saved.
+     *
+     * @return the saved characters, negative if the export got larger
+     */
+    public long getSavedChars() {
+        return estimatedPlainChars - charsWritten;
+    }
+
+    @Override
+    public String toString() {
+        return definitions + " definitions, " + references + " references replacing " + referencedNodes
+                + " nodes, " + charsWritten + " of about " + estimatedPlainChars + " characters";
+    }
+}
@@ -0,0 +1,106 @@
+package com.tlcsdm.figma2json.diff;
+
+import com.tlcsdm.figma2json.api.Node;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Differences between two versions of a node tree, as found by {@link NodeDiff}.
+ */
+public final class DiffResult {
+
+    private final Node oldRoot;
+    private final Node newRoot;
+    private final List<NodeChange> changes;
+    private final Map<Node, Node> counterparts;
+    private final List<Node> reshaped;
+    private final Set<Node> shells;
+
+    DiffResult(Node oldRoot, Node newRoot, List<NodeChange> changes, Map<Node, Node> counterparts,
+               List<Node> reshaped, Set<Node> shells) {
+        this.oldRoot = oldRoot;
+        this.newRoot = newRoot;
+        this.changes = List.copyOf(changes);
+        this.counterparts = counterparts;
+        this.reshaped = reshaped;
+        this.shells = shells;
+    }
+
+    /**
+     * Gets the root of the old version.
+     *
+     * @return the old root, may be null
+     */
+    public Node getOldRoot() {
+        return oldRoot;
+    }
+
+    /**
+     * Gets the root of the new version.
+     *
+     * @return the new root, may be null
+     */
+    public Node getNewRoot() {
+        return newRoot;
+    }
+
+    /**
+     * Gets the changes, parents before their descendants.
+     *
+     * @return the changes
+     */
+    public List<NodeChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Gets the changes of one kind.
+     *
+     * @param kind the kind of change
+     * @return the changes of that kind, in the order of {@link #getChanges()}
+     */
+    public List<NodeChange> getChanges(NodeChange.Kind kind) {
+        return changes.stream().filter(change -> change.getKind() == kind).toList();
+    }
+
+    /**
+     * Checks whether both versions are equal.
+     *
+     * @return true if nothing changed
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Gets the nodes of the new version that were matched with a node of the old
+     * version. Nodes inside unchanged subtrees are not listed.
+     *
+     * @return the old nodes keyed by new node identity
+     */
+    Map<Node, Node> getCounterparts() {
+        return counterparts;
+    }
+
+    /**
+     * Gets the nodes of the new version whose children have to be rearranged,
+     * parents before their descendants.
+     *
+     * @return the new nodes
+     */
+    List<Node> getReshaped() {
+        return reshaped;
+    }
+
+    /**
+     * Gets the added nodes whose subtree contains nodes of the old version, so
+     * they have to be built child by child.
+     *
+     * @return the added nodes
+     */
+    Set<Node> getShells() {
+        return shells;
+    }
+}
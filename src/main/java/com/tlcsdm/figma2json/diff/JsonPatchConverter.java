@@ -0,0 +1,113 @@
+package com.tlcsdm.figma2json.diff;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.FigmaConverter;
+import com.tlcsdm.figma2json.converter.NodeHasher;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Converter that writes how a node differs from a base version, as a JSON Patch (RFC 6902).
+ * <p>
+ * The patch turns the classic JSON export of the base node into the JSON
+ * export of the converted node. It is computed with {@link NodeDiff}, so
+ * unchanged subtrees are skipped, moved nodes are moved instead of removed and
+ * added again, and modified nodes only get their changed properties replaced:
+ * <pre>
+ * [
+ *   {"op": "replace", "path": "/children/0/name", "value": "Title"},
+ *   {"op": "move", "from": "/children/2", "path": "/children/0/children/1"}
+ * ]
+ * </pre>
+ */
+public class JsonPatchConverter implements FigmaConverter {
+
+    private static final Gson GSON = new GsonBuilder()
+            .serializeNulls()
+            .setPrettyPrinting()
+            .create();
+
+    private final Node base;
+    private final String baseHash;
+
+    /**
+     * Creates a converter that writes patches from the given base version.
+     *
+     * @param base the old version of the nodes to convert
+     */
+    public JsonPatchConverter(Node base) {
+        if (base == null) {
+            throw new IllegalArgumentException("Base node must not be null");
+        }
+        this.base = base;
+        this.baseHash = NodeHasher.hash(base);
+    }
+
+    /**
+     * Writes a computed diff as a JSON Patch. The writer is flushed but not closed.
+     *
+     * @param diff   the differences
+     * @param writer the writer to write the patch to
+     * @throws IOException if writing fails
+     */
+    public static void write(DiffResult diff, Writer writer) throws IOException {
+        JsonWriter out = GSON.newJsonWriter(writer);
+        new JsonPatchWriter(diff, GSON, out).write();
+        out.flush();
+    }
+
+    /**
+     * Gets the base version patches are computed from.
+     *
+     * @return the base node
+     */
+    public Node getBase() {
+        return base;
+    }
+
+    @Override
+    public String getFormat() {
+        return "JSON_PATCH";
+    }
+
+    @Override
+    public void convert(Node node, Writer writer) throws IOException {
+        write(NodeDiff.compare(base, node), writer);
+    }
+
+    /**
+     * Reads the new version from a raw API response, from its {@code document}
+     * if it has one, and writes the patch from the base version.
+     */
+    @Override
+    public String convertRawJson(String rawJson) {
+        JsonElement element = JsonParser.parseString(rawJson);
+        if (!element.isJsonObject()) {
+            throw new JsonSyntaxException("Expected a JSON object");
+        }
+        JsonObject object = element.getAsJsonObject();
+        JsonElement root = object.has("document") ? object.get("document") : object;
+        return convert(GSON.fromJson(root, Node.class));
+    }
+
+    /**
+     * Includes the hash of the base version.
+     */
+    @Override
+    public String getOutputKey() {
+        return FigmaConverter.super.getOutputKey() + ":" + baseHash;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "json";
+    }
+}
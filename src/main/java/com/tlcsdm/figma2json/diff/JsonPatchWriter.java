@@ -0,0 +1,242 @@
+package com.tlcsdm.figma2json.diff;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.NodeField;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a {@link DiffResult} as a JSON Patch (RFC 6902) that turns the JSON
+ * export of the old tree into the JSON export of the new tree.
+ * <p>
+ * Paths point into the tree as it is when the operation is applied, so the
+ * writer keeps track of the child lists the operations rearrange. Operations
+ * are written in four steps: properties of modified nodes, while the old
+ * paths are still valid; then the child lists of every rearranged node, in
+ * new order, by adding new nodes and moving matched nodes behind their
+ * predecessor; then the removal of removed subtrees, after every node that
+ * moved out of them is gone; and last the children properties that became
+ * null. Siblings that kept their relative order are never touched.
+ */
+final class JsonPatchWriter {
+
+    private final DiffResult diff;
+    private final Gson gson;
+    private final JsonWriter out;
+    private final Map<Object, Node> parents = new IdentityHashMap<>();
+    private final Map<Node, List<Object>> children = new IdentityHashMap<>();
+    private final Set<Object> oldNulls = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Node> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    JsonPatchWriter(DiffResult diff, Gson gson, JsonWriter out) {
+        this.diff = diff;
+        this.gson = gson;
+        this.out = out;
+    }
+
+    /**
+     * Writes the patch as a JSON array.
+     *
+     * @throws IOException if writing fails
+     */
+    void write() throws IOException {
+        out.beginArray();
+        if (diff.getOldRoot() == null || !diff.getCounterparts().containsKey(diff.getNewRoot())) {
+            if (diff.getOldRoot() != null || diff.getNewRoot() != null) {
+                operation("replace", "", diff.getNewRoot());
+            }
+            out.endArray();
+            return;
+        }
+        indexParents(diff.getOldRoot());
+        for (NodeChange change : diff.getChanges(NodeChange.Kind.MODIFIED)) {
+            String path = pointer(change.getOldNode());
+            for (PropertyChange property : change.getProperties()) {
+                String op = property.getOldValue() == null ? "add" : "replace";
+                operation(op, path + "/" + property.getField().getJsonName(), property.getNewValue());
+            }
+        }
+        for (NodeChange change : diff.getChanges(NodeChange.Kind.MOVED)) {
+            moved.add(change.getNewNode());
+        }
+        for (Node node : diff.getReshaped()) {
+            if (node.getChildren() != null) {
+                arrange(node);
+            }
+        }
+        for (NodeChange change : diff.getChanges(NodeChange.Kind.REMOVED)) {
+            remove(change.getOldNode());
+        }
+        for (Node node : diff.getReshaped()) {
+            Node target = simulated(node);
+            List<Object> current = childrenOf(target);
+            if (node.getChildren() == null) {
+                operation("replace", pointer(target) + "/" + NodeField.CHILDREN.getJsonName(), null);
+                continue;
+            }
+            for (int i = current.size() - 1; i >= 0; i--) {
+                if (oldNulls.contains(current.get(i))) {
+                    remove(current.get(i));
+                }
+            }
+        }
+        out.endArray();
+    }
+
+    /**
+     * Builds the children of a node in new order. Nodes that are not moved
+     * keep their place; everything else is put right behind its predecessor,
+     * so the new children end up in order with the leftovers behind them.
+     */
+    private void arrange(Node node) throws IOException {
+        Node target = simulated(node);
+        if (childrenOf(target) == null) {
+            operation("add", pointer(target) + "/" + NodeField.CHILDREN.getJsonName(), List.of());
+            children.put(target, new ArrayList<>());
+        }
+        Object previous = null;
+        for (Node child : node.getChildren()) {
+            Object element;
+            if (child == null) {
+                element = new Object();
+                int index = insert(target, previous, element);
+                operation("add", pointer(target) + "/children/" + index, null);
+            } else if (diff.getCounterparts().containsKey(child)) {
+                element = diff.getCounterparts().get(child);
+                if (moved.contains(child)) {
+                    String from = pointer(element);
+                    childrenOf(parents.get(element)).remove(element);
+                    int index = insert(target, previous, element);
+                    move(from, pointer(target) + "/children/" + index);
+                }
+            } else {
+                element = child;
+                int index = insert(target, previous, element);
+                String path = pointer(target) + "/children/" + index;
+                if (diff.getShells().contains(child)) {
+                    Node shell = child.copyWithoutChildren();
+                    shell.setChildren(List.of());
+                    operation("add", path, shell);
+                    children.put(child, new ArrayList<>());
+                } else {
+                    operation("add", path, child);
+                }
+            }
+            previous = element;
+        }
+    }
+
+    private int insert(Node parent, Object previous, Object element) {
+        List<Object> current = childrenOf(parent);
+        int index = previous == null ? 0 : current.indexOf(previous) + 1;
+        current.add(index, element);
+        parents.put(element, parent);
+        return index;
+    }
+
+    private void remove(Object element) throws IOException {
+        operation("remove", pointer(element), null);
+        childrenOf(parents.remove(element)).remove(element);
+    }
+
+    /**
+     * Gets the node of the simulated tree a new node stands for.
+     */
+    private Node simulated(Node node) {
+        Node old = diff.getCounterparts().get(node);
+        return old != null ? old : node;
+    }
+
+    /**
+     * Gets the current children of a node of the simulated tree. Child lists of
+     * old nodes are copied when they are first touched, with a placeholder for
+     * every null entry.
+     */
+    private List<Object> childrenOf(Node node) {
+        List<Object> current = children.get(node);
+        if (current == null && node.getChildren() != null && !children.containsKey(node)) {
+            current = new ArrayList<>(node.getChildren().size());
+            for (Node child : node.getChildren()) {
+                if (child != null) {
+                    current.add(child);
+                } else {
+                    Object placeholder = new Object();
+                    oldNulls.add(placeholder);
+                    parents.put(placeholder, node);
+                    current.add(placeholder);
+                }
+            }
+            children.put(node, current);
+        }
+        return current;
+    }
+
+    private void indexParents(Node root) {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node parent = stack.pop();
+            if (parent.getChildren() != null) {
+                for (Node child : parent.getChildren()) {
+                    if (child != null) {
+                        parents.put(child, parent);
+                        stack.push(child);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the JSON Pointer of a node of the simulated tree.
+     */
+    private String pointer(Object element) {
+        Deque<Integer> indexes = new ArrayDeque<>();
+        for (Object current = element; parents.get(current) != null; current = parents.get(current)) {
+            indexes.push(childrenOf(parents.get(current)).indexOf(current));
+        }
+        StringBuilder pointer = new StringBuilder();
+        for (int index : indexes) {
+            pointer.append("/children/").append(index);
+        }
+        return pointer.toString();
+    }
+
+    private void operation(String op, String path, Object value) throws IOException {
+        out.beginObject();
+        out.name("op").value(op);
+        out.name("path").value(path);
+        if (!op.equals("remove")) {
+            out.name("value");
+            if (value == null) {
+                out.nullValue();
+            } else if (value instanceof List<?>) {
+                // Declared as the interface, so Gson does not need the implementation class
+                gson.toJson(value, List.class, out);
+            } else if (value instanceof Map<?, ?>) {
+                gson.toJson(value, Map.class, out);
+            } else {
+                gson.toJson(value, value.getClass(), out);
+            }
+        }
+        out.endObject();
+    }
+
+    private void move(String from, String path) throws IOException {
+        out.beginObject();
+        out.name("op").value("move");
+        out.name("from").value(from);
+        out.name("path").value(path);
+        out.endObject();
+    }
+}
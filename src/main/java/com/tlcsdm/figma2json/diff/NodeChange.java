@@ -0,0 +1,149 @@
+package com.tlcsdm.figma2json.diff;
+
+import com.tlcsdm.figma2json.api.Node;
+
+import java.util.List;
+
+/**
+ * A node that was added, removed, moved or modified between two versions of a tree.
+ * <p>
+ * A node that was both moved and modified is reported twice, once for each
+ * kind. Added and removed subtrees are reported by their root only.
+ */
+public final class NodeChange {
+
+    /**
+     * The kind of change.
+     */
+    public enum Kind {
+        /**
+         * The node only exists in the new version.
+         */
+        ADDED,
+        /**
+         * The node only exists in the old version.
+         */
+        REMOVED,
+        /**
+         * The node has another parent, or another position among its siblings.
+         */
+        MOVED,
+        /**
+         * Properties of the node itself changed.
+         */
+        MODIFIED
+    }
+
+    private final Kind kind;
+    private final Node oldNode;
+    private final Node newNode;
+    private final String oldParentId;
+    private final String newParentId;
+    private final int oldIndex;
+    private final int newIndex;
+    private final List<PropertyChange> properties;
+
+    NodeChange(Kind kind, Node oldNode, Node newNode, String oldParentId, String newParentId,
+               int oldIndex, int newIndex, List<PropertyChange> properties) {
+        this.kind = kind;
+        this.oldNode = oldNode;
+        this.newNode = newNode;
+        this.oldParentId = oldParentId;
+        this.newParentId = newParentId;
+        this.oldIndex = oldIndex;
+        this.newIndex = newIndex;
+        this.properties = List.copyOf(properties);
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return the kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the id of the changed node.
+     *
+     * @return the node id, may be null for nodes without one
+     */
+    public String getId() {
+        return newNode != null ? newNode.getId() : oldNode.getId();
+    }
+
+    /**
+     * Gets the node in the old version.
+     *
+     * @return the old node, or null for an added node
+     */
+    public Node getOldNode() {
+        return oldNode;
+    }
+
+    /**
+     * Gets the node in the new version.
+     *
+     * @return the new node, or null for a removed node
+     */
+    public Node getNewNode() {
+        return newNode;
+    }
+
+    /**
+     * Gets the id of the parent in the old version.
+     *
+     * @return the old parent id, or null for an added node or a root
+     */
+    public String getOldParentId() {
+        return oldParentId;
+    }
+
+    /**
+     * Gets the id of the parent in the new version.
+     *
+     * @return the new parent id, or null for a removed node or a root
+     */
+    public String getNewParentId() {
+        return newParentId;
+    }
+
+    /**
+     * Gets the position among the children of the old parent.
+     *
+     * @return the old index, or -1 for an added node or a root
+     */
+    public int getOldIndex() {
+        return oldIndex;
+    }
+
+    /**
+     * Gets the position among the children of the new parent.
+     *
+     * @return the new index, or -1 for a removed node or a root
+     */
+    public int getNewIndex() {
+        return newIndex;
+    }
+
+    /**
+     * Gets the changed properties of a modified node.
+     *
+     * @return the property changes, empty unless the kind is {@link Kind#MODIFIED}
+     */
+    public List<PropertyChange> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case ADDED -> "ADDED " + getId() + " at " + newParentId + "[" + newIndex + "]";
+            case REMOVED -> "REMOVED " + getId() + " from " + oldParentId + "[" + oldIndex + "]";
+            case MOVED -> "MOVED " + getId() + " from " + oldParentId + "[" + oldIndex + "] to "
+                    + newParentId + "[" + newIndex + "]";
+            case MODIFIED -> "MODIFIED " + getId() + " " + properties;
+        };
+    }
+}
@@ -0,0 +1,372 @@
+package com.tlcsdm.figma2json.diff;
+
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.NodeField;
+import com.tlcsdm.figma2json.converter.NodeHasher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compares two versions of a node tree.
+ * <p>
+ * Nodes are matched by id, wherever they are in the tree. Both trees are
+ * hashed once with {@link NodeHasher#hashSubtrees(Node)}; matched nodes with
+ * equal hashes have equal subtrees and are not looked into, so the comparison
+ * itself only visits the changed parts of the tree. Nodes of the new version
+ * that cannot be matched are added, nodes of the old version that are not
+ * matched by any node are removed. A matched node is moved if its parent
+ * changed, or if it left the longest run of siblings that kept their order.
+ * <p>
+ * Node ids are expected to be unique within a tree. Nodes without an id are
+ * never matched, and {@code null} entries of child lists are not reported.
+ */
+public final class NodeDiff {
+
+    private static final NodeField[] PROPERTIES = Arrays.stream(NodeField.values())
+            .filter(field -> field != NodeField.ID && field != NodeField.CHILDREN)
+            .toArray(NodeField[]::new);
+
+    private final Node oldRoot;
+    private final Node newRoot;
+    private final Map<Node, String> oldHashes;
+    private final Map<Node, String> newHashes;
+    private final List<NodeChange> changes = new ArrayList<>();
+    private final Map<Node, Node> counterparts = new IdentityHashMap<>();
+    private final Set<Node> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Node> added = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Node, Node> addedParents = new IdentityHashMap<>();
+    private final Set<Node> shells = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Node> visited = new ArrayList<>();
+    private final Set<Node> reshaped = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Location> unmatched = new ArrayList<>();
+    private Map<String, Location> oldIndex;
+
+    private NodeDiff(Node oldRoot, Node newRoot) {
+        this.oldRoot = oldRoot;
+        this.newRoot = newRoot;
+        this.oldHashes = NodeHasher.hashSubtrees(oldRoot);
+        this.newHashes = NodeHasher.hashSubtrees(newRoot);
+    }
+
+    /**
+     * Compares two versions of a node tree. The roots are matched if their ids
+     * are equal, otherwise the whole tree is replaced.
+     *
+     * @param oldRoot the old version, may be null
+     * @param newRoot the new version, may be null
+     * @return the differences
+     */
+    public static DiffResult compare(Node oldRoot, Node newRoot) {
+        return new NodeDiff(oldRoot, newRoot).run();
+    }
+
+    /**
+     * Compares the documents of two versions of a file.
+     *
+     * @param oldFile the old version
+     * @param newFile the new version
+     * @return the differences, with the documents as roots
+     */
+    public static DiffResult compare(FigmaFile oldFile, FigmaFile newFile) {
+        if (oldFile == null || newFile == null) {
+            throw new IllegalArgumentException("Files must not be null");
+        }
+        return compare(toNode(oldFile.getDocument()), toNode(newFile.getDocument()));
+    }
+
+    private static Node toNode(Document document) {
+        if (document == null) {
+            return null;
+        }
+        Node node = new Node();
+        node.setId(document.getId());
+        node.setName(document.getName());
+        node.setType(document.getType());
+        node.setChildren(document.getChildren());
+        return node;
+    }
+
+    private DiffResult run() {
+        if (oldRoot != null && newRoot != null && Objects.equals(oldRoot.getId(), newRoot.getId())) {
+            counterparts.put(newRoot, oldRoot);
+            claimed.add(oldRoot);
+            walk();
+        } else {
+            if (oldRoot != null) {
+                changes.add(new NodeChange(NodeChange.Kind.REMOVED, oldRoot, null, null, null, -1, -1, List.of()));
+            }
+            if (newRoot != null) {
+                changes.add(new NodeChange(NodeChange.Kind.ADDED, null, newRoot, null, null, -1, -1, List.of()));
+            }
+        }
+        List<Node> rearranged = new ArrayList<>();
+        for (Node node : visited) {
+            if (reshaped.contains(node) || shells.contains(node) && node.getChildren() != null) {
+                rearranged.add(node);
+            }
+        }
+        return new DiffResult(oldRoot, newRoot, changes, counterparts, rearranged, shells);
+    }
+
+    private void walk() {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(newRoot);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            Node old = counterparts.get(node);
+            if (old != null) {
+                if (oldHashes.get(old).equals(newHashes.get(node))) {
+                    continue;
+                }
+                compareProperties(old, node);
+            }
+            visited.add(node);
+            matchChildren(old, node, stack);
+        }
+        for (Location location : unmatched) {
+            if (!claimed.contains(location.node())) {
+                changes.add(new NodeChange(NodeChange.Kind.REMOVED, location.node(), null,
+                        location.parent().getId(), null, location.index(), -1, List.of()));
+            }
+        }
+    }
+
+    private void compareProperties(Node old, Node node) {
+        List<PropertyChange> properties = new ArrayList<>();
+        for (NodeField field : PROPERTIES) {
+            Object oldValue = valueOf(old, field);
+            Object newValue = valueOf(node, field);
+            if (!sameValue(oldValue, newValue)) {
+                properties.add(new PropertyChange(field, oldValue, newValue));
+            }
+        }
+        if (!properties.isEmpty()) {
+            changes.add(new NodeChange(NodeChange.Kind.MODIFIED, old, node, null, null, -1, -1, properties));
+        }
+    }
+
+    /**
+     * Matches the children of a new node, which is either paired with an old
+     * node or added, and queues them for the walk.
+     *
+     * @param old   the old counterpart, or null if the node was added
+     * @param node  the new node
+     * @param stack the nodes to walk
+     */
+    private void matchChildren(Node old, Node node, Deque<Node> stack) {
+        List<Node> children = node.getChildren() != null ? node.getChildren() : List.of();
+        List<Node> oldChildren = old != null && old.getChildren() != null ? old.getChildren() : List.of();
+        Map<String, Integer> positions = new HashMap<>();
+        for (int j = oldChildren.size() - 1; j >= 0; j--) {
+            Node child = oldChildren.get(j);
+            if (child != null && child.getId() != null) {
+                positions.put(child.getId(), j);
+            }
+        }
+        boolean[] kept = new boolean[oldChildren.size()];
+        List<int[]> stayed = new ArrayList<>();
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            if (child == null) {
+                continue;
+            }
+            Integer position = child.getId() != null ? positions.get(child.getId()) : null;
+            if (position != null && !claimed.contains(oldChildren.get(position))) {
+                pair(child, oldChildren.get(position));
+                kept[position] = true;
+                stayed.add(new int[]{i, position});
+            } else {
+                Location location = lookup(child.getId());
+                if (location != null) {
+                    pair(child, location.node());
+                    changes.add(new NodeChange(NodeChange.Kind.MOVED, location.node(), child,
+                            location.parent().getId(), node.getId(), location.index(), i, List.of()));
+                    if (old == null) {
+                        markShells(node);
+                    }
+                } else {
+                    added.add(child);
+                    addedParents.put(child, node);
+                    if (old != null) {
+                        changes.add(new NodeChange(NodeChange.Kind.ADDED, null, child,
+                                null, node.getId(), -1, i, List.of()));
+                    }
+                }
+            }
+            stack.push(child);
+        }
+        if (old == null) {
+            return;
+        }
+        for (int j = 0; j < oldChildren.size(); j++) {
+            if (!kept[j] && oldChildren.get(j) != null) {
+                unmatched.add(new Location(oldChildren.get(j), old, j));
+            }
+        }
+        boolean[] ordered = longestIncreasingRun(stayed);
+        for (int k = 0; k < stayed.size(); k++) {
+            if (!ordered[k]) {
+                int[] move = stayed.get(k);
+                changes.add(new NodeChange(NodeChange.Kind.MOVED, oldChildren.get(move[1]), children.get(move[0]),
+                        old.getId(), node.getId(), move[1], move[0], List.of()));
+            }
+        }
+        if (!sameArrangement(old, node)) {
+            reshaped.add(node);
+        }
+    }
+
+    private void pair(Node node, Node old) {
+        counterparts.put(node, old);
+        claimed.add(old);
+    }
+
+    /**
+     * Marks an added node and its added ancestors as shells, because a node of
+     * the old version is moved into their subtree.
+     */
+    private void markShells(Node node) {
+        for (Node shell = node; shell != null && added.contains(shell) && shells.add(shell); ) {
+            shell = addedParents.get(shell);
+        }
+    }
+
+    private boolean sameArrangement(Node old, Node node) {
+        List<Node> oldChildren = old.getChildren();
+        List<Node> children = node.getChildren();
+        if (oldChildren == null || children == null) {
+            return oldChildren == children;
+        }
+        if (oldChildren.size() != children.size()) {
+            return false;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            Node oldChild = oldChildren.get(i);
+            if (child == null ? oldChild != null : counterparts.get(child) != oldChild) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the longest run of children that kept their relative order.
+     *
+     * @param stayed pairs of new and old index, ordered by new index
+     * @return for every pair, whether it is part of the run
+     */
+    private static boolean[] longestIncreasingRun(List<int[]> stayed) {
+        int size = stayed.size();
+        int[] tails = new int[size];
+        int[] previous = new int[size];
+        int length = 0;
+        for (int k = 0; k < size; k++) {
+            int oldIndex = stayed.get(k)[1];
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (stayed.get(tails[mid])[1] < oldIndex) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[k] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = k;
+            length = Math.max(length, low + 1);
+        }
+        boolean[] ordered = new boolean[size];
+        for (int k = length > 0 ? tails[length - 1] : -1; k >= 0; k = previous[k]) {
+            ordered[k] = true;
+        }
+        return ordered;
+    }
+
+    private Location lookup(String id) {
+        if (id == null) {
+            return null;
+        }
+        if (oldIndex == null) {
+            oldIndex = indexOldTree();
+        }
+        Location location = oldIndex.get(id);
+        return location != null && !claimed.contains(location.node()) ? location : null;
+    }
+
+    private Map<String, Location> indexOldTree() {
+        Map<String, Location> index = new HashMap<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(oldRoot);
+        while (!stack.isEmpty()) {
+            Node parent = stack.pop();
+            if (parent.getChildren() == null) {
+                continue;
+            }
+            for (int i = 0; i < parent.getChildren().size(); i++) {
+                Node child = parent.getChildren().get(i);
+                if (child != null) {
+                    if (child.getId() != null) {
+                        index.putIfAbsent(child.getId(), new Location(child, parent, i));
+                    }
+                    stack.push(child);
+                }
+            }
+        }
+        return index;
+    }
+
+    static Object valueOf(Node node, NodeField field) {
+        return switch (field) {
+            case ID -> node.getId();
+            case NAME -> node.getName();
+            case TYPE -> node.getType();
+            case VISIBLE -> node.getVisible();
+            case CHILDREN -> node.getChildren();
+            case ABSOLUTE_BOUNDING_BOX -> node.getAbsoluteBoundingBox();
+            case FILLS -> node.getFills();
+            case STROKES -> node.getStrokes();
+            case STROKE_WEIGHT -> node.getStrokeWeight();
+            case CORNER_RADIUS -> node.getCornerRadius();
+            case EFFECTS -> node.getEffects();
+            case BLEND_MODE -> node.getBlendMode();
+            case OPACITY -> node.getOpacity();
+            case CONSTRAINTS -> node.getConstraints();
+            case STYLES -> node.getStyles();
+        };
+    }
+
+    private static boolean sameValue(Object a, Object b) {
+        if (a instanceof BoundingBox first && b instanceof BoundingBox second) {
+            return Objects.equals(first.getX(), second.getX())
+                    && Objects.equals(first.getY(), second.getY())
+                    && Objects.equals(first.getWidth(), second.getWidth())
+                    && Objects.equals(first.getHeight(), second.getHeight());
+        }
+        return Objects.equals(a, b);
+    }
+
+    /**
+     * A node of the old version with its place in the tree.
+     *
+     * @param node   the node
+     * @param parent the parent
+     * @param index  the position among the children of the parent
+     */
+    private record Location(Node node, Node parent, int index) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.tlcsdm.figma2json.diff;
+
+import com.tlcsdm.figma2json.converter.NodeField;
+
+/**
+ * A property of a node that has a different value in the new version.
+ */
+public final class PropertyChange {
+
+    private final NodeField field;
+    private final Object oldValue;
+    private final Object newValue;
+
+    PropertyChange(NodeField field, Object oldValue, Object newValue) {
+        this.field = field;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Gets the changed property.
+     *
+     * @return the field
+     */
+    public NodeField getField() {
+        return field;
+    }
+
+    /**
+     * Gets the value in the old version.
+     *
+     * @return the old value, or null if the property was not set
+     */
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Gets the value in the new version.
+     *
+     * @return the new value, or null if the property is no longer set
+     */
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public String toString() {
+        return field.getJsonName() + ": " + oldValue + " -> " + newValue;
+    }
+}
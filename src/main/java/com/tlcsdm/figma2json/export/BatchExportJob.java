@@ -0,0 +1,575 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.FigmaConverter;
+import com.tlcsdm.figma2json.converter.NodeHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Converts a set of nodes and writes each result to its own file, either into
+ * a directory or as the entries of one ZIP file.
+ * <p>
+ * Items are converted on a fixed number of worker threads. A coordinating
+ * thread collects them in job order, appends them to the ZIP file if there is
+ * one and reports progress after each item; only a bounded number of items is
+ * submitted ahead of it. For a ZIP file, workers spool their output to
+ * temporary files next to it, since a ZIP stream can only be written by one
+ * thread. A failed item is recorded and the job moves on. Cancelling stops
+ * items in the middle of their output, deletes their partial files and, for a
+ * ZIP export, the incomplete ZIP file.
+ * <p>
+ * An incremental directory export keeps an {@link ExportManifest} with the
+ * content hash of every exported node. Items whose node hash, file name and
+ * converter are unchanged since the last export are skipped without being
+ * converted. Files of nodes that are not part of the job are kept, so several
+ * jobs with different selections can share a directory.
+ */
+public final class BatchExportJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchExportJob.class);
+    private static final int IN_FLIGHT_PER_THREAD = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final List<Node> nodes;
+    private final FigmaConverter converter;
+    private final Path directory;
+    private final Path zipFile;
+    private final int parallelism;
+    private final boolean incremental;
+    private final Consumer<ExportProgress> progressListener;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean cancelled;
+
+    private BatchExportJob(Builder builder) {
+        this.nodes = List.copyOf(builder.nodes);
+        this.converter = builder.converter;
+        this.directory = builder.directory;
+        this.zipFile = builder.zipFile;
+        this.parallelism = builder.parallelism;
+        this.incremental = builder.incremental;
+        this.progressListener = builder.progressListener;
+    }
+
+    /**
+     * Creates a builder for a batch export.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts the job on its own threads. A job can only be started once.
+     *
+     * @return CompletableFuture completing with the result once all items are done or the job is cancelled
+     */
+    public CompletableFuture<BatchExportResult> start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Batch export job already started");
+        }
+        CompletableFuture<BatchExportResult> result = new CompletableFuture<>();
+        Thread coordinator = new Thread(() -> {
+            try {
+                result.complete(run());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, "figma2json-export");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return result;
+    }
+
+    /**
+     * Cancels the job. Items that are already written are kept, except in a ZIP export.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether the job was cancelled.
+     *
+     * @return true if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the number of items in the job.
+     *
+     * @return the item count
+     */
+    public int getTotal() {
+        return nodes.size();
+    }
+
+    private BatchExportResult run() throws IOException {
+        long start = System.nanoTime();
+        List<String> names = outputNames();
+        Map<String, String> failures = new LinkedHashMap<>();
+        List<String> skipped = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        ExportManifest manifest = incremental ? ExportManifest.load(directory) : null;
+        Map<String, ExportManifest.Entry> reusable = manifest != null
+                && converter.getOutputKey().equals(manifest.getOutputKey()) ? manifest.getEntries() : Map.of();
+        Map<String, ExportManifest.Entry> entries = new TreeMap<>();
+        int exported = 0;
+        long bytes = 0;
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "figma2json-export-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<Spool>> inFlight = new ArrayDeque<>();
+        ZipOutputStream zip = null;
+        boolean completed = false;
+        try {
+            if (zipFile != null) {
+                Files.createDirectories(zipFile.toAbsolutePath().getParent());
+                zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipFile), BUFFER_SIZE));
+            } else {
+                Files.createDirectories(directory);
+            }
+            int submitted = 0;
+            for (int i = 0; i < nodes.size() && !cancelled; i++) {
+                while (submitted < nodes.size() && inFlight.size() < parallelism * IN_FLIGHT_PER_THREAD) {
+                    Node node = nodes.get(submitted);
+                    String name = names.get(submitted);
+                    ExportManifest.Entry previous = reusable.get(manifestKey(node, name));
+                    submitted++;
+                    inFlight.addLast(workers.submit(() -> export(node, name, previous)));
+                }
+                String error = null;
+                boolean unchanged = false;
+                try {
+                    Spool spool = inFlight.removeFirst().get();
+                    if (zip != null) {
+                        append(zip, names.get(i), spool.file());
+                    }
+                    if (spool.skipped()) {
+                        skipped.add(names.get(i));
+                        unchanged = true;
+                    } else {
+                        exported++;
+                        bytes += spool.bytes();
+                    }
+                    if (incremental) {
+                        entries.put(manifestKey(nodes.get(i), names.get(i)),
+                                new ExportManifest.Entry(names.get(i), spool.hash()));
+                    }
+                } catch (ExecutionException e) {
+                    if (cancelled) {
+                        break;
+                    }
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    error = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+                    failures.put(names.get(i), error);
+                    logger.warn("Failed to export {}: {}", names.get(i), error);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                    break;
+                }
+                if (progressListener != null) {
+                    progressListener.accept(new ExportProgress(nodes.get(i), names.get(i), error, unchanged, i + 1,
+                            nodes.size(), bytes, System.nanoTime() - start));
+                }
+            }
+            if (zip != null) {
+                zip.close();
+            }
+            if (manifest != null) {
+                updateManifest(manifest, reusable, entries, names, deleted);
+            }
+            completed = true;
+        } finally {
+            workers.shutdownNow();
+            discard(inFlight);
+            if (zip != null) {
+                if (!completed) {
+                    closeQuietly(zip);
+                }
+                if (cancelled || !completed) {
+                    Files.deleteIfExists(zipFile);
+                }
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("Batch export of {} items to {}: {} exported, {} unchanged, {} failed, {} deleted, cancelled={}, "
+                        + "{} bytes in {} ms", nodes.size(), getTarget(), exported, skipped.size(), failures.size(),
+                deleted.size(), cancelled, bytes, elapsed.toMillis());
+        return new BatchExportResult(getTarget(), nodes.size(), exported, failures, skipped, deleted, cancelled,
+                bytes, elapsed);
+    }
+
+    private Path getTarget() {
+        return zipFile != null ? zipFile : directory;
+    }
+
+    /**
+     * Converts one item, into its file in the target directory or into a spool file for the ZIP file.
+     * An item of an incremental export is skipped if its node still has the hash of the previous export.
+     */
+    private Spool export(Node node, String name, ExportManifest.Entry previous) throws IOException {
+        String hash = incremental ? NodeHasher.hash(node) : null;
+        if (previous != null && previous.hash().equals(hash) && previous.file().equals(name)
+                && Files.isRegularFile(directory.resolve(name))) {
+            return new Spool(null, 0, hash, true);
+        }
+        // Directory items are written next to their file and moved into place once complete,
+        // so a failed or cancelled export keeps the previous file
+        Path file = zipFile != null
+                ? Files.createTempFile(zipFile.toAbsolutePath().getParent(), ".figma2json-export-", ".tmp")
+                : Files.createTempFile(directory, "." + name, ".tmp");
+        boolean written = false;
+        try {
+            long count;
+            try (CountingOutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+                converter.convert(node, out);
+                count = out.count;
+            }
+            if (zipFile == null) {
+                Files.move(file, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            written = true;
+            return new Spool(zipFile != null ? file : null, count, hash, false);
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Saves the manifest of an incremental export. The job may cover only part of
+     * the directory, so entries of nodes that are not part of it are carried
+     * forward and their files kept. A completed export only deletes the previous
+     * file of a node that it wrote under another name; a cancelled one keeps all
+     * previous entries for the next export.
+     */
+    private void updateManifest(ExportManifest previous, Map<String, ExportManifest.Entry> reusable,
+                                Map<String, ExportManifest.Entry> entries, List<String> names,
+                                List<String> deleted) throws IOException {
+        if (cancelled) {
+            reusable.forEach(entries::putIfAbsent);
+        } else {
+            Set<String> keys = new HashSet<>();
+            Set<String> written = new HashSet<>();
+            for (int i = 0; i < nodes.size(); i++) {
+                keys.add(manifestKey(nodes.get(i), names.get(i)));
+                written.add(names.get(i).toLowerCase(Locale.ROOT));
+            }
+            for (Map.Entry<String, ExportManifest.Entry> previousEntry : previous.getEntries().entrySet()) {
+                String name = previousEntry.getValue().file();
+                if (written.contains(name.toLowerCase(Locale.ROOT))) {
+                    // The file now belongs to a node of this job
+                    continue;
+                }
+                if (!keys.contains(previousEntry.getKey())) {
+                    // Entries from other converter settings would skip nodes that need rewriting
+                    if (reusable.containsKey(previousEntry.getKey())) {
+                        entries.putIfAbsent(previousEntry.getKey(), previousEntry.getValue());
+                    }
+                } else if (name.equals(sanitize(name)) && !name.isEmpty()
+                        && Files.deleteIfExists(directory.resolve(name))) {
+                    // Only plain file names of this directory are deleted, whatever the manifest says
+                    deleted.add(name);
+                }
+            }
+        }
+        new ExportManifest(converter.getOutputKey(), entries).save(directory);
+    }
+
+    /**
+     * Identifies an item in the manifest by its node id, or by its file name for nodes without an id.
+     */
+    private static String manifestKey(Node node, String name) {
+        return node.getId() != null ? node.getId() : name;
+    }
+
+    private void closeQuietly(ZipOutputStream zip) {
+        try {
+            zip.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close ZIP file {}", zipFile, e);
+        }
+    }
+
+    private static void append(ZipOutputStream zip, String name, Path spoolFile) throws IOException {
+        try {
+            zip.putNextEntry(new ZipEntry(name));
+            Files.copy(spoolFile, zip);
+            zip.closeEntry();
+        } finally {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+
+    /**
+     * Stops the items that were not collected and deletes their spool files.
+     */
+    private void discard(Deque<Future<Spool>> inFlight) {
+        for (Future<Spool> future : inFlight) {
+            future.cancel(true);
+        }
+        for (Future<Spool> future : inFlight) {
+            try {
+                Spool spool = future.get();
+                if (spool.file() != null) {
+                    Files.deleteIfExists(spool.file());
+                }
+            } catch (CancellationException | ExecutionException e) {
+                // Cancelled or failed items have already removed their output
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                logger.warn("Failed to delete export spool file", e);
+            }
+        }
+    }
+
+    /**
+     * Assigns every item a file name derived from its node name, unique within the job.
+     */
+    private List<String> outputNames() {
+        String extension = "." + converter.getFileExtension();
+        Set<String> used = new HashSet<>();
+        List<String> names = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            String base = sanitize(node.getName());
+            if (base.isEmpty()) {
+                base = sanitize(node.getId());
+            }
+            if (base.isEmpty()) {
+                base = "node";
+            }
+            String name = base + extension;
+            // Case-insensitive, so names stay distinct on case-insensitive file systems
+            for (int n = 2; !used.add(name.toLowerCase(Locale.ROOT)); n++) {
+                name = base + "-" + n + extension;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    static String sanitize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder sanitized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sanitized.append(c < 0x20 || "\\/:*?\"<>|".indexOf(c) >= 0 ? '_' : c);
+        }
+        String result = sanitized.toString().strip();
+        // Leading dots would hide the file, trailing dots are dropped by Windows
+        while (result.startsWith(".")) {
+            result = result.substring(1);
+        }
+        while (result.endsWith(".")) {
+            result = result.substring(0, result.length() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Converted output of one item.
+     *
+     * @param file    the spool file to append to the ZIP file, or null if the item was written in place
+     * @param bytes   the size of the converted output
+     * @param hash    the content hash of the node for an incremental export, null otherwise
+     * @param skipped true if the item was unchanged and not converted
+     */
+    private record Spool(Path file, long bytes, String hash, boolean skipped) {
+    }
+
+    /**
+     * Counts the bytes written and stops the conversion once the job is cancelled.
+     */
+    private final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkCancelled();
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            out.write(b, off, len);
+            count += len;
+        }
+
+        private void checkCancelled() throws IOException {
+            if (cancelled) {
+                throw new IOException("Batch export cancelled");
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link BatchExportJob}.
+     */
+    public static final class Builder {
+        private List<Node> nodes = List.of();
+        private FigmaConverter converter;
+        private Path directory;
+        private Path zipFile;
+        private int parallelism = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        private boolean incremental;
+        private Consumer<ExportProgress> progressListener;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the nodes to export, each into its own file.
+         *
+         * @param nodes the nodes, in job order
+         * @return this builder
+         */
+        public Builder nodes(List<Node> nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        /**
+         * Sets the converter for all items. It is used from several threads at once.
+         *
+         * @param converter the converter
+         * @return this builder
+         */
+        public Builder converter(FigmaConverter converter) {
+            this.converter = converter;
+            return this;
+        }
+
+        /**
+         * Writes the items as separate files into a directory, which is created if needed.
+         *
+         * @param directory the target directory
+         * @return this builder
+         */
+        public Builder toDirectory(Path directory) {
+            this.directory = directory;
+            this.zipFile = null;
+            return this;
+        }
+
+        /**
+         * Writes the items as the entries of one ZIP file.
+         *
+         * @param zipFile the target ZIP file
+         * @return this builder
+         */
+        public Builder toZip(Path zipFile) {
+            this.zipFile = zipFile;
+            this.directory = null;
+            return this;
+        }
+
+        /**
+         * Sets the number of items converted at the same time.
+         *
+         * @param parallelism the number of worker threads, at least 1
+         * @return this builder
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets whether a directory export only rewrites the files of changed nodes,
+         * using the {@link ExportManifest} of the directory. Files of nodes that are
+         * not part of the job are kept.
+         *
+         * @param incremental true to skip unchanged nodes, false to write every item (default)
+         * @return this builder
+         */
+        public Builder incremental(boolean incremental) {
+            this.incremental = incremental;
+            return this;
+        }
+
+        /**
+         * Sets the listener notified after each item, on the job's coordinating thread.
+         *
+         * @param progressListener the listener, or null for none
+         * @return this builder
+         */
+        public Builder progressListener(Consumer<ExportProgress> progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        public BatchExportJob build() {
+            if (nodes == null || nodes.isEmpty()) {
+                throw new IllegalArgumentException("Nothing to export");
+            }
+            if (nodes.stream().anyMatch(Objects::isNull)) {
+                throw new IllegalArgumentException("Nodes must not contain null");
+            }
+            if (converter == null) {
+                throw new IllegalArgumentException("Converter must not be null");
+            }
+            if (directory == null && zipFile == null) {
+                throw new IllegalArgumentException("Target directory or ZIP file must be set");
+            }
+            if (incremental && directory == null) {
+                throw new IllegalArgumentException("Incremental export needs a target directory");
+            }
+            return new BatchExportJob(this);
+        }
+    }
+}
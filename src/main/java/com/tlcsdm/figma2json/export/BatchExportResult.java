@@ -0,0 +1,129 @@
+package com.tlcsdm.figma2json.export;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a batch export.
+ */
+public final class BatchExportResult {
+
+    private final Path target;
+    private final int total;
+    private final int exported;
+    private final Map<String, String> failures;
+    private final List<String> skipped;
+    private final List<String> deleted;
+    private final boolean cancelled;
+    private final long bytesWritten;
+    private final Duration elapsed;
+
+    BatchExportResult(Path target, int total, int exported, Map<String, String> failures, List<String> skipped,
+                      List<String> deleted, boolean cancelled, long bytesWritten, Duration elapsed) {
+        this.target = target;
+        this.total = total;
+        this.exported = exported;
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        this.skipped = List.copyOf(skipped);
+        this.deleted = List.copyOf(deleted);
+        this.cancelled = cancelled;
+        this.bytesWritten = bytesWritten;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Gets the directory or ZIP file the job wrote to. A cancelled ZIP export is deleted.
+     *
+     * @return the target path
+     */
+    public Path getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets the number of items in the job.
+     *
+     * @return the total count
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the number of items that were written, not counting skipped ones.
+     *
+     * @return the exported count
+     */
+    public int getExportedCount() {
+        return exported;
+    }
+
+    /**
+     * Gets the items that failed, in job order.
+     *
+     * @return the error messages keyed by output name
+     */
+    public Map<String, String> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the items of an incremental export whose nodes did not change, so their files were kept.
+     *
+     * @return the output names, in job order
+     */
+    public List<String> getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Gets the files of an incremental export that were deleted because their
+     * nodes were exported under another file name.
+     *
+     * @return the deleted file names
+     */
+    public List<String> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Checks whether the job was cancelled before all items completed.
+     *
+     * @return true if the job was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the number of converted bytes written, before ZIP compression.
+     *
+     * @return the byte count
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Gets the wall-clock time of the job.
+     *
+     * @return the elapsed time
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Gets the average throughput of the job.
+     *
+     * @return the converted bytes written per second
+     */
+    public double getBytesPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos > 0 ? bytesWritten * 1e9 / nanos : 0;
+    }
+}
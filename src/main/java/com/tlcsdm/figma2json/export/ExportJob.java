@@ -0,0 +1,285 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.FigmaConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Converts one node and writes the result to a file, off the calling thread.
+ * <p>
+ * The output is written to a temporary file next to the target, which is
+ * moved into place once it is complete, so the target is never left half
+ * written. Progress is reported as the number of bytes written so far.
+ * <p>
+ * Cancelling stops the conversion in the middle of its output, or the wait
+ * for a speculation that is still converting the node. The temporary file is
+ * deleted and an existing target file is left as it was. If a
+ * {@link SpeculativeConverter} is set, a result it already holds is written
+ * without converting the node again.
+ */
+public final class ExportJob {
+
+    /**
+     * Number of bytes written between two progress reports.
+     */
+    static final long PROGRESS_INTERVAL_BYTES = 1024 * 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJob.class);
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Node node;
+    private final FigmaConverter converter;
+    private final Path target;
+    private final SpeculativeConverter speculativeConverter;
+    private final String version;
+    private final LongConsumer progressListener;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean cancelled;
+
+    private ExportJob(Builder builder) {
+        this.node = builder.node;
+        this.converter = builder.converter;
+        this.target = builder.target;
+        this.speculativeConverter = builder.speculativeConverter;
+        this.version = builder.version;
+        this.progressListener = builder.progressListener;
+    }
+
+    /**
+     * Creates a builder for an export.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts the export on the given executor. A job can only be started once.
+     *
+     * @param executor the executor to convert and write on
+     * @return CompletableFuture completing with the number of bytes written, or
+     * with a {@link CancellationException} if the job was cancelled
+     */
+    public CompletableFuture<Long> start(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Export job already started");
+        }
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(run());
+            } catch (Throwable e) {
+                result.completeExceptionally(cancelled ? new CancellationException("Export cancelled") : e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Cancels the job. The target file is left as it was.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether the job was cancelled.
+     *
+     * @return true if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the file the node is exported to.
+     *
+     * @return the target file
+     */
+    public Path getTarget() {
+        return target;
+    }
+
+    private long run() throws IOException {
+        if (cancelled) {
+            throw new CancellationException("Export cancelled");
+        }
+        long start = System.nanoTime();
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "." + target.getFileName(), TEMP_FILE_SUFFIX);
+        try {
+            ProgressOutputStream out = new ProgressOutputStream(Files.newOutputStream(temp));
+            boolean speculated;
+            try (OutputStream buffered = new BufferedOutputStream(out, FigmaConverter.STREAM_BUFFER_SIZE)) {
+                speculated = speculativeConverter != null
+                        ? speculativeConverter.convert(node, version, converter, buffered, this::isCancelled)
+                        : convert(buffered);
+            }
+            if (cancelled) {
+                throw new CancellationException("Export cancelled");
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Exported {} to {}: {} bytes in {} ms, speculated={}", node.getId(), target, out.count,
+                    (System.nanoTime() - start) / 1_000_000, speculated);
+            return out.count;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean convert(OutputStream out) throws IOException {
+        converter.convert(node, out);
+        return false;
+    }
+
+    /**
+     * Counts the bytes written, reports progress and stops the conversion once the job is cancelled.
+     */
+    private final class ProgressOutputStream extends FilterOutputStream {
+        private long count;
+        private long reported;
+
+        ProgressOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkCancelled();
+            out.write(b);
+            advance(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            out.write(b, off, len);
+            advance(len);
+        }
+
+        private void advance(int length) {
+            count += length;
+            if (progressListener != null && count - reported >= PROGRESS_INTERVAL_BYTES) {
+                reported = count;
+                progressListener.accept(count);
+            }
+        }
+
+        private void checkCancelled() throws IOException {
+            if (cancelled) {
+                throw new IOException("Export cancelled");
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link ExportJob}.
+     */
+    public static final class Builder {
+        private Node node;
+        private FigmaConverter converter;
+        private Path target;
+        private SpeculativeConverter speculativeConverter;
+        private String version;
+        private LongConsumer progressListener;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the node to export.
+         *
+         * @param node the node
+         * @return this builder
+         */
+        public Builder node(Node node) {
+            this.node = node;
+            return this;
+        }
+
+        /**
+         * Sets the converter.
+         *
+         * @param converter the converter
+         * @return this builder
+         */
+        public Builder converter(FigmaConverter converter) {
+            this.converter = converter;
+            return this;
+        }
+
+        /**
+         * Sets the file to write. Its directory is created if needed.
+         *
+         * @param target the target file
+         * @return this builder
+         */
+        public Builder toFile(Path target) {
+            this.target = target;
+            return this;
+        }
+
+        /**
+         * Takes the result from a speculative conversion of the node, if there is one.
+         *
+         * @param speculativeConverter the speculative converter, or null to always convert
+         * @param version              the version of the document containing the node
+         * @return this builder
+         */
+        public Builder speculation(SpeculativeConverter speculativeConverter, String version) {
+            this.speculativeConverter = speculativeConverter;
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * Sets a listener that receives the number of bytes written so far. It is
+         * called on the export thread, about once per megabyte.
+         *
+         * @param progressListener the listener, or null
+         * @return this builder
+         */
+        public Builder progressListener(LongConsumer progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Builds the job.
+         *
+         * @return the export job
+         * @throws IllegalArgumentException if the node, converter or target is missing
+         */
+        public ExportJob build() {
+            if (node == null) {
+                throw new IllegalArgumentException("Node must not be null");
+            }
+            if (converter == null) {
+                throw new IllegalArgumentException("Converter must not be null");
+            }
+            if (target == null) {
+                throw new IllegalArgumentException("Target file must not be null");
+            }
+            return new ExportJob(this);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.tlcsdm.figma2json.export;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records which node each file of a directory export was written from, and the
+ * content hash of the node at that time.
+ * <p>
+ * The manifest is stored as {@value #FILE_NAME} in the export directory, with
+ * entries sorted by node id so it is byte-for-byte stable between runs. It also
+ * records the {@link com.tlcsdm.figma2json.converter.FigmaConverter#getOutputKey()
+ * output key} of the converter; entries written by another converter or profile
+ * are never reused.
+ */
+public final class ExportManifest {
+
+    /**
+     * Name of the manifest file in the export directory.
+     */
+    public static final String FILE_NAME = ".figma2json-manifest.json";
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportManifest.class);
+    private static final int VERSION = 1;
+
+    private final String outputKey;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates a manifest.
+     *
+     * @param outputKey the output key of the converter, or null if unknown
+     * @param entries   the entries keyed by node id
+     */
+    public ExportManifest(String outputKey, Map<String, Entry> entries) {
+        if (entries == null) {
+            throw new IllegalArgumentException("Entries must not be null");
+        }
+        this.outputKey = outputKey;
+        this.entries = Collections.unmodifiableMap(new TreeMap<>(entries));
+    }
+
+    /**
+     * Loads the manifest of an export directory. A missing or unreadable manifest
+     * is treated as empty, so the next export writes every file.
+     *
+     * @param directory the export directory
+     * @return the manifest, empty if there is none
+     */
+    public static ExportManifest load(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(new JsonReader(reader));
+        } catch (NoSuchFileException e) {
+            return new ExportManifest(null, Map.of());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable export manifest {}", file, e);
+            return new ExportManifest(null, Map.of());
+        }
+    }
+
+    private static ExportManifest read(JsonReader in) throws IOException {
+        String outputKey = null;
+        int version = -1;
+        Map<String, Entry> entries = new TreeMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "version" -> version = in.nextInt();
+                case "outputKey" -> outputKey = in.nextString();
+                case "entries" -> {
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String nodeId = in.nextName();
+                        String fileName = null;
+                        String hash = null;
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            switch (in.nextName()) {
+                                case "file" -> fileName = in.nextString();
+                                case "hash" -> hash = in.nextString();
+                                default -> in.skipValue();
+                            }
+                        }
+                        in.endObject();
+                        if (fileName != null && hash != null) {
+                            entries.put(nodeId, new Entry(fileName, hash));
+                        }
+                    }
+                    in.endObject();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (version != VERSION) {
+            throw new IOException("Unsupported export manifest version: " + version);
+        }
+        return new ExportManifest(outputKey, entries);
+    }
+
+    /**
+     * Writes the manifest into an export directory, replacing the previous one atomically where supported.
+     *
+     * @param directory the export directory
+     * @throws IOException if writing fails
+     */
+    public void save(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        Path temp = Files.createTempFile(directory, FILE_NAME, ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                JsonWriter out = new JsonWriter(writer);
+                out.setIndent("  ");
+                out.beginObject();
+                out.name("version").value(VERSION);
+                out.name("outputKey").value(outputKey);
+                out.name("entries").beginObject();
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    out.name(entry.getKey()).beginObject();
+                    out.name("file").value(entry.getValue().file());
+                    out.name("hash").value(entry.getValue().hash());
+                    out.endObject();
+                }
+                out.endObject();
+                out.endObject();
+                out.flush();
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gets the output key of the converter the files were written with.
+     *
+     * @return the output key, or null for an empty manifest
+     */
+    public String getOutputKey() {
+        return outputKey;
+    }
+
+    /**
+     * Gets the exported files.
+     *
+     * @return an unmodifiable map of entries keyed by node id, sorted by node id
+     */
+    public Map<String, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * An exported file.
+     *
+     * @param file the file name in the export directory
+     * @param hash the {@link com.tlcsdm.figma2json.converter.NodeHasher content hash} of the node it was written from
+     */
+    public record Entry(String file, String hash) {
+    }
+}
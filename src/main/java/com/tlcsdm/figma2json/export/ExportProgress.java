@@ -0,0 +1,130 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+
+/**
+ * Progress of a batch export, reported after each item.
+ */
+public final class ExportProgress {
+
+    private final Node node;
+    private final String outputName;
+    private final String error;
+    private final boolean skipped;
+    private final int completed;
+    private final int total;
+    private final long bytesWritten;
+    private final long elapsedNanos;
+
+    ExportProgress(Node node, String outputName, String error, boolean skipped, int completed, int total,
+                   long bytesWritten, long elapsedNanos) {
+        this.node = node;
+        this.outputName = outputName;
+        this.error = error;
+        this.skipped = skipped;
+        this.completed = completed;
+        this.total = total;
+        this.bytesWritten = bytesWritten;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the node of the item that just completed.
+     *
+     * @return the exported node
+     */
+    public Node getNode() {
+        return node;
+    }
+
+    /**
+     * Gets the file or ZIP entry name of the item that just completed.
+     *
+     * @return the output name
+     */
+    public String getOutputName() {
+        return outputName;
+    }
+
+    /**
+     * Gets the reason the item failed.
+     *
+     * @return the error message, or null if the item was exported
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Checks whether the item that just completed was exported.
+     *
+     * @return true if the item was exported, false if it failed
+     */
+    public boolean isSucceeded() {
+        return error == null;
+    }
+
+    /**
+     * Checks whether the item was left as it was because its node did not change
+     * since the last incremental export.
+     *
+     * @return true if the existing file was kept
+     */
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Gets the number of items completed so far, including failed ones.
+     *
+     * @return the completed count
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the number of items in the job.
+     *
+     * @return the total count
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the completed fraction of the job.
+     *
+     * @return a value between 0 and 1
+     */
+    public double getFraction() {
+        return total > 0 ? (double) completed / total : 1.0;
+    }
+
+    /**
+     * Gets the number of converted bytes written so far, before ZIP compression.
+     *
+     * @return the byte count
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Gets the average throughput since the job started.
+     *
+     * @return the converted bytes written per second
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos > 0 ? bytesWritten * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Gets the average item rate since the job started.
+     *
+     * @return the completed items per second
+     */
+    public double getItemsPerSecond() {
+        return elapsedNanos > 0 ? completed * 1e9 / elapsedNanos : 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selects the nodes of a batch export.
+ */
+public final class ExportSelection {
+
+    /**
+     * Node types that count as frames when exporting the top level of a page.
+     */
+    public static final Set<String> FRAME_TYPES = Set.of("FRAME", "COMPONENT", "COMPONENT_SET", "SECTION");
+
+    private ExportSelection() {
+    }
+
+    /**
+     * Selects the frames directly on a page, in page order.
+     *
+     * @param page the page node
+     * @return the top-level frames, empty if the page has none
+     */
+    public static List<Node> topLevelFrames(Node page) {
+        List<Node> frames = new ArrayList<>();
+        if (page != null && page.getChildren() != null) {
+            for (Node child : page.getChildren()) {
+                if (child != null && FRAME_TYPES.contains(child.getType())) {
+                    frames.add(child);
+                }
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Selects the descendants of a node whose name contains the query and whose
+     * type is one of the given types, in document order. The descendants of a
+     * match are not searched, so no node is exported twice.
+     *
+     * @param root      the node to search below
+     * @param nameQuery the case-insensitive part of the name to look for, null or blank for any name
+     * @param types     the node types to select, null or empty for any type
+     * @return the matching nodes
+     */
+    public static List<Node> query(Node root, String nameQuery, Collection<String> types) {
+        String needle = nameQuery == null || nameQuery.isBlank() ? null : nameQuery.strip().toLowerCase(Locale.ROOT);
+        Set<String> wantedTypes = types == null ? Set.of() : types.stream()
+                .filter(type -> type != null && !type.isBlank())
+                .map(type -> type.strip().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        List<Node> matches = new ArrayList<>();
+        if (root == null || root.getChildren() == null) {
+            return matches;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pushChildren(pending, root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (matches(node, needle, wantedTypes)) {
+                matches.add(node);
+            } else {
+                pushChildren(pending, node);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean matches(Node node, String needle, Set<String> types) {
+        if (!types.isEmpty() && !types.contains(node.getType())) {
+            return false;
+        }
+        return needle == null || node.getName() != null && node.getName().toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private static void pushChildren(Deque<Node> pending, Node node) {
+        List<Node> children = node.getChildren();
+        if (children == null) {
+            return;
+        }
+        // Pushed in reverse, so nodes are visited in document order
+        for (int i = children.size() - 1; i >= 0; i--) {
+            if (children.get(i) != null) {
+                pending.push(children.get(i));
+            }
+        }
+    }
+}
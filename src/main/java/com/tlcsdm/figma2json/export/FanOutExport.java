@@ -0,0 +1,158 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.FigmaConverter;
+import com.tlcsdm.figma2json.converter.NodeSink;
+import com.tlcsdm.figma2json.converter.NodeTraversal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports one node in several formats, or with several profiles of a format,
+ * with a single walk of its tree.
+ * <p>
+ * Every target is a converter with its own sink; all sinks subscribe to one
+ * {@link NodeTraversal}. Streaming converters write while the tree is walked,
+ * so the cost of a multi-format export is close to that of one traversal plus
+ * the serialization of each format. Converters without a streaming sink fall
+ * back to converting the node on their own.
+ */
+public final class FanOutExport {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanOutExport.class);
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final List<Target> targets = new ArrayList<>();
+
+    /**
+     * Adds a target that writes to a writer. The writer is flushed but not closed.
+     *
+     * @param converter the converter
+     * @param writer    the writer
+     * @return this export
+     */
+    public FanOutExport add(FigmaConverter converter, Writer writer) {
+        if (converter == null || writer == null) {
+            throw new IllegalArgumentException("Converter and writer must not be null");
+        }
+        targets.add(new Target(converter, writer, null));
+        return this;
+    }
+
+    /**
+     * Adds a target that writes to a file, which is created or replaced by {@link #export(Node)}.
+     * The file is written through {@link FigmaConverter#newSink(OutputStream)}, so
+     * binary formats are stored as bytes and text formats as UTF-8.
+     *
+     * @param converter the converter
+     * @param file      the file
+     * @return this export
+     */
+    public FanOutExport add(FigmaConverter converter, Path file) {
+        if (converter == null || file == null) {
+            throw new IllegalArgumentException("Converter and file must not be null");
+        }
+        targets.add(new Target(converter, null, file));
+        return this;
+    }
+
+    /**
+     * Gets the number of targets.
+     *
+     * @return the target count
+     */
+    public int size() {
+        return targets.size();
+    }
+
+    /**
+     * Converts a node for all targets. Files are written next to their targets
+     * and only moved into place once every target is complete, so if the export
+     * fails, existing files are left as they were.
+     *
+     * @param node the node
+     * @throws IOException if a conversion or writing fails
+     */
+    public void export(Node node) throws IOException {
+        List<OutputStream> opened = new ArrayList<>();
+        List<Path> temps = new ArrayList<>();
+        boolean completed = false;
+        try {
+            List<NodeSink> sinks = new ArrayList<>(targets.size());
+            for (Target target : targets) {
+                if (target.writer() != null) {
+                    sinks.add(target.converter().newSink(target.writer()));
+                } else {
+                    Path temp = Files.createTempFile(target.file().toAbsolutePath().getParent(),
+                            "." + target.file().getFileName(), TEMP_FILE_SUFFIX);
+                    temps.add(temp);
+                    OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp),
+                            FigmaConverter.STREAM_BUFFER_SIZE);
+                    opened.add(out);
+                    sinks.add(target.converter().newSink(out));
+                }
+            }
+            NodeTraversal.traverse(node, sinks);
+            completed = true;
+        } finally {
+            IOException closeFailure = null;
+            for (OutputStream out : opened) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    closeFailure = e;
+                }
+            }
+            if (completed && closeFailure == null) {
+                moveIntoPlace(temps);
+            } else {
+                deleteFiles(temps);
+            }
+            // A failure of the export itself takes precedence
+            if (completed && closeFailure != null) {
+                throw closeFailure;
+            }
+        }
+    }
+
+    private void moveIntoPlace(List<Path> temps) throws IOException {
+        int moved = 0;
+        try {
+            for (Target target : targets) {
+                if (target.file() != null) {
+                    Files.move(temps.get(moved), target.file(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    moved++;
+                }
+            }
+        } finally {
+            deleteFiles(temps.subList(moved, temps.size()));
+        }
+    }
+
+    private static void deleteFiles(List<Path> temps) {
+        for (Path temp : temps) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.warn("Failed to delete incomplete export {}", temp, e);
+            }
+        }
+    }
+
+    /**
+     * A converter and where its output goes; exactly one of writer and file is set.
+     */
+    private record Target(FigmaConverter converter, Writer writer, Path file) {
+    }
+}
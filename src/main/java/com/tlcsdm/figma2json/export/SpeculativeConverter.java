@@ -0,0 +1,353 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.FigmaConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Converts the node that is likely to be exported next in the background and
+ * keeps recent results in memory, so the export itself only has to write them.
+ * <p>
+ * Only one speculation runs at a time: starting one for another node cancels
+ * the previous one in the middle of its output. Results are keyed by node id,
+ * document version and {@link FigmaConverter#getOutputKey() output key}, and
+ * evicted in least-recently-used order once their total size exceeds the
+ * memory budget. A result larger than the budget is never kept; its
+ * speculation stops as soon as it grows too large, and the export converts the
+ * node itself.
+ */
+public final class SpeculativeConverter implements AutoCloseable {
+
+    /**
+     * Default memory budget for kept results.
+     */
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeculativeConverter.class);
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final long budgetBytes;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "figma2json-speculation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LinkedHashMap<Key, byte[]> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long weightBytes;
+    private long hits;
+    private long misses;
+    private Speculation current;
+
+    public SpeculativeConverter() {
+        this(DEFAULT_BUDGET_BYTES);
+    }
+
+    /**
+     * Creates a speculative converter with the given memory budget.
+     *
+     * @param budgetBytes the memory budget for kept results in bytes, 0 to keep none
+     */
+    public SpeculativeConverter(long budgetBytes) {
+        if (budgetBytes < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative");
+        }
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Starts converting a node in the background, unless its result is already
+     * kept or being converted. A running speculation for another result is cancelled.
+     *
+     * @param node      the node that is likely to be exported
+     * @param version   the version of the document containing the node
+     * @param converter the converter of the export
+     */
+    public synchronized void speculate(Node node, String version, FigmaConverter converter) {
+        Key key = Key.of(node, version, converter);
+        if (current != null && current.key.equals(key)) {
+            return;
+        }
+        cancel();
+        if (key == null || budgetBytes == 0 || results.containsKey(key)) {
+            return;
+        }
+        Speculation speculation = new Speculation(key);
+        current = speculation;
+        speculation.future = CompletableFuture.supplyAsync(() -> run(speculation, node, converter), executor);
+    }
+
+    /**
+     * Cancels the running speculation, if there is one.
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancelled = true;
+            current = null;
+        }
+    }
+
+    /**
+     * Converts a node and writes the result to a stream. A kept result is
+     * written right away; if the node is being converted in the background,
+     * the speculation is awaited. Otherwise the node is converted in the
+     * calling thread. The stream is flushed but not closed.
+     *
+     * @param node      the node to convert
+     * @param version   the version of the document containing the node
+     * @param converter the converter
+     * @param out       the stream to write to
+     * @return true if the result came from a speculation
+     * @throws IOException if converting or writing fails
+     */
+    public boolean convert(Node node, String version, FigmaConverter converter, OutputStream out)
+            throws IOException {
+        return convert(node, version, converter, out, () -> false);
+    }
+
+    /**
+     * Converts a node and writes the result to a stream, like
+     * {@link #convert(Node, String, FigmaConverter, OutputStream)}, but stops
+     * waiting for a running speculation once the caller is cancelled.
+     *
+     * @param node      the node to convert
+     * @param version   the version of the document containing the node
+     * @param converter the converter
+     * @param out       the stream to write to
+     * @param cancelled checked while waiting for a speculation
+     * @return true if the result came from a speculation
+     * @throws IOException if converting or writing fails, or the caller is cancelled while waiting
+     */
+    public boolean convert(Node node, String version, FigmaConverter converter, OutputStream out,
+                           BooleanSupplier cancelled) throws IOException {
+        if (cancelled == null) {
+            throw new IllegalArgumentException("Cancellation check must not be null");
+        }
+        Key key = Key.of(node, version, converter);
+        byte[] result = key != null ? await(key, cancelled) : null;
+        if (result == null) {
+            converter.convert(node, out);
+            return false;
+        }
+        out.write(result);
+        out.flush();
+        return true;
+    }
+
+    /**
+     * Gets a kept result or waits for the speculation producing it.
+     *
+     * @return the result, or null if it is neither kept nor being converted
+     */
+    private byte[] await(Key key, BooleanSupplier cancelled) throws IOException {
+        CompletableFuture<byte[]> pending;
+        synchronized (this) {
+            byte[] result = results.get(key);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+            if (current == null || !current.key.equals(key)) {
+                misses++;
+                return null;
+            }
+            pending = current.future;
+        }
+        try {
+            byte[] result = poll(pending, cancelled);
+            synchronized (this) {
+                if (result != null) {
+                    hits++;
+                } else {
+                    misses++;
+                }
+            }
+            return result;
+        } catch (ExecutionException | CancellationException e) {
+            // The conversion is retried by the caller, which reports its failure
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a speculative conversion", e);
+        }
+    }
+
+    private static byte[] poll(CompletableFuture<byte[]> pending, BooleanSupplier cancelled)
+            throws IOException, ExecutionException, InterruptedException {
+        while (true) {
+            if (cancelled.getAsBoolean()) {
+                throw new IOException("Conversion cancelled while waiting for a speculation");
+            }
+            try {
+                return pending.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still converting, check the caller again
+            }
+        }
+    }
+
+    private byte[] run(Speculation speculation, Node node, FigmaConverter converter) {
+        byte[] result = null;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            converter.convert(node, new GuardedOutputStream(buffer, speculation));
+            result = buffer.toByteArray();
+        } catch (IOException e) {
+            if (!speculation.cancelled) {
+                logger.debug("Speculative conversion of {} stopped: {}", speculation.key, e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Speculative conversion of {} failed", speculation.key, e);
+        }
+        synchronized (this) {
+            if (current == speculation) {
+                current = null;
+            }
+            if (result != null) {
+                keep(speculation.key, result);
+            }
+        }
+        return result;
+    }
+
+    private void keep(Key key, byte[] result) {
+        byte[] previous = results.put(key, result);
+        if (previous != null) {
+            weightBytes -= previous.length;
+        }
+        weightBytes += result.length;
+        Iterator<byte[]> eldest = results.values().iterator();
+        while (weightBytes > budgetBytes && eldest.hasNext()) {
+            weightBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Gets the number of results kept in memory.
+     *
+     * @return the result count
+     */
+    public synchronized int getResultCount() {
+        return results.size();
+    }
+
+    /**
+     * Gets the total size of the results kept in memory.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getResultBytes() {
+        return weightBytes;
+    }
+
+    /**
+     * Gets the number of conversions served from a speculation.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of conversions that had to convert the node themselves.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Cancels the running speculation, drops all kept results and stops the background thread.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            cancel();
+            results.clear();
+            weightBytes = 0;
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Identifies a conversion result. Nodes without an id and documents without a version are not kept.
+     */
+    private record Key(String nodeId, String version, String outputKey) {
+
+        static Key of(Node node, String version, FigmaConverter converter) {
+            if (node == null || converter == null) {
+                throw new IllegalArgumentException("Node and converter must not be null");
+            }
+            if (node.getId() == null || version == null) {
+                return null;
+            }
+            return new Key(node.getId(), version, converter.getOutputKey());
+        }
+    }
+
+    /**
+     * A background conversion.
+     */
+    private static final class Speculation {
+        private final Key key;
+        private volatile boolean cancelled;
+        private CompletableFuture<byte[]> future;
+
+        Speculation(Key key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Stops a speculation once it is cancelled or its output outgrows the memory budget.
+     */
+    private final class GuardedOutputStream extends FilterOutputStream {
+        private final Speculation speculation;
+        private long count;
+
+        GuardedOutputStream(OutputStream out, Speculation speculation) {
+            super(out);
+            this.speculation = speculation;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            check(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            check(len);
+            out.write(b, off, len);
+        }
+
+        private void check(int length) throws IOException {
+            if (speculation.cancelled) {
+                throw new IOException("Speculative conversion cancelled");
+            }
+            count += length;
+            if (count > budgetBytes) {
+                throw new IOException("Speculative conversion exceeds the memory budget");
+            }
+        }
+    }
+}
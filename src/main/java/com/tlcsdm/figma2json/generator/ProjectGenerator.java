@@ -1,5 +1,8 @@
 package com.tlcsdm.figma2json.generator;
 
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.ConverterFactory;
+
 import java.nio.file.Path;
 
 /**
@@ -37,4 +40,29 @@ public interface ProjectGenerator {
      * @return true if the generator can process the data
      */
     boolean canGenerate(String jsonData);
+
+    /**
+     * Generates project files from a parsed node, without a JSON round trip
+     * if the generator supports it. By default the node is converted to JSON
+     * with the default converter and passed to {@link #generate(String, Path)}.
+     *
+     * @param node       the node to process
+     * @param outputPath the output directory path
+     * @throws Exception if generation fails
+     */
+    default void generate(Node node, Path outputPath) throws Exception {
+        generate(ConverterFactory.getDefaultConverter().convert(node), outputPath);
+    }
+
+    /**
+     * Validates if the generator can process the given node. Unlike
+     * {@link #canGenerate(String)}, this needs no conversion or parsing;
+     * by default any node is accepted.
+     *
+     * @param node the node to validate
+     * @return true if the generator can process the node
+     */
+    default boolean canGenerate(Node node) {
+        return node != null;
+    }
 }
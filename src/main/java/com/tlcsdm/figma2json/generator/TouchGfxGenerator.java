@@ -3,9 +3,19 @@ package com.tlcsdm.figma2json.generator;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.JsonConverter;
+import com.tlcsdm.figma2json.converter.JsonTokenPipe;
+import com.tlcsdm.figma2json.converter.OutputProfile;
+
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -15,6 +25,15 @@ import java.nio.file.Path;
  */
 public class TouchGfxGenerator implements ProjectGenerator {
 
+    /**
+     * Screen definitions are written like the project configuration: pretty, without nulls.
+     */
+    private static final OutputProfile SCREEN_PROFILE = OutputProfile.builder().serializeNulls(false).build();
+    private static final JsonTokenPipe SCREEN_PIPE = new JsonTokenPipe(SCREEN_PROFILE);
+    private static final JsonConverter SCREEN_CONVERTER = new JsonConverter(SCREEN_PROFILE);
+
+    private static final String MAIN_SCREEN = "main_screen.json";
+
     private final Gson gson;
 
     public TouchGfxGenerator() {
@@ -35,6 +54,37 @@ public class TouchGfxGenerator implements ProjectGenerator {
 
     @Override
     public void generate(String jsonData, Path outputPath) throws Exception {
+        // Screen definitions are JSON objects, anything else is rejected before writing
+        if (firstToken(newReader(jsonData)) != JsonToken.BEGIN_OBJECT) {
+            throw new IllegalStateException("Not a JSON Object");
+        }
+        Path screensDir = createProject(outputPath);
+
+        // Save the raw data as screen definition, re-indented token by token
+        try (Writer writer = Files.newBufferedWriter(screensDir.resolve(MAIN_SCREEN), StandardCharsets.UTF_8)) {
+            SCREEN_PIPE.pipe(new StringReader(jsonData), writer);
+        }
+    }
+
+    @Override
+    public void generate(Node node, Path outputPath) throws Exception {
+        if (node == null) {
+            throw new IllegalArgumentException("Node must not be null");
+        }
+        Path screensDir = createProject(outputPath);
+
+        // Write the screen definition straight from the node, without converting it to a string first
+        try (Writer writer = Files.newBufferedWriter(screensDir.resolve(MAIN_SCREEN), StandardCharsets.UTF_8)) {
+            SCREEN_CONVERTER.convert(node, writer);
+        }
+    }
+
+    /**
+     * Creates the project directory structure, configuration and README.
+     *
+     * @return the directory for screen definitions
+     */
+    private Path createProject(Path outputPath) throws IOException {
         // Create project directory structure
         Path assetsDir = outputPath.resolve("assets");
         Path imagesDir = assetsDir.resolve("images");
@@ -49,16 +99,14 @@ public class TouchGfxGenerator implements ProjectGenerator {
         Files.createDirectories(screensDir);
 
         // Generate project configuration
-        generateProjectConfig(jsonData, configDir);
-
-        // Generate screen files
-        generateScreenFiles(jsonData, screensDir);
+        generateProjectConfig(configDir);
 
         // Generate README
         generateReadme(outputPath);
+        return screensDir;
     }
 
-    private void generateProjectConfig(String jsonData, Path configDir) throws IOException {
+    private void generateProjectConfig(Path configDir) throws IOException {
         JsonObject config = new JsonObject();
         config.addProperty("version", "1.0.0");
         config.addProperty("generator", "figma2json");
@@ -68,15 +116,6 @@ public class TouchGfxGenerator implements ProjectGenerator {
         Files.writeString(configFile, gson.toJson(config));
     }
 
-    private void generateScreenFiles(String jsonData, Path screensDir) throws IOException {
-        // Parse the Figma data and extract screen information
-        JsonObject figmaData = JsonParser.parseString(jsonData).getAsJsonObject();
-
-        // Save the raw data as screen definition
-        Path screenFile = screensDir.resolve("main_screen.json");
-        Files.writeString(screenFile, gson.toJson(figmaData));
-    }
-
     private void generateReadme(Path outputPath) throws IOException {
         String readme = """
                 # TouchGFX Design Project
@@ -105,10 +144,37 @@ public class TouchGfxGenerator implements ProjectGenerator {
     @Override
     public boolean canGenerate(String jsonData) {
         try {
-            JsonParser.parseString(jsonData);
-            return true;
+            // Skipped token by token, so no tree is built and deep nesting cannot overflow the stack
+            JsonReader reader = newReader(jsonData);
+            if (firstToken(reader) == JsonToken.END_DOCUMENT) {
+                // JsonParser reads an empty document as JSON null, which was always accepted
+                return true;
+            }
+            reader.skipValue();
+            return reader.peek() == JsonToken.END_DOCUMENT;
         } catch (Exception e) {
             return false;
         }
     }
+
+    /**
+     * Creates a reader with the leniency of JsonParser and no nesting limit.
+     */
+    private static JsonReader newReader(String jsonData) {
+        JsonReader reader = new JsonReader(new StringReader(jsonData));
+        reader.setStrictness(Strictness.LENIENT);
+        reader.setNestingLimit(Integer.MAX_VALUE);
+        return reader;
+    }
+
+    /**
+     * Peeks at the first token, which is {@link JsonToken#END_DOCUMENT} for an empty document.
+     */
+    private static JsonToken firstToken(JsonReader reader) throws IOException {
+        try {
+            return reader.peek();
+        } catch (EOFException e) {
+            return JsonToken.END_DOCUMENT;
+        }
+    }
 }
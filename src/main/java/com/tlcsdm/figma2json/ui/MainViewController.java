@@ -5,17 +5,28 @@ import com.tlcsdm.figma2json.api.FigmaApiClient;
 import com.tlcsdm.figma2json.api.FigmaFile;
 import com.tlcsdm.figma2json.api.FigmaOAuthService;
 import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.api.SyncResult;
 import com.tlcsdm.figma2json.converter.ConverterFactory;
 import com.tlcsdm.figma2json.converter.FigmaConverter;
+import com.tlcsdm.figma2json.converter.JsonConverter;
+import com.tlcsdm.figma2json.converter.OutputProfile;
+import com.tlcsdm.figma2json.export.BatchExportJob;
+import com.tlcsdm.figma2json.export.ExportJob;
+import com.tlcsdm.figma2json.export.ExportProgress;
+import com.tlcsdm.figma2json.export.ExportSelection;
+import com.tlcsdm.figma2json.export.SpeculativeConverter;
 import com.tlcsdm.figma2json.generator.GeneratorFactory;
 import com.tlcsdm.figma2json.generator.ProjectGenerator;
+import com.tlcsdm.figma2json.util.CachedFigmaFile;
 import com.tlcsdm.figma2json.util.FigmaFileCache;
+import com.tlcsdm.figma2json.util.SessionState;
 import com.tlcsdm.figma2json.util.SettingsManager;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import org.controlsfx.control.Notifications;
@@ -24,12 +35,17 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Main view controller for the Figma to JSON application.
@@ -65,6 +81,9 @@ public class MainViewController implements Initializable {
     @FXML
     private Button exportJsonButton;
 
+    @FXML
+    private Button batchExportButton;
+
     @FXML
     private Button generateProjectButton;
 
@@ -81,10 +100,20 @@ public class MainViewController implements Initializable {
     private final FigmaApiClient figmaClient = new FigmaApiClient();
     private final FigmaOAuthService oauthService;
     private final FigmaFileCache figmaFileCache = new FigmaFileCache();
+    private final SpeculativeConverter speculativeConverter = new SpeculativeConverter();
+    private final ExecutorService exportExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "figma2json-export");
+        thread.setDaemon(true);
+        return thread;
+    });
     private FigmaFile currentFile;
+    private CachedFigmaFile cachedFile;
+    private final Set<TreeItem<Node>> stubPages = new HashSet<>();
     private ResourceBundle bundle;
     private PreferencesHelper preferencesHelper;
     private String currentFileKey;
+    private BatchExportJob batchExportJob;
+    private ExportJob exportJob;
 
     public MainViewController() {
         this.oauthService = new FigmaOAuthService(settingsManager);
@@ -108,6 +137,7 @@ public class MainViewController implements Initializable {
 
         // Initially disable export/generate buttons
         exportJsonButton.setDisable(true);
+        batchExportButton.setDisable(true);
         generateProjectButton.setDisable(true);
 
         log(bundle.getString("log.ready"));
@@ -132,6 +162,21 @@ public class MainViewController implements Initializable {
         showSuccess("Cache cleared successfully");
     }
 
+    /**
+     * Saves the current session, writes pending cache entries to disk and
+     * releases the cache threads.
+     * This is called when the application exits or restarts.
+     */
+    public void shutdown() {
+        saveSession();
+        if (exportJob != null) {
+            exportJob.cancel();
+        }
+        exportExecutor.shutdown();
+        speculativeConverter.close();
+        figmaFileCache.close();
+    }
+
     private void loadSettings() {
         figmaUrlField.setText(settingsManager.getLastFigmaUrl());
         outputPathField.setText(settingsManager.getOutputPath());
@@ -149,6 +194,7 @@ public class MainViewController implements Initializable {
         formatComboBox.valueProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
                 updateExportButtonText(newVal);
+                speculateExport();
             }
         });
 
@@ -160,6 +206,9 @@ public class MainViewController implements Initializable {
     }
     
     private void updateExportButtonText(String format) {
+        if (exportJob != null) {
+            return;
+        }
         String pattern = bundle.getString("button.export");
         String buttonText = MessageFormat.format(pattern, format != null ? format : "JSON");
         exportJsonButton.setText(buttonText);
@@ -174,22 +223,46 @@ public class MainViewController implements Initializable {
         pagesTreeView.getSelectionModel().selectedItemProperty().addListener(
                 (observable, oldValue, newValue) -> {
                     if (newValue != null && newValue.getValue() != null) {
-                        populateLayersTree(newValue.getValue());
+                        Node page = loadPage(newValue);
+                        if (page != null) {
+                            populateLayersTree(page);
+                        }
                     }
                 });
 
+        layersTreeView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        layersTreeView.rootProperty().addListener((observable, oldValue, newValue) ->
+                batchExportButton.setDisable(newValue == null && batchExportJob == null));
         layersTreeView.getSelectionModel().selectedItemProperty().addListener(
                 (observable, oldValue, newValue) -> {
                     boolean hasSelection = newValue != null && newValue.getValue() != null;
-                    exportJsonButton.setDisable(!hasSelection);
+                    exportJsonButton.setDisable(!hasSelection && exportJob == null);
                     generateProjectButton.setDisable(!hasSelection);
+                    speculateExport();
                 });
     }
 
+    /**
+     * Starts converting the selected layer in the background with the current
+     * format and profile, so exporting it is usually instant. Moving the
+     * selection on cancels the conversion.
+     */
+    private void speculateExport() {
+        TreeItem<Node> selected = layersTreeView.getSelectionModel().getSelectedItem();
+        FigmaConverter converter = selected != null && selected.getValue() != null && currentFile != null
+                ? findExportConverter(formatComboBox.getValue()) : null;
+        if (converter == null) {
+            speculativeConverter.cancel();
+            return;
+        }
+        speculativeConverter.speculate(selected.getValue(), currentFile.getVersion(), converter);
+    }
+
     private void setupButtonActions() {
         loadButton.setOnAction(e -> loadFigmaFile());
         browseButton.setOnAction(e -> browseOutputDirectory());
         exportJsonButton.setOnAction(e -> exportToJson());
+        batchExportButton.setOnAction(e -> batchExport());
         generateProjectButton.setOnAction(e -> generateProject());
 
         // Save settings when fields change
@@ -266,11 +339,16 @@ public class MainViewController implements Initializable {
             return;
         }
 
-        // Store current file key
+        // Remember where the previous file was left before switching
+        saveSession();
         currentFileKey = fileKey;
         
-        // Clear cache for this file before loading to always get fresh data
-        figmaFileCache.clearCachedFile(fileKey);
+        boolean cacheFirst = preferencesHelper != null
+                ? preferencesHelper.isCacheFirstOpen() : settingsManager.isCacheFirstOpen();
+        if (!cacheFirst) {
+            // Clear cache for this file before loading to always get fresh data
+            figmaFileCache.clearCachedFile(fileKey);
+        }
 
         setLoading(true);
         log(bundle.getString("log.loading") + ": " + fileKey);
@@ -280,14 +358,51 @@ public class MainViewController implements Initializable {
         figmaClient.setAuthMode(authMode);
         String apiUrl = preferencesHelper != null ? preferencesHelper.getFigmaApiUrl() : settingsManager.getFigmaApiUrl();
         figmaClient.setBaseUrl(apiUrl);
+        figmaClient.setShardedDownload(preferencesHelper != null
+                ? preferencesHelper.isShardedDownload() : settingsManager.isShardedDownload());
+        applyCacheSettings();
         
-        CompletableFuture<FigmaFile> future = figmaClient.getFile(fileKey);
+        if (!cacheFirst) {
+            loadFromFigma(fileKey);
+            return;
+        }
+        // The window keeps the handle while the file is shown, so it is read onto the heap instead of mapped
+        CompletableFuture.supplyAsync(() -> figmaFileCache.openCachedFile(fileKey, false))
+                .thenAccept(cached -> Platform.runLater(() -> {
+                    if (!fileKey.equals(currentFileKey)) {
+                        return;
+                    }
+                    if (cached == null) {
+                        loadFromFigma(fileKey);
+                        return;
+                    }
+                    showCachedFile(cached, figmaFileCache.loadSession(fileKey));
+                    setLoading(false);
+                    String name = cached.getSkeleton().getName();
+                    log(bundle.getString("log.loadedFromCache") + ": " + name);
+                    statusLabel.setText(bundle.getString("status.cached") + ": " + name);
+                    revalidate(fileKey, cached);
+                }))
+                .exceptionally(ex -> {
+                    // An unreadable cache entry must not leave the window loading, so go to Figma instead
+                    logger.warn("Failed to open cached file: {}", fileKey, ex);
+                    Platform.runLater(() -> {
+                        if (fileKey.equals(currentFileKey)) {
+                            loadFromFigma(fileKey);
+                        }
+                    });
+                    return null;
+                });
+    }
 
-        future.thenAccept(file -> Platform.runLater(() -> {
-            currentFile = file;
-            // Save to cache
-            figmaFileCache.saveCachedFile(fileKey, file);
-            populatePagesTree(file);
+    private void loadFromFigma(String fileKey) {
+        figmaClient.downloadFile(fileKey).thenAccept(file -> Platform.runLater(() -> {
+            if (!fileKey.equals(currentFileKey)) {
+                return;
+            }
+            // Save to cache in the background, serializing large files would block the UI
+            figmaFileCache.saveCachedFileAsync(fileKey, file);
+            showFile(file, figmaFileCache.loadSession(fileKey));
             setLoading(false);
             log(bundle.getString("log.loaded") + ": " + file.getName());
             statusLabel.setText(bundle.getString("status.loaded") + ": " + file.getName());
@@ -301,15 +416,211 @@ public class MainViewController implements Initializable {
         });
     }
 
+    /**
+     * Checks in the background whether Figma has a newer version than the
+     * cached copy on screen, downloads the pages that changed and swaps the
+     * result in while keeping the current view. The cached copy is only
+     * decoded completely if there is a newer version to splice pages into.
+     */
+    private void revalidate(String fileKey, CachedFigmaFile cached) {
+        progressIndicator.setVisible(true);
+        figmaClient.getFileVersions(fileKey).thenCompose(versions -> {
+            if (!versions.isEmpty() && versions.get(0).getId().equals(cached.getVersion())) {
+                return CompletableFuture.completedFuture((SyncResult) null);
+            }
+            return CompletableFuture.supplyAsync(() -> loadFile(cached))
+                    .thenCompose(file -> figmaClient.syncFile(fileKey, file));
+        }).thenAccept(result -> Platform.runLater(() -> {
+            if (!fileKey.equals(currentFileKey)) {
+                return;
+            }
+            progressIndicator.setVisible(false);
+            if (result == null || result.isUpToDate()) {
+                log(bundle.getString("log.cacheUpToDate"));
+                return;
+            }
+            FigmaFile file = result.getFile();
+            figmaFileCache.saveCachedFileAsync(fileKey, file);
+            showFile(file, captureSession());
+            if (!result.isFullDownload()) {
+                log(bundle.getString("log.pagesRefreshed") + ": " + result.getRefreshedPageIds().size());
+            }
+            log(bundle.getString("log.cacheRefreshed") + ": " + file.getName());
+            statusLabel.setText(bundle.getString("status.loaded") + ": " + file.getName());
+        })).exceptionally(ex -> {
+            Platform.runLater(() -> {
+                if (fileKey.equals(currentFileKey)) {
+                    progressIndicator.setVisible(false);
+                }
+                log(bundle.getString("log.revalidateFailed") + ": " + ex.getMessage());
+            });
+            return null;
+        });
+    }
+
+    private static FigmaFile loadFile(CachedFigmaFile cached) {
+        try {
+            return cached.loadFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void showFile(FigmaFile file, SessionState session) {
+        currentFile = file;
+        cachedFile = null;
+        populatePagesTree(file);
+        if (session != null) {
+            restoreSession(session);
+        }
+    }
+
+    /**
+     * Shows a file opened from the cache. Only the page stubs are listed; the
+     * contents of a page are decoded the first time it is selected.
+     */
+    private void showCachedFile(CachedFigmaFile cached, SessionState session) {
+        currentFile = cached.getSkeleton();
+        cachedFile = cached;
+        populatePagesTree(currentFile);
+        if (session != null) {
+            restoreSession(session);
+        }
+    }
+
+    /**
+     * Gets the contents of a page, decoding the pages of a cached file on
+     * first use. A page that cannot be decoded reloads the file from Figma.
+     *
+     * @return the page, or null if it could not be decoded
+     */
+    private Node loadPage(TreeItem<Node> pageItem) {
+        if (!stubPages.remove(pageItem)) {
+            return pageItem.getValue();
+        }
+        String pageId = pageItem.getValue().getId();
+        try {
+            Node page = cachedFile.loadPage(pageId);
+            if (page != null) {
+                pageItem.setValue(page);
+            }
+            return pageItem.getValue();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to decode cached page {} of {}", pageId, currentFileKey, e);
+            log(bundle.getString("log.error") + ": " + e.getMessage());
+            figmaFileCache.clearCachedFile(currentFileKey);
+            setLoading(true);
+            loadFromFigma(currentFileKey);
+            return null;
+        }
+    }
+
+    private SessionState captureSession() {
+        TreeItem<Node> page = pagesTreeView.getSelectionModel().getSelectedItem();
+        TreeItem<Node> layer = layersTreeView.getSelectionModel().getSelectedItem();
+        List<String> expandedNodeIds = new ArrayList<>();
+        TreeItem<Node> layersRoot = layersTreeView.getRoot();
+        if (layersRoot != null) {
+            Deque<TreeItem<Node>> pending = new ArrayDeque<>();
+            pending.push(layersRoot);
+            while (!pending.isEmpty()) {
+                TreeItem<Node> item = pending.pop();
+                if (item.isExpanded() && item.getValue() != null) {
+                    expandedNodeIds.add(item.getValue().getId());
+                    item.getChildren().forEach(pending::push);
+                }
+            }
+        }
+        return new SessionState(
+                page != null && page.getValue() != null ? page.getValue().getId() : null,
+                layer != null && layer.getValue() != null ? layer.getValue().getId() : null,
+                expandedNodeIds);
+    }
+
+    private void restoreSession(SessionState session) {
+        TreeItem<Node> pagesRoot = pagesTreeView.getRoot();
+        if (pagesRoot == null || session.getPageId() == null) {
+            return;
+        }
+        for (TreeItem<Node> pageItem : pagesRoot.getChildren()) {
+            if (session.getPageId().equals(pageItem.getValue().getId())) {
+                // Selecting the page populates the layers tree through its listener
+                pagesTreeView.getSelectionModel().select(pageItem);
+                break;
+            }
+        }
+        
+        TreeItem<Node> layersRoot = layersTreeView.getRoot();
+        if (layersRoot == null) {
+            return;
+        }
+        Set<String> expanded = new HashSet<>(session.getExpandedNodeIds());
+        TreeItem<Node> selectedLayer = null;
+        Deque<TreeItem<Node>> pending = new ArrayDeque<>();
+        pending.push(layersRoot);
+        while (!pending.isEmpty()) {
+            TreeItem<Node> item = pending.pop();
+            String id = item.getValue().getId();
+            if (id != null && id.equals(session.getLayerId())) {
+                selectedLayer = item;
+            }
+            if (expanded.contains(id)) {
+                item.setExpanded(true);
+            }
+            item.getChildren().forEach(pending::push);
+        }
+        if (selectedLayer != null) {
+            // Make sure the selected layer is visible even if its parents were collapsed
+            for (TreeItem<Node> parent = selectedLayer.getParent(); parent != null; parent = parent.getParent()) {
+                parent.setExpanded(true);
+            }
+            layersTreeView.getSelectionModel().select(selectedLayer);
+            layersTreeView.scrollTo(layersTreeView.getRow(selectedLayer));
+        }
+    }
+
+    private void saveSession() {
+        if (currentFileKey != null && currentFile != null) {
+            figmaFileCache.saveSession(currentFileKey, captureSession());
+        }
+    }
+
+    private OutputProfile getExportProfile() {
+        String profile = preferencesHelper != null
+                ? preferencesHelper.getExportProfile() : settingsManager.getExportProfile();
+        return SettingsManager.EXPORT_PROFILE_COMPACT.equals(profile) ? OutputProfile.COMPACT : OutputProfile.DEFAULT;
+    }
+
+    private void applyCacheSettings() {
+        int compressionLevel = preferencesHelper != null
+                ? preferencesHelper.getCacheCompressionLevel() : settingsManager.getCacheCompressionLevel();
+        figmaFileCache.setCompressionLevel(compressionLevel);
+        int memoryBudgetMb = preferencesHelper != null
+                ? preferencesHelper.getCacheMemoryBudgetMb() : settingsManager.getCacheMemoryBudgetMb();
+        figmaFileCache.setMemoryBudget(Math.max(0, memoryBudgetMb) * 1024L * 1024L);
+        int maxSizeMb = preferencesHelper != null
+                ? preferencesHelper.getCacheMaxSizeMb() : settingsManager.getCacheMaxSizeMb();
+        figmaFileCache.setMaxCacheSize(Math.max(0, maxSizeMb) * 1024L * 1024L);
+        int ttlDays = preferencesHelper != null
+                ? preferencesHelper.getCacheTtlDays() : settingsManager.getCacheTtlDays();
+        figmaFileCache.setTimeToLive(Duration.ofDays(Math.max(0, ttlDays)));
+        figmaFileCache.setChunkedStorage(preferencesHelper != null
+                ? preferencesHelper.isCacheChunkedStorage() : settingsManager.isCacheChunkedStorage());
+    }
+
     private void populatePagesTree(FigmaFile file) {
         TreeItem<Node> root = new TreeItem<>();
         root.setExpanded(true);
+        stubPages.clear();
 
         Document document = file.getDocument();
         if (document != null && document.getChildren() != null) {
             for (Node page : document.getChildren()) {
                 TreeItem<Node> pageItem = new TreeItem<>(page);
                 root.getChildren().add(pageItem);
+                if (cachedFile != null) {
+                    stubPages.add(pageItem);
+                }
             }
         }
 
@@ -355,6 +666,11 @@ public class MainViewController implements Initializable {
 
     @FXML
     private void exportToJson() {
+        if (exportJob != null) {
+            exportJob.cancel();
+            exportJsonButton.setDisable(true);
+            return;
+        }
         TreeItem<Node> selected = layersTreeView.getSelectionModel().getSelectedItem();
         if (selected == null || selected.getValue() == null) {
             showError(bundle.getString("error.noLayerSelected"));
@@ -362,18 +678,14 @@ public class MainViewController implements Initializable {
         }
 
         Node node = selected.getValue();
-        String formatValue = formatComboBox.getValue();
-        if (formatValue == null || formatValue.isBlank()) {
-            showError(bundle.getString("error.noConverter") + ": " + formatValue);
-            return;
-        }
-        String format = formatValue.toLowerCase();
-        FigmaConverter converter = ConverterFactory.getConverter(format);
-
+        FigmaConverter converter = getExportConverter();
         if (converter == null) {
-            showError(bundle.getString("error.noConverter") + ": " + format);
             return;
         }
+        if (converter instanceof JsonConverter jsonConverter) {
+            converter = jsonConverter.withParallelism(ForkJoinPool.commonPool());
+        }
+        String format = converter.getFormat();
 
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle(bundle.getString("dialog.saveAs"));
@@ -392,17 +704,257 @@ public class MainViewController implements Initializable {
         }
 
         File file = fileChooser.showSaveDialog(exportJsonButton.getScene().getWindow());
-        if (file != null) {
-            try {
-                String content = converter.convert(node);
-                Files.writeString(file.toPath(), content);
+        if (file == null) {
+            return;
+        }
+        // Convert and write on the export thread; the file only appears once it is complete
+        ExportJob job = ExportJob.builder()
+                .node(node)
+                .converter(converter)
+                .toFile(file.toPath())
+                .speculation(speculativeConverter, currentFile.getVersion())
+                .progressListener(bytes -> Platform.runLater(() -> onExportProgress(bytes)))
+                .build();
+        exportJob = job;
+        exportJsonButton.setText(bundle.getString("button.cancelExport"));
+        job.start(exportExecutor).whenComplete((bytes, error) -> Platform.runLater(() -> {
+            exportJob = null;
+            updateExportButtonText(formatComboBox.getValue());
+            TreeItem<Node> selectedItem = layersTreeView.getSelectionModel().getSelectedItem();
+            exportJsonButton.setDisable(selectedItem == null || selectedItem.getValue() == null
+                    || progressIndicator.isVisible());
+            statusLabel.setText(bundle.getString("status.ready"));
+            if (error instanceof CancellationException) {
+                log(bundle.getString("log.exportCancelled"));
+            } else if (error != null) {
+                showError(bundle.getString("error.exportFailed") + ": " + error.getMessage());
+                log(bundle.getString("log.error") + ": " + error.getMessage());
+            } else {
                 log(bundle.getString("log.exported") + ": " + file.getAbsolutePath());
                 showSuccess(bundle.getString("success.exported"));
-            } catch (IOException e) {
-                showError(bundle.getString("error.exportFailed") + ": " + e.getMessage());
-                log(bundle.getString("log.error") + ": " + e.getMessage());
             }
+        }));
+    }
+
+    private void onExportProgress(long bytesWritten) {
+        if (exportJob != null) {
+            statusLabel.setText(MessageFormat.format(bundle.getString("status.export"),
+                    formatMegabytes(bytesWritten)));
+        }
+    }
+
+    /**
+     * Gets the converter for the selected output format, configured with the export profile.
+     * Shows an error if there is none.
+     *
+     * @return the converter, or null if the format has no converter
+     */
+    private FigmaConverter getExportConverter() {
+        String formatValue = formatComboBox.getValue();
+        FigmaConverter converter = findExportConverter(formatValue);
+        if (converter == null) {
+            String format = formatValue == null || formatValue.isBlank() ? formatValue : formatValue.toLowerCase();
+            showError(bundle.getString("error.noConverter") + ": " + format);
+        }
+        return converter;
+    }
+
+    /**
+     * Gets the converter for an output format, configured with the export profile.
+     *
+     * @param formatValue the format as shown in the format combo box
+     * @return the converter, or null if the format has no converter
+     */
+    private FigmaConverter findExportConverter(String formatValue) {
+        if (formatValue == null || formatValue.isBlank()) {
+            return null;
+        }
+        FigmaConverter converter = ConverterFactory.getConverter(formatValue.toLowerCase());
+        if (converter instanceof JsonConverter jsonConverter) {
+            converter = jsonConverter.withProfile(getExportProfile());
+        }
+        return converter;
+    }
+
+    private void batchExport() {
+        if (batchExportJob != null) {
+            batchExportJob.cancel();
+            batchExportButton.setDisable(true);
+            return;
+        }
+        TreeItem<Node> root = layersTreeView.getRoot();
+        if (root == null || root.getValue() == null) {
+            showError(bundle.getString("error.noLayerSelected"));
+            return;
+        }
+        FigmaConverter converter = getExportConverter();
+        if (converter == null) {
+            return;
+        }
+        List<Node> selection = layersTreeView.getSelectionModel().getSelectedItems().stream()
+                .filter(item -> item != null && item.getValue() != null)
+                .map(TreeItem::getValue)
+                .toList();
+        Optional<BatchExportChoice> choice = showBatchExportDialog(root.getValue(), selection);
+        if (choice.isEmpty()) {
+            return;
+        }
+        List<Node> nodes = choice.get().nodes();
+        if (nodes.isEmpty()) {
+            showError(bundle.getString("error.nothingToExport"));
+            return;
+        }
+
+        String pageName = root.getValue().getName() != null ? root.getValue().getName() : root.getValue().getId();
+        File initialDirectory = outputPathField.getText().isBlank() ? null : new File(outputPathField.getText());
+        if (initialDirectory != null && !initialDirectory.isDirectory()) {
+            initialDirectory = null;
+        }
+        BatchExportJob.Builder builder = BatchExportJob.builder()
+                .nodes(nodes)
+                .converter(converter)
+                .progressListener(progress -> Platform.runLater(() -> onBatchExportProgress(progress)));
+        if (choice.get().zip()) {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle(bundle.getString("dialog.saveAs"));
+            fileChooser.setInitialFileName(pageName + ".zip");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("ZIP files", "*.zip"));
+            fileChooser.setInitialDirectory(initialDirectory);
+            File file = fileChooser.showSaveDialog(batchExportButton.getScene().getWindow());
+            if (file == null) {
+                return;
+            }
+            builder.toZip(file.toPath());
+        } else {
+            DirectoryChooser directoryChooser = new DirectoryChooser();
+            directoryChooser.setTitle(bundle.getString("dialog.selectOutputDir"));
+            directoryChooser.setInitialDirectory(initialDirectory);
+            File directory = directoryChooser.showDialog(batchExportButton.getScene().getWindow());
+            if (directory == null) {
+                return;
+            }
+            builder.toDirectory(directory.toPath()).incremental(choice.get().incremental());
+        }
+
+        BatchExportJob job = builder.build();
+        batchExportJob = job;
+        batchExportButton.setText(bundle.getString("button.cancelExport"));
+        log(MessageFormat.format(bundle.getString("log.batchExportStarted"), job.getTotal()));
+        job.start().whenComplete((result, error) -> Platform.runLater(() -> {
+            batchExportJob = null;
+            batchExportButton.setText(bundle.getString("button.batchExport"));
+            batchExportButton.setDisable(layersTreeView.getRoot() == null);
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showError(bundle.getString("error.exportFailed") + ": " + cause.getMessage());
+                log(bundle.getString("log.error") + ": " + cause.getMessage());
+                return;
+            }
+            statusLabel.setText(bundle.getString("status.ready"));
+            if (result.isCancelled()) {
+                log(MessageFormat.format(bundle.getString("log.batchExportCancelled"),
+                        result.getExportedCount(), result.getTotal()));
+                return;
+            }
+            log(MessageFormat.format(bundle.getString("log.batchExportFinished"), result.getExportedCount(),
+                    result.getFailures().size(), formatMegabytes(result.getBytesPerSecond())));
+            if (!result.getSkipped().isEmpty() || !result.getDeleted().isEmpty()) {
+                log(MessageFormat.format(bundle.getString("log.batchExportIncremental"), result.getSkipped().size(),
+                        result.getDeleted().size()));
+            }
+            if (result.getFailures().isEmpty()) {
+                showSuccess(bundle.getString("success.exported"));
+            } else {
+                showError(bundle.getString("error.exportFailed") + ":\n" + String.join("\n",
+                        result.getFailures().entrySet().stream()
+                                .map(entry -> entry.getKey() + ": " + entry.getValue()).toList()));
+            }
+        }));
+    }
+
+    private void onBatchExportProgress(ExportProgress progress) {
+        if (progress.isSkipped()) {
+            log(MessageFormat.format(bundle.getString("log.batchExportItemSkipped"), progress.getOutputName(),
+                    progress.getCompleted(), progress.getTotal()));
+        } else if (progress.isSucceeded()) {
+            log(MessageFormat.format(bundle.getString("log.batchExportItem"), progress.getOutputName(),
+                    progress.getCompleted(), progress.getTotal()));
+        } else {
+            log(MessageFormat.format(bundle.getString("log.batchExportItemFailed"), progress.getOutputName(),
+                    progress.getError()));
+        }
+        statusLabel.setText(MessageFormat.format(bundle.getString("status.batchExport"), progress.getCompleted(),
+                progress.getTotal(), formatMegabytes(progress.getBytesPerSecond())));
+    }
+
+    private static String formatMegabytes(double bytes) {
+        return String.format("%.1f", bytes / (1024 * 1024));
+    }
+
+    /**
+     * Asks which nodes of the page to export, whether to write a ZIP file and
+     * whether a directory export only rewrites changed layers.
+     *
+     * @param page      the page shown in the layers tree
+     * @param selection the selected layers
+     * @return the nodes to export, or empty if the dialog was cancelled
+     */
+    private Optional<BatchExportChoice> showBatchExportDialog(Node page, List<Node> selection) {
+        ToggleGroup scope = new ToggleGroup();
+        RadioButton selectedOption = new RadioButton(
+                MessageFormat.format(bundle.getString("dialog.batchExport.selected"), selection.size()));
+        RadioButton framesOption = new RadioButton(bundle.getString("dialog.batchExport.frames"));
+        RadioButton queryOption = new RadioButton(bundle.getString("dialog.batchExport.query"));
+        selectedOption.setToggleGroup(scope);
+        framesOption.setToggleGroup(scope);
+        queryOption.setToggleGroup(scope);
+        selectedOption.setDisable(selection.isEmpty());
+        scope.selectToggle(selection.size() > 1 ? selectedOption : framesOption);
+
+        TextField nameField = new TextField();
+        nameField.setPromptText(bundle.getString("dialog.batchExport.name"));
+        TextField typesField = new TextField();
+        typesField.setPromptText(bundle.getString("dialog.batchExport.types"));
+        nameField.disableProperty().bind(queryOption.selectedProperty().not());
+        typesField.disableProperty().bind(queryOption.selectedProperty().not());
+        CheckBox zipCheckBox = new CheckBox(bundle.getString("dialog.batchExport.zip"));
+        CheckBox incrementalCheckBox = new CheckBox(bundle.getString("dialog.batchExport.incremental"));
+        incrementalCheckBox.disableProperty().bind(zipCheckBox.selectedProperty());
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.add(selectedOption, 0, 0, 2, 1);
+        grid.add(framesOption, 0, 1, 2, 1);
+        grid.add(queryOption, 0, 2, 2, 1);
+        grid.add(new Label(bundle.getString("dialog.batchExport.name")), 0, 3);
+        grid.add(nameField, 1, 3);
+        grid.add(new Label(bundle.getString("dialog.batchExport.types")), 0, 4);
+        grid.add(typesField, 1, 4);
+        grid.add(zipCheckBox, 0, 5, 2, 1);
+        grid.add(incrementalCheckBox, 0, 6, 2, 1);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle(bundle.getString("dialog.batchExport.title"));
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().filter(ButtonType.OK::equals).isEmpty()) {
+            return Optional.empty();
         }
+
+        List<Node> nodes;
+        if (scope.getSelectedToggle() == selectedOption) {
+            nodes = selection;
+        } else if (scope.getSelectedToggle() == framesOption) {
+            nodes = ExportSelection.topLevelFrames(page);
+        } else {
+            nodes = ExportSelection.query(page, nameField.getText(), Arrays.asList(typesField.getText().split(",")));
+        }
+        return Optional.of(new BatchExportChoice(nodes, zipCheckBox.isSelected(),
+                !zipCheckBox.isSelected() && incrementalCheckBox.isSelected()));
+    }
+
+    private record BatchExportChoice(List<Node> nodes, boolean zip, boolean incremental) {
     }
 
     @FXML
@@ -433,10 +985,8 @@ public class MainViewController implements Initializable {
             return;
         }
 
-        FigmaConverter converter = ConverterFactory.getDefaultConverter();
-        String jsonData = converter.convert(node);
-
-        if (!generator.canGenerate(jsonData)) {
+        // The generator takes the parsed node, so it is neither converted to a string nor parsed again
+        if (!generator.canGenerate(node)) {
             showError(bundle.getString("error.cannotGenerate"));
             return;
         }
@@ -448,7 +998,7 @@ public class MainViewController implements Initializable {
         CompletableFuture.runAsync(() -> {
             try {
                 Path projectPath = Path.of(outputPath, projectName + "_project");
-                generator.generate(jsonData, projectPath);
+                generator.generate(node, projectPath);
                 Platform.runLater(() -> {
                     setLoading(false);
                     log(bundle.getString("log.generated") + ": " + projectPath);
@@ -470,12 +1020,14 @@ public class MainViewController implements Initializable {
         
         // When loading ends, only enable export/generate buttons if a layer is selected
         if (loading) {
-            exportJsonButton.setDisable(true);
+            exportJsonButton.setDisable(exportJob == null);
             generateProjectButton.setDisable(true);
+            batchExportButton.setDisable(batchExportJob == null);
         } else {
+            batchExportButton.setDisable(batchExportJob == null && layersTreeView.getRoot() == null);
             TreeItem<Node> selectedItem = layersTreeView.getSelectionModel().getSelectedItem();
             boolean hasLayerSelection = selectedItem != null && selectedItem.getValue() != null;
-            exportJsonButton.setDisable(!hasLayerSelection);
+            exportJsonButton.setDisable(!hasLayerSelection && exportJob == null);
             generateProjectButton.setDisable(!hasLayerSelection);
         }
     }
@@ -6,7 +6,11 @@ import com.dlsc.preferencesfx.model.Group;
 import com.dlsc.preferencesfx.model.Setting;
 import com.tlcsdm.figma2json.util.SettingsManager;
 import com.tlcsdm.figma2json.util.SettingsManager.AuthMode;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -30,6 +34,9 @@ public class PreferencesHelper {
     private final StringProperty accessToken;
     private final ObjectProperty<String> language;
     private final StringProperty figmaApiUrl;
+    private final BooleanProperty shardedDownload;
+    private final ObjectProperty<String> exportProfile;
+    private final ObservableList<String> exportProfileOptions;
     private final ObservableList<String> languageOptions;
 
     // OAuth settings
@@ -39,6 +46,14 @@ public class PreferencesHelper {
     private final StringProperty oauthClientSecret;
     private final StringProperty oauthRedirectUri;
 
+    // Cache settings
+    private final IntegerProperty cacheCompressionLevel;
+    private final IntegerProperty cacheMemoryBudgetMb;
+    private final IntegerProperty cacheMaxSizeMb;
+    private final IntegerProperty cacheTtlDays;
+    private final BooleanProperty cacheFirstOpen;
+    private final BooleanProperty cacheChunkedStorage;
+
     private PreferencesFx preferencesFx;
 
     public PreferencesHelper(SettingsManager settingsManager, ResourceBundle bundle) {
@@ -50,6 +65,11 @@ public class PreferencesHelper {
         this.languageOptions = FXCollections.observableArrayList("English", "中文", "日本語");
         this.language = new SimpleObjectProperty<>(getLanguageDisplayName(settingsManager.getLanguage()));
         this.figmaApiUrl = new SimpleStringProperty(settingsManager.getFigmaApiUrl());
+        this.shardedDownload = new SimpleBooleanProperty(settingsManager.isShardedDownload());
+        this.exportProfileOptions = FXCollections.observableArrayList(
+                bundle.getString("preferences.exportProfile.default"),
+                bundle.getString("preferences.exportProfile.compact"));
+        this.exportProfile = new SimpleObjectProperty<>(getExportProfileDisplayName(settingsManager.getExportProfile()));
 
         // Initialize OAuth properties - Token first in the list as it's the default
         this.authModeOptions = FXCollections.observableArrayList(AUTH_MODE_TOKEN, AUTH_MODE_OAUTH);
@@ -58,6 +78,14 @@ public class PreferencesHelper {
         this.oauthClientSecret = new SimpleStringProperty(settingsManager.getOAuthClientSecret());
         this.oauthRedirectUri = new SimpleStringProperty(settingsManager.getOAuthRedirectUri());
 
+        // Initialize cache properties
+        this.cacheCompressionLevel = new SimpleIntegerProperty(settingsManager.getCacheCompressionLevel());
+        this.cacheMemoryBudgetMb = new SimpleIntegerProperty(settingsManager.getCacheMemoryBudgetMb());
+        this.cacheMaxSizeMb = new SimpleIntegerProperty(settingsManager.getCacheMaxSizeMb());
+        this.cacheTtlDays = new SimpleIntegerProperty(settingsManager.getCacheTtlDays());
+        this.cacheFirstOpen = new SimpleBooleanProperty(settingsManager.isCacheFirstOpen());
+        this.cacheChunkedStorage = new SimpleBooleanProperty(settingsManager.isCacheChunkedStorage());
+
         // Add listeners to save changes
         setupPropertyListeners();
     }
@@ -82,6 +110,18 @@ public class PreferencesHelper {
             }
         });
 
+        shardedDownload.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                settingsManager.setShardedDownload(newVal);
+            }
+        });
+
+        exportProfile.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                settingsManager.setExportProfile(getExportProfileCode(newVal));
+            }
+        });
+
         // OAuth listeners
         authMode.addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
@@ -107,6 +147,43 @@ public class PreferencesHelper {
                 settingsManager.setOAuthRedirectUri(newVal);
             }
         });
+
+        // Cache listeners
+        cacheCompressionLevel.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                settingsManager.setCacheCompressionLevel(newVal.intValue());
+            }
+        });
+
+        cacheMemoryBudgetMb.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                settingsManager.setCacheMemoryBudgetMb(newVal.intValue());
+            }
+        });
+
+        cacheMaxSizeMb.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                settingsManager.setCacheMaxSizeMb(newVal.intValue());
+            }
+        });
+
+        cacheTtlDays.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                settingsManager.setCacheTtlDays(newVal.intValue());
+            }
+        });
+
+        cacheFirstOpen.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                settingsManager.setCacheFirstOpen(newVal);
+            }
+        });
+
+        cacheChunkedStorage.addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                settingsManager.setCacheChunkedStorage(newVal);
+            }
+        });
     }
 
     /**
@@ -136,12 +213,26 @@ public class PreferencesHelper {
                 Category.of(bundle.getString("preferences.category.settings"),
                         authGroup,
                         Group.of(bundle.getString("preferences.group.api"),
-                                Setting.of(bundle.getString("preferences.figmaApiUrl"), figmaApiUrl)
+                                Setting.of(bundle.getString("preferences.figmaApiUrl"), figmaApiUrl),
+                                Setting.of(bundle.getString("preferences.shardedDownload"), shardedDownload)
+                        ),
+                        Group.of(bundle.getString("preferences.group.export"),
+                                Setting.of(bundle.getString("preferences.exportProfile"),
+                                        exportProfileOptions, exportProfile)
                         )
                 ),
                 Category.of(bundle.getString("preferences.category.system"),
                         Group.of(bundle.getString("preferences.group.language"),
                                 Setting.of(bundle.getString("preferences.language"), languageOptions, language)
+                        ),
+                        Group.of(bundle.getString("preferences.group.cache"),
+                                Setting.of(bundle.getString("preferences.cacheCompressionLevel"),
+                                        cacheCompressionLevel, 0, 9),
+                                Setting.of(bundle.getString("preferences.cacheMemoryBudget"), cacheMemoryBudgetMb),
+                                Setting.of(bundle.getString("preferences.cacheMaxSize"), cacheMaxSizeMb),
+                                Setting.of(bundle.getString("preferences.cacheTtlDays"), cacheTtlDays),
+                                Setting.of(bundle.getString("preferences.cacheFirstOpen"), cacheFirstOpen),
+                                Setting.of(bundle.getString("preferences.cacheChunkedStorage"), cacheChunkedStorage)
                         )
                 )
         ).persistWindowState(false).saveSettings(true).debugHistoryMode(false).instantPersistent(false)
@@ -165,6 +256,16 @@ public class PreferencesHelper {
         };
     }
 
+    private String getExportProfileDisplayName(String profile) {
+        return SettingsManager.EXPORT_PROFILE_COMPACT.equals(profile)
+                ? exportProfileOptions.get(1) : exportProfileOptions.get(0);
+    }
+
+    private String getExportProfileCode(String displayName) {
+        return exportProfileOptions.get(1).equals(displayName)
+                ? SettingsManager.EXPORT_PROFILE_COMPACT : SettingsManager.EXPORT_PROFILE_DEFAULT;
+    }
+
     private String getLanguageCode(String displayName) {
         return switch (displayName) {
             case "中文" -> "zh";
@@ -223,6 +324,42 @@ public class PreferencesHelper {
         return figmaApiUrl;
     }
 
+    /**
+     * Checks whether files are downloaded in parallel page batches.
+     *
+     * @return true if sharded downloads are used
+     */
+    public boolean isShardedDownload() {
+        return shardedDownload.get();
+    }
+
+    /**
+     * Gets the sharded download property.
+     *
+     * @return the sharded download property
+     */
+    public BooleanProperty shardedDownloadProperty() {
+        return shardedDownload;
+    }
+
+    /**
+     * Gets the export profile.
+     *
+     * @return {@link SettingsManager#EXPORT_PROFILE_DEFAULT} or {@link SettingsManager#EXPORT_PROFILE_COMPACT}
+     */
+    public String getExportProfile() {
+        return getExportProfileCode(exportProfile.get());
+    }
+
+    /**
+     * Gets the export profile property.
+     *
+     * @return the export profile property, holding the display name
+     */
+    public ObjectProperty<String> exportProfileProperty() {
+        return exportProfile;
+    }
+
     /**
      * Gets the current language.
      *
@@ -324,6 +461,114 @@ public class PreferencesHelper {
         return oauthRedirectUri;
     }
 
+    /**
+     * Gets the cache compression level.
+     *
+     * @return the compression level from 0 (off) to 9
+     */
+    public int getCacheCompressionLevel() {
+        return cacheCompressionLevel.get();
+    }
+
+    /**
+     * Gets the cache compression level property.
+     *
+     * @return the cache compression level property
+     */
+    public IntegerProperty cacheCompressionLevelProperty() {
+        return cacheCompressionLevel;
+    }
+
+    /**
+     * Gets the memory budget of the in-memory file cache.
+     *
+     * @return the budget in megabytes
+     */
+    public int getCacheMemoryBudgetMb() {
+        return cacheMemoryBudgetMb.get();
+    }
+
+    /**
+     * Gets the cache memory budget property.
+     *
+     * @return the cache memory budget property
+     */
+    public IntegerProperty cacheMemoryBudgetMbProperty() {
+        return cacheMemoryBudgetMb;
+    }
+
+    /**
+     * Gets the maximum size of the disk cache.
+     *
+     * @return the maximum size in megabytes
+     */
+    public int getCacheMaxSizeMb() {
+        return cacheMaxSizeMb.get();
+    }
+
+    /**
+     * Gets the cache maximum size property.
+     *
+     * @return the cache maximum size property
+     */
+    public IntegerProperty cacheMaxSizeMbProperty() {
+        return cacheMaxSizeMb;
+    }
+
+    /**
+     * Gets the number of days an unused cache entry is kept.
+     *
+     * @return the time to live in days
+     */
+    public int getCacheTtlDays() {
+        return cacheTtlDays.get();
+    }
+
+    /**
+     * Gets the cache time to live property.
+     *
+     * @return the cache time to live property
+     */
+    public IntegerProperty cacheTtlDaysProperty() {
+        return cacheTtlDays;
+    }
+
+    /**
+     * Checks whether files are opened from the cache first.
+     *
+     * @return true if cached files are shown before the network load
+     */
+    public boolean isCacheFirstOpen() {
+        return cacheFirstOpen.get();
+    }
+
+    /**
+     * Gets the cache-first open property.
+     *
+     * @return the cache-first open property
+     */
+    public BooleanProperty cacheFirstOpenProperty() {
+        return cacheFirstOpen;
+    }
+
+    /**
+     * Checks whether cache entries are stored as page chunks.
+     *
+     * @return true if chunked storage is used
+     */
+    public boolean isCacheChunkedStorage() {
+        return cacheChunkedStorage.get();
+    }
+
+    /**
+     * Gets the chunked cache storage property.
+     *
+     * @return the chunked cache storage property
+     */
+    public BooleanProperty cacheChunkedStorageProperty() {
+        return cacheChunkedStorage;
+    }
+
     /**
      * Gets the OAuth access token from settings.
      *
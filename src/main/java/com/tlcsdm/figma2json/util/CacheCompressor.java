@@ -0,0 +1,97 @@
+package com.tlcsdm.figma2json.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Streams cache files into and out of a deflate-compressed container.
+ * <p>
+ * A compressed file starts with the magic "F2JZ", a version and the size of
+ * the uncompressed data, so the buffer can be allocated before inflating. The
+ * rest of the file is a zlib stream.
+ */
+final class CacheCompressor {
+
+    private static final byte[] MAGIC = {'F', '2', 'J', 'Z'};
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CacheCompressor() {
+    }
+
+    /**
+     * Compresses a file into the container format.
+     *
+     * @param source the uncompressed file
+     * @param target the compressed file to write
+     * @param level  the deflate level (1-9, or -1 for the default)
+     * @throws IOException if reading or writing fails
+     */
+    static void compress(Path source, Path target, int level) throws IOException {
+        Deflater deflater = new Deflater(level);
+        try (InputStream in = Files.newInputStream(source);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(source));
+            DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+            in.transferTo(deflating);
+            deflating.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflates a compressed file into a heap buffer.
+     *
+     * @param source the compressed file
+     * @return the uncompressed contents
+     * @throws IOException if the file is not a valid container or reading fails
+     */
+    static ByteBuffer decompress(Path source) throws IOException {
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(source), BUFFER_SIZE))) {
+            long rawSize = readHeader(in);
+            if (rawSize > Integer.MAX_VALUE - 8) {
+                throw new IOException("Compressed cache file too large: " + rawSize);
+            }
+            byte[] data = new byte[(int) rawSize];
+            InputStream inflating = new InflaterInputStream(in, inflater, BUFFER_SIZE);
+            int read = inflating.readNBytes(data, 0, data.length);
+            if (read != data.length) {
+                throw new IOException("Truncated compressed cache file");
+            }
+            return ByteBuffer.wrap(data);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long readHeader(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a compressed figma2json cache file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compressed cache version: " + version);
+        }
+        return in.readLong();
+    }
+}
@@ -0,0 +1,437 @@
+package com.tlcsdm.figma2json.util;
+
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Component;
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tlcsdm.figma2json.util.CacheFormat.*;
+
+/**
+ * Random-access reader for the binary cache format described by {@link CacheFormat}.
+ * <p>
+ * Opening a reader only validates the header; pages, nodes and strings are
+ * decoded on demand, so a memory-mapped file can be browsed without pulling
+ * unrelated pages into the heap. All reads use absolute positions, which makes
+ * a reader safe to share between threads.
+ * <p>
+ * Numbers in free-form properties are returned as {@link Double} and objects as
+ * {@link LinkedHashMap}, matching what Gson produces for the same JSON.
+ */
+final class CacheFileReader implements CacheSource {
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private final int stringIndex;
+    private final int pageCount;
+    private final int pageDirectory;
+    private final int nodeCount;
+    private final int nodeIndex;
+    private final int meta;
+    private final int nodeTable;
+
+    /**
+     * Creates a reader over the given file contents.
+     *
+     * @param buffer the file contents, typically a memory-mapped file
+     * @throws IOException if the data is not a cache file of the supported version
+     */
+    CacheFileReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE) {
+            throw new IOException("Truncated cache file");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw new IOException("Not a figma2json cache file");
+            }
+        }
+        int version = buffer.getInt(HEADER_VERSION);
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache format version: " + version);
+        }
+        // A damaged header must not turn into a huge allocation or a read outside the file
+        int stringCount = buffer.getInt(HEADER_STRING_COUNT);
+        this.stringIndex = buffer.getInt(HEADER_STRING_INDEX);
+        this.pageCount = buffer.getInt(HEADER_PAGE_COUNT);
+        this.pageDirectory = buffer.getInt(HEADER_PAGE_DIRECTORY);
+        this.nodeCount = buffer.getInt(HEADER_NODE_COUNT);
+        this.nodeIndex = buffer.getInt(HEADER_NODE_INDEX);
+        this.meta = buffer.getInt(HEADER_META);
+        this.nodeTable = buffer.getInt(HEADER_NODE_TABLE);
+        checkSection(stringIndex, stringCount, 4);
+        checkSection(pageDirectory, pageCount, PAGE_ENTRY_SIZE);
+        checkSection(nodeIndex, nodeCount, NODE_ENTRY_SIZE);
+        checkSection(meta, 0, 0);
+        checkSection(nodeTable, buffer.getInt(HEADER_NODE_TABLE_LENGTH), 1);
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * Checks that a section of fixed-size entries lies within the file.
+     */
+    private void checkSection(int offset, int count, int entrySize) throws IOException {
+        if (offset < HEADER_SIZE || count < 0
+                || offset + (long) count * entrySize > buffer.limit()) {
+            throw new IOException("Corrupt cache file header");
+        }
+    }
+
+    /**
+     * Gets the number of pages in the cached document.
+     *
+     * @return the page count
+     */
+    int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Gets the number of indexed nodes in the cached document.
+     *
+     * @return the node count
+     */
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Decodes the file metadata and the page directory, without any page contents.
+     * Pages of the returned document only carry their id, name and type.
+     *
+     * @return the file skeleton
+     * @throws IOException if the data is corrupt
+     */
+    @Override
+    public FigmaFile readSkeleton() throws IOException {
+        return readFile(false);
+    }
+
+    /**
+     * Decodes the complete file.
+     *
+     * @return the decoded FigmaFile
+     * @throws IOException if the data is corrupt
+     */
+    @Override
+    public FigmaFile readFile() throws IOException {
+        return readFile(true);
+    }
+
+    /**
+     * Decodes a page with its full subtree.
+     *
+     * @param index the page index
+     * @return the page node
+     * @throws IOException if the data is corrupt
+     */
+    @Override
+    public Node readPage(int index) throws IOException {
+        if (index < 0 || index >= pageCount) {
+            throw new IndexOutOfBoundsException("Page index: " + index);
+        }
+        try {
+            return new Decoder(0).readNode(buffer.getInt(pageDirectory + index * PAGE_ENTRY_SIZE + 12));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt cache file", e);
+        }
+    }
+
+    /**
+     * Looks up a node by id in the node index and decodes its subtree.
+     *
+     * @param nodeId the node id
+     * @return the node, or null if the file does not contain it
+     * @throws IOException if the data is corrupt
+     */
+    @Override
+    public Node readNode(String nodeId) throws IOException {
+        try {
+            int low = 0;
+            int high = nodeCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int entry = nodeIndex + mid * NODE_ENTRY_SIZE;
+                int cmp = string(buffer.getInt(entry)).compareTo(nodeId);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return new Decoder(0).readNode(buffer.getInt(entry + 4));
+                }
+            }
+            return null;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt cache file", e);
+        }
+    }
+
+    private FigmaFile readFile(boolean withContents) throws IOException {
+        try {
+            Decoder decoder = new Decoder(meta);
+            FigmaFile figmaFile = new FigmaFile();
+            figmaFile.setName(decoder.readString());
+            figmaFile.setLastModified(decoder.readString());
+            figmaFile.setThumbnailUrl(decoder.readString());
+            figmaFile.setVersion(decoder.readString());
+            figmaFile.setRole(decoder.readString());
+            figmaFile.setComponents(decoder.readComponents());
+            int documentState = decoder.readByte();
+            if (documentState != 0) {
+                Document document = new Document();
+                document.setId(decoder.readString());
+                document.setName(decoder.readString());
+                document.setType(decoder.readString());
+                if (documentState == 2) {
+                    List<Node> pages = new ArrayList<>(pageCount);
+                    for (int i = 0; i < pageCount; i++) {
+                        pages.add(withContents ? readPage(i) : readPageStub(i));
+                    }
+                    document.setChildren(pages);
+                }
+                figmaFile.setDocument(document);
+            }
+            return figmaFile;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt cache file", e);
+        }
+    }
+
+    private Node readPageStub(int index) {
+        int entry = pageDirectory + index * PAGE_ENTRY_SIZE;
+        Node page = new Node();
+        page.setId(string(buffer.getInt(entry)));
+        page.setName(string(buffer.getInt(entry + 4)));
+        page.setType(string(buffer.getInt(entry + 8)));
+        return page;
+    }
+
+    private String string(int ref) {
+        if (ref == 0) {
+            return null;
+        }
+        String value = strings[ref - 1];
+        if (value == null) {
+            // Racing threads decode the same bytes, so a lost update is harmless
+            Decoder decoder = new Decoder(buffer.getInt(stringIndex + (ref - 1) * 4));
+            int length = decoder.readVarint();
+            byte[] bytes = new byte[length];
+            buffer.get(decoder.pos, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[ref - 1] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Sequential cursor over the buffer, using absolute reads only.
+     */
+    private final class Decoder {
+        private int pos;
+
+        Decoder(int pos) {
+            this.pos = pos;
+        }
+
+        /**
+         * Decodes a node and its subtree depth-first with an explicit stack, so
+         * deeply nested trees cannot overflow the thread stack.
+         */
+        Node readNode(int offset) {
+            Deque<Parent> parents = new ArrayDeque<>();
+            Node root = readRecord(offset, parents);
+            while (!parents.isEmpty()) {
+                Parent parent = parents.peek();
+                if (parent.next == parent.childOffsets.length) {
+                    parents.pop();
+                } else {
+                    parent.children.add(readRecord(parent.childOffsets[parent.next++], parents));
+                }
+            }
+            return root;
+        }
+
+        /**
+         * Decodes the fields of one node. If it has children, their list is set
+         * but left empty, and the node is pushed onto the stack to be filled.
+         */
+        private Node readRecord(int offset, Deque<Parent> parents) {
+            pos = nodeTable + offset;
+            Node node = new Node();
+            int mask = readVarint();
+            if ((mask & NODE_ID) != 0) node.setId(readString());
+            if ((mask & NODE_NAME) != 0) node.setName(readString());
+            if ((mask & NODE_TYPE) != 0) node.setType(readString());
+            if ((mask & NODE_VISIBLE) != 0) node.setVisible(readByte() != 0);
+            if ((mask & NODE_BOUNDING_BOX) != 0) {
+                BoundingBox box = new BoundingBox();
+                box.setX((Double) readValue());
+                box.setY((Double) readValue());
+                box.setWidth((Double) readValue());
+                box.setHeight((Double) readValue());
+                node.setAbsoluteBoundingBox(box);
+            }
+            if ((mask & NODE_FILLS) != 0) node.setFills(asList(readValue()));
+            if ((mask & NODE_STROKES) != 0) node.setStrokes(asList(readValue()));
+            if ((mask & NODE_STROKE_WEIGHT) != 0) node.setStrokeWeight((Double) readValue());
+            if ((mask & NODE_CORNER_RADIUS) != 0) node.setCornerRadius((Double) readValue());
+            if ((mask & NODE_EFFECTS) != 0) node.setEffects(asList(readValue()));
+            if ((mask & NODE_BLEND_MODE) != 0) node.setBlendMode(readString());
+            if ((mask & NODE_OPACITY) != 0) node.setOpacity((Double) readValue());
+            if ((mask & NODE_CONSTRAINTS) != 0) node.setConstraints(asMap(readValue()));
+            if ((mask & NODE_STYLES) != 0) node.setStyles(asStringMap(readValue()));
+            if ((mask & NODE_CHILDREN) != 0) {
+                int count = readVarint();
+                int[] childOffsets = new int[count];
+                for (int i = 0; i < count; i++) {
+                    int distance = readVarint();
+                    // Children always precede their parent, anything else would loop forever
+                    if (distance <= 0) {
+                        throw new IllegalStateException("Malformed child offset");
+                    }
+                    childOffsets[i] = offset - distance;
+                }
+                List<Node> children = new ArrayList<>(count);
+                node.setChildren(children);
+                parents.push(new Parent(children, childOffsets));
+            }
+            return node;
+        }
+
+        Map<String, Component> readComponents() {
+            int count = readVarint();
+            if (count == 0) {
+                return null;
+            }
+            Map<String, Component> components = new LinkedHashMap<>();
+            for (int i = 0; i < count - 1; i++) {
+                String key = readString();
+                if (readByte() == 0) {
+                    components.put(key, null);
+                    continue;
+                }
+                Component component = new Component();
+                component.setKey(readString());
+                component.setName(readString());
+                component.setDescription(readString());
+                component.setComponentSetId(readString());
+                component.setDocumentationLinks(asList(readValue()));
+                components.put(key, component);
+            }
+            return components;
+        }
+
+        Object readValue() {
+            int tag = readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_INT:
+                    return (double) Varints.unZigZag(readVarlong());
+                case TAG_DOUBLE: {
+                    long bits = buffer.getLong(pos);
+                    pos += 8;
+                    return Double.longBitsToDouble(bits);
+                }
+                case TAG_STRING:
+                    return readString();
+                case TAG_LIST: {
+                    int size = readVarint();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                case TAG_MAP: {
+                    int size = readVarint();
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        String key = readString();
+                        map.put(key, readValue());
+                    }
+                    return map;
+                }
+                default:
+                    throw new IllegalStateException("Unknown value tag: " + tag);
+            }
+        }
+
+        String readString() {
+            return string(readVarint());
+        }
+
+        int readByte() {
+            return buffer.get(pos++);
+        }
+
+        int readVarint() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = buffer.get(pos++);
+                result |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+
+        long readVarlong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get(pos++);
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> asList(Object value) {
+        return (List<Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> asStringMap(Object value) {
+        return (Map<String, String>) value;
+    }
+
+    /**
+     * A decoded node whose children are still being read.
+     */
+    private static final class Parent {
+        private final List<Node> children;
+        private final int[] childOffsets;
+        private int next;
+
+        Parent(List<Node> children, int[] childOffsets) {
+            this.children = children;
+            this.childOffsets = childOffsets;
+        }
+    }
+}
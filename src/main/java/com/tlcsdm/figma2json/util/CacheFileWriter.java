@@ -0,0 +1,358 @@
+package com.tlcsdm.figma2json.util;
+
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Component;
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tlcsdm.figma2json.util.CacheFormat.*;
+
+/**
+ * Writes a {@link FigmaFile} in the binary cache format described by {@link CacheFormat}.
+ * <p>
+ * Nodes are written children first, so a parent record can store the offsets
+ * of its children. The directories and the string table are only known once all
+ * records have been encoded, therefore the node table and meta section are
+ * buffered in memory and written after them.
+ */
+final class CacheFileWriter {
+
+    private final Buffer nodes = new Buffer(64 * 1024);
+    private final Buffer meta = new Buffer(1024);
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final List<int[]> nodeEntries = new ArrayList<>();
+
+    private CacheFileWriter() {
+    }
+
+    /**
+     * Encodes the given file and writes it to the output stream.
+     *
+     * @param figmaFile the file to encode
+     * @param out       the target stream, not closed by this method
+     * @throws IOException if writing fails
+     */
+    static void write(FigmaFile figmaFile, OutputStream out) throws IOException {
+        new CacheFileWriter().encode(figmaFile, out);
+    }
+
+    private void encode(FigmaFile figmaFile, OutputStream out) throws IOException {
+        Document document = figmaFile.getDocument();
+        List<Node> pages = document != null && document.getChildren() != null
+                ? document.getChildren() : List.of();
+        int[] pageOffsets = new int[pages.size()];
+        for (int i = 0; i < pages.size(); i++) {
+            pageOffsets[i] = writeNode(pages.get(i));
+        }
+
+        writeString(meta, figmaFile.getName());
+        writeString(meta, figmaFile.getLastModified());
+        writeString(meta, figmaFile.getThumbnailUrl());
+        writeString(meta, figmaFile.getVersion());
+        writeString(meta, figmaFile.getRole());
+        writeComponents(figmaFile.getComponents());
+        if (document == null) {
+            meta.writeByte(0);
+        } else {
+            meta.writeByte(document.getChildren() != null ? 2 : 1);
+            writeString(meta, document.getId());
+            writeString(meta, document.getName());
+            writeString(meta, document.getType());
+        }
+
+        Buffer pageDirectory = new Buffer(pages.size() * PAGE_ENTRY_SIZE);
+        for (int i = 0; i < pages.size(); i++) {
+            Node page = pages.get(i);
+            pageDirectory.writeInt(stringRef(page.getId()));
+            pageDirectory.writeInt(stringRef(page.getName()));
+            pageDirectory.writeInt(stringRef(page.getType()));
+            pageDirectory.writeInt(pageOffsets[i]);
+        }
+
+        // Sort by id so readers can binary search the index
+        nodeEntries.sort((a, b) -> strings.get(a[0]).compareTo(strings.get(b[0])));
+        Buffer nodeIndex = new Buffer(nodeEntries.size() * NODE_ENTRY_SIZE);
+        for (int[] entry : nodeEntries) {
+            nodeIndex.writeInt(entry[0] + 1);
+            nodeIndex.writeInt(entry[1]);
+        }
+
+        int stringIndexOffset = HEADER_SIZE + pageDirectory.size() + nodeIndex.size();
+        int stringDataOffset = stringIndexOffset + strings.size() * 4;
+        Buffer stringOffsets = new Buffer(strings.size() * 4);
+        Buffer stringData = new Buffer(strings.size() * 16);
+        for (String s : strings) {
+            stringOffsets.writeInt(stringDataOffset + stringData.size());
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            stringData.writeVarint(bytes.length);
+            stringData.writeBytes(bytes, 0, bytes.length);
+        }
+        int metaOffset = stringDataOffset + stringData.size();
+        int nodeTableOffset = metaOffset + meta.size();
+
+        Buffer header = new Buffer(HEADER_SIZE);
+        header.writeBytes(MAGIC, 0, MAGIC.length);
+        header.writeInt(VERSION);
+        header.writeInt(strings.size());
+        header.writeInt(stringIndexOffset);
+        header.writeInt(pages.size());
+        header.writeInt(HEADER_SIZE);
+        header.writeInt(nodeEntries.size());
+        header.writeInt(HEADER_SIZE + pageDirectory.size());
+        header.writeInt(metaOffset);
+        header.writeInt(nodeTableOffset);
+        header.writeInt(nodes.size());
+
+        header.writeTo(out);
+        pageDirectory.writeTo(out);
+        nodeIndex.writeTo(out);
+        stringOffsets.writeTo(out);
+        stringData.writeTo(out);
+        meta.writeTo(out);
+        nodes.writeTo(out);
+    }
+
+    private void writeComponents(Map<String, Component> components) {
+        if (components == null) {
+            meta.writeVarint(0);
+            return;
+        }
+        meta.writeVarint(components.size() + 1);
+        for (Map.Entry<String, Component> entry : components.entrySet()) {
+            writeString(meta, entry.getKey());
+            Component component = entry.getValue();
+            if (component == null) {
+                meta.writeByte(0);
+                continue;
+            }
+            meta.writeByte(1);
+            writeString(meta, component.getKey());
+            writeString(meta, component.getName());
+            writeString(meta, component.getDescription());
+            writeString(meta, component.getComponentSetId());
+            writeValue(meta, component.getDocumentationLinks());
+        }
+    }
+
+    /**
+     * Writes a node after its subtree, walking in post-order with an explicit
+     * stack so deeply nested trees cannot overflow the thread stack.
+     *
+     * @return the offset of the node record
+     */
+    private int writeNode(Node root) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root));
+        int offset = -1;
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.childOffsets != null && frame.next < frame.childOffsets.length) {
+                stack.push(new Frame(frame.node.getChildren().get(frame.next)));
+                continue;
+            }
+            stack.pop();
+            offset = writeRecord(frame.node, frame.childOffsets);
+            if (!stack.isEmpty()) {
+                Frame parent = stack.peek();
+                parent.childOffsets[parent.next++] = offset;
+            }
+        }
+        return offset;
+    }
+
+    private int writeRecord(Node node, int[] childOffsets) {
+        List<Node> children = node.getChildren();
+        int offset = nodes.size();
+        int mask = 0;
+        if (node.getId() != null) mask |= NODE_ID;
+        if (node.getName() != null) mask |= NODE_NAME;
+        if (node.getType() != null) mask |= NODE_TYPE;
+        if (node.getVisible() != null) mask |= NODE_VISIBLE;
+        if (children != null) mask |= NODE_CHILDREN;
+        if (node.getAbsoluteBoundingBox() != null) mask |= NODE_BOUNDING_BOX;
+        if (node.getFills() != null) mask |= NODE_FILLS;
+        if (node.getStrokes() != null) mask |= NODE_STROKES;
+        if (node.getStrokeWeight() != null) mask |= NODE_STROKE_WEIGHT;
+        if (node.getCornerRadius() != null) mask |= NODE_CORNER_RADIUS;
+        if (node.getEffects() != null) mask |= NODE_EFFECTS;
+        if (node.getBlendMode() != null) mask |= NODE_BLEND_MODE;
+        if (node.getOpacity() != null) mask |= NODE_OPACITY;
+        if (node.getConstraints() != null) mask |= NODE_CONSTRAINTS;
+        if (node.getStyles() != null) mask |= NODE_STYLES;
+        nodes.writeVarint(mask);
+        if (node.getId() != null) {
+            nodeEntries.add(new int[]{stringRef(node.getId()) - 1, offset});
+        }
+
+        if ((mask & NODE_ID) != 0) writeString(nodes, node.getId());
+        if ((mask & NODE_NAME) != 0) writeString(nodes, node.getName());
+        if ((mask & NODE_TYPE) != 0) writeString(nodes, node.getType());
+        if ((mask & NODE_VISIBLE) != 0) nodes.writeByte(node.getVisible() ? 1 : 0);
+        if ((mask & NODE_BOUNDING_BOX) != 0) {
+            BoundingBox box = node.getAbsoluteBoundingBox();
+            writeValue(nodes, box.getX());
+            writeValue(nodes, box.getY());
+            writeValue(nodes, box.getWidth());
+            writeValue(nodes, box.getHeight());
+        }
+        if ((mask & NODE_FILLS) != 0) writeValue(nodes, node.getFills());
+        if ((mask & NODE_STROKES) != 0) writeValue(nodes, node.getStrokes());
+        if ((mask & NODE_STROKE_WEIGHT) != 0) writeValue(nodes, node.getStrokeWeight());
+        if ((mask & NODE_CORNER_RADIUS) != 0) writeValue(nodes, node.getCornerRadius());
+        if ((mask & NODE_EFFECTS) != 0) writeValue(nodes, node.getEffects());
+        if ((mask & NODE_BLEND_MODE) != 0) writeString(nodes, node.getBlendMode());
+        if ((mask & NODE_OPACITY) != 0) writeValue(nodes, node.getOpacity());
+        if ((mask & NODE_CONSTRAINTS) != 0) writeValue(nodes, node.getConstraints());
+        if ((mask & NODE_STYLES) != 0) writeValue(nodes, node.getStyles());
+        if (childOffsets != null) {
+            // Children always precede their parent, so the distance back is positive
+            nodes.writeVarint(childOffsets.length);
+            for (int childOffset : childOffsets) {
+                nodes.writeVarint(offset - childOffset);
+            }
+        }
+        return offset;
+    }
+
+    private void writeValue(Buffer buffer, Object value) {
+        if (value == null) {
+            buffer.writeByte(TAG_NULL);
+        } else if (value instanceof Boolean b) {
+            buffer.writeByte(b ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Number number) {
+            double d = number.doubleValue();
+            if (Varints.isIntegral(d)) {
+                buffer.writeByte(TAG_INT);
+                buffer.writeVarlong(Varints.zigZag((long) d));
+            } else {
+                buffer.writeByte(TAG_DOUBLE);
+                buffer.writeLong(Double.doubleToRawLongBits(d));
+            }
+        } else if (value instanceof String s) {
+            buffer.writeByte(TAG_STRING);
+            writeString(buffer, s);
+        } else if (value instanceof List<?> list) {
+            buffer.writeByte(TAG_LIST);
+            buffer.writeVarint(list.size());
+            for (Object item : list) {
+                writeValue(buffer, item);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            buffer.writeByte(TAG_MAP);
+            buffer.writeVarint(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(buffer, String.valueOf(entry.getKey()));
+                writeValue(buffer, entry.getValue());
+            }
+        } else {
+            // Gson only produces the types above; anything else is kept as text
+            buffer.writeByte(TAG_STRING);
+            writeString(buffer, value.toString());
+        }
+    }
+
+    private void writeString(Buffer buffer, String value) {
+        buffer.writeVarint(stringRef(value));
+    }
+
+    private int stringRef(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndex.put(value, index);
+        }
+        return index + 1;
+    }
+
+    /**
+     * Unsynchronized growable byte buffer.
+     */
+    static final class Buffer {
+        private byte[] data;
+        private int size;
+
+        Buffer(int capacity) {
+            this.data = new byte[Math.max(16, capacity)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            data[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, data, size, length);
+            size += length;
+        }
+
+        void writeVarint(int value) {
+            writeVarlong(Integer.toUnsignedLong(value));
+        }
+
+        void writeVarlong(long value) {
+            ensureCapacity(Varints.MAX_VARLONG_SIZE);
+            size = Varints.putVarlong(data, size, value);
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            data[size++] = (byte) (value >>> 24);
+            data[size++] = (byte) (value >>> 16);
+            data[size++] = (byte) (value >>> 8);
+            data[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                data[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(data, 0, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * A node whose children are being written.
+     */
+    private static final class Frame {
+        private final Node node;
+        private final int[] childOffsets;
+        private int next;
+
+        Frame(Node node) {
+            this.node = node;
+            this.childOffsets = node.getChildren() != null ? new int[node.getChildren().size()] : null;
+        }
+    }
+}
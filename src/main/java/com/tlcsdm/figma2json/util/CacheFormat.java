@@ -0,0 +1,67 @@
+package com.tlcsdm.figma2json.util;
+
+/**
+ * Constants shared by the binary cache file writer and reader.
+ * <p>
+ * Layout of a cache file:
+ * <pre>
+ * header | page directory | node index | string index | string data | meta section | node table
+ * </pre>
+ * The header and the directories use fixed-width big-endian ints so a reader
+ * can jump straight to any page, node or string without decoding the rest of
+ * the file. Strings are stored once and referenced by index, numbers are varint
+ * encoded where possible, and every node record in the node table points to its
+ * children by offset. The node index is sorted by node id for binary search.
+ */
+final class CacheFormat {
+
+    static final byte[] MAGIC = {'F', '2', 'J', 'C'};
+    static final int VERSION = 3;
+
+    // Header field positions
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_STRING_COUNT = 8;
+    static final int HEADER_STRING_INDEX = 12;
+    static final int HEADER_PAGE_COUNT = 16;
+    static final int HEADER_PAGE_DIRECTORY = 20;
+    static final int HEADER_NODE_COUNT = 24;
+    static final int HEADER_NODE_INDEX = 28;
+    static final int HEADER_META = 32;
+    static final int HEADER_NODE_TABLE = 36;
+    static final int HEADER_NODE_TABLE_LENGTH = 40;
+    static final int HEADER_SIZE = 44;
+
+    // Directory entry sizes: page = id, name, type, node offset; node = id, node offset
+    static final int PAGE_ENTRY_SIZE = 16;
+    static final int NODE_ENTRY_SIZE = 8;
+
+    // Value tags for free-form properties (fills, effects, constraints, ...)
+    static final int TAG_NULL = 0;
+    static final int TAG_FALSE = 1;
+    static final int TAG_TRUE = 2;
+    static final int TAG_INT = 3;
+    static final int TAG_DOUBLE = 4;
+    static final int TAG_STRING = 5;
+    static final int TAG_LIST = 6;
+    static final int TAG_MAP = 7;
+
+    // Presence bits of a node record
+    static final int NODE_ID = 1;
+    static final int NODE_NAME = 1 << 1;
+    static final int NODE_TYPE = 1 << 2;
+    static final int NODE_VISIBLE = 1 << 3;
+    static final int NODE_CHILDREN = 1 << 4;
+    static final int NODE_BOUNDING_BOX = 1 << 5;
+    static final int NODE_FILLS = 1 << 6;
+    static final int NODE_STROKES = 1 << 7;
+    static final int NODE_STROKE_WEIGHT = 1 << 8;
+    static final int NODE_CORNER_RADIUS = 1 << 9;
+    static final int NODE_EFFECTS = 1 << 10;
+    static final int NODE_BLEND_MODE = 1 << 11;
+    static final int NODE_OPACITY = 1 << 12;
+    static final int NODE_CONSTRAINTS = 1 << 13;
+    static final int NODE_STYLES = 1 << 14;
+
+    private CacheFormat() {
+    }
+}
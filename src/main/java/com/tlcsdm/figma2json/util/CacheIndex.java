@@ -0,0 +1,280 @@
+package com.tlcsdm.figma2json.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent index of the disk cache entries.
+ * <p>
+ * Every entry records its on-disk size, uncompressed size, last access time,
+ * file version and a CRC32C checksum of the uncompressed contents. Running
+ * totals are maintained on every change, so statistics never need to touch
+ * the cache directory. The index is written to a small binary file starting
+ * with the magic "F2JI"; changes are only marked dirty and written by
+ * {@link #persist(Path)}.
+ */
+final class CacheIndex {
+
+    private static final byte[] MAGIC = {'F', '2', 'J', 'I'};
+    private static final int VERSION = 1;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    /**
+     * Serializes writers, so snapshots reach the file in the order they were
+     * taken and never share the temporary file.
+     */
+    private final Object persistLock = new Object();
+    private long totalSizeBytes;
+    private long rawSizeBytes;
+    private long compressedSizeBytes;
+    private long compressedCount;
+    private boolean dirty;
+
+    /**
+     * Adds or replaces the entry for a key.
+     *
+     * @param entry the entry
+     */
+    synchronized void put(Entry entry) {
+        subtract(entries.put(entry.key(), entry));
+        add(entry);
+        dirty = true;
+    }
+
+    synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized Entry remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            subtract(removed);
+            dirty = true;
+        }
+        return removed;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        totalSizeBytes = 0;
+        rawSizeBytes = 0;
+        compressedSizeBytes = 0;
+        compressedCount = 0;
+        dirty = true;
+    }
+
+    /**
+     * Records an access to an entry. Access times alone do not warrant an
+     * immediate write, they are persisted with the next change or janitor run.
+     *
+     * @param key      the entry key
+     * @param accessed the access time in epoch milliseconds
+     */
+    synchronized void touch(String key, long accessed) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.lastAccess() < accessed) {
+            entries.put(key, entry.withLastAccess(accessed));
+            dirty = true;
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getTotalSizeBytes() {
+        return totalSizeBytes;
+    }
+
+    /**
+     * Selects the entries to evict: all entries not accessed since the expiry
+     * time, then the least recently used ones until the remaining entries fit
+     * into the size limit. The most recently used entry is only evicted when it
+     * has expired.
+     *
+     * @param expiredBefore entries last accessed before this time are expired, or
+     *                      {@link Long#MIN_VALUE} to disable expiry
+     * @param maxSizeBytes  the size limit in bytes, or 0 for no limit
+     * @return the entries to evict, oldest first
+     */
+    synchronized List<Entry> selectVictims(long expiredBefore, long maxSizeBytes) {
+        List<Entry> byAge = new ArrayList<>(entries.values());
+        byAge.sort(Comparator.comparingLong(Entry::lastAccess));
+        List<Entry> victims = new ArrayList<>();
+        long remaining = totalSizeBytes;
+        for (int i = 0; i < byAge.size(); i++) {
+            Entry entry = byAge.get(i);
+            boolean expired = entry.lastAccess() < expiredBefore;
+            // The most recently used entry is kept even if it alone exceeds the limit
+            boolean overSize = maxSizeBytes > 0 && remaining > maxSizeBytes && i < byAge.size() - 1;
+            if (!expired && !overSize) {
+                break;
+            }
+            victims.add(entry);
+            remaining -= entry.sizeBytes();
+        }
+        return victims;
+    }
+
+    /**
+     * Adds the entry count and size totals to the given statistics.
+     *
+     * @param stats the statistics map to fill
+     */
+    synchronized void addStats(Map<String, Object> stats) {
+        stats.put("fileCount", (long) entries.size());
+        stats.put("totalSizeBytes", totalSizeBytes);
+        stats.put("totalSizeMB", totalSizeBytes / (1024.0 * 1024.0));
+        stats.put("compressedFileCount", compressedCount);
+        stats.put("compressedSizeBytes", compressedSizeBytes);
+        stats.put("rawSizeBytes", rawSizeBytes);
+        stats.put("compressionRatio", totalSizeBytes > 0 ? (double) rawSizeBytes / totalSizeBytes : 1.0);
+    }
+
+    /**
+     * Writes the index if it changed since it was last written or loaded.
+     * The file is replaced atomically, so a crash never leaves a torn index.
+     * Concurrent callers write one after another, each with a fresh snapshot.
+     *
+     * @param path the index file
+     * @return true if the index was written
+     * @throws IOException if writing fails
+     */
+    boolean persist(Path path) throws IOException {
+        synchronized (persistLock) {
+            List<Entry> snapshot;
+            synchronized (this) {
+                if (!dirty) {
+                    return false;
+                }
+                snapshot = new ArrayList<>(entries.values());
+                dirty = false;
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                write(snapshot, temp);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                markDirty();
+                throw e;
+            }
+            return true;
+        }
+    }
+
+    private static void write(List<Entry> snapshot, Path temp) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(snapshot.size());
+            for (Entry entry : snapshot) {
+                out.writeUTF(entry.key());
+                out.writeBoolean(entry.version() != null);
+                if (entry.version() != null) {
+                    out.writeUTF(entry.version());
+                }
+                out.writeLong(entry.sizeBytes());
+                out.writeLong(entry.rawSizeBytes());
+                out.writeLong(entry.lastAccess());
+                out.writeInt(entry.checksum());
+                out.writeBoolean(entry.compressed());
+            }
+        }
+    }
+
+    /**
+     * Replaces the contents of this index with the entries stored in a file.
+     *
+     * @param path the index file
+     * @throws IOException if the file is missing or not a valid index
+     */
+    void load(Path path) throws IOException {
+        List<Entry> loaded = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a figma2json cache index");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cache index version: " + version);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                String entryVersion = in.readBoolean() ? in.readUTF() : null;
+                loaded.add(new Entry(key, entryVersion, in.readLong(), in.readLong(), in.readLong(),
+                        in.readInt(), in.readBoolean()));
+            }
+        }
+        synchronized (this) {
+            clear();
+            for (Entry entry : loaded) {
+                entries.put(entry.key(), entry);
+                add(entry);
+            }
+            dirty = false;
+        }
+    }
+
+    synchronized void markDirty() {
+        dirty = true;
+    }
+
+    private void add(Entry entry) {
+        totalSizeBytes += entry.sizeBytes();
+        rawSizeBytes += entry.rawSizeBytes();
+        if (entry.compressed()) {
+            compressedCount++;
+            compressedSizeBytes += entry.sizeBytes();
+        }
+    }
+
+    private void subtract(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        totalSizeBytes -= entry.sizeBytes();
+        rawSizeBytes -= entry.rawSizeBytes();
+        if (entry.compressed()) {
+            compressedCount--;
+            compressedSizeBytes -= entry.sizeBytes();
+        }
+    }
+
+    /**
+     * Index record of one cache entry.
+     *
+     * @param key          the sanitized file key
+     * @param version      the cached file version, or null if unknown
+     * @param sizeBytes    the size of the entry on disk
+     * @param rawSizeBytes the uncompressed size of the entry
+     * @param lastAccess   the last access time in epoch milliseconds
+     * @param checksum     the CRC32C checksum of the uncompressed contents
+     * @param compressed   whether the entry is stored compressed
+     */
+    record Entry(String key, String version, long sizeBytes, long rawSizeBytes, long lastAccess,
+                 int checksum, boolean compressed) {
+
+        Entry withLastAccess(long accessed) {
+            return new Entry(key, version, sizeBytes, rawSizeBytes, accessed, checksum, compressed);
+        }
+
+        Entry withCompressedSize(long compressedSize) {
+            return new Entry(key, version, compressedSize, rawSizeBytes, lastAccess, checksum, true);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.tlcsdm.figma2json.util;
+
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+
+/**
+ * Random-access view of one cached file, backing a {@link CachedFigmaFile}.
+ */
+interface CacheSource {
+
+    /**
+     * Decodes the file metadata with page stubs that only carry id, name and type.
+     *
+     * @return the file skeleton
+     * @throws IOException if the cached data is corrupt
+     */
+    FigmaFile readSkeleton() throws IOException;
+
+    /**
+     * Decodes the complete file.
+     *
+     * @return the decoded FigmaFile
+     * @throws IOException if the cached data is corrupt
+     */
+    FigmaFile readFile() throws IOException;
+
+    /**
+     * Decodes a page with its full subtree.
+     *
+     * @param index the page index
+     * @return the page node
+     * @throws IOException if the cached data is corrupt
+     */
+    Node readPage(int index) throws IOException;
+
+    /**
+     * Decodes any node of the document with its subtree.
+     *
+     * @param nodeId the node id
+     * @return the node, or null if the file does not contain it
+     * @throws IOException if the cached data is corrupt
+     */
+    Node readNode(String nodeId) throws IOException;
+}
@@ -0,0 +1,191 @@
+package com.tlcsdm.figma2json.util;
+
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Handle to a cached Figma file that decodes pages and nodes on demand.
+ * <p>
+ * Binary cache entries are memory-mapped, so opening one only reads the
+ * header and directories; the contents of a page are decoded the first time
+ * it is requested. Chunked entries likewise only read a page's chunks when
+ * the page is requested. Entries that only exist in the JSON fallback format are
+ * fully loaded and served from memory, behind the same page stubs.
+ */
+public final class CachedFigmaFile {
+
+    private final CacheSource source;
+    private final FigmaFile skeleton;
+    private final FigmaFile loadedFile;
+
+    private CachedFigmaFile(CacheSource source, FigmaFile skeleton, FigmaFile loadedFile) {
+        this.source = source;
+        this.skeleton = skeleton;
+        this.loadedFile = loadedFile;
+    }
+
+    static CachedFigmaFile of(CacheSource source) throws IOException {
+        return new CachedFigmaFile(source, source.readSkeleton(), null);
+    }
+
+    static CachedFigmaFile of(FigmaFile figmaFile) {
+        return new CachedFigmaFile(null, skeletonOf(figmaFile), figmaFile);
+    }
+
+    /**
+     * Gets the file metadata with a document whose pages only carry id, name and type.
+     * Use {@link #loadPage(int)} to obtain the contents of a page.
+     *
+     * @return the file skeleton
+     */
+    public FigmaFile getSkeleton() {
+        return skeleton;
+    }
+
+    /**
+     * Gets the cached file version.
+     *
+     * @return the version, or null if unknown
+     */
+    public String getVersion() {
+        return skeleton.getVersion();
+    }
+
+    /**
+     * Gets the number of pages in the cached document.
+     *
+     * @return the page count
+     */
+    public int getPageCount() {
+        List<Node> pages = getPages();
+        return pages != null ? pages.size() : 0;
+    }
+
+    /**
+     * Gets the pages of the cached document without their contents.
+     *
+     * @return the page stubs, or null if the document has no pages
+     */
+    public List<Node> getPages() {
+        Document document = skeleton.getDocument();
+        return document != null ? document.getChildren() : null;
+    }
+
+    /**
+     * Loads a page with its full subtree.
+     *
+     * @param index the page index
+     * @return the page node
+     * @throws IOException if the cache file is corrupt
+     */
+    public Node loadPage(int index) throws IOException {
+        if (source == null) {
+            return loadedFile.getDocument().getChildren().get(index);
+        }
+        return source.readPage(index);
+    }
+
+    /**
+     * Loads a page with its full subtree by page id.
+     *
+     * @param pageId the page id
+     * @return the page node, or null if the document has no such page
+     * @throws IOException if the cache file is corrupt
+     */
+    public Node loadPage(String pageId) throws IOException {
+        List<Node> pages = getPages();
+        if (pages != null) {
+            for (int i = 0; i < pages.size(); i++) {
+                if (pageId.equals(pages.get(i).getId())) {
+                    return loadPage(i);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads any node of the document with its subtree.
+     *
+     * @param nodeId the node id
+     * @return the node, or null if the document has no such node
+     * @throws IOException if the cache file is corrupt
+     */
+    public Node loadNode(String nodeId) throws IOException {
+        if (source != null) {
+            return source.readNode(nodeId);
+        }
+        Document document = loadedFile.getDocument();
+        return document != null && document.getChildren() != null
+                ? findNode(document.getChildren(), nodeId) : null;
+    }
+
+    /**
+     * Loads the complete file.
+     *
+     * @return the fully decoded FigmaFile
+     * @throws IOException if the cache file is corrupt
+     */
+    public FigmaFile loadFile() throws IOException {
+        return source != null ? source.readFile() : loadedFile;
+    }
+
+    static FigmaFile skeletonOf(FigmaFile figmaFile) {
+        FigmaFile skeleton = new FigmaFile();
+        skeleton.setName(figmaFile.getName());
+        skeleton.setLastModified(figmaFile.getLastModified());
+        skeleton.setThumbnailUrl(figmaFile.getThumbnailUrl());
+        skeleton.setVersion(figmaFile.getVersion());
+        skeleton.setRole(figmaFile.getRole());
+        skeleton.setComponents(figmaFile.getComponents());
+        Document document = figmaFile.getDocument();
+        if (document != null) {
+            Document stubDocument = new Document();
+            stubDocument.setId(document.getId());
+            stubDocument.setName(document.getName());
+            stubDocument.setType(document.getType());
+            if (document.getChildren() != null) {
+                List<Node> stubs = new ArrayList<>(document.getChildren().size());
+                for (Node page : document.getChildren()) {
+                    Node stub = new Node();
+                    stub.setId(page.getId());
+                    stub.setName(page.getName());
+                    stub.setType(page.getType());
+                    stubs.add(stub);
+                }
+                stubDocument.setChildren(stubs);
+            }
+            skeleton.setDocument(stubDocument);
+        }
+        return skeleton;
+    }
+
+    private static Node findNode(List<Node> nodes, String nodeId) {
+        // Depth-first with an explicit stack, in the order of a recursive search
+        Deque<Iterator<Node>> stack = new ArrayDeque<>();
+        stack.push(nodes.iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Node> siblings = stack.peek();
+            if (!siblings.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Node node = siblings.next();
+            if (nodeId.equals(node.getId())) {
+                return node;
+            }
+            if (node.getChildren() != null) {
+                stack.push(node.getChildren().iterator());
+            }
+        }
+        return null;
+    }
+}
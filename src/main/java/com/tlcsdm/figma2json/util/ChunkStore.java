@@ -0,0 +1,681 @@
+package com.tlcsdm.figma2json.util;
+
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store that keeps cached files as page-sized chunks.
+ * <p>
+ * Every page is encoded on its own in the binary cache format and stored under
+ * the SHA-256 hash of its bytes; pages with more than
+ * {@link #LARGE_PAGE_NODE_COUNT} nodes are split further into one chunk per
+ * top-level frame plus a chunk for the page itself. A small manifest per file
+ * version lists the chunks in page order together with the file metadata.
+ * Saving a new version therefore only writes the chunks that changed, and all
+ * versions of a file share their unchanged chunks.
+ * <p>
+ * Chunks are never deleted when a manifest goes away; {@link #collectGarbage()}
+ * removes the chunks that no manifest references anymore. Chunks of open
+ * {@link ChunkedSource handles} also survive garbage collection for as long as
+ * the handle is reachable, so a handle stays readable after its version was
+ * pruned; only {@link #clear()} invalidates it.
+ * <pre>
+ * chunks/objects/ab/abcdef....f2jc     page or frame chunk
+ * chunks/manifests/{key}/{version}.f2jm
+ * </pre>
+ */
+final class ChunkStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkStore.class);
+
+    /**
+     * Pages with more nodes than this are split into one chunk per top-level frame.
+     */
+    static final int LARGE_PAGE_NODE_COUNT = 2000;
+    static final int DEFAULT_VERSIONS_TO_KEEP = 3;
+
+    private static final byte[] MANIFEST_MAGIC = {'F', '2', 'J', 'M'};
+    private static final int MANIFEST_VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+    private static final String CHUNK_EXTENSION = ".f2jc";
+    private static final String MANIFEST_EXTENSION = ".f2jm";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path directory;
+    private final Path objectsDirectory;
+    private final Path manifestsDirectory;
+    // Saves share the read lock, garbage collection needs exclusive access
+    private final ReadWriteLock gcLock = new ReentrantReadWriteLock();
+    // Handles whose chunks are kept by garbage collection, released once unreachable
+    private final Set<ChunkedSource> openSources = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+    private final AtomicLong chunkCount = new AtomicLong();
+    private final AtomicLong chunkSizeBytes = new AtomicLong();
+    private final AtomicLong chunkWrites = new AtomicLong();
+    private final AtomicLong chunkReuses = new AtomicLong();
+    private volatile int versionsToKeep = DEFAULT_VERSIONS_TO_KEEP;
+
+    /**
+     * Creates a store in the given directory. Existing chunks are counted once.
+     *
+     * @param directory the store directory, created when the first chunk is written
+     */
+    ChunkStore(Path directory) {
+        this.directory = directory;
+        this.objectsDirectory = directory.resolve("objects");
+        this.manifestsDirectory = directory.resolve("manifests");
+        if (Files.isDirectory(objectsDirectory)) {
+            try (Stream<Path> files = Files.walk(objectsDirectory)) {
+                files.filter(path -> path.toString().endsWith(CHUNK_EXTENSION)).forEach(path -> {
+                    chunkCount.incrementAndGet();
+                    chunkSizeBytes.addAndGet(sizeOf(path));
+                });
+            } catch (IOException e) {
+                logger.warn("Failed to count chunks in {}", objectsDirectory, e);
+            }
+        }
+    }
+
+    void setVersionsToKeep(int versionsToKeep) {
+        if (versionsToKeep < 1) {
+            throw new IllegalArgumentException("At least one version must be kept: " + versionsToKeep);
+        }
+        this.versionsToKeep = versionsToKeep;
+    }
+
+    int getVersionsToKeep() {
+        return versionsToKeep;
+    }
+
+    /**
+     * Stores a file as a new version of the given key, writing only the chunks
+     * that are not stored yet, and prunes versions beyond the retention limit.
+     * Saving a version that already exists replaces its manifest.
+     *
+     * @param key  the sanitized file key
+     * @param file the file to store
+     * @return what the save wrote
+     * @throws IOException if writing fails
+     */
+    SaveResult save(String key, FigmaFile file) throws IOException {
+        gcLock.readLock().lock();
+        try {
+            Document document = file.getDocument();
+            List<Node> pages = document != null && document.getChildren() != null
+                    ? document.getChildren() : List.of();
+            Tally tally = new Tally();
+            List<PageChunks> pageChunks = new ArrayList<>(pages.size());
+            for (Node page : pages) {
+                pageChunks.add(storePage(page, tally));
+            }
+            
+            ByteArrayOutputStream skeleton = new ByteArrayOutputStream();
+            CacheFileWriter.write(CachedFigmaFile.skeletonOf(file), skeleton);
+            Manifest manifest = new Manifest(file.getVersion(), System.currentTimeMillis(),
+                    skeleton.toByteArray(), pageChunks, tally.referencedBytes);
+            Path manifestPath = manifestPath(key, file.getVersion());
+            Files.createDirectories(manifestPath.getParent());
+            Path temp = manifestPath.resolveSibling(manifestPath.getFileName() + TEMP_EXTENSION);
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                manifest.write(out);
+            }
+            Files.move(temp, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            pruneVersions(key);
+            
+            chunkWrites.addAndGet(tally.written);
+            chunkReuses.addAndGet(tally.reused);
+            logger.debug("Stored {} in chunks: {} written, {} reused", key, tally.written, tally.reused);
+            return new SaveResult(manifestPath, tally.written, tally.writtenBytes, tally.reused,
+                    Files.size(manifestPath) + tally.referencedBytes);
+        } finally {
+            gcLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Opens the most recently saved version of a key.
+     *
+     * @param key the sanitized file key
+     * @return the chunked source, or null if the key has no manifest
+     * @throws IOException if the manifest is corrupt
+     */
+    ChunkedSource open(String key) throws IOException {
+        List<ManifestInfo> versions = listVersions(key);
+        return versions.isEmpty() ? null : openManifest(versions.get(0).path());
+    }
+
+    /**
+     * Opens a specific version of a key.
+     *
+     * @param key     the sanitized file key
+     * @param version the file version
+     * @return the chunked source, or null if the version is not stored
+     * @throws IOException if the manifest is corrupt
+     */
+    ChunkedSource open(String key, String version) throws IOException {
+        try {
+            return openManifest(manifestPath(key, version));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private ChunkedSource openManifest(Path path) throws IOException {
+        // Registered under the read lock, so a collection either runs before the
+        // manifest is read or already sees the handle
+        gcLock.readLock().lock();
+        try {
+            ChunkedSource source = new ChunkedSource(readManifest(path));
+            openSources.add(source);
+            return source;
+        } finally {
+            gcLock.readLock().unlock();
+        }
+    }
+
+    boolean hasManifest(String key) {
+        return Files.isDirectory(manifestsDirectory.resolve(key));
+    }
+
+    /**
+     * Lists the stored versions of a key.
+     *
+     * @param key the sanitized file key
+     * @return the versions, most recently saved first
+     */
+    List<ManifestInfo> listVersions(String key) {
+        Path keyDirectory = manifestsDirectory.resolve(key);
+        if (!Files.isDirectory(keyDirectory)) {
+            return List.of();
+        }
+        List<ManifestInfo> versions = new ArrayList<>();
+        try (Stream<Path> files = Files.list(keyDirectory)) {
+            for (Path path : files.filter(p -> p.toString().endsWith(MANIFEST_EXTENSION)).toList()) {
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                    Manifest.readHeader(in);
+                    long savedAt = in.readLong();
+                    String version = in.readBoolean() ? in.readUTF() : null;
+                    versions.add(new ManifestInfo(version, savedAt, path));
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable chunk manifest: {}", path, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to list chunk manifests for {}", key, e);
+        }
+        versions.sort(Comparator.comparingLong(ManifestInfo::savedAt).reversed());
+        return versions;
+    }
+
+    /**
+     * Removes all manifests of a key. Its chunks are reclaimed by the next garbage collection.
+     *
+     * @param key the sanitized file key
+     * @throws IOException if deleting fails
+     */
+    void remove(String key) throws IOException {
+        Path keyDirectory = manifestsDirectory.resolve(key);
+        if (Files.isDirectory(keyDirectory)) {
+            deleteRecursively(keyDirectory);
+        }
+    }
+
+    /**
+     * Removes all manifests and chunks.
+     *
+     * @throws IOException if deleting fails
+     */
+    void clear() throws IOException {
+        gcLock.writeLock().lock();
+        try {
+            if (Files.exists(directory)) {
+                deleteRecursively(directory);
+            }
+            chunkCount.set(0);
+            chunkSizeBytes.set(0);
+        } finally {
+            gcLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes every chunk that is not referenced by any manifest, along with
+     * temp files left behind by interrupted writes. Unreadable manifests are
+     * deleted as well, since their chunks cannot be resolved anymore.
+     *
+     * @return what the collection removed
+     * @throws IOException if listing the store fails
+     */
+    GcResult collectGarbage() throws IOException {
+        gcLock.writeLock().lock();
+        try {
+            if (!Files.isDirectory(objectsDirectory)) {
+                return new GcResult(0, 0);
+            }
+            Set<String> live = new HashSet<>();
+            if (Files.isDirectory(manifestsDirectory)) {
+                try (Stream<Path> files = Files.walk(manifestsDirectory)) {
+                    for (Path path : files.filter(p -> p.toString().endsWith(MANIFEST_EXTENSION)).toList()) {
+                        try {
+                            readManifest(path).addHashes(live);
+                        } catch (IOException e) {
+                            logger.warn("Deleting unreadable chunk manifest: {}", path, e);
+                            Files.deleteIfExists(path);
+                        }
+                    }
+                }
+            }
+            synchronized (openSources) {
+                for (ChunkedSource source : openSources) {
+                    source.manifest.addHashes(live);
+                }
+            }
+            
+            long removed = 0;
+            long removedBytes = 0;
+            long survivors = 0;
+            long survivorBytes = 0;
+            try (Stream<Path> files = Files.walk(objectsDirectory)) {
+                for (Path path : files.filter(Files::isRegularFile).toList()) {
+                    String fileName = path.getFileName().toString();
+                    long size = sizeOf(path);
+                    boolean isChunk = fileName.endsWith(CHUNK_EXTENSION);
+                    if (isChunk && live.contains(fileName.substring(0, fileName.length() - CHUNK_EXTENSION.length()))) {
+                        survivors++;
+                        survivorBytes += size;
+                    } else if (Files.deleteIfExists(path) && isChunk) {
+                        removed++;
+                        removedBytes += size;
+                    }
+                }
+            }
+            chunkCount.set(survivors);
+            chunkSizeBytes.set(survivorBytes);
+            if (removed > 0) {
+                logger.info("Removed {} orphaned chunks ({} bytes)", removed, removedBytes);
+            }
+            return new GcResult(removed, removedBytes);
+        } finally {
+            gcLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the chunk counters to the given statistics.
+     *
+     * @param stats the statistics map to fill
+     */
+    void addStats(Map<String, Object> stats) {
+        stats.put("chunkCount", chunkCount.get());
+        stats.put("chunkSizeBytes", chunkSizeBytes.get());
+        stats.put("chunkWrites", chunkWrites.get());
+        stats.put("chunkReuses", chunkReuses.get());
+    }
+
+    private PageChunks storePage(Node page, Tally tally) throws IOException {
+        if (page.getChildren() == null || page.getChildren().isEmpty() || countNodes(page) <= LARGE_PAGE_NODE_COUNT) {
+            return new PageChunks(storeChunk(page, tally), List.of());
+        }
+        // Keep the page itself small, so editing one frame does not rewrite the others
+        Node shell = page.copyWithoutChildren();
+        byte[] shellHash = storeChunk(shell, tally);
+        List<byte[]> frameHashes = new ArrayList<>(page.getChildren().size());
+        for (Node frame : page.getChildren()) {
+            frameHashes.add(storeChunk(frame, tally));
+        }
+        return new PageChunks(shellHash, frameHashes);
+    }
+
+    private byte[] storeChunk(Node node, Tally tally) throws IOException {
+        byte[] data = encode(node);
+        byte[] hash = sha256(data);
+        Path path = chunkPath(hash);
+        tally.referencedBytes += data.length;
+        if (Files.exists(path)) {
+            tally.reused++;
+            return hash;
+        }
+        Files.createDirectories(path.getParent());
+        // A unique name, so writers of the same chunk never share a temporary file
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName() + ".", TEMP_EXTENSION);
+        try {
+            Files.write(temp, data);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        tally.written++;
+        tally.writtenBytes += data.length;
+        chunkCount.incrementAndGet();
+        chunkSizeBytes.addAndGet(data.length);
+        return hash;
+    }
+
+    private CacheFileReader readChunk(byte[] hash) throws IOException {
+        byte[] data;
+        gcLock.readLock().lock();
+        try {
+            data = Files.readAllBytes(chunkPath(hash));
+        } finally {
+            gcLock.readLock().unlock();
+        }
+        if (!Arrays.equals(hash, sha256(data))) {
+            throw new IOException("Corrupt chunk: " + HEX.formatHex(hash));
+        }
+        return new CacheFileReader(ByteBuffer.wrap(data));
+    }
+
+    private void pruneVersions(String key) throws IOException {
+        List<ManifestInfo> versions = listVersions(key);
+        for (int i = versionsToKeep; i < versions.size(); i++) {
+            Files.deleteIfExists(versions.get(i).path());
+        }
+    }
+
+    private Manifest readManifest(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return Manifest.read(new DataInputStream(in));
+        }
+    }
+
+    private Path manifestPath(String key, String version) {
+        String fileName = version != null ? version.replaceAll("[^a-zA-Z0-9-_]", "_") : "_unversioned";
+        return manifestsDirectory.resolve(key).resolve(fileName + MANIFEST_EXTENSION);
+    }
+
+    private Path chunkPath(byte[] hash) {
+        String hex = HEX.formatHex(hash);
+        return objectsDirectory.resolve(hex.substring(0, 2)).resolve(hex + CHUNK_EXTENSION);
+    }
+
+    private static byte[] encode(Node node) throws IOException {
+        FigmaFile wrapper = new FigmaFile();
+        Document document = new Document();
+        document.setChildren(List.of(node));
+        wrapper.setDocument(document);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CacheFileWriter.write(wrapper, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static int countNodes(Node root) {
+        int count = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            count++;
+            if (node.getChildren() != null) {
+                node.getChildren().forEach(pending::push);
+            }
+        }
+        return count;
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Outcome of a save.
+     *
+     * @param manifestPath the written manifest
+     * @param written      the number of chunks that had to be written
+     * @param writtenBytes the number of chunk bytes written
+     * @param reused       the number of chunks that were already stored
+     * @param sizeBytes    the manifest size plus the size of all referenced chunks
+     */
+    record SaveResult(Path manifestPath, int written, long writtenBytes, int reused, long sizeBytes) {
+    }
+
+    /**
+     * Outcome of a garbage collection.
+     *
+     * @param removedChunks the number of deleted chunks
+     * @param removedBytes  the number of bytes freed
+     */
+    record GcResult(long removedChunks, long removedBytes) {
+    }
+
+    /**
+     * A stored version of a file.
+     *
+     * @param version the file version, or null if unknown
+     * @param savedAt the save time in epoch milliseconds
+     * @param path    the manifest file
+     */
+    record ManifestInfo(String version, long savedAt, Path path) {
+    }
+
+    private static final class Tally {
+        private int written;
+        private long writtenBytes;
+        private int reused;
+        private long referencedBytes;
+    }
+
+    /**
+     * Chunks of one page: the page itself and, for split pages, one chunk per top-level frame.
+     */
+    private record PageChunks(byte[] pageHash, List<byte[]> frameHashes) {
+    }
+
+    private record Manifest(String version, long savedAt, byte[] skeleton, List<PageChunks> pages,
+                            long referencedBytes) {
+
+        void write(DataOutputStream out) throws IOException {
+            out.write(MANIFEST_MAGIC);
+            out.writeInt(MANIFEST_VERSION);
+            out.writeLong(savedAt);
+            out.writeBoolean(version != null);
+            if (version != null) {
+                out.writeUTF(version);
+            }
+            out.writeLong(referencedBytes);
+            out.writeInt(skeleton.length);
+            out.write(skeleton);
+            out.writeInt(pages.size());
+            for (PageChunks page : pages) {
+                out.write(page.pageHash());
+                out.writeInt(page.frameHashes().size());
+                for (byte[] hash : page.frameHashes()) {
+                    out.write(hash);
+                }
+            }
+        }
+
+        static void readHeader(DataInputStream in) throws IOException {
+            byte[] magic = new byte[MANIFEST_MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MANIFEST_MAGIC)) {
+                throw new IOException("Not a figma2json chunk manifest");
+            }
+            int formatVersion = in.readInt();
+            if (formatVersion != MANIFEST_VERSION) {
+                throw new IOException("Unsupported chunk manifest version: " + formatVersion);
+            }
+        }
+
+        static Manifest read(DataInputStream in) throws IOException {
+            readHeader(in);
+            long savedAt = in.readLong();
+            String version = in.readBoolean() ? in.readUTF() : null;
+            long referencedBytes = in.readLong();
+            byte[] skeleton = new byte[in.readInt()];
+            in.readFully(skeleton);
+            int pageCount = in.readInt();
+            List<PageChunks> pages = new ArrayList<>(pageCount);
+            for (int i = 0; i < pageCount; i++) {
+                byte[] pageHash = readHash(in);
+                int frameCount = in.readInt();
+                List<byte[]> frameHashes = new ArrayList<>(frameCount);
+                for (int j = 0; j < frameCount; j++) {
+                    frameHashes.add(readHash(in));
+                }
+                pages.add(new PageChunks(pageHash, frameHashes));
+            }
+            return new Manifest(version, savedAt, skeleton, pages, referencedBytes);
+        }
+
+        void addHashes(Set<String> hashes) {
+            for (PageChunks page : pages) {
+                hashes.add(HEX.formatHex(page.pageHash()));
+                for (byte[] hash : page.frameHashes()) {
+                    hashes.add(HEX.formatHex(hash));
+                }
+            }
+        }
+
+        private static byte[] readHash(DataInputStream in) throws IOException {
+            byte[] hash = new byte[HASH_LENGTH];
+            in.readFully(hash);
+            return hash;
+        }
+    }
+
+    /**
+     * Cache source that resolves pages from the chunks of one manifest.
+     * Chunks are verified against their hash and decoded when first needed.
+     * They are not collected while the source is reachable.
+     */
+    final class ChunkedSource implements CacheSource {
+
+        private final Manifest manifest;
+        private final Map<String, CacheFileReader> readers = new ConcurrentHashMap<>();
+
+        private ChunkedSource(Manifest manifest) {
+            this.manifest = manifest;
+        }
+
+        /**
+         * Gets the manifest size plus the size of all chunks the version references.
+         *
+         * @return the logical size in bytes
+         */
+        long getSizeBytes() {
+            return manifest.referencedBytes();
+        }
+
+        @Override
+        public FigmaFile readSkeleton() throws IOException {
+            return new CacheFileReader(ByteBuffer.wrap(manifest.skeleton())).readSkeleton();
+        }
+
+        @Override
+        public FigmaFile readFile() throws IOException {
+            FigmaFile file = readSkeleton();
+            if (file.getDocument() != null && file.getDocument().getChildren() != null) {
+                List<Node> pages = new ArrayList<>(manifest.pages().size());
+                for (int i = 0; i < manifest.pages().size(); i++) {
+                    pages.add(readPage(i));
+                }
+                file.getDocument().setChildren(pages);
+            }
+            return file;
+        }
+
+        @Override
+        public Node readPage(int index) throws IOException {
+            PageChunks chunks = manifest.pages().get(index);
+            Node page = reader(chunks.pageHash()).readPage(0);
+            if (!chunks.frameHashes().isEmpty()) {
+                List<Node> frames = new ArrayList<>(chunks.frameHashes().size());
+                for (byte[] hash : chunks.frameHashes()) {
+                    frames.add(reader(hash).readPage(0));
+                }
+                page.setChildren(frames);
+            }
+            return page;
+        }
+
+        @Override
+        public Node readNode(String nodeId) throws IOException {
+            for (int i = 0; i < manifest.pages().size(); i++) {
+                PageChunks chunks = manifest.pages().get(i);
+                if (chunks.frameHashes().isEmpty()) {
+                    Node node = reader(chunks.pageHash()).readNode(nodeId);
+                    if (node != null) {
+                        return node;
+                    }
+                    continue;
+                }
+                Node page = reader(chunks.pageHash()).readNode(nodeId);
+                if (page != null) {
+                    // The page chunk holds no frames, resolve them as well
+                    return readPage(i);
+                }
+                for (byte[] hash : chunks.frameHashes()) {
+                    Node node = reader(hash).readNode(nodeId);
+                    if (node != null) {
+                        return node;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private CacheFileReader reader(byte[] hash) throws IOException {
+            String hex = HEX.formatHex(hash);
+            CacheFileReader reader = readers.get(hex);
+            if (reader == null) {
+                reader = readChunk(hash);
+                readers.put(hex, reader);
+            }
+            return reader;
+        }
+    }
+}
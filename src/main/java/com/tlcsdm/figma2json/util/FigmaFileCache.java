@@ -3,38 +3,138 @@ package com.tlcsdm.figma2json.util;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.NodeTypeAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
 
 /**
  * Manages caching of Figma file data to avoid excessive API calls.
- * Caches are stored as JSON files in the user's home directory.
+ * Caches are stored in the user's home directory using a compact binary format,
+ * with pretty-printed JSON kept as a fallback format. Binary entries can be
+ * deflate-compressed on a background thread after they have been written;
+ * this is off by default, because a compressed entry has to be inflated as a
+ * whole instead of being memory-mapped and decoded page by page.
+ * Recently used files are additionally kept decoded in a size-weighted
+ * in-memory LRU tier, so switching between files does not hit the disk.
+ * <p>
+ * A persistent index tracks the size, last access, version and checksum of
+ * every entry. A background janitor uses it to evict expired entries and the
+ * least recently used ones once the cache exceeds its maximum size. It is
+ * started when the cache is first read or written.
+ * <p>
+ * {@link #saveCachedFileAsync(String, FigmaFile)} hands writes to a dedicated
+ * writer thread; {@link #close()} flushes them when the application exits.
+ * <p>
+ * With {@link #setChunkedStorage(boolean) chunked storage} enabled, entries are
+ * kept in a content-addressed {@link ChunkStore} instead: updating a file only
+ * writes the pages that changed, and the last few versions of a file share
+ * their unchanged pages.
  */
-public class FigmaFileCache {
+public class FigmaFileCache implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(FigmaFileCache.class);
     private static final String CACHE_DIR_NAME = ".figma2json-cache";
     private static final String CACHE_FILE_EXTENSION = ".json";
+    private static final String BINARY_CACHE_FILE_EXTENSION = ".f2jc";
+    private static final String COMPRESSED_CACHE_FILE_EXTENSION = ".f2jz";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    private static final String SESSION_FILE_EXTENSION = ".session";
+    private static final String INDEX_FILE_NAME = "cache-index.f2ji";
+    private static final String CHUNK_DIR_NAME = "chunks";
+    private static final long DEFAULT_MAX_CACHE_SIZE_BYTES = 1024L * 1024 * 1024;
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofDays(30);
+    private static final long JANITOR_INTERVAL_MINUTES = 10;
+    private static final long CLOSE_FLUSH_TIMEOUT_SECONDS = 30;
+    private static final long DEFAULT_MEMORY_BUDGET_BYTES =
+            Math.min(256L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 4);
+    private static final Predicate<Path> IS_CACHE_FILE = path -> {
+        String fileName = path.toString();
+        return fileName.endsWith(CACHE_FILE_EXTENSION) || fileName.endsWith(BINARY_CACHE_FILE_EXTENSION)
+                || fileName.endsWith(COMPRESSED_CACHE_FILE_EXTENSION) || fileName.endsWith(TEMP_FILE_EXTENSION);
+    };
     
     private final Gson gson;
     private final Path cacheDirectory;
+    private final Path indexPath;
+    private final Map<String, EntryState> entryStates = new ConcurrentHashMap<>();
+    private final MemoryCacheTier memoryTier = new MemoryCacheTier(DEFAULT_MEMORY_BUDGET_BYTES, true);
+    private final CacheIndex index = new CacheIndex();
+    private final ChunkStore chunkStore;
+    private final ScheduledExecutorService backgroundExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "figma2json-cache-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "figma2json-cache-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    private final LongAdder coalescedWrites = new LongAdder();
+    private final AtomicBoolean janitorStarted = new AtomicBoolean();
+    private boolean binaryFormat = true;
+    private volatile boolean chunkedStorage;
+    private volatile int compressionLevel = Deflater.NO_COMPRESSION;
+    private volatile long maxCacheSizeBytes = DEFAULT_MAX_CACHE_SIZE_BYTES;
+    private volatile Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+    private volatile Clock clock = Clock.systemUTC();
 
     public FigmaFileCache() {
+        // Create cache directory in user's home directory
+        this(Paths.get(System.getProperty("user.home"), CACHE_DIR_NAME));
+    }
+
+    /**
+     * Creates a cache that stores its files in the given directory.
+     *
+     * @param cacheDirectory the cache directory, created if missing
+     */
+    public FigmaFileCache(Path cacheDirectory) {
         this.gson = new GsonBuilder()
                 .setPrettyPrinting()
+                // Node trees are walked with an explicit stack, however deeply groups are nested
+                .registerTypeAdapter(Node.class, new NodeTypeAdapter())
                 .create();
-        
-        // Create cache directory in user's home directory
-        String userHome = System.getProperty("user.home");
-        this.cacheDirectory = Paths.get(userHome, CACHE_DIR_NAME);
+        this.cacheDirectory = cacheDirectory;
+        this.indexPath = cacheDirectory.resolve(INDEX_FILE_NAME);
+        this.chunkStore = new ChunkStore(cacheDirectory.resolve(CHUNK_DIR_NAME));
         
         try {
             if (!Files.exists(cacheDirectory)) {
@@ -44,6 +144,172 @@ public class FigmaFileCache {
         } catch (IOException e) {
             logger.error("Failed to create cache directory", e);
         }
+        loadIndex();
+    }
+
+    /**
+     * Sets whether new cache entries are written in the binary format.
+     * When disabled, entries are written as pretty-printed JSON.
+     *
+     * @param binaryFormat true to write the binary format (default)
+     */
+    public void setBinaryFormat(boolean binaryFormat) {
+        this.binaryFormat = binaryFormat;
+    }
+
+    /**
+     * Checks whether new cache entries are written in the binary format.
+     *
+     * @return true if the binary format is used
+     */
+    public boolean isBinaryFormat() {
+        return binaryFormat;
+    }
+
+    /**
+     * Sets the deflate level used to compress binary cache entries.
+     * {@link Deflater#NO_COMPRESSION} (the default) disables compression, which
+     * keeps entries memory-mappable at the cost of disk space. Compressed entries
+     * are inflated onto the heap as a whole whenever they are opened.
+     *
+     * @param compressionLevel the level from 0 to 9, or -1 for the deflate default
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Gets the deflate level used to compress binary cache entries.
+     *
+     * @return the compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the memory budget of the in-memory tier. Least recently used files
+     * are evicted once their estimated retained size exceeds the budget.
+     *
+     * @param budgetBytes the budget in bytes, 0 to disable the in-memory tier
+     */
+    public void setMemoryBudget(long budgetBytes) {
+        memoryTier.setBudgetBytes(budgetBytes);
+    }
+
+    /**
+     * Gets the memory budget of the in-memory tier.
+     *
+     * @return the budget in bytes
+     */
+    public long getMemoryBudget() {
+        return memoryTier.getBudgetBytes();
+    }
+
+    /**
+     * Sets whether files evicted from the in-memory tier are kept behind soft
+     * references, so they can be recovered until the JVM runs low on memory.
+     *
+     * @param softReferences true to keep evicted files softly reachable (default)
+     */
+    public void setSoftReferences(boolean softReferences) {
+        memoryTier.setSoftReferences(softReferences);
+    }
+
+    /**
+     * Checks whether evicted files are kept behind soft references.
+     *
+     * @return true if soft references are used
+     */
+    public boolean isSoftReferences() {
+        return memoryTier.isSoftReferences();
+    }
+
+    /**
+     * Sets the maximum total size of the disk cache. Once exceeded, the
+     * janitor evicts the least recently used entries; the most recently used
+     * entry is always kept.
+     *
+     * @param maxSizeBytes the maximum size in bytes, 0 for no limit
+     */
+    public void setMaxCacheSize(long maxSizeBytes) {
+        this.maxCacheSizeBytes = Math.max(0, maxSizeBytes);
+        scheduleJanitorIfOverSize();
+    }
+
+    /**
+     * Gets the maximum total size of the disk cache.
+     *
+     * @return the maximum size in bytes, 0 if unlimited
+     */
+    public long getMaxCacheSize() {
+        return maxCacheSizeBytes;
+    }
+
+    /**
+     * Sets how long an entry may stay unused before the janitor evicts it.
+     *
+     * @param timeToLive the time to live, {@link Duration#ZERO} to keep entries indefinitely
+     */
+    public void setTimeToLive(Duration timeToLive) {
+        if (timeToLive == null || timeToLive.isNegative()) {
+            throw new IllegalArgumentException("Invalid time to live: " + timeToLive);
+        }
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Gets how long an entry may stay unused before it is evicted.
+     *
+     * @return the time to live, zero if entries never expire
+     */
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Sets whether new cache entries are stored as content-addressed page chunks.
+     * Chunks are not compressed, but saving a new version of a file only writes
+     * the pages that changed since a previous version.
+     *
+     * @param chunkedStorage true to store entries as chunks, false for single files (default)
+     */
+    public void setChunkedStorage(boolean chunkedStorage) {
+        this.chunkedStorage = chunkedStorage;
+    }
+
+    /**
+     * Checks whether new cache entries are stored as page chunks.
+     *
+     * @return true if chunked storage is used
+     */
+    public boolean isChunkedStorage() {
+        return chunkedStorage;
+    }
+
+    /**
+     * Sets how many versions of a file are kept in chunked storage.
+     *
+     * @param versionsToKeep the number of versions, at least 1
+     */
+    public void setVersionsToKeep(int versionsToKeep) {
+        chunkStore.setVersionsToKeep(versionsToKeep);
+    }
+
+    /**
+     * Gets how many versions of a file are kept in chunked storage.
+     *
+     * @return the number of versions
+     */
+    public int getVersionsToKeep() {
+        return chunkStore.getVersionsToKeep();
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
     }
 
     /**
@@ -58,18 +324,258 @@ public class FigmaFileCache {
             return;
         }
         
+        startJanitor();
+        String key = sanitizeKey(fileKey);
+        if (!writeEntry(fileKey, figmaFile, null)) {
+            memoryTier.invalidate(key);
+            return;
+        }
+        memoryTier.put(key, figmaFile);
+    }
+
+    /**
+     * Queues a FigmaFile to be saved by the background writer and returns immediately.
+     * The file is served from memory until it has been written, and repeated
+     * saves of the same key before that are coalesced into a single write.
+     *
+     * @param fileKey the Figma file key
+     * @param figmaFile the FigmaFile object to cache
+     */
+    public void saveCachedFileAsync(String fileKey, FigmaFile figmaFile) {
+        if (fileKey == null || fileKey.isBlank() || figmaFile == null) {
+            logger.warn("Cannot cache file with null or empty key or null data");
+            return;
+        }
+        
+        startJanitor();
+        String key = sanitizeKey(fileKey);
+        memoryTier.put(key, figmaFile);
+        boolean[] coalesced = new boolean[1];
+        pendingWrites.compute(key, (k, previous) -> {
+            coalesced[0] = previous != null;
+            return new PendingWrite(fileKey, figmaFile, previous != null ? previous.queuedAt() : System.nanoTime());
+        });
+        if (!coalesced[0]) {
+            writeExecutor.execute(() -> writePending(key));
+        } else {
+            // The queued task picks up the newer file
+            coalescedWrites.increment();
+        }
+    }
+
+    private void writePending(String key) {
+        PendingWrite pending = pendingWrites.get(key);
+        if (pending == null) {
+            return;
+        }
+        writeEntry(pending.fileKey(), pending.file(), pending);
+        if (!pendingWrites.remove(key, pending) && pendingWrites.containsKey(key)) {
+            // Replaced while writing, the newer file still needs a write
+            writeExecutor.execute(() -> writePending(key));
+        }
+    }
+
+    /**
+     * Writes an entry to a temporary file and atomically moves it in place, or
+     * stores its changed chunks when chunked storage is enabled.
+     * A queued write is skipped if it was superseded or cleared in the meantime.
+     *
+     * @return true if the entry was written
+     */
+    private boolean writeEntry(String fileKey, FigmaFile figmaFile, PendingWrite pending) {
+        String key = sanitizeKey(fileKey);
+        EntryState state = entryState(fileKey);
+        boolean chunked = chunkedStorage;
+        Path temp = null;
         try {
-            Path cacheFilePath = getCacheFilePath(fileKey);
-            String json = gson.toJson(figmaFile);
-            Files.writeString(cacheFilePath, json);
+            Path cacheFilePath;
+            synchronized (state) {
+                if (pending == null) {
+                    // A direct save supersedes anything still queued
+                    pendingWrites.remove(key);
+                } else if (pendingWrites.get(key) != pending) {
+                    return false;
+                }
+                state.generation++;
+                if (chunked) {
+                    ChunkStore.SaveResult result = chunkStore.save(key, figmaFile);
+                    cacheFilePath = result.manifestPath();
+                    Files.deleteIfExists(getBinaryCacheFilePath(fileKey));
+                    Files.deleteIfExists(getCompressedCacheFilePath(fileKey));
+                    Files.deleteIfExists(getCacheFilePath(fileKey));
+                    // Chunks are verified against their hash, the entry itself needs no checksum
+                    index.put(new CacheIndex.Entry(key, figmaFile.getVersion(), result.sizeBytes(),
+                            result.sizeBytes(), clock.millis(), 0, false));
+                    logger.debug("Stored {} chunks of {}, reused {}", result.written(), fileKey, result.reused());
+                } else {
+                    CRC32C checksum = new CRC32C();
+                    if (binaryFormat) {
+                        cacheFilePath = getBinaryCacheFilePath(fileKey);
+                        temp = cacheFilePath.resolveSibling(cacheFilePath.getFileName() + TEMP_FILE_EXTENSION);
+                        try (OutputStream out = new CheckedOutputStream(
+                                new BufferedOutputStream(Files.newOutputStream(temp)), checksum)) {
+                            CacheFileWriter.write(figmaFile, out);
+                        }
+                    } else {
+                        cacheFilePath = getCacheFilePath(fileKey);
+                        temp = cacheFilePath.resolveSibling(cacheFilePath.getFileName() + TEMP_FILE_EXTENSION);
+                        byte[] json = gson.toJson(figmaFile).getBytes(StandardCharsets.UTF_8);
+                        checksum.update(json);
+                        Files.write(temp, json);
+                    }
+                    Files.move(temp, cacheFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    Files.deleteIfExists(binaryFormat ? getCacheFilePath(fileKey) : getBinaryCacheFilePath(fileKey));
+                    Files.deleteIfExists(getCompressedCacheFilePath(fileKey));
+                    // Older versions in chunked storage would otherwise shadow this entry
+                    chunkStore.remove(key);
+                    long size = Files.size(cacheFilePath);
+                    index.put(new CacheIndex.Entry(key, figmaFile.getVersion(), size, size, clock.millis(),
+                            (int) checksum.getValue(), false));
+                }
+            }
             logger.info("Cached Figma file: {} to {}", fileKey, cacheFilePath);
         } catch (IOException e) {
             logger.error("Failed to save cached file for key: {}", fileKey, e);
+            deleteQuietly(temp);
+            return false;
+        }
+        
+        if (!chunked && binaryFormat && compressionLevel != Deflater.NO_COMPRESSION) {
+            backgroundExecutor.execute(() -> compressCachedFile(fileKey));
+        }
+        persistIndex();
+        scheduleJanitorIfOverSize();
+        return true;
+    }
+
+    /**
+     * Waits until all queued writes have been written to disk.
+     *
+     * @param timeout the maximum time to wait
+     * @return true if no writes are pending anymore
+     */
+    public boolean flush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            while (!pendingWrites.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                writeExecutor.submit(() -> { }).get(remaining, TimeUnit.NANOSECONDS);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.debug("Flushing cache writes did not complete", e);
+        }
+        return pendingWrites.isEmpty();
+    }
+
+    /**
+     * Gets the number of queued writes that have not been written yet.
+     *
+     * @return the number of pending writes
+     */
+    public int getPendingWriteCount() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * Gets how long the oldest queued write has been waiting.
+     *
+     * @return the write-behind lag, zero if nothing is pending
+     */
+    public Duration getWriteLag() {
+        long now = System.nanoTime();
+        long oldest = now;
+        for (PendingWrite pending : pendingWrites.values()) {
+            oldest = Math.min(oldest, pending.queuedAt());
+        }
+        return Duration.ofNanos(now - oldest);
+    }
+
+    /**
+     * Flushes queued writes and the cache index and stops the background threads.
+     * Called when the application exits; the cache must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (!flush(Duration.ofSeconds(CLOSE_FLUSH_TIMEOUT_SECONDS))) {
+            logger.warn("Gave up waiting for {} pending cache writes", pendingWrites.size());
+        }
+        writeExecutor.shutdown();
+        backgroundExecutor.shutdown();
+        try {
+            // Let a running compression finish so it does not leave a temp file behind
+            backgroundExecutor.awaitTermination(CLOSE_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persistIndex();
+    }
+
+    /**
+     * Compresses the binary cache entry for the given key, replacing the
+     * uncompressed file. The result is discarded if the entry is rewritten or
+     * cleared while it is being compressed.
+     *
+     * @param fileKey the Figma file key
+     */
+    void compressCachedFile(String fileKey) {
+        int level = compressionLevel;
+        if (level == Deflater.NO_COMPRESSION) {
+            return;
+        }
+        
+        EntryState state = entryState(fileKey);
+        long generation;
+        synchronized (state) {
+            generation = state.generation;
+        }
+        Path source = getBinaryCacheFilePath(fileKey);
+        Path target = getCompressedCacheFilePath(fileKey);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_FILE_EXTENSION);
+        try {
+            CacheCompressor.compress(source, temp, level);
+            synchronized (state) {
+                CacheIndex.Entry entry = index.get(sanitizeKey(fileKey));
+                // clearAllCache drops the index before it deletes files without taking entry locks
+                if (state.generation != generation || entry == null) {
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(source);
+                index.put(entry.withCompressedSize(Files.size(target)));
+            }
+            persistIndex();
+            logger.debug("Compressed cache file for key: {}", fileKey);
+        } catch (NoSuchFileException e) {
+            logger.debug("Cache file for key {} disappeared before compression", fileKey);
+        } catch (IOException e) {
+            logger.warn("Failed to compress cache file for key: {}", fileKey, e);
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Waits until all queued background tasks have finished.
+     */
+    void awaitBackgroundTasks() {
+        try {
+            backgroundExecutor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Background cache task failed", e);
         }
     }
 
     /**
      * Loads a cached FigmaFile.
+     * Files served from the in-memory tier are shared instances and must not be modified.
      *
      * @param fileKey the Figma file key
      * @return the cached FigmaFile, or null if not found or error occurs
@@ -79,6 +585,147 @@ public class FigmaFileCache {
             return null;
         }
         
+        startJanitor();
+        FigmaFile inMemory = getFromMemory(fileKey);
+        if (inMemory != null) {
+            logger.debug("Loaded cached Figma file from memory: {}", fileKey);
+            return inMemory;
+        }
+        
+        // Everything is decoded anyway, so the entry is read onto the heap instead of being mapped
+        CachedFigmaFile cachedFile = openFromDisk(fileKey, false);
+        if (cachedFile == null) {
+            return null;
+        }
+        
+        try {
+            FigmaFile figmaFile = cachedFile.loadFile();
+            memoryTier.put(sanitizeKey(fileKey), figmaFile);
+            logger.info("Loaded cached Figma file: {}", fileKey);
+            return figmaFile;
+        } catch (IOException e) {
+            logger.error("Failed to load cached file for key: {}", fileKey, e);
+            return null;
+        } catch (RuntimeException e) {
+            EntryState state = entryState(fileKey);
+            synchronized (state) {
+                evictCorrupt(fileKey, state, e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Opens a cached FigmaFile for random access.
+     * Files held by the in-memory tier are served without touching the disk.
+     * Otherwise binary cache entries are memory-mapped and only decoded as
+     * pages or nodes are requested; JSON entries are loaded completely.
+     * The mapping is only released once the handle is garbage collected, and
+     * until then Windows refuses to replace or delete the entry, so handles
+     * should not be kept longer than needed.
+     *
+     * @param fileKey the Figma file key
+     * @return a handle to the cached file, or null if not found or error occurs
+     */
+    public CachedFigmaFile openCachedFile(String fileKey) {
+        return openCachedFile(fileKey, true);
+    }
+
+    /**
+     * Opens a cached FigmaFile for random access, like {@link #openCachedFile(String)}.
+     * Without mapping, a binary entry is read onto the heap in its compact
+     * encoded form and its checksum verified; pages and nodes are still only
+     * decoded as they are requested. Handles that are kept for a long time,
+     * such as the file on screen, should not map their entry.
+     *
+     * @param fileKey the Figma file key
+     * @param mapped  true to memory-map a binary entry, false to read it onto the heap
+     * @return a handle to the cached file, or null if not found or error occurs
+     */
+    public CachedFigmaFile openCachedFile(String fileKey, boolean mapped) {
+        if (fileKey == null || fileKey.isBlank()) {
+            return null;
+        }
+        
+        startJanitor();
+        FigmaFile inMemory = getFromMemory(fileKey);
+        if (inMemory != null) {
+            return CachedFigmaFile.of(inMemory);
+        }
+        return openFromDisk(fileKey, mapped);
+    }
+
+    private FigmaFile getFromMemory(String fileKey) {
+        String key = sanitizeKey(fileKey);
+        // A queued write is the newest version even if the memory tier dropped it
+        PendingWrite pending = pendingWrites.get(key);
+        FigmaFile file = pending != null ? pending.file() : memoryTier.get(key);
+        if (file != null) {
+            index.touch(key, clock.millis());
+        }
+        return file;
+    }
+
+    /**
+     * Opens an entry from disk. A mapped binary entry keeps its file mapped
+     * until the handle is garbage collected, which blocks replacing or deleting
+     * the file on Windows, so only random-access handles map their entry.
+     *
+     * @param mapped true to map a binary entry, false to read it onto the heap
+     */
+    private CachedFigmaFile openFromDisk(String fileKey, boolean mapped) {
+        // Reading under the entry lock keeps the files and their index entry consistent
+        EntryState state = entryState(fileKey);
+        synchronized (state) {
+            try {
+                return readFromDisk(fileKey, mapped);
+            } catch (RuntimeException e) {
+                evictCorrupt(fileKey, state, e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Opens an entry from disk. Must be called while holding the entry lock.
+     */
+    private CachedFigmaFile readFromDisk(String fileKey, boolean mapped) {
+        CachedFigmaFile chunked = openChunked(fileKey, null);
+        if (chunked != null) {
+            return chunked;
+        }
+        
+        // The compressor writes the compressed file before it removes the binary
+        // one, so checking in this order always finds a complete entry
+        Path binaryFilePath = getBinaryCacheFilePath(fileKey);
+        Path compressedFilePath = getCompressedCacheFilePath(fileKey);
+        try {
+            ByteBuffer data = null;
+            long sizeOnDisk;
+            boolean compressed = false;
+            try {
+                data = mapped ? map(binaryFilePath) : read(binaryFilePath);
+                sizeOnDisk = data.remaining();
+            } catch (NoSuchFileException e) {
+                if (!Files.exists(compressedFilePath)) {
+                    throw e;
+                }
+                data = CacheCompressor.decompress(compressedFilePath);
+                sizeOnDisk = Files.size(compressedFilePath);
+                compressed = true;
+            }
+            CachedFigmaFile cachedFile = CachedFigmaFile.of(new CacheFileReader(data));
+            // Verifying a mapped entry would read every page, so only data on the heap is checked
+            recordRead(fileKey, data, sizeOnDisk, compressed, cachedFile.getVersion(), compressed || !mapped);
+            logger.debug("Opened cached Figma file: {}", fileKey);
+            return cachedFile;
+        } catch (NoSuchFileException e) {
+            // Not cached in the binary format
+        } catch (IOException e) {
+            // Unreadable or outdated format, fall back to a JSON copy if there is one
+            logger.warn("Failed to read binary cache for key: {}", fileKey, e);
+        }
+        
         try {
             Path cacheFilePath = getCacheFilePath(fileKey);
             if (!Files.exists(cacheFilePath)) {
@@ -86,16 +733,154 @@ public class FigmaFileCache {
                 return null;
             }
             
-            String json = Files.readString(cacheFilePath);
-            FigmaFile figmaFile = gson.fromJson(json, FigmaFile.class);
-            logger.info("Loaded cached Figma file: {}", fileKey);
-            return figmaFile;
+            byte[] json = Files.readAllBytes(cacheFilePath);
+            FigmaFile figmaFile = gson.fromJson(new String(json, StandardCharsets.UTF_8), FigmaFile.class);
+            recordRead(fileKey, ByteBuffer.wrap(json), json.length, false, figmaFile.getVersion(), true);
+            return CachedFigmaFile.of(figmaFile);
         } catch (IOException e) {
             logger.error("Failed to load cached file for key: {}", fileKey, e);
             return null;
         }
     }
 
+    /**
+     * Opens an entry from chunked storage. Must be called while holding the entry lock.
+     *
+     * @param version the version to open, or null for the latest one
+     * @return the cached file, or null if the entry is not stored in chunks
+     */
+    private CachedFigmaFile openChunked(String fileKey, String version) {
+        String key = sanitizeKey(fileKey);
+        if (!chunkStore.hasManifest(key)) {
+            return null;
+        }
+        try {
+            ChunkStore.ChunkedSource source = version != null ? chunkStore.open(key, version) : chunkStore.open(key);
+            if (source == null) {
+                return null;
+            }
+            CachedFigmaFile cachedFile = CachedFigmaFile.of(source);
+            if (version == null) {
+                if (index.get(key) == null) {
+                    index.put(new CacheIndex.Entry(key, cachedFile.getVersion(), source.getSizeBytes(),
+                            source.getSizeBytes(), clock.millis(), 0, false));
+                    persistIndex();
+                } else {
+                    index.touch(key, clock.millis());
+                }
+            }
+            logger.debug("Opened chunked Figma file: {}", fileKey);
+            return cachedFile;
+        } catch (IOException e) {
+            logger.warn("Failed to read chunked cache for key: {}", fileKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the versions of a file kept in chunked storage.
+     *
+     * @param fileKey the Figma file key
+     * @return the versions, most recently saved first; empty if the file is not stored in chunks
+     */
+    public List<String> getCachedVersions(String fileKey) {
+        if (fileKey == null || fileKey.isBlank()) {
+            return List.of();
+        }
+        
+        List<String> versions = new ArrayList<>();
+        for (ChunkStore.ManifestInfo info : chunkStore.listVersions(sanitizeKey(fileKey))) {
+            versions.add(info.version());
+        }
+        return versions;
+    }
+
+    /**
+     * Opens an older version of a file kept in chunked storage.
+     *
+     * @param fileKey the Figma file key
+     * @param version the file version
+     * @return a handle to the cached version, or null if it is not stored
+     */
+    public CachedFigmaFile openCachedVersion(String fileKey, String version) {
+        if (fileKey == null || fileKey.isBlank() || version == null) {
+            return null;
+        }
+        
+        synchronized (entryState(fileKey)) {
+            return openChunked(fileKey, version);
+        }
+    }
+
+    /**
+     * Records a successful read in the index. Entries written by older versions
+     * are adopted into the index, known ones are verified against their checksum.
+     */
+    private void recordRead(String fileKey, ByteBuffer contents, long sizeOnDisk, boolean compressed,
+                            String version, boolean verify) throws IOException {
+        String key = sanitizeKey(fileKey);
+        CacheIndex.Entry entry = index.get(key);
+        if (entry == null) {
+            index.put(new CacheIndex.Entry(key, version, sizeOnDisk, contents.remaining(), clock.millis(),
+                    checksum(contents), compressed));
+            persistIndex();
+            return;
+        }
+        if (verify && checksum(contents) != entry.checksum()) {
+            throw new IOException("Checksum mismatch in cache entry: " + key);
+        }
+        index.touch(key, clock.millis());
+    }
+
+    /**
+     * Saves the view state of a file, so it can be restored the next time the file is opened.
+     * Sessions are kept when cache entries are cleared or evicted.
+     *
+     * @param fileKey the Figma file key
+     * @param session the session state
+     */
+    public void saveSession(String fileKey, SessionState session) {
+        if (fileKey == null || fileKey.isBlank() || session == null) {
+            return;
+        }
+        
+        Path sessionPath = getSessionFilePath(fileKey);
+        Path temp = sessionPath.resolveSibling(sessionPath.getFileName() + TEMP_FILE_EXTENSION);
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                session.toProperties().store(out, null);
+            }
+            Files.move(temp, sessionPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Saved session for file key: {}", fileKey);
+        } catch (IOException e) {
+            logger.warn("Failed to save session for key: {}", fileKey, e);
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Loads the view state saved for a file.
+     *
+     * @param fileKey the Figma file key
+     * @return the session state, or null if none was saved
+     */
+    public SessionState loadSession(String fileKey) {
+        if (fileKey == null || fileKey.isBlank()) {
+            return null;
+        }
+        
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(getSessionFilePath(fileKey))) {
+            properties.load(in);
+            return SessionState.fromProperties(properties);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Failed to load session for key: {}", fileKey, e);
+            return null;
+        }
+    }
+
     /**
      * Checks if a cached file exists for the given file key.
      *
@@ -107,8 +892,11 @@ public class FigmaFileCache {
             return false;
         }
         
-        Path cacheFilePath = getCacheFilePath(fileKey);
-        return Files.exists(cacheFilePath);
+        return pendingWrites.containsKey(sanitizeKey(fileKey))
+                || Files.exists(getBinaryCacheFilePath(fileKey))
+                || Files.exists(getCompressedCacheFilePath(fileKey))
+                || Files.exists(getCacheFilePath(fileKey))
+                || chunkStore.hasManifest(sanitizeKey(fileKey));
     }
 
     /**
@@ -121,12 +909,17 @@ public class FigmaFileCache {
             return;
         }
         
+        EntryState state = entryState(fileKey);
         try {
-            Path cacheFilePath = getCacheFilePath(fileKey);
-            if (Files.exists(cacheFilePath)) {
-                Files.delete(cacheFilePath);
+            boolean deleted;
+            memoryTier.invalidate(sanitizeKey(fileKey));
+            synchronized (state) {
+                deleted = deleteEntry(fileKey, state);
+            }
+            if (deleted) {
                 logger.info("Cleared cache for file key: {}", fileKey);
             }
+            persistIndex();
         } catch (IOException e) {
             logger.error("Failed to clear cached file for key: {}", fileKey, e);
         }
@@ -136,10 +929,25 @@ public class FigmaFileCache {
      * Clears all cached files.
      */
     public void clearAllCache() {
+        pendingWrites.clear();
+        memoryTier.clear();
+        // Invalidate background work on every entry before deleting its files
+        for (EntryState state : entryStates.values()) {
+            synchronized (state) {
+                state.generation++;
+            }
+        }
+        index.clear();
+        persistIndex();
+        try {
+            chunkStore.clear();
+        } catch (IOException e) {
+            logger.error("Failed to clear cache chunks", e);
+        }
         try {
             if (Files.exists(cacheDirectory)) {
                 Files.list(cacheDirectory)
-                        .filter(path -> path.toString().endsWith(CACHE_FILE_EXTENSION))
+                        .filter(IS_CACHE_FILE)
                         .forEach(path -> {
                             try {
                                 Files.delete(path);
@@ -156,50 +964,244 @@ public class FigmaFileCache {
     }
 
     /**
-     * Gets cache statistics.
+     * Gets cache statistics. Sizes are answered from the cache index, without
+     * listing the cache directory.
      *
      * @return a map containing cache statistics
      */
     public Map<String, Object> getCacheStats() {
         Map<String, Object> stats = new HashMap<>();
+        index.addStats(stats);
+        stats.put("maxSizeBytes", maxCacheSizeBytes);
+        stats.put("pendingWriteCount", (long) pendingWrites.size());
+        stats.put("writeLagMillis", getWriteLag().toMillis());
+        stats.put("coalescedWriteCount", coalescedWrites.sum());
+        stats.put("cacheDirectory", cacheDirectory.toString());
+        memoryTier.addStats(stats);
+        chunkStore.addStats(stats);
         
+        return stats;
+    }
+
+    /**
+     * Evicts expired entries, then the least recently used entries until the
+     * cache fits into its maximum size, persists the index and deletes the
+     * chunks no longer referenced by any stored version.
+     */
+    void runJanitor() {
         try {
-            if (Files.exists(cacheDirectory)) {
-                List<Path> cacheFiles = Files.list(cacheDirectory)
-                        .filter(path -> path.toString().endsWith(CACHE_FILE_EXTENSION))
-                        .toList();
-                
-                long fileCount = cacheFiles.size();
-                long totalSize = cacheFiles.stream()
-                        .mapToLong(path -> {
-                            try {
-                                return Files.size(path);
-                            } catch (IOException e) {
-                                return 0;
-                            }
-                        })
-                        .sum();
-                
-                stats.put("fileCount", fileCount);
-                stats.put("totalSizeBytes", totalSize);
-                stats.put("totalSizeMB", totalSize / (1024.0 * 1024.0));
-                stats.put("cacheDirectory", cacheDirectory.toString());
-            } else {
-                stats.put("fileCount", 0);
-                stats.put("totalSizeBytes", 0);
-                stats.put("totalSizeMB", 0.0);
-                stats.put("cacheDirectory", cacheDirectory.toString());
+            Duration ttl = timeToLive;
+            long expiredBefore = ttl.isZero() ? Long.MIN_VALUE : clock.millis() - ttl.toMillis();
+            List<CacheIndex.Entry> victims = index.selectVictims(expiredBefore, maxCacheSizeBytes);
+            for (CacheIndex.Entry victim : victims) {
+                evict(victim);
             }
+            persistIndex();
+            chunkStore.collectGarbage();
         } catch (IOException e) {
-            logger.error("Failed to get cache stats", e);
+            logger.warn("Failed to collect unused cache chunks", e);
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic schedule
+            logger.error("Cache janitor failed", e);
+        }
+    }
+
+    private void evict(CacheIndex.Entry victim) {
+        EntryState state = entryState(victim.key());
+        try {
+            synchronized (state) {
+                CacheIndex.Entry current = index.get(victim.key());
+                if (current == null || current.lastAccess() != victim.lastAccess()) {
+                    // Used or rewritten since it was selected
+                    return;
+                }
+                deleteEntry(victim.key(), state);
+            }
+            logger.info("Evicted cache entry: {}", victim.key());
+        } catch (IOException e) {
+            logger.error("Failed to evict cache entry: {}", victim.key(), e);
+        }
+    }
+
+    /**
+     * Deletes an entry whose data could not be decoded, so it is not read again.
+     * Must be called while holding the entry lock.
+     */
+    private void evictCorrupt(String fileKey, EntryState state, RuntimeException cause) {
+        logger.warn("Evicting corrupt cache entry for key: {}", fileKey, cause);
+        try {
+            deleteEntry(fileKey, state);
+        } catch (IOException e) {
+            logger.error("Failed to evict corrupt cache entry for key: {}", fileKey, e);
+        }
+        persistIndex();
+    }
+
+    /**
+     * Deletes all files of an entry and removes it from the index and the
+     * in-memory tier. Must be called while holding the entry lock.
+     */
+    private boolean deleteEntry(String fileKey, EntryState state) throws IOException {
+        state.generation++;
+        pendingWrites.remove(sanitizeKey(fileKey));
+        memoryTier.invalidate(sanitizeKey(fileKey));
+        index.remove(sanitizeKey(fileKey));
+        boolean deleted = Files.deleteIfExists(getBinaryCacheFilePath(fileKey));
+        deleted |= Files.deleteIfExists(getCompressedCacheFilePath(fileKey));
+        deleted |= Files.deleteIfExists(getCacheFilePath(fileKey));
+        if (chunkStore.hasManifest(sanitizeKey(fileKey))) {
+            // Chunks shared with other files stay until the next garbage collection
+            chunkStore.remove(sanitizeKey(fileKey));
+            deleted = true;
+        }
+        return deleted;
+    }
+
+    /**
+     * Schedules the periodic janitor when the cache is first used, rather than
+     * from the constructor, so it never runs on a partly constructed cache.
+     */
+    private void startJanitor() {
+        if (janitorStarted.compareAndSet(false, true) && !backgroundExecutor.isShutdown()) {
+            backgroundExecutor.scheduleWithFixedDelay(this::runJanitor,
+                    JANITOR_INTERVAL_MINUTES, JANITOR_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    private void scheduleJanitorIfOverSize() {
+        long maxSize = maxCacheSizeBytes;
+        if (maxSize > 0 && index.getTotalSizeBytes() > maxSize) {
+            backgroundExecutor.execute(this::runJanitor);
+        }
+    }
+
+    private void persistIndex() {
+        try {
+            if (index.persist(indexPath)) {
+                logger.debug("Persisted cache index with {} entries", index.size());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to persist cache index", e);
+        }
+    }
+
+    private void loadIndex() {
+        try {
+            index.load(indexPath);
+            logger.debug("Loaded cache index with {} entries", index.size());
+            return;
+        } catch (NoSuchFileException e) {
+            logger.debug("No cache index found, rebuilding from {}", cacheDirectory);
+        } catch (IOException e) {
+            logger.warn("Cache index unreadable, rebuilding from {}", cacheDirectory, e);
+        }
+        rebuildIndex();
+        persistIndex();
+    }
+
+    /**
+     * Rebuilds the index from the files in the cache directory, for caches
+     * created before the index existed or whose index was lost. Versions of
+     * rebuilt entries are unknown until they are saved again.
+     */
+    private void rebuildIndex() {
+        index.clear();
+        if (!Files.isDirectory(cacheDirectory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            for (Path path : files.filter(IS_CACHE_FILE).toList()) {
+                String fileName = path.getFileName().toString();
+                if (fileName.endsWith(TEMP_FILE_EXTENSION)) {
+                    continue;
+                }
+                String key = fileName.substring(0, fileName.lastIndexOf('.'));
+                if (index.get(key) != null) {
+                    // Leftover of an interrupted rewrite, the entry is already indexed
+                    continue;
+                }
+                try {
+                    boolean compressed = fileName.endsWith(COMPRESSED_CACHE_FILE_EXTENSION);
+                    ByteBuffer contents = compressed ? CacheCompressor.decompress(path) : read(path);
+                    index.put(new CacheIndex.Entry(key, null, Files.size(path), contents.remaining(),
+                            Files.getLastModifiedTime(path).toMillis(), checksum(contents), compressed));
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable cache file: {}", path, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to rebuild cache index", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Leftover temp files are removed by clearAllCache
+        }
+    }
+
+    private static int checksum(ByteBuffer contents) {
+        CRC32C crc = new CRC32C();
+        crc.update(contents.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static ByteBuffer read(Path path) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path));
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
         }
-        
-        return stats;
     }
 
     private Path getCacheFilePath(String fileKey) {
+        return cacheDirectory.resolve(sanitizeKey(fileKey) + CACHE_FILE_EXTENSION);
+    }
+
+    private Path getBinaryCacheFilePath(String fileKey) {
+        return cacheDirectory.resolve(sanitizeKey(fileKey) + BINARY_CACHE_FILE_EXTENSION);
+    }
+
+    private Path getSessionFilePath(String fileKey) {
+        return cacheDirectory.resolve(sanitizeKey(fileKey) + SESSION_FILE_EXTENSION);
+    }
+
+    private Path getCompressedCacheFilePath(String fileKey) {
+        return cacheDirectory.resolve(sanitizeKey(fileKey) + COMPRESSED_CACHE_FILE_EXTENSION);
+    }
+
+    private EntryState entryState(String fileKey) {
+        return entryStates.computeIfAbsent(sanitizeKey(fileKey), key -> new EntryState());
+    }
+
+    private static String sanitizeKey(String fileKey) {
         // Sanitize file key to create a valid filename
-        String sanitizedKey = fileKey.replaceAll("[^a-zA-Z0-9-_]", "_");
-        return cacheDirectory.resolve(sanitizedKey + CACHE_FILE_EXTENSION);
+        return fileKey.replaceAll("[^a-zA-Z0-9-_]", "_");
+    }
+
+    /**
+     * A save waiting for the background writer.
+     *
+     * @param fileKey  the Figma file key as passed by the caller
+     * @param file     the file to write
+     * @param queuedAt the {@link System#nanoTime()} at which the key was first queued
+     */
+    private record PendingWrite(String fileKey, FigmaFile file, long queuedAt) {
+    }
+
+    /**
+     * Per-key lock and write generation, used to detect entries that changed
+     * while a background task was working on them.
+     */
+    private static final class EntryState {
+        private long generation;
     }
 }
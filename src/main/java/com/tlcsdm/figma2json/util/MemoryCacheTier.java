@@ -0,0 +1,193 @@
+package com.tlcsdm.figma2json.util;
+
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process tier in front of the disk cache, holding decoded files.
+ * <p>
+ * Entries are weighed by their estimated retained size, derived from the node
+ * count, and evicted in least-recently-used order once the memory budget is
+ * exceeded. Optionally, evicted entries are kept behind soft references so they
+ * can still be recovered until the garbage collector needs the memory.
+ */
+final class MemoryCacheTier {
+
+    /**
+     * Rough retained size of one decoded node including its properties.
+     */
+    static final long ESTIMATED_BYTES_PER_NODE = 600;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, WeighedReference> softEntries = new HashMap<>();
+    private long budgetBytes;
+    private boolean softReferences;
+    private long weightBytes;
+    private long hits;
+    private long softHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a tier with the given budget.
+     *
+     * @param budgetBytes    the memory budget in bytes, 0 to disable the tier
+     * @param softReferences whether evicted entries are kept behind soft references
+     */
+    MemoryCacheTier(long budgetBytes, boolean softReferences) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+        this.softReferences = softReferences;
+    }
+
+    synchronized FigmaFile get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits++;
+            return entry.file;
+        }
+        WeighedReference reference = softEntries.remove(key);
+        FigmaFile file = reference != null ? reference.get() : null;
+        if (file != null) {
+            softHits++;
+            add(key, file, reference.weight);
+            return file;
+        }
+        misses++;
+        return null;
+    }
+
+    void put(String key, FigmaFile file) {
+        // Weighing walks the whole tree, so it is done before taking the lock that get() needs
+        long weight = estimateWeight(file);
+        synchronized (this) {
+            add(key, file, weight);
+        }
+    }
+
+    private void add(String key, FigmaFile file, long weight) {
+        invalidate(key);
+        if (weight > budgetBytes) {
+            // Too large for the budget, but still recoverable until memory is needed
+            keepSoftly(key, file, weight);
+            return;
+        }
+        entries.put(key, new Entry(file, weight));
+        weightBytes += weight;
+        evictOverBudget();
+    }
+
+    synchronized void invalidate(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            weightBytes -= entry.weight;
+        }
+        softEntries.remove(key);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        softEntries.clear();
+        weightBytes = 0;
+    }
+
+    synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+        evictOverBudget();
+    }
+
+    synchronized long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    synchronized void setSoftReferences(boolean softReferences) {
+        this.softReferences = softReferences;
+        if (!softReferences) {
+            softEntries.clear();
+        }
+    }
+
+    synchronized boolean isSoftReferences() {
+        return softReferences;
+    }
+
+    /**
+     * Adds the hit, miss and eviction counters and the current occupancy to the given statistics.
+     *
+     * @param stats the statistics map to fill
+     */
+    synchronized void addStats(Map<String, Object> stats) {
+        stats.put("memoryHits", hits);
+        stats.put("memorySoftHits", softHits);
+        stats.put("memoryMisses", misses);
+        stats.put("memoryEvictions", evictions);
+        stats.put("memoryEntryCount", (long) entries.size());
+        stats.put("memoryWeightBytes", weightBytes);
+        stats.put("memoryBudgetBytes", budgetBytes);
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (weightBytes > budgetBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            weightBytes -= eldest.getValue().weight;
+            evictions++;
+            keepSoftly(eldest.getKey(), eldest.getValue().file, eldest.getValue().weight);
+        }
+    }
+
+    private void keepSoftly(String key, FigmaFile file, long weight) {
+        if (softReferences) {
+            softEntries.put(key, new WeighedReference(file, weight));
+        }
+    }
+
+    /**
+     * Estimates the retained heap size of a decoded file from its node count.
+     *
+     * @param file the file to weigh
+     * @return the estimated size in bytes
+     */
+    static long estimateWeight(FigmaFile file) {
+        long nodeCount = 1;
+        Document document = file.getDocument();
+        if (document != null && document.getChildren() != null) {
+            Deque<List<Node>> pending = new ArrayDeque<>();
+            pending.push(document.getChildren());
+            while (!pending.isEmpty()) {
+                for (Node node : pending.pop()) {
+                    nodeCount++;
+                    if (node.getChildren() != null && !node.getChildren().isEmpty()) {
+                        pending.push(node.getChildren());
+                    }
+                }
+            }
+        }
+        return nodeCount * ESTIMATED_BYTES_PER_NODE;
+    }
+
+    private record Entry(FigmaFile file, long weight) {
+    }
+
+    /**
+     * Soft reference that remembers the weight, so a recovered entry is not weighed again.
+     */
+    private static final class WeighedReference extends SoftReference<FigmaFile> {
+        private final long weight;
+
+        WeighedReference(FigmaFile file, long weight) {
+            super(file);
+            this.weight = weight;
+        }
+    }
+}
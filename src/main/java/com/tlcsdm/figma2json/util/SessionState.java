@@ -0,0 +1,69 @@
+package com.tlcsdm.figma2json.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * View state of an opened Figma file: the selected page, the selected layer
+ * and the expanded layers, so a file can be reopened where it was left.
+ */
+public final class SessionState {
+
+    private static final String PAGE_ID = "pageId";
+    private static final String LAYER_ID = "layerId";
+    private static final String EXPANDED_NODE_IDS = "expandedNodeIds";
+    private static final String SEPARATOR = ",";
+
+    private final String pageId;
+    private final String layerId;
+    private final List<String> expandedNodeIds;
+
+    /**
+     * Creates a session state.
+     *
+     * @param pageId          the id of the selected page, or null
+     * @param layerId         the id of the selected layer, or null
+     * @param expandedNodeIds the ids of the expanded layers
+     */
+    public SessionState(String pageId, String layerId, List<String> expandedNodeIds) {
+        this.pageId = pageId;
+        this.layerId = layerId;
+        this.expandedNodeIds = expandedNodeIds != null
+                ? Collections.unmodifiableList(new ArrayList<>(expandedNodeIds)) : List.of();
+    }
+
+    public String getPageId() {
+        return pageId;
+    }
+
+    public String getLayerId() {
+        return layerId;
+    }
+
+    public List<String> getExpandedNodeIds() {
+        return expandedNodeIds;
+    }
+
+    Properties toProperties() {
+        Properties properties = new Properties();
+        if (pageId != null) {
+            properties.setProperty(PAGE_ID, pageId);
+        }
+        if (layerId != null) {
+            properties.setProperty(LAYER_ID, layerId);
+        }
+        // Figma node ids never contain commas
+        properties.setProperty(EXPANDED_NODE_IDS, String.join(SEPARATOR, expandedNodeIds));
+        return properties;
+    }
+
+    static SessionState fromProperties(Properties properties) {
+        String expanded = properties.getProperty(EXPANDED_NODE_IDS, "");
+        List<String> expandedNodeIds = expanded.isEmpty()
+                ? List.of() : Arrays.asList(expanded.split(SEPARATOR));
+        return new SessionState(properties.getProperty(PAGE_ID), properties.getProperty(LAYER_ID), expandedNodeIds);
+    }
+}
@@ -12,10 +12,26 @@ public class SettingsManager {
     private static final String PREF_LANGUAGE = "language";
     private static final String PREF_OUTPUT_FORMAT = "outputFormat";
     private static final String PREF_GENERATOR = "generator";
+    private static final String PREF_EXPORT_PROFILE = "exportProfile";
+    public static final String EXPORT_PROFILE_DEFAULT = "default";
+    public static final String EXPORT_PROFILE_COMPACT = "compact";
     private static final String PREF_OUTPUT_PATH = "outputPath";
     private static final String PREF_LAST_FIGMA_URL = "lastFigmaUrl";
     private static final String PREF_FIGMA_API_URL = "figmaApiUrl";
     private static final String DEFAULT_FIGMA_API_URL = "https://api.figma.com/v1";
+    private static final String PREF_SHARDED_DOWNLOAD = "shardedDownload";
+
+    // Cache settings
+    private static final String PREF_CACHE_COMPRESSION_LEVEL = "cacheCompressionLevel";
+    private static final int DEFAULT_CACHE_COMPRESSION_LEVEL = 0;
+    private static final String PREF_CACHE_MEMORY_BUDGET_MB = "cacheMemoryBudgetMb";
+    private static final int DEFAULT_CACHE_MEMORY_BUDGET_MB = 256;
+    private static final String PREF_CACHE_MAX_SIZE_MB = "cacheMaxSizeMb";
+    private static final int DEFAULT_CACHE_MAX_SIZE_MB = 1024;
+    private static final String PREF_CACHE_TTL_DAYS = "cacheTtlDays";
+    private static final int DEFAULT_CACHE_TTL_DAYS = 30;
+    private static final String PREF_CACHE_FIRST_OPEN = "cacheFirstOpen";
+    private static final String PREF_CACHE_CHUNKED_STORAGE = "cacheChunkedStorage";
 
     // OAuth settings
     private static final String PREF_AUTH_MODE = "authMode";
@@ -106,6 +122,26 @@ public class SettingsManager {
         prefs.put(PREF_OUTPUT_FORMAT, format);
     }
 
+    /**
+     * Gets the export profile.
+     *
+     * @return {@link #EXPORT_PROFILE_DEFAULT} or {@link #EXPORT_PROFILE_COMPACT} (default: default)
+     */
+    public String getExportProfile() {
+        String profile = prefs.get(PREF_EXPORT_PROFILE, EXPORT_PROFILE_DEFAULT);
+        return EXPORT_PROFILE_COMPACT.equals(profile) ? EXPORT_PROFILE_COMPACT : EXPORT_PROFILE_DEFAULT;
+    }
+
+    /**
+     * Sets the export profile.
+     *
+     * @param profile {@link #EXPORT_PROFILE_DEFAULT} or {@link #EXPORT_PROFILE_COMPACT}
+     */
+    public void setExportProfile(String profile) {
+        prefs.put(PREF_EXPORT_PROFILE, EXPORT_PROFILE_COMPACT.equals(profile)
+                ? EXPORT_PROFILE_COMPACT : EXPORT_PROFILE_DEFAULT);
+    }
+
     /**
      * Gets the generator name.
      *
@@ -178,6 +214,24 @@ public class SettingsManager {
         prefs.put(PREF_FIGMA_API_URL, url != null && !url.isBlank() ? url : DEFAULT_FIGMA_API_URL);
     }
 
+    /**
+     * Checks whether files are downloaded in parallel page batches.
+     *
+     * @return true if sharded downloads are used (default: false)
+     */
+    public boolean isShardedDownload() {
+        return prefs.getBoolean(PREF_SHARDED_DOWNLOAD, false);
+    }
+
+    /**
+     * Sets whether files are downloaded in parallel page batches.
+     *
+     * @param shardedDownload true to download pages in parallel
+     */
+    public void setShardedDownload(boolean shardedDownload) {
+        prefs.putBoolean(PREF_SHARDED_DOWNLOAD, shardedDownload);
+    }
+
     /**
      * Gets the default Figma API URL.
      *
@@ -187,6 +241,119 @@ public class SettingsManager {
         return DEFAULT_FIGMA_API_URL;
     }
 
+    /**
+     * Gets the deflate level used to compress cached files. Compressed files
+     * take less disk space but cannot be read page by page.
+     *
+     * @return the compression level from 0 (off) to 9 (default: 0)
+     */
+    public int getCacheCompressionLevel() {
+        return prefs.getInt(PREF_CACHE_COMPRESSION_LEVEL, DEFAULT_CACHE_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Sets the deflate level used to compress cached files.
+     * Values outside 0-9 are clamped.
+     *
+     * @param level the compression level from 0 (off) to 9
+     */
+    public void setCacheCompressionLevel(int level) {
+        prefs.putInt(PREF_CACHE_COMPRESSION_LEVEL, Math.max(0, Math.min(9, level)));
+    }
+
+    /**
+     * Gets the memory budget of the in-memory file cache.
+     *
+     * @return the budget in megabytes, 0 if disabled (default: 256)
+     */
+    public int getCacheMemoryBudgetMb() {
+        return prefs.getInt(PREF_CACHE_MEMORY_BUDGET_MB, DEFAULT_CACHE_MEMORY_BUDGET_MB);
+    }
+
+    /**
+     * Sets the memory budget of the in-memory file cache.
+     * Negative values are treated as 0.
+     *
+     * @param budgetMb the budget in megabytes, 0 to disable
+     */
+    public void setCacheMemoryBudgetMb(int budgetMb) {
+        prefs.putInt(PREF_CACHE_MEMORY_BUDGET_MB, Math.max(0, budgetMb));
+    }
+
+    /**
+     * Gets the maximum size of the disk cache.
+     *
+     * @return the maximum size in megabytes, 0 if unlimited (default: 1024)
+     */
+    public int getCacheMaxSizeMb() {
+        return prefs.getInt(PREF_CACHE_MAX_SIZE_MB, DEFAULT_CACHE_MAX_SIZE_MB);
+    }
+
+    /**
+     * Sets the maximum size of the disk cache.
+     * Negative values are treated as 0.
+     *
+     * @param maxSizeMb the maximum size in megabytes, 0 for no limit
+     */
+    public void setCacheMaxSizeMb(int maxSizeMb) {
+        prefs.putInt(PREF_CACHE_MAX_SIZE_MB, Math.max(0, maxSizeMb));
+    }
+
+    /**
+     * Gets the number of days an unused cache entry is kept.
+     *
+     * @return the time to live in days, 0 if entries never expire (default: 30)
+     */
+    public int getCacheTtlDays() {
+        return prefs.getInt(PREF_CACHE_TTL_DAYS, DEFAULT_CACHE_TTL_DAYS);
+    }
+
+    /**
+     * Sets the number of days an unused cache entry is kept.
+     * Negative values are treated as 0.
+     *
+     * @param ttlDays the time to live in days, 0 to keep entries indefinitely
+     */
+    public void setCacheTtlDays(int ttlDays) {
+        prefs.putInt(PREF_CACHE_TTL_DAYS, Math.max(0, ttlDays));
+    }
+
+    /**
+     * Checks whether files are opened from the cache first and revalidated in the background.
+     *
+     * @return true if cached files are shown before the network load (default: true)
+     */
+    public boolean isCacheFirstOpen() {
+        return prefs.getBoolean(PREF_CACHE_FIRST_OPEN, true);
+    }
+
+    /**
+     * Sets whether files are opened from the cache first and revalidated in the background.
+     *
+     * @param cacheFirstOpen true to show cached files before the network load
+     */
+    public void setCacheFirstOpen(boolean cacheFirstOpen) {
+        prefs.putBoolean(PREF_CACHE_FIRST_OPEN, cacheFirstOpen);
+    }
+
+    /**
+     * Checks whether cache entries are stored as page chunks shared between file versions.
+     *
+     * @return true if chunked storage is used (default: false)
+     */
+    public boolean isCacheChunkedStorage() {
+        return prefs.getBoolean(PREF_CACHE_CHUNKED_STORAGE, false);
+    }
+
+    /**
+     * Sets whether cache entries are stored as page chunks shared between file versions.
+     *
+     * @param chunkedStorage true to store only changed pages on every update
+     */
+    public void setCacheChunkedStorage(boolean chunkedStorage) {
+        prefs.putBoolean(PREF_CACHE_CHUNKED_STORAGE, chunkedStorage);
+    }
+
     /**
      * Gets the authentication mode.
      *
@@ -0,0 +1,74 @@
+package com.tlcsdm.figma2json.util;
+
+/**
+ * Number encodings shared by the binary cache format and the binary export
+ * format, so both write integers the same way.
+ * <p>
+ * A varint stores 7 bits per byte, least significant group first, and sets
+ * the high bit on every byte but the last. Signed values are zigzag encoded
+ * first, so small negative numbers stay short.
+ */
+public final class Varints {
+
+    /**
+     * Longest encoding of a 64-bit varint.
+     */
+    public static final int MAX_VARLONG_SIZE = 10;
+
+    /**
+     * Largest magnitude for which a double can be stored as a varint without loss.
+     */
+    public static final double MAX_EXACT_INT = 9007199254740992.0;
+
+    private Varints() {
+    }
+
+    /**
+     * Writes an unsigned varint into a buffer.
+     *
+     * @param buffer   the buffer, with room for up to {@link #MAX_VARLONG_SIZE} bytes at the position
+     * @param position the position to write at
+     * @param value    the value, treated as unsigned
+     * @return the position after the varint
+     */
+    public static int putVarlong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Maps a signed value to an unsigned one, so values close to zero get short varints.
+     *
+     * @param value the signed value
+     * @return the zigzag encoded value
+     */
+    public static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigZag(long)}.
+     *
+     * @param value the zigzag encoded value
+     * @return the signed value
+     */
+    public static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Checks whether a double can be written as an integer varint and read back unchanged.
+     *
+     * @param value the value to check
+     * @return true if the value is integral and exactly representable
+     */
+    public static boolean isIntegral(double value) {
+        return value == Math.rint(value)
+                && Math.abs(value) < MAX_EXACT_INT
+                && !(value == 0.0 && Double.doubleToRawLongBits(value) != 0L);
+    }
+}
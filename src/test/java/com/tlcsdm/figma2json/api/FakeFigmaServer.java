@@ -0,0 +1,101 @@
+package com.tlcsdm.figma2json.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Minimal HTTP server standing in for the Figma REST API in tests.
+ * Every GET request is answered by a handler that maps the decoded request
+ * target (path and query) to a response.
+ */
+final class FakeFigmaServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Function<String, Response> handler;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    FakeFigmaServer(Function<String, Response> handler) throws IOException {
+        this.handler = handler;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-figma-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/v1";
+    }
+
+    /**
+     * Gets the decoded request targets received so far, without the "/v1" prefix.
+     */
+    List<String> getRequests() {
+        return requests;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread worker = new Thread(() -> handle(socket), "fake-figma-request");
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String requestLine = in.readLine();
+            String line;
+            do {
+                line = in.readLine();
+            } while (line != null && !line.isEmpty());
+            String target = URLDecoder.decode(requestLine.split(" ")[1], StandardCharsets.UTF_8).substring("/v1".length());
+            requests.add(target);
+            Response response = handler.apply(target);
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            StringBuilder head = new StringBuilder("HTTP/1.1 ").append(response.status()).append(" X\r\n")
+                    .append("Content-Type: application/json\r\n")
+                    .append("Content-Length: ").append(body.length).append("\r\n")
+                    .append("Connection: close\r\n");
+            response.headers().forEach(header -> head.append(header).append("\r\n"));
+            head.append("\r\n");
+            OutputStream out = socket.getOutputStream();
+            out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+            out.write(body);
+            out.flush();
+        } catch (IOException e) {
+            // The client went away, nothing to answer
+        }
+    }
+
+    record Response(int status, String body, List<String> headers) {
+
+        static Response ok(String body) {
+            return new Response(200, body, List.of());
+        }
+
+        static Response notFound() {
+            return new Response(404, "{\"status\":404,\"err\":\"Not found\"}", List.of());
+        }
+    }
+}
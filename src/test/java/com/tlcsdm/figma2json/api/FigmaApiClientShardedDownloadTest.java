@@ -0,0 +1,144 @@
+package com.tlcsdm.figma2json.api;
+
+import com.tlcsdm.figma2json.util.SettingsManager.AuthMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the sharded download of FigmaApiClient against a fake Figma server.
+ */
+class FigmaApiClientShardedDownloadTest {
+
+    private static final String FILE_KEY = "abc123";
+
+    private FakeFigmaServer server;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("getFileSharded should assemble all pages in document order")
+    void getFileSharded_multiplePages_assemblesDocument() throws Exception {
+        FigmaApiClient client = startServer(target -> respond(target, 5));
+
+        FigmaFile file = client.getFileSharded(FILE_KEY).get();
+
+        List<Node> pages = file.getDocument().getChildren();
+        assertEquals(5, pages.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("page-" + i, pages.get(i).getId());
+            assertEquals("page-" + i + "-frame", pages.get(i).getChildren().get(0).getId());
+        }
+        assertEquals("v1", file.getVersion());
+        assertEquals("Button 3", file.getComponents().get("comp-3").getName());
+        assertEquals(6, server.getRequests().size());
+    }
+
+    @Test
+    @DisplayName("getFileSharded should batch pages and bound the requests in flight")
+    void getFileSharded_boundedConcurrency_neverExceedsLimit() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        FigmaApiClient client = startServer(target -> {
+            if (!target.contains("/nodes")) {
+                return respond(target, 8);
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return respond(target, 8);
+        });
+        client.setMaxConcurrentRequests(2);
+        client.setPagesPerRequest(2);
+
+        FigmaFile file = client.getFileSharded(FILE_KEY).get();
+
+        assertEquals(8, file.getDocument().getChildren().size());
+        assertEquals(4, server.getRequests().stream().filter(target -> target.contains("/nodes")).count());
+        assertTrue(maxInFlight.get() <= 2, "max in flight: " + maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("getFileSharded should retry batches rejected by the rate limit")
+    void getFileSharded_rateLimited_retriesAfterDelay() throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        FigmaApiClient client = startServer(target -> {
+            if (target.endsWith("ids=page-1") && rejected.getAndIncrement() == 0) {
+                return new FakeFigmaServer.Response(429, "{\"status\":429}", List.of("Retry-After: 0"));
+            }
+            return respond(target, 3);
+        });
+
+        FigmaFile file = client.getFileSharded(FILE_KEY).get();
+
+        assertEquals("page-1", file.getDocument().getChildren().get(1).getId());
+        assertEquals(2, server.getRequests().stream().filter(target -> target.endsWith("ids=page-1")).count());
+    }
+
+    @Test
+    @DisplayName("getFileSharded should fail when a page cannot be downloaded")
+    void getFileSharded_failedBatch_completesExceptionally() throws IOException {
+        FigmaApiClient client = startServer(target -> target.endsWith("ids=page-2")
+                ? FakeFigmaServer.Response.notFound() : respond(target, 3));
+
+        assertThrows(ExecutionException.class, () -> client.getFileSharded(FILE_KEY).get());
+    }
+
+    private FigmaApiClient startServer(Function<String, FakeFigmaServer.Response> handler) throws IOException {
+        server = new FakeFigmaServer(handler);
+        FigmaApiClient client = new FigmaApiClient();
+        client.setAuthMode(AuthMode.TOKEN);
+        client.setAccessToken("token");
+        client.setBaseUrl(server.getBaseUrl());
+        return client;
+    }
+
+    /**
+     * Answers the page list and nodes requests for a file with the given number of pages.
+     */
+    static FakeFigmaServer.Response respond(String target, int pageCount) {
+        if (target.equals("/files/" + FILE_KEY + "?depth=1")) {
+            StringBuilder pages = new StringBuilder();
+            for (int i = 0; i < pageCount; i++) {
+                pages.append(i > 0 ? "," : "")
+                        .append("{\"id\":\"page-").append(i).append("\",\"name\":\"Page ").append(i)
+                        .append("\",\"type\":\"CANVAS\"}");
+            }
+            return FakeFigmaServer.Response.ok("{\"name\":\"File\",\"version\":\"v1\",\"document\":{\"id\":\"0:0\","
+                    + "\"type\":\"DOCUMENT\",\"children\":[" + pages + "]}}");
+        }
+        String prefix = "/files/" + FILE_KEY + "/nodes?ids=";
+        if (!target.startsWith(prefix)) {
+            return FakeFigmaServer.Response.notFound();
+        }
+        StringBuilder nodes = new StringBuilder();
+        String[] ids = target.substring(prefix.length()).split(",");
+        for (int i = 0; i < ids.length; i++) {
+            String index = ids[i].substring("page-".length());
+            nodes.append(i > 0 ? "," : "")
+                    .append('"').append(ids[i]).append("\":{\"document\":{\"id\":\"").append(ids[i])
+                    .append("\",\"type\":\"CANVAS\",\"children\":[{\"id\":\"").append(ids[i])
+                    .append("-frame\",\"type\":\"FRAME\"}]},\"components\":{\"comp-").append(index)
+                    .append("\":{\"key\":\"k").append(index).append("\",\"name\":\"Button ").append(index)
+                    .append("\"}}}");
+        }
+        return FakeFigmaServer.Response.ok("{\"nodes\":{" + nodes + "}}");
+    }
+}
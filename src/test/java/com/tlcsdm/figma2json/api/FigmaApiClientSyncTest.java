@@ -0,0 +1,188 @@
+package com.tlcsdm.figma2json.api;
+
+import com.tlcsdm.figma2json.util.SettingsManager.AuthMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the incremental sync of FigmaApiClient against a fake Figma server.
+ */
+class FigmaApiClientSyncTest {
+
+    private static final String FILE_KEY = "abc123";
+    private static final String VERSIONS = "{\"versions\":[{\"id\":\"v2\",\"created_at\":\"2026-10-01T00:00:00Z\","
+            + "\"label\":null,\"description\":null},{\"id\":\"v1\",\"created_at\":\"2026-09-01T00:00:00Z\"}]}";
+
+    private FakeFigmaServer server;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("getFileVersions should parse the version history newest first")
+    void getFileVersions_history_returnsVersions() throws Exception {
+        FigmaApiClient client = startServer(target -> FakeFigmaServer.Response.ok(VERSIONS));
+
+        List<FileVersion> versions = client.getFileVersions(FILE_KEY).get();
+
+        assertEquals(2, versions.size());
+        assertEquals("v2", versions.get(0).getId());
+        assertEquals("2026-10-01T00:00:00Z", versions.get(0).getCreatedAt());
+        assertEquals("/files/abc123/versions", server.getRequests().get(0));
+    }
+
+    @Test
+    @DisplayName("syncFile should only check the versions when the cached copy is current")
+    void syncFile_currentVersion_returnsUpToDate() throws Exception {
+        FigmaApiClient client = startServer(target -> FakeFigmaServer.Response.ok(VERSIONS));
+        FigmaFile cached = createFile("v2", "Frame");
+
+        SyncResult result = client.syncFile(FILE_KEY, cached).get();
+
+        assertTrue(result.isUpToDate());
+        assertSame(cached, result.getFile());
+        assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    @DisplayName("syncFile should download and splice only the pages whose outline changed")
+    void syncFile_oneChangedPage_downloadsOnlyThatPage() throws Exception {
+        FigmaApiClient client = startServer(target -> switch (target) {
+            case "/files/abc123/versions" -> FakeFigmaServer.Response.ok(VERSIONS);
+            case "/files/abc123?depth=2" -> FakeFigmaServer.Response.ok(outlineJson("Renamed frame"));
+            case "/files/abc123/nodes?ids=page-1" -> FakeFigmaServer.Response.ok(
+                    "{\"nodes\":{\"page-1\":{\"document\":" + pageJson(1, "Renamed frame", true) + "}}}");
+            default -> FakeFigmaServer.Response.notFound();
+        });
+        FigmaFile cached = createFile("v1", "Frame");
+        Node unchangedPage = cached.getDocument().getChildren().get(0);
+
+        SyncResult result = client.syncFile(FILE_KEY, cached).get();
+
+        assertFalse(result.isUpToDate());
+        assertFalse(result.isFullDownload());
+        assertEquals(List.of("page-1"), result.getRefreshedPageIds());
+        FigmaFile synced = result.getFile();
+        assertEquals("v1", synced.getVersion());
+        assertSame(unchangedPage, synced.getDocument().getChildren().get(0));
+        Node refreshed = synced.getDocument().getChildren().get(1);
+        assertEquals("Renamed frame", refreshed.getChildren().get(0).getName());
+        assertEquals("page-1-frame-child", refreshed.getChildren().get(0).getChildren().get(0).getId());
+        assertFalse(server.getRequests().contains("/files/abc123"));
+    }
+
+    @Test
+    @DisplayName("syncFile should download the whole file when no page outline changed")
+    void syncFile_deepChangeOnly_fallsBackToFullDownload() throws Exception {
+        FigmaApiClient client = startServer(target -> switch (target) {
+            case "/files/abc123/versions" -> FakeFigmaServer.Response.ok(VERSIONS);
+            case "/files/abc123?depth=2" -> FakeFigmaServer.Response.ok(outlineJson("Frame"));
+            case "/files/abc123" -> FakeFigmaServer.Response.ok(
+                    "{\"name\":\"File\",\"version\":\"v2\",\"document\":{\"id\":\"0:0\",\"type\":\"DOCUMENT\","
+                            + "\"children\":[" + pageJson(0, "Frame", true) + "," + pageJson(1, "Frame", true) + "]}}");
+            default -> FakeFigmaServer.Response.notFound();
+        });
+
+        SyncResult result = client.syncFile(FILE_KEY, createFile("v1", "Frame")).get();
+
+        assertTrue(result.isFullDownload());
+        assertEquals("v2", result.getFile().getVersion());
+        assertTrue(server.getRequests().contains("/files/abc123"));
+    }
+
+    @Test
+    @DisplayName("syncFile should keep the cached version when a spliced page may hide a nested change")
+    void syncFile_nestedChangeBesideChangedPage_keepsCachedVersion() throws Exception {
+        String changedChild = "{\"id\":\"page-0-frame-child\",\"name\":\"Edited\",\"type\":\"TEXT\"}";
+        String page0 = pageJson(0, "Frame", true).replace("{\"id\":\"page-0-frame-child\",\"type\":\"TEXT\"}",
+                changedChild);
+        FigmaApiClient client = startServer(target -> switch (target) {
+            case "/files/abc123/versions" -> FakeFigmaServer.Response.ok(VERSIONS);
+            case "/files/abc123?depth=2" -> FakeFigmaServer.Response.ok(outlineJson("Renamed frame"));
+            case "/files/abc123/nodes?ids=page-1" -> FakeFigmaServer.Response.ok(
+                    "{\"nodes\":{\"page-1\":{\"document\":" + pageJson(1, "Renamed frame", true) + "}}}");
+            case "/files/abc123" -> FakeFigmaServer.Response.ok(
+                    "{\"name\":\"File\",\"version\":\"v2\",\"document\":{\"id\":\"0:0\",\"type\":\"DOCUMENT\","
+                            + "\"children\":[" + page0 + "," + pageJson(1, "Renamed frame", true) + "]}}");
+            default -> FakeFigmaServer.Response.notFound();
+        });
+
+        SyncResult spliced = client.syncFile(FILE_KEY, createFile("v1", "Frame")).get();
+
+        assertEquals(List.of("page-1"), spliced.getRefreshedPageIds());
+        assertEquals("v1", spliced.getFile().getVersion());
+        assertNull(spliced.getFile().getDocument().getChildren().get(0).getChildren().get(0)
+                .getChildren().get(0).getName());
+
+        SyncResult next = client.syncFile(FILE_KEY, spliced.getFile()).get();
+
+        assertTrue(next.isFullDownload());
+        assertEquals("v2", next.getFile().getVersion());
+        assertEquals("Edited", next.getFile().getDocument().getChildren().get(0).getChildren().get(0)
+                .getChildren().get(0).getName());
+    }
+
+    private FigmaApiClient startServer(Function<String, FakeFigmaServer.Response> handler) throws IOException {
+        server = new FakeFigmaServer(handler);
+        FigmaApiClient client = new FigmaApiClient();
+        client.setAuthMode(AuthMode.TOKEN);
+        client.setAccessToken("token");
+        client.setBaseUrl(server.getBaseUrl());
+        return client;
+    }
+
+    private static String outlineJson(String secondPageFrameName) {
+        return "{\"name\":\"File\",\"version\":\"v2\",\"document\":{\"id\":\"0:0\",\"type\":\"DOCUMENT\",\"children\":["
+                + pageJson(0, "Frame", false) + "," + pageJson(1, secondPageFrameName, false) + "]}}";
+    }
+
+    private static String pageJson(int index, String frameName, boolean deep) {
+        String id = "page-" + index;
+        String child = deep ? ",\"children\":[{\"id\":\"" + id + "-frame-child\",\"type\":\"TEXT\"}]" : "";
+        return "{\"id\":\"" + id + "\",\"name\":\"Page " + index + "\",\"type\":\"CANVAS\",\"children\":["
+                + "{\"id\":\"" + id + "-frame\",\"name\":\"" + frameName + "\",\"type\":\"FRAME\",\"opacity\":0.5"
+                + child + "}]}";
+    }
+
+    private static FigmaFile createFile(String version, String frameName) {
+        FigmaFile file = new FigmaFile();
+        file.setName("File");
+        file.setVersion(version);
+        Document document = new Document();
+        document.setId("0:0");
+        document.setType("DOCUMENT");
+        List<Node> pages = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            Node page = new Node();
+            page.setId("page-" + p);
+            page.setName("Page " + p);
+            page.setType("CANVAS");
+            Node frame = new Node();
+            frame.setId(page.getId() + "-frame");
+            frame.setName(frameName);
+            frame.setType("FRAME");
+            frame.setOpacity(0.5);
+            Node child = new Node();
+            child.setId(frame.getId() + "-child");
+            child.setType("TEXT");
+            frame.setChildren(new ArrayList<>(List.of(child)));
+            page.setChildren(new ArrayList<>(List.of(frame)));
+            pages.add(page);
+        }
+        document.setChildren(pages);
+        file.setDocument(document);
+        return file;
+    }
+}
@@ -0,0 +1,115 @@
+package com.tlcsdm.figma2json.api;
+
+import com.google.gson.Gson;
+import com.tlcsdm.figma2json.util.SettingsManager.AuthMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the single-request download with the sharded download against a
+ * local stand-in server that, like Figma, spends time proportional to the
+ * size of what it serializes. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ShardedDownloadBenchmarkTest {
+
+    private static final String FILE_KEY = "bench";
+    private static final int PAGE_COUNT = 24;
+    private static final int LAYERS_PER_PAGE = 2000;
+    private static final long SERIALIZATION_MILLIS_PER_PAGE = 40;
+    private static final int ROUNDS = 3;
+
+    @Test
+    @DisplayName("sharded download should return the same file as a single request")
+    void getFileSharded_largeFile_matchesSingleRequest() throws Exception {
+        String[] pageJson = new String[PAGE_COUNT];
+        for (int p = 0; p < PAGE_COUNT; p++) {
+            pageJson[p] = pageJson(p);
+        }
+        try (FakeFigmaServer server = new FakeFigmaServer(target -> respond(target, pageJson))) {
+            FigmaApiClient client = new FigmaApiClient();
+            client.setAuthMode(AuthMode.TOKEN);
+            client.setAccessToken("token");
+            client.setBaseUrl(server.getBaseUrl());
+            client.setMaxConcurrentRequests(6);
+
+            FigmaFile single = null;
+            FigmaFile sharded = null;
+            long singleNanos = Long.MAX_VALUE;
+            long shardedNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                single = client.getFile(FILE_KEY).get();
+                singleNanos = Math.min(singleNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                sharded = client.getFileSharded(FILE_KEY).get();
+                shardedNanos = Math.min(shardedNanos, System.nanoTime() - start);
+            }
+
+            System.out.printf("Download of %d pages x %d layers: single request %d ms, sharded %d ms%n",
+                    PAGE_COUNT, LAYERS_PER_PAGE, singleNanos / 1_000_000, shardedNanos / 1_000_000);
+            Gson gson = new Gson();
+            assertEquals(gson.toJson(single.getDocument()), gson.toJson(sharded.getDocument()));
+        }
+    }
+
+    private static FakeFigmaServer.Response respond(String target, String[] pageJson) {
+        String nodesPrefix = "/files/" + FILE_KEY + "/nodes?ids=";
+        List<Integer> pages;
+        boolean outline = target.endsWith("?depth=1");
+        if (target.equals("/files/" + FILE_KEY) || outline) {
+            pages = IntStream.range(0, PAGE_COUNT).boxed().toList();
+        } else if (target.startsWith(nodesPrefix)) {
+            pages = Arrays.stream(target.substring(nodesPrefix.length()).split(","))
+                    .map(id -> Integer.parseInt(id.substring("page-".length()))).toList();
+        } else {
+            return FakeFigmaServer.Response.notFound();
+        }
+        if (!outline) {
+            simulateSerialization(pages.size());
+        }
+        StringBuilder body = new StringBuilder();
+        if (target.startsWith(nodesPrefix)) {
+            body.append("{\"nodes\":{");
+            for (int i = 0; i < pages.size(); i++) {
+                body.append(i > 0 ? "," : "").append("\"page-").append(pages.get(i)).append("\":{\"document\":")
+                        .append(pageJson[pages.get(i)]).append('}');
+            }
+            return FakeFigmaServer.Response.ok(body.append("}}").toString());
+        }
+        body.append("{\"name\":\"Bench\",\"version\":\"1\",\"document\":{\"id\":\"0:0\",\"type\":\"DOCUMENT\",\"children\":[");
+        for (int i = 0; i < pages.size(); i++) {
+            body.append(i > 0 ? "," : "").append(outline
+                    ? "{\"id\":\"page-" + i + "\",\"name\":\"Page " + i + "\",\"type\":\"CANVAS\"}"
+                    : pageJson[i]);
+        }
+        return FakeFigmaServer.Response.ok(body.append("]}}").toString());
+    }
+
+    private static void simulateSerialization(int pages) {
+        try {
+            Thread.sleep(pages * SERIALIZATION_MILLIS_PER_PAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String pageJson(int page) {
+        StringBuilder json = new StringBuilder("{\"id\":\"page-").append(page).append("\",\"name\":\"Page ")
+                .append(page).append("\",\"type\":\"CANVAS\",\"children\":[");
+        for (int l = 0; l < LAYERS_PER_PAGE; l++) {
+            json.append(l > 0 ? "," : "").append("{\"id\":\"").append(page).append(':').append(l)
+                    .append("\",\"name\":\"Layer ").append(l).append("\",\"type\":\"RECTANGLE\",\"opacity\":0.5,")
+                    .append("\"absoluteBoundingBox\":{\"x\":").append(l).append(",\"y\":").append(page)
+                    .append(",\"width\":100,\"height\":40}}");
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.Gson;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the size, writing and reading speed of the binary format with
+ * pretty and minified JSON on a large node tree.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class BinaryConverterBenchmarkTest {
+
+    private static final int DEPTH = 5;
+    private static final int FANOUT = 8;
+    private static final int ROUNDS = 5;
+
+    @Test
+    @DisplayName("binary output should be smaller and faster to read than JSON")
+    void convert_largeTree_comparesWithJson() throws IOException {
+        Node root = JsonConverterTest.createWideTree(DEPTH, FANOUT);
+        JsonConverter pretty = new JsonConverter();
+        JsonConverter compact = new JsonConverter(OutputProfile.builder()
+                .prettyPrinting(false).serializeNulls(false).build());
+        BinaryConverter binary = new BinaryConverter();
+        Gson gson = new Gson();
+
+        String prettyJson = pretty.convert(root);
+        String compactJson = compact.convert(root);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        binary.convert(root, buffer);
+        byte[] bytes = buffer.toByteArray();
+        assertEquals(compactJson, compact.convert(new BinaryReader(new ByteArrayInputStream(bytes)).readNode()));
+
+        System.out.printf("Size: pretty JSON %d bytes, compact JSON %d bytes, binary %d bytes (%.1f%% of compact)%n",
+                prettyJson.length(), compactJson.length(), bytes.length, 100.0 * bytes.length / compactJson.length());
+        System.out.printf("Write: compact JSON %d ms, binary %d ms%n",
+                measureWrite(compact, root) / 1_000_000, measureWrite(binary, root) / 1_000_000);
+
+        long jsonRead = Long.MAX_VALUE;
+        long binaryRead = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            assertNotNull(gson.fromJson(compactJson, Node.class));
+            jsonRead = Math.min(jsonRead, System.nanoTime() - start);
+            start = System.nanoTime();
+            assertNotNull(new BinaryReader(new ByteArrayInputStream(bytes)).readNode());
+            binaryRead = Math.min(binaryRead, System.nanoTime() - start);
+        }
+        System.out.printf("Read: compact JSON with Gson %d ms, binary %d ms (%.2fx)%n",
+                jsonRead / 1_000_000, binaryRead / 1_000_000, (double) jsonRead / binaryRead);
+        assertTrue(bytes.length < compactJson.length());
+    }
+
+    private static long measureWrite(FigmaConverter converter, Node root) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            converter.convert(root, OutputStream.nullOutputStream());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,190 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BinaryConverter and BinaryReader.
+ */
+class BinaryConverterTest {
+
+    private final BinaryConverter converter = new BinaryConverter();
+
+    @Test
+    @DisplayName("converter should be registered as BINARY with the f2jb extension")
+    void converterFactory_binaryFormat_isRegistered() {
+        assertInstanceOf(BinaryConverter.class, ConverterFactory.getConverter("binary"));
+        assertEquals("BINARY", converter.getFormat());
+        assertEquals("f2jb", converter.getFileExtension());
+    }
+
+    @Test
+    @DisplayName("readNode should restore the nodes written by convert")
+    void readNode_convertedTree_matchesOriginal() throws IOException {
+        OutputProfile withoutNulls = OutputProfile.builder().serializeNulls(false).build();
+        for (Node root : List.of(createStyledNode(), JsonConverterTest.createWideTree(3, 3))) {
+            Node restored = readNode(toBytes(converter, root));
+
+            JsonConverter json = new JsonConverter(withoutNulls);
+            assertEquals(json.convert(root), json.convert(restored));
+        }
+    }
+
+    @Test
+    @DisplayName("readNode should restore nulls and rounded geometry as the profile says")
+    void readNode_profile_isApplied() throws IOException {
+        Node root = createStyledNode();
+        for (OutputProfile profile : List.of(OutputProfile.DEFAULT, OutputProfile.COMPACT,
+                OutputProfile.builder().fields(NodeField.ID, NodeField.FILLS).build())) {
+            Node restored = readNode(toBytes(new BinaryConverter(profile), root));
+
+            assertEquals(new JsonConverter(profile).convert(root), new JsonConverter(profile).convert(restored),
+                    profile.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("convert should store repeated strings once")
+    void convert_repeatedStrings_areStoredOnce() throws IOException {
+        byte[] bytes = toBytes(converter, JsonConverterTest.createWideTree(3, 3));
+        String raw = new String(bytes, StandardCharsets.ISO_8859_1);
+
+        assertEquals(raw.indexOf("SOLID"), raw.lastIndexOf("SOLID"));
+        assertEquals(raw.indexOf("children"), raw.lastIndexOf("children"));
+        assertTrue(bytes.length < new JsonConverter(OutputProfile.COMPACT).convert(
+                JsonConverterTest.createWideTree(3, 3)).length());
+    }
+
+    @Test
+    @DisplayName("text output and sinks should carry the binary output as Base64")
+    void convert_writer_isBase64OfBinary() throws IOException {
+        Node root = JsonConverterTest.createWideTree(2, 3);
+        String expected = Base64.getEncoder().encodeToString(toBytes(converter, root));
+        StringWriter jsonWriter = new StringWriter();
+        StringWriter binaryWriter = new StringWriter();
+        ByteArrayOutputStream binaryStream = new ByteArrayOutputStream();
+        JsonConverter json = new JsonConverter();
+
+        NodeTraversal.traverse(root, List.of(json.newSink(jsonWriter), converter.newSink(binaryWriter),
+                converter.newSink(binaryStream)));
+
+        assertEquals(expected, converter.convert(root));
+        assertEquals(expected, binaryWriter.toString());
+        assertEquals(expected, Base64.getEncoder().encodeToString(binaryStream.toByteArray()));
+        assertEquals(json.convert(root), jsonWriter.toString());
+    }
+
+    @Test
+    @DisplayName("convertRawJson should transcode any JSON to plain values")
+    void convertRawJson_payload_readsBackAsValues() throws IOException {
+        String payload = "{\"name\":\"Frame \\u00e9\",\"version\":null,\"count\":-42,\"opacity\":0.50,"
+                + "\"x\":1e3,\"big\":123456789012345678901234567890,\"flags\":[true,false,null],\"empty\":{}}";
+
+        byte[] bytes = Base64.getDecoder().decode(converter.convertRawJson(payload));
+        Object value = new BinaryReader(new ByteArrayInputStream(bytes)).readValue();
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("name", "Frame \u00e9");
+        expected.put("count", -42L);
+        expected.put("opacity", 0.5);
+        expected.put("x", 1000L);
+        expected.put("big", 1.2345678901234568e29);
+        expected.put("flags", Arrays.asList(true, false, null));
+        expected.put("empty", Map.of());
+        assertEquals(expected, value);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        converter.convertRawJson(new StringReader(payload), streamed);
+        assertArrayEquals(bytes, streamed.toByteArray());
+    }
+
+    @Test
+    @DisplayName("readNode should read trees deeper than the call stack allows")
+    void readNode_deepTree_isReadIteratively() throws IOException {
+        Node root = new Node();
+        Node current = root;
+        for (int depth = 0; depth < 10_000; depth++) {
+            Node child = new Node();
+            child.setId(String.valueOf(depth));
+            current.setChildren(new ArrayList<>(List.of(child)));
+            current = child;
+        }
+
+        Node restored = readNode(toBytes(converter, root));
+
+        int depth = 0;
+        for (Node node = restored; node.getChildren() != null; node = node.getChildren().get(0)) {
+            depth++;
+        }
+        assertEquals(10_000, depth);
+    }
+
+    @Test
+    @DisplayName("BinaryReader should reject foreign and truncated input")
+    void readNode_invalidInput_throwsIOException() throws IOException {
+        byte[] bytes = toBytes(converter, createStyledNode());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+        assertThrows(IOException.class, () -> new BinaryReader(new ByteArrayInputStream("{}".getBytes())));
+        assertThrows(IOException.class, () -> readNode(truncated));
+    }
+
+    private static byte[] toBytes(BinaryConverter converter, Node node) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.convert(node, out);
+        return out.toByteArray();
+    }
+
+    private static Node readNode(byte[] bytes) throws IOException {
+        return new BinaryReader(new ByteArrayInputStream(bytes)).readNode();
+    }
+
+    private static Node createStyledNode() {
+        Node node = new Node();
+        node.setId("1:1");
+        node.setName("Button <primary> & \"quoted\" \u6309\u94ae " + "long name ".repeat(10));
+        node.setType("FRAME");
+        node.setVisible(true);
+        BoundingBox box = new BoundingBox();
+        box.setX(123.456789);
+        box.setY(-20.0);
+        box.setWidth(100.25);
+        box.setHeight(null);
+        node.setAbsoluteBoundingBox(box);
+        Map<String, Object> color = new LinkedHashMap<>();
+        color.put("r", 0.123456789);
+        color.put("g", 1.0);
+        color.put("b", null);
+        Map<String, Object> fill = new LinkedHashMap<>();
+        fill.put("type", "SOLID");
+        fill.put("visible", true);
+        fill.put("color", color);
+        fill.put("stops", Arrays.asList(1.0, null, "x", -0.0));
+        node.setFills(new ArrayList<>(List.of(fill)));
+        node.setStrokes(new ArrayList<>());
+        node.setStrokeWeight(1.5);
+        node.setOpacity(1.0);
+        node.setConstraints(new LinkedHashMap<>(Map.of("vertical", "TOP")));
+        Node child = new Node();
+        child.setId("1:2");
+        child.setType("TEXT");
+        node.setChildren(new ArrayList<>(Arrays.asList(child, null)));
+        return node;
+    }
+}
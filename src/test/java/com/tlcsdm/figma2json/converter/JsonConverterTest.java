@@ -1,10 +1,23 @@
 package com.tlcsdm.figma2json.converter;
 
+import com.google.gson.GsonBuilder;
+import com.tlcsdm.figma2json.api.BoundingBox;
 import com.tlcsdm.figma2json.api.Node;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -114,4 +127,189 @@ class JsonConverterTest {
         // Should not throw exception when re-parsed
         assertDoesNotThrow(() -> converter.convertRawJson(result));
     }
+
+    @Test
+    @DisplayName("convert to a writer should match the Gson output of the string variant")
+    void convert_writer_matchesGsonOutput() throws IOException {
+        Node node = createTree();
+        StringWriter writer = new StringWriter();
+
+        converter.convert(node, writer);
+
+        String expected = new GsonBuilder().setPrettyPrinting().serializeNulls().create().toJson(node);
+        assertEquals(expected, writer.toString());
+        assertEquals(expected, converter.convert(node));
+    }
+
+    @Test
+    @DisplayName("convert to an output stream should write UTF-8 and leave the stream open")
+    void convert_outputStream_writesUtf8() throws IOException {
+        Node node = createTree();
+        node.setName("\u6309\u94ae \u2713");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        converter.convert(node, out);
+        out.write('\n');
+
+        assertEquals(converter.convert(node) + "\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("default profile should match Gson output for nodes with free-form properties")
+    void convert_defaultProfile_matchesGsonByteForByte() {
+        Node node = createStyledNode();
+
+        String expected = new GsonBuilder().setPrettyPrinting().serializeNulls().create().toJson(node);
+
+        assertEquals(expected, converter.convert(node));
+    }
+
+    @Test
+    @DisplayName("compact profile should minify, omit nulls and round geometry")
+    void convert_compactProfile_writesCompactJson() {
+        Node node = createStyledNode();
+
+        String result = converter.withProfile(OutputProfile.COMPACT).convert(node);
+
+        assertFalse(result.contains("\n"));
+        // Null properties are omitted, null array elements are kept like Gson does
+        assertFalse(result.contains(":null"));
+        assertTrue(result.contains("\"absoluteBoundingBox\":{\"x\":123.46,\"y\":-20,\"width\":100.33,\"height\":50}"),
+                result);
+        assertTrue(result.contains("\"strokeWeight\":1.5"));
+        // Free-form values keep their precision
+        assertTrue(result.contains("\"r\":0.123456789"));
+        assertTrue(result.length() < converter.convert(node).length() / 2);
+    }
+
+    @Test
+    @DisplayName("field projection should only write the selected fields")
+    void convert_fieldProjection_writesSelectedFields() {
+        Node node = createStyledNode();
+        OutputProfile profile = OutputProfile.builder()
+                .prettyPrinting(false)
+                .fields(NodeField.ID, NodeField.TYPE, NodeField.ABSOLUTE_BOUNDING_BOX, NodeField.CHILDREN)
+                .build();
+
+        String result = new JsonConverter(profile).convert(node);
+
+        assertEquals("{\"id\":\"1:1\",\"type\":\"FRAME\",\"children\":[{\"id\":\"1:2\",\"type\":\"TEXT\","
+                + "\"children\":null,\"absoluteBoundingBox\":null}],\"absoluteBoundingBox\":{\"x\":123.456789,"
+                + "\"y\":-20.0,\"width\":100.333333,\"height\":50.0}}", result);
+        assertFalse(new JsonConverter(profile.toBuilder().fields(NodeField.ID).build()).convert(node).contains("1:2"));
+    }
+
+    @Test
+    @DisplayName("withProfile should keep the converter for an equal profile")
+    void withProfile_equalProfile_returnsSameConverter() {
+        assertSame(converter, converter.withProfile(OutputProfile.builder().build()));
+        assertEquals(OutputProfile.COMPACT, converter.withProfile(OutputProfile.COMPACT).getProfile());
+        assertThrows(IllegalArgumentException.class, () -> OutputProfile.builder().geometryPrecision(11));
+    }
+
+    @Test
+    @DisplayName("parallel serialization should match the sequential output byte for byte")
+    void convert_parallel_matchesSequentialOutput() {
+        Node root = createWideTree(4, 5);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (OutputProfile profile : List.of(OutputProfile.DEFAULT, OutputProfile.COMPACT)) {
+                JsonConverter sequential = new JsonConverter(profile);
+                JsonConverter parallel = sequential.withParallelism(pool, 3);
+
+                assertEquals(sequential.convert(root), parallel.convert(root), profile.toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("withParallelism should keep the pool when the profile changes")
+    void withParallelism_profileChange_keepsPool() {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        JsonConverter parallel = converter.withParallelism(pool, 2);
+
+        assertSame(parallel, parallel.withParallelism(pool, 2));
+        JsonConverter compact = parallel.withProfile(OutputProfile.COMPACT);
+        Node root = createWideTree(3, 4);
+        assertEquals(new JsonConverter(OutputProfile.COMPACT).convert(root), compact.convert(root));
+        assertSame(converter, converter.withParallelism(null));
+    }
+
+    /**
+     * Creates a tree with uneven subtrees, null children and free-form properties on every level.
+     */
+    static Node createWideTree(int depth, int fanout) {
+        Node node = new Node();
+        node.setId(depth + ":" + System.identityHashCode(node));
+        node.setName("Layer \"" + depth + "\" <" + fanout + ">");
+        node.setType(depth > 0 ? "FRAME" : "TEXT");
+        node.setOpacity(depth * 0.1);
+        Map<String, Object> color = new LinkedHashMap<>();
+        color.put("r", 0.25);
+        color.put("g", null);
+        Map<String, Object> fill = new LinkedHashMap<>();
+        fill.put("type", "SOLID");
+        fill.put("color", color);
+        node.setFills(List.of(fill));
+        if (depth > 0) {
+            List<Node> children = new ArrayList<>();
+            for (int i = 0; i < fanout + depth % 2; i++) {
+                children.add(createWideTree(i == 0 ? 0 : depth - 1, fanout));
+            }
+            children.add(null);
+            node.setChildren(children);
+        }
+        return node;
+    }
+
+    private Node createStyledNode() {
+        Node node = new Node();
+        node.setId("1:1");
+        node.setName("Button <primary> & \"quoted\" \u6309\u94ae");
+        node.setType("FRAME");
+        node.setVisible(true);
+        BoundingBox box = new BoundingBox();
+        box.setX(123.456789);
+        box.setY(-20.0);
+        box.setWidth(100.333333);
+        box.setHeight(50.0);
+        node.setAbsoluteBoundingBox(box);
+        Map<String, Object> color = new LinkedHashMap<>();
+        color.put("r", 0.123456789);
+        color.put("g", 1.0);
+        color.put("b", null);
+        Map<String, Object> fill = new LinkedHashMap<>();
+        fill.put("type", "SOLID");
+        fill.put("visible", true);
+        fill.put("color", color);
+        fill.put("stops", Arrays.asList(1.0, null, "x"));
+        node.setFills(new ArrayList<>(List.of(fill)));
+        node.setStrokes(new ArrayList<>());
+        node.setStrokeWeight(1.5);
+        node.setOpacity(1.0);
+        Node child = new Node();
+        child.setId("1:2");
+        child.setType("TEXT");
+        node.setChildren(new ArrayList<>(List.of(child)));
+        return node;
+    }
+
+    private Node createTree() {
+        Node root = new Node();
+        root.setId("1:1");
+        root.setName("Root");
+        root.setType("FRAME");
+        root.setOpacity(0.5);
+        List<Node> children = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Node child = new Node();
+            child.setId("1:" + (i + 2));
+            child.setType("RECTANGLE");
+            children.add(child);
+        }
+        root.setChildren(children);
+        return root;
+    }
 }
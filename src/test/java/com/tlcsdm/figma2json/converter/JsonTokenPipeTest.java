@@ -0,0 +1,81 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for JsonTokenPipe.
+ */
+class JsonTokenPipeTest {
+
+    private static final String PAYLOAD = "{\"name\":\"Frame <1> & 'quoted' \\u00e9\",\"version\":null,"
+            + "\"nodes\":{\"1:2\":{\"document\":{\"id\":\"1:2\",\"opacity\":0.50,\"x\":1e3,"
+            + "\"big\":123456789012345678901234567890,\"visible\":true,\"fills\":[null,{}],\"children\":[]}}},"
+            + "\"empty\":[]}";
+
+    @Test
+    @DisplayName("reformat should match a parsed tree written by Gson with the default profile")
+    void reformat_defaultProfile_matchesTreeOutput() {
+        JsonTokenPipe pipe = new JsonTokenPipe(OutputProfile.DEFAULT);
+
+        String expected = OutputProfile.DEFAULT.gson().toJson(JsonParser.parseString(PAYLOAD));
+        assertEquals(expected, pipe.reformat(PAYLOAD));
+    }
+
+    @Test
+    @DisplayName("reformat should minify and drop null members with the compact profile")
+    void reformat_compactProfile_matchesTreeOutput() {
+        JsonTokenPipe pipe = new JsonTokenPipe(OutputProfile.COMPACT);
+
+        String result = pipe.reformat(PAYLOAD);
+
+        assertEquals(OutputProfile.COMPACT.gson().toJson(JsonParser.parseString(PAYLOAD)), result);
+        assertFalse(result.contains("\n"));
+        assertFalse(result.contains("\"version\""));
+        assertTrue(result.contains("\"opacity\":0.50"));
+        assertTrue(result.contains("\"big\":123456789012345678901234567890"));
+    }
+
+    @Test
+    @DisplayName("filtering should skip rejected members at any depth")
+    void filtering_rejectedNames_areDropped() {
+        Set<String> dropped = Set.of("fills", "empty");
+        JsonTokenPipe pipe = new JsonTokenPipe(OutputProfile.COMPACT).filtering(name -> !dropped.contains(name));
+
+        String result = pipe.reformat(PAYLOAD);
+
+        assertFalse(result.contains("fills"));
+        assertFalse(result.contains("empty"));
+        assertTrue(result.contains("\"children\":[]"));
+        assertTrue(result.endsWith("}}}}"));
+    }
+
+    @Test
+    @DisplayName("pipe should stream between a reader and a writer")
+    void pipe_readerToWriter_writesReformattedJson() throws IOException {
+        JsonTokenPipe pipe = new JsonTokenPipe(OutputProfile.COMPACT);
+        StringWriter writer = new StringWriter();
+
+        pipe.pipe(new StringReader("[ 1 , \"a\" , { \"b\" : false } ]"), writer);
+
+        assertEquals("[1,\"a\",{\"b\":false}]", writer.toString());
+    }
+
+    @Test
+    @DisplayName("reformat should reject malformed and trailing input")
+    void reformat_invalidJson_throwsJsonSyntaxException() {
+        JsonTokenPipe pipe = new JsonTokenPipe(OutputProfile.DEFAULT);
+
+        assertThrows(JsonSyntaxException.class, () -> pipe.reformat("{\"a\":"));
+        assertThrows(JsonSyntaxException.class, () -> pipe.reformat("{\"a\":1} {\"b\":2}"));
+    }
+}
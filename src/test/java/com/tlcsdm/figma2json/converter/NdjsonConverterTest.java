@@ -0,0 +1,120 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NdjsonConverter.
+ */
+class NdjsonConverterTest {
+
+    private final NdjsonConverter converter = new NdjsonConverter();
+
+    @Test
+    @DisplayName("convert should write one flat record per node in depth-first order")
+    void convert_tree_writesRecordPerNode() {
+        List<JsonObject> records = parse(converter.convert(createTree()));
+
+        assertEquals(4, records.size());
+        assertEquals(List.of("1:1", "1:2", "1:3", "1:4"),
+                records.stream().map(record -> record.get("id").getAsString()).toList());
+        JsonObject root = records.get(0);
+        assertFalse(root.has("parentId"));
+        assertEquals(0, root.get("depth").getAsInt());
+        assertEquals("{\"x\":10.5,\"y\":0.0,\"width\":100.0,\"height\":50.0}", root.get("bbox").toString());
+        JsonObject leaf = records.get(2);
+        assertEquals("1:2", leaf.get("parentId").getAsString());
+        assertEquals(2, leaf.get("depth").getAsInt());
+        assertEquals("[\"Screen\",\"Header\",\"Title <1>\"]", leaf.get("path").toString());
+        assertEquals("TEXT", leaf.get("type").getAsString());
+        assertEquals("{\"text\":\"S:1\",\"fill\":\"S:2\"}", leaf.get("styles").toString());
+        assertEquals("1:1", records.get(3).get("parentId").getAsString());
+        assertFalse(records.get(3).has("styles"));
+    }
+
+    @Test
+    @DisplayName("convert should follow the field selection and geometry precision of the profile")
+    void convert_profile_isApplied() {
+        NdjsonConverter rounded = new NdjsonConverter(OutputProfile.builder()
+                .geometryPrecision(0)
+                .fields(NodeField.ID, NodeField.ABSOLUTE_BOUNDING_BOX, NodeField.CHILDREN)
+                .build());
+
+        List<JsonObject> records = parse(rounded.convert(createTree()));
+
+        assertEquals(4, records.size());
+        assertEquals("{\"x\":11,\"y\":0,\"width\":100,\"height\":50}", records.get(0).get("bbox").toString());
+        assertFalse(records.get(2).has("type"));
+        assertFalse(records.get(2).has("styles"));
+        NdjsonConverter rootOnly = new NdjsonConverter(OutputProfile.builder().fields(NodeField.ID).build());
+        assertEquals(1, parse(rootOnly.convert(createTree())).size());
+    }
+
+    @Test
+    @DisplayName("records should not span lines even with line breaks in names")
+    void convert_lineBreaksInNames_stayOnOneLine() {
+        Node node = new Node();
+        node.setId("1:1");
+        node.setName("First\nSecond");
+
+        String output = converter.convert(node);
+
+        assertTrue(output.endsWith("\n"));
+        assertEquals(1, output.split("\n").length);
+        assertEquals("First\nSecond", parse(output).get(0).get("name").getAsString());
+    }
+
+    @Test
+    @DisplayName("convertRawJson should flatten the documents of a nodes response")
+    void convertRawJson_nodesResponse_flattensDocuments() {
+        String raw = "{\"name\":\"File\",\"nodes\":{"
+                + "\"1:1\":{\"document\":{\"id\":\"1:1\",\"type\":\"FRAME\",\"children\":[{\"id\":\"1:5\",\"type\":\"TEXT\"}]}},"
+                + "\"2:1\":{\"document\":{\"id\":\"2:1\",\"type\":\"FRAME\",\"styles\":{\"fill\":\"S:9\"}}}}}";
+
+        List<JsonObject> records = parse(converter.convertRawJson(raw));
+
+        assertEquals(List.of("1:1", "1:5", "2:1"), records.stream().map(record -> record.get("id").getAsString()).toList());
+        assertEquals("S:9", records.get(2).getAsJsonObject("styles").get("fill").getAsString());
+    }
+
+    private static List<JsonObject> parse(String ndjson) {
+        return ndjson.lines().map(line -> JsonParser.parseString(line).getAsJsonObject()).toList();
+    }
+
+    private static Node createTree() {
+        Node title = node("1:3", "Title <1>", "TEXT");
+        title.setStyles(new LinkedHashMap<>(Map.of("text", "S:1")));
+        title.getStyles().put("fill", "S:2");
+        Node header = node("1:2", "Header", "FRAME");
+        header.setChildren(new ArrayList<>(Arrays.asList(title, null)));
+        Node root = node("1:1", "Screen", "FRAME");
+        BoundingBox box = new BoundingBox();
+        box.setX(10.5);
+        box.setY(0.0);
+        box.setWidth(100.0);
+        box.setHeight(50.0);
+        root.setAbsoluteBoundingBox(box);
+        root.setChildren(new ArrayList<>(List.of(header, node("1:4", null, "RECTANGLE"))));
+        return root;
+    }
+
+    private static Node node(String id, String name, String type) {
+        Node node = new Node();
+        node.setId(id);
+        node.setName(name);
+        node.setType(type);
+        return node;
+    }
+}
@@ -0,0 +1,107 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NodeHasher.
+ */
+class NodeHasherTest {
+
+    @Test
+    @DisplayName("hash should ignore map key order and detect changes anywhere in the subtree")
+    void hash_content_isCanonical() {
+        Node first = tree(true);
+        Node reordered = tree(false);
+
+        String hash = NodeHasher.hash(first);
+
+        assertEquals(64, hash.length());
+        assertEquals(hash, NodeHasher.hash(reordered));
+        reordered.getChildren().get(0).getChildren().get(0).setName("Renamed");
+        assertNotEquals(hash, NodeHasher.hash(reordered));
+        Node moved = tree(true);
+        moved.getChildren().get(0).setChildren(new ArrayList<>());
+        moved.getChildren().add(tree(true).getChildren().get(0).getChildren().get(0));
+        assertNotEquals(hash, NodeHasher.hash(moved));
+        Node negativeZero = tree(true);
+        negativeZero.setOpacity(-0.0);
+        Node zero = tree(true);
+        zero.setOpacity(0.0);
+        assertNotEquals(NodeHasher.hash(zero), NodeHasher.hash(negativeZero));
+    }
+
+    @Test
+    @DisplayName("structure hashes should ignore ids and offsets but not relative layout")
+    void hashStructures_shiftedCopy_matchesOriginal() {
+        Node first = card("1:1", 10.0, 20.0);
+        Node shifted = card("2:1", 110.0, 220.0);
+        Node stretched = card("3:1", 10.0, 20.0);
+        stretched.getChildren().get(0).getAbsoluteBoundingBox().setX(15.0);
+
+        String hash = NodeHasher.hashStructures(first).get(first);
+
+        assertEquals(hash, NodeHasher.hashStructures(shifted).get(shifted));
+        assertNotEquals(hash, NodeHasher.hashStructures(stretched).get(stretched));
+        assertNotEquals(NodeHasher.hash(first), NodeHasher.hash(shifted));
+        Node unplaced = card("4:1", 10.0, 20.0);
+        unplaced.getAbsoluteBoundingBox().setX(null);
+        assertNotEquals(hash, NodeHasher.hashStructures(unplaced).get(unplaced));
+    }
+
+    private static Node tree(boolean redFirst) {
+        Map<String, Object> color = new LinkedHashMap<>();
+        if (redFirst) {
+            color.put("r", 0.25);
+            color.put("g", 1.0);
+        } else {
+            color.put("g", 1.0);
+            color.put("r", 0.25);
+        }
+        Node leaf = new Node();
+        leaf.setId("1:3");
+        leaf.setName("Leaf");
+        leaf.setFills(List.of(Map.of("type", "SOLID", "color", color)));
+        Node child = new Node();
+        child.setId("1:2");
+        child.setChildren(new ArrayList<>(List.of(leaf)));
+        Node root = new Node();
+        root.setId("1:1");
+        root.setChildren(new ArrayList<>(Arrays.asList(child, null)));
+        return root;
+    }
+
+    private static Node card(String id, double x, double y) {
+        Node label = new Node();
+        label.setId(id + "-label");
+        label.setName("Label");
+        label.setType("TEXT");
+        label.setAbsoluteBoundingBox(box(x + 8, y + 4, 40, 12));
+        Node card = new Node();
+        card.setId(id);
+        card.setName("Card");
+        card.setType("INSTANCE");
+        card.setAbsoluteBoundingBox(box(x, y, 56, 20));
+        card.setChildren(new ArrayList<>(List.of(label)));
+        return card;
+    }
+
+    private static BoundingBox box(double x, double y, double width, double height) {
+        BoundingBox box = new BoundingBox();
+        box.setX(x);
+        box.setY(y);
+        box.setWidth(width);
+        box.setHeight(height);
+        return box;
+    }
+}
@@ -0,0 +1,88 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NodeTraversal.
+ */
+class NodeTraversalTest {
+
+    @Test
+    @DisplayName("traverse should report nodes in document order and only enter wanted subtrees")
+    void traverse_sinks_receiveWantedSubtrees() throws IOException {
+        Node root = node("root", node("a", node("a1")), node("b", node("b1"), node("b2")));
+        RecordingSink everything = new RecordingSink(null);
+        RecordingSink withoutB = new RecordingSink("b");
+
+        NodeTraversal.traverse(root, List.of(everything, withoutB));
+
+        assertEquals(List.of("+root", "+a", "+a1", "-a1", "-a", "+b", "+b1", "-b1", "+b2", "-b2", "-b", "-root", "finish"),
+                everything.events);
+        assertEquals(List.of("+root", "+a", "+a1", "-a1", "-a", "+b", "-b", "-root", "finish"), withoutB.events);
+    }
+
+    @Test
+    @DisplayName("JSON sinks of several profiles should match their converters in one traversal")
+    void traverse_jsonSinks_matchConvert() throws IOException {
+        Node root = JsonConverterTest.createWideTree(3, 3);
+        List<JsonConverter> converters = List.of(new JsonConverter(), new JsonConverter(OutputProfile.COMPACT),
+                new JsonConverter(OutputProfile.builder().fields(NodeField.ID, NodeField.NAME).build()));
+        List<StringWriter> writers = new ArrayList<>();
+        List<NodeSink> sinks = new ArrayList<>();
+        for (JsonConverter converter : converters) {
+            StringWriter writer = new StringWriter();
+            writers.add(writer);
+            sinks.add(converter.newSink(writer));
+        }
+
+        NodeTraversal.traverse(root, sinks);
+
+        for (int i = 0; i < converters.size(); i++) {
+            assertEquals(converters.get(i).convert(root), writers.get(i).toString());
+        }
+    }
+
+    private static Node node(String name, Node... children) {
+        Node node = new Node();
+        node.setName(name);
+        if (children.length > 0) {
+            node.setChildren(new ArrayList<>(Arrays.asList(children)));
+        }
+        return node;
+    }
+
+    private static final class RecordingSink implements NodeSink {
+        private final String skipped;
+        private final List<String> events = new ArrayList<>();
+
+        RecordingSink(String skipped) {
+            this.skipped = skipped;
+        }
+
+        @Override
+        public boolean beginNode(Node node) {
+            events.add("+" + node.getName());
+            return !node.getName().equals(skipped);
+        }
+
+        @Override
+        public void endNode(Node node, boolean childrenVisited) {
+            events.add("-" + node.getName());
+        }
+
+        @Override
+        public void finish() {
+            events.add("finish");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the iterative node adapter with Gson's recursive reflective adapter
+ * on a large tree both of them can handle, and checks that they agree.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class NodeTypeAdapterBenchmarkTest {
+
+    private static final int DEPTH = 5;
+    private static final int FANOUT = 8;
+    private static final int ROUNDS = 5;
+
+    @Test
+    @DisplayName("the iterative adapter should keep up with the recursive reflective adapter")
+    void toJsonAndFromJson_largeTree_comparedWithReflection() {
+        Node root = JsonConverterTest.createWideTree(DEPTH, FANOUT);
+        Gson reflective = new GsonBuilder().serializeNulls().create();
+        Gson iterative = new GsonBuilder()
+                .serializeNulls()
+                .registerTypeAdapter(Node.class, new NodeTypeAdapter())
+                .create();
+        String json = reflective.toJson(root);
+        assertEquals(json, iterative.toJson(root));
+        assertEquals(json, reflective.toJson(iterative.fromJson(json, Node.class)));
+
+        long reflectiveWrite = measure(() -> reflective.toJson(root));
+        long iterativeWrite = measure(() -> iterative.toJson(root));
+        long reflectiveRead = measure(() -> reflective.fromJson(json, Node.class));
+        long iterativeRead = measure(() -> iterative.fromJson(json, Node.class));
+        System.out.printf("Node tree of %d bytes%n", json.length());
+        System.out.printf("  write: recursive %d ms, iterative %d ms (%.2fx)%n", reflectiveWrite / 1_000_000,
+                iterativeWrite / 1_000_000, (double) reflectiveWrite / iterativeWrite);
+        System.out.printf("  read:  recursive %d ms, iterative %d ms (%.2fx)%n", reflectiveRead / 1_000_000,
+                iterativeRead / 1_000_000, (double) reflectiveRead / iterativeRead);
+    }
+
+    private static long measure(Supplier<Object> task) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            assertNotNull(task.get());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,128 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NodeTypeAdapter and the iterative node writers.
+ */
+class NodeTypeAdapterTest {
+
+    /**
+     * Deep enough to overflow the default thread stack with a recursive walk.
+     */
+    static final int DEEP = 20_000;
+
+    /**
+     * Pretty-printing would indent deep trees quadratically, so they are written minified.
+     */
+    static final OutputProfile MINIFIED = OutputProfile.builder().prettyPrinting(false).build();
+
+    @Test
+    @DisplayName("the adapter should read and write the same JSON as Gson's reflective adapter")
+    void toJson_wideTree_matchesReflectiveGson() {
+        Node root = JsonConverterTest.createWideTree(3, 3);
+        for (boolean serializeNulls : new boolean[]{true, false}) {
+            GsonBuilder builder = new GsonBuilder().setPrettyPrinting();
+            if (serializeNulls) {
+                builder.serializeNulls();
+            }
+            Gson reflective = builder.create();
+            Gson adapted = builder.registerTypeAdapter(Node.class, new NodeTypeAdapter()).create();
+
+            String json = reflective.toJson(root);
+
+            assertEquals(json, adapted.toJson(root));
+            assertEquals(json, reflective.toJson(adapted.fromJson(json, Node.class)));
+        }
+    }
+
+    @Test
+    @DisplayName("trees nested thousands of levels deep should round trip without overflowing the stack")
+    void fromJson_deepTree_roundTrips() {
+        Gson gson = new GsonBuilder()
+                .serializeNulls()
+                .registerTypeAdapter(Node.class, new NodeTypeAdapter())
+                .create();
+        Node root = createDeepTree(DEEP);
+        JsonConverter converter = new JsonConverter(MINIFIED);
+
+        String json = converter.convert(root);
+        Node read = gson.fromJson(json, Node.class);
+
+        assertEquals(DEEP, depth(read));
+        assertEquals(json, converter.convert(read));
+        assertEquals(json, gson.toJson(read));
+        JsonConverter compact = new JsonConverter(OutputProfile.COMPACT);
+        assertEquals(compact.convert(root), compact.convertRawJson(json));
+    }
+
+    @Test
+    @DisplayName("the parallel writer should handle deep trees like the sequential writer")
+    void convert_deepTreeInParallel_matchesSequential() {
+        Node root = createDeepTree(DEEP);
+        root.getChildren().add(JsonConverterTest.createWideTree(4, 4));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            JsonConverter sequential = new JsonConverter(MINIFIED);
+
+            assertEquals(sequential.convert(root), sequential.withParallelism(pool, 100).convert(root));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("null trees, null children and malformed nodes should be handled like Gson does")
+    void fromJson_edgeCases_matchReflectiveGson() {
+        Gson gson = new GsonBuilder().registerTypeAdapter(Node.class, new NodeTypeAdapter()).create();
+
+        assertNull(gson.fromJson("null", Node.class));
+        Node node = gson.fromJson("{\"id\":\"1\",\"children\":[null,{\"id\":\"2\",\"children\":null}],"
+                + "\"unknown\":{\"nested\":[1]},\"opacity\":0.5}", Node.class);
+        assertEquals("1", node.getId());
+        assertEquals(0.5, node.getOpacity());
+        assertNull(node.getChildren().get(0));
+        assertEquals("2", node.getChildren().get(1).getId());
+        assertNull(node.getChildren().get(1).getChildren());
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"children\":[\"text\"]}", Node.class));
+    }
+
+    /**
+     * Creates a chain of nested groups, built without recursion.
+     */
+    static Node createDeepTree(int depth) {
+        Node root = new Node();
+        Node node = root;
+        for (int level = 1; level <= depth; level++) {
+            node.setId(level + ":1");
+            node.setName("Group " + level);
+            node.setType("GROUP");
+            if (level < depth) {
+                Node child = new Node();
+                node.setChildren(new ArrayList<>(List.of(child)));
+                node = child;
+            }
+        }
+        return root;
+    }
+
+    private static int depth(Node root) {
+        int depth = 1;
+        for (Node node = root; node.getChildren() != null && !node.getChildren().isEmpty();
+             node = node.getChildren().get(0)) {
+            depth++;
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,60 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures how the parallel serializer scales with the number of threads on a
+ * large node tree, and checks its output against the sequential serializer.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ParallelSerializationBenchmarkTest {
+
+    private static final int DEPTH = 5;
+    private static final int FANOUT = 8;
+    private static final int ROUNDS = 5;
+
+    @Test
+    @DisplayName("parallel serialization should scale with the thread count and match the sequential output")
+    void convert_largeTree_scalesWithThreads() throws IOException {
+        Node root = JsonConverterTest.createWideTree(DEPTH, FANOUT);
+        JsonConverter sequential = new JsonConverter();
+        String expected = sequential.convert(root);
+
+        long sequentialNanos = measure(sequential, root);
+        System.out.printf("Serialization of %d bytes: sequential %d ms%n",
+                expected.length(), sequentialNanos / 1_000_000);
+        int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                JsonConverter parallel = sequential.withParallelism(pool);
+                assertEquals(expected, parallel.convert(root));
+                long nanos = measure(parallel, root);
+                System.out.printf("  %d threads: %d ms (%.2fx)%n",
+                        threads, nanos / 1_000_000, (double) sequentialNanos / nanos);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static long measure(JsonConverter converter, Node root) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            converter.convert(root, OutputStream.nullOutputStream());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,143 @@
+package com.tlcsdm.figma2json.converter;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ReferenceJsonConverter and ReferenceJsonLoader.
+ */
+class ReferenceJsonConverterTest {
+
+    @Test
+    @DisplayName("repeated instances should be written once and load back to the same tree")
+    void write_repeatedInstances_roundTripsThroughLoader() throws Exception {
+        Node page = page(20);
+        ReferenceJsonConverter converter = new ReferenceJsonConverter();
+        StringWriter writer = new StringWriter();
+
+        ReferenceReport report = converter.write(page, writer);
+        JsonObject written = JsonParser.parseString(writer.toString()).getAsJsonObject();
+
+        assertEquals(1, report.getDefinitionCount());
+        assertEquals(20, report.getReferenceCount());
+        assertEquals(60, report.getReferencedNodeCount());
+        assertEquals(writer.toString().length(), report.getCharsWritten());
+        assertTrue(report.getSavedChars() > 0);
+        assertEquals(1, written.getAsJsonObject(ReferenceJsonConverter.DEFINITIONS).size());
+        JsonObject reference = written.getAsJsonObject(ReferenceJsonConverter.DOCUMENT)
+                .getAsJsonArray("children").get(3).getAsJsonObject();
+        assertEquals("#/definitions/0", reference.get("$ref").getAsString());
+        assertEquals(3, reference.getAsJsonArray("ids").size());
+        assertEquals(new JsonConverter().convert(page),
+                new JsonConverter().convert(ReferenceJsonLoader.load(writer.toString())));
+    }
+
+    @Test
+    @DisplayName("a copy laid out differently should stay in place")
+    void write_differentLayout_isNotReferenced() throws Exception {
+        Node page = page(3);
+        page.getChildren().get(1).getChildren().get(1).getAbsoluteBoundingBox().setX(1000.0);
+        StringWriter writer = new StringWriter();
+
+        ReferenceReport report = new ReferenceJsonConverter().write(page, writer);
+
+        assertEquals(2, report.getReferenceCount());
+        JsonObject document = JsonParser.parseString(writer.toString()).getAsJsonObject()
+                .getAsJsonObject(ReferenceJsonConverter.DOCUMENT);
+        assertFalse(document.getAsJsonArray("children").get(1).getAsJsonObject().has("$ref"));
+        assertEquals(new JsonConverter().convert(page),
+                new JsonConverter().convert(ReferenceJsonLoader.load(writer.toString())));
+    }
+
+    @Test
+    @DisplayName("rounded output should load back to the rounded plain export")
+    void convert_compactProfile_roundTripsRounded() {
+        Node page = page(10);
+        for (int i = 0; i < page.getChildren().size(); i++) {
+            BoundingBox box = page.getChildren().get(i).getAbsoluteBoundingBox();
+            box.setX(box.getX() + 0.0049 * i);
+        }
+
+        String written = new ReferenceJsonConverter(OutputProfile.COMPACT).convert(page);
+
+        assertEquals(new JsonConverter(OutputProfile.COMPACT).convert(page),
+                new JsonConverter(OutputProfile.COMPACT).convert(ReferenceJsonLoader.load(written)));
+    }
+
+    @Test
+    @DisplayName("small subtrees and unique trees should be written without definitions")
+    void write_belowMinimumSize_writesPlainTree() throws Exception {
+        Node page = page(5);
+        StringWriter writer = new StringWriter();
+
+        ReferenceReport report = new ReferenceJsonConverter(OutputProfile.DEFAULT, 4).write(page, writer);
+
+        assertEquals(0, report.getDefinitionCount());
+        assertEquals(0, report.getReferenceCount());
+        assertEquals(new JsonConverter().convert(page),
+                new JsonConverter().convert(ReferenceJsonLoader.load(writer.toString())));
+    }
+
+    @Test
+    @DisplayName("load should reject unknown references and mismatched ids")
+    void load_brokenReference_throwsException() {
+        String unknown = "{\"definitions\":{},\"document\":{\"$ref\":\"#/definitions/7\"}}";
+        String ids = "{\"document\":{\"$ref\":\"#/definitions/0\",\"ids\":[\"1\",\"2\"]},"
+                + "\"definitions\":{\"0\":{\"id\":\"0\"}}}";
+
+        assertThrows(JsonSyntaxException.class, () -> ReferenceJsonLoader.load(unknown));
+        assertThrows(JsonSyntaxException.class, () -> ReferenceJsonLoader.load(ids));
+        assertThrows(IllegalArgumentException.class, () -> new ReferenceJsonConverter(null));
+        assertThrows(IllegalArgumentException.class, () -> new ReferenceJsonConverter(OutputProfile.DEFAULT, 0));
+    }
+
+    private static Node page(int cards) {
+        Node page = new Node();
+        page.setId("0:1");
+        page.setName("Page");
+        page.setType("CANVAS");
+        page.setChildren(new ArrayList<>());
+        for (int i = 0; i < cards; i++) {
+            double x = 24.5 * i;
+            double y = 100.0 + 60 * i;
+            Node icon = node(i + ":2", "Icon", "VECTOR", box(x + 4, y + 4, 16, 16));
+            icon.setFills(List.of(Map.of("type", "SOLID", "color", Map.of("r", 0.1, "g", 0.2, "b", 0.3))));
+            Node label = node(i + ":3", "Label", "TEXT", box(x + 24, y + 4.25, 80, 16));
+            Node card = node(i + ":1", "Card", "INSTANCE", box(x, y, 120, 24));
+            card.setCornerRadius(4.0);
+            card.setChildren(new ArrayList<>(List.of(icon, label)));
+            page.getChildren().add(card);
+        }
+        return page;
+    }
+
+    private static Node node(String id, String name, String type, BoundingBox box) {
+        Node node = new Node();
+        node.setId(id);
+        node.setName(name);
+        node.setType(type);
+        node.setAbsoluteBoundingBox(box);
+        return node;
+    }
+
+    private static BoundingBox box(double x, double y, double width, double height) {
+        BoundingBox box = new BoundingBox();
+        box.setX(x);
+        box.setY(y);
+        box.setWidth(width);
+        box.setHeight(height);
+        return box;
+    }
+}
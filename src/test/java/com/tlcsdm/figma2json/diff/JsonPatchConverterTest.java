@@ -0,0 +1,289 @@
+package com.tlcsdm.figma2json.diff;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.tlcsdm.figma2json.api.BoundingBox;
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.JsonConverter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.tlcsdm.figma2json.diff.NodeDiffTest.node;
+import static com.tlcsdm.figma2json.diff.NodeDiffTest.page;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for JsonPatchConverter.
+ */
+class JsonPatchConverterTest {
+
+    private static final Gson GSON = new Gson();
+
+    private final JsonConverter json = new JsonConverter();
+
+    @Test
+    @DisplayName("an unchanged node should produce an empty patch")
+    void convert_unchanged_writesEmptyPatch() {
+        JsonPatchConverter converter = new JsonPatchConverter(page());
+
+        assertEquals(new JsonArray(), JsonParser.parseString(converter.convert(page())));
+        assertEquals("JSON_PATCH", converter.getFormat());
+        assertThrows(IllegalArgumentException.class, () -> new JsonPatchConverter(null));
+    }
+
+    @Test
+    @DisplayName("the patch should turn the JSON export of the base into that of the new version")
+    void convert_structuralChanges_patchReproducesNewVersion() {
+        Node base = page();
+        Node changed = page();
+        Node header = changed.getChildren().get(0);
+        Node footer = changed.getChildren().get(1);
+        // Move the logo out of the header into a new group, drop the footer, reorder and edit
+        Node group = node("2:1", "Group");
+        group.setChildren(new ArrayList<>(List.of(header.getChildren().remove(1), node("2:2", "Badge"))));
+        changed.getChildren().set(1, group);
+        footer.getChildren().get(0).setName("Unused");
+        header.getChildren().get(0).setAbsoluteBoundingBox(box(0, 0, 100, 20));
+        header.getChildren().add(0, node("2:3", "Icon"));
+        changed.getChildren().add(0, changed.getChildren().remove(1));
+
+        String patch = new JsonPatchConverter(base).convert(changed);
+
+        assertPatchApplies(base, changed, patch);
+        JsonArray operations = JsonParser.parseString(patch).getAsJsonArray();
+        assertTrue(operations.size() <= 6, patch);
+    }
+
+    @Test
+    @DisplayName("a reorder should be a single move")
+    void convert_reorder_writesSingleMove() {
+        Node base = page();
+        Node changed = page();
+        changed.getChildren().add(changed.getChildren().remove(0));
+
+        String patch = new JsonPatchConverter(base).convert(changed);
+
+        JsonArray operations = JsonParser.parseString(patch).getAsJsonArray();
+        assertEquals(1, operations.size());
+        assertEquals("move", operations.get(0).getAsJsonObject().get("op").getAsString());
+        assertPatchApplies(base, changed, patch);
+    }
+
+    @Test
+    @DisplayName("patches should hold for random edits of a tree")
+    void convert_randomEdits_patchReproducesNewVersion() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Node base = randomTree(random);
+            Node changed = copy(base);
+            int edits = 1 + random.nextInt(6);
+            for (int i = 0; i < edits; i++) {
+                edit(changed, random, round * 100 + i);
+            }
+
+            String patch = new JsonPatchConverter(base).convert(changed);
+
+            assertPatchApplies(base, changed, patch);
+        }
+    }
+
+    @Test
+    @DisplayName("raw JSON should be read from its document and diffed against the base")
+    void convertRawJson_document_diffsDocument() {
+        Node changed = page();
+        changed.setName("Home");
+        JsonObject response = new JsonObject();
+        response.add("document", JsonParser.parseString(json.convert(changed)));
+
+        JsonArray operations = JsonParser.parseString(new JsonPatchConverter(page()).convertRawJson(response.toString()))
+                .getAsJsonArray();
+
+        assertEquals(1, operations.size());
+        assertEquals("/name", operations.get(0).getAsJsonObject().get("path").getAsString());
+        assertEquals("Home", operations.get(0).getAsJsonObject().get("value").getAsString());
+    }
+
+    private void assertPatchApplies(Node base, Node changed, String patch) {
+        JsonElement document = JsonParser.parseString(json.convert(base));
+        JsonElement patched = apply(document, JsonParser.parseString(patch).getAsJsonArray());
+        assertEquals(JsonParser.parseString(json.convert(changed)), patched, patch);
+    }
+
+    private static Node randomTree(Random random) {
+        Node root = node("root", "Root");
+        List<Node> nodes = new ArrayList<>(List.of(root));
+        int size = 5 + random.nextInt(30);
+        for (int i = 0; i < size; i++) {
+            Node parent = nodes.get(random.nextInt(nodes.size()));
+            if (parent.getChildren() == null) {
+                parent.setChildren(new ArrayList<>());
+            }
+            Node child = node("n" + i, "Node " + i);
+            parent.getChildren().add(random.nextInt(parent.getChildren().size() + 1), child);
+            nodes.add(child);
+        }
+        return root;
+    }
+
+    private static void edit(Node root, Random random, int serial) {
+        List<Node> nodes = new ArrayList<>();
+        List<Node> parents = new ArrayList<>();
+        collect(root, null, nodes, parents);
+        int index = random.nextInt(nodes.size());
+        Node node = nodes.get(index);
+        Node parent = parents.get(index);
+        switch (random.nextInt(7)) {
+            case 0 -> node.setName("Edited " + serial);
+            case 1 -> node.setFills(List.of(Map.of("type", "SOLID", "opacity", random.nextDouble())));
+            case 2 -> {
+                if (parent != null) {
+                    parent.getChildren().remove(node);
+                }
+            }
+            case 3 -> {
+                Node added = node("a" + serial, "Added " + serial);
+                if (random.nextBoolean() && parent != null) {
+                    // Wrap the node into a new group
+                    added.setChildren(new ArrayList<>(List.of(node)));
+                    parent.getChildren().set(parent.getChildren().indexOf(node), added);
+                } else {
+                    if (node.getChildren() == null) {
+                        node.setChildren(new ArrayList<>());
+                    }
+                    node.getChildren().add(random.nextInt(node.getChildren().size() + 1), added);
+                }
+            }
+            case 4 -> {
+                Node target = nodes.get(random.nextInt(nodes.size()));
+                if (parent != null && !contains(node, target)) {
+                    parent.getChildren().remove(node);
+                    if (target.getChildren() == null) {
+                        target.setChildren(new ArrayList<>());
+                    }
+                    target.getChildren().add(random.nextInt(target.getChildren().size() + 1), node);
+                }
+            }
+            case 5 -> node.setChildren(random.nextBoolean() ? null : new ArrayList<>());
+            default -> {
+                if (node.getChildren() != null) {
+                    node.getChildren().add(random.nextInt(node.getChildren().size() + 1), null);
+                }
+            }
+        }
+    }
+
+    private static void collect(Node node, Node parent, List<Node> nodes, List<Node> parents) {
+        if (node == null) {
+            return;
+        }
+        nodes.add(node);
+        parents.add(parent);
+        if (node.getChildren() != null) {
+            for (Node child : node.getChildren()) {
+                collect(child, node, nodes, parents);
+            }
+        }
+    }
+
+    private static boolean contains(Node ancestor, Node node) {
+        if (ancestor == node) {
+            return true;
+        }
+        if (ancestor == null || ancestor.getChildren() == null) {
+            return false;
+        }
+        return ancestor.getChildren().stream().anyMatch(child -> contains(child, node));
+    }
+
+    private static Node copy(Node node) {
+        return GSON.fromJson(GSON.toJson(node), Node.class);
+    }
+
+    private static BoundingBox box(double x, double y, double width, double height) {
+        BoundingBox box = new BoundingBox();
+        box.setX(x);
+        box.setY(y);
+        box.setWidth(width);
+        box.setHeight(height);
+        return box;
+    }
+
+    /**
+     * Applies the operations of a JSON Patch that this converter writes.
+     */
+    private static JsonElement apply(JsonElement document, JsonArray patch) {
+        for (JsonElement element : patch) {
+            JsonObject operation = element.getAsJsonObject();
+            String path = operation.get("path").getAsString();
+            switch (operation.get("op").getAsString()) {
+                case "add" -> document = add(document, path, operation.get("value"));
+                case "remove" -> remove(document, path);
+                case "replace" -> {
+                    if (path.isEmpty()) {
+                        document = operation.get("value");
+                    } else {
+                        remove(document, path);
+                        document = add(document, path, operation.get("value"));
+                    }
+                }
+                case "move" -> document = add(document, path, remove(document, operation.get("from").getAsString()));
+                default -> fail("Unexpected operation " + operation);
+            }
+        }
+        return document;
+    }
+
+    private static JsonElement add(JsonElement document, String path, JsonElement value) {
+        if (path.isEmpty()) {
+            return value;
+        }
+        JsonElement parent = resolve(document, path);
+        String token = last(path);
+        if (parent.isJsonArray()) {
+            JsonArray array = parent.getAsJsonArray();
+            int index = Integer.parseInt(token);
+            assertTrue(index <= array.size(), path);
+            List<JsonElement> elements = new ArrayList<>(array.asList());
+            elements.add(index, value);
+            array.asList().clear();
+            array.asList().addAll(elements);
+        } else {
+            parent.getAsJsonObject().add(token, value);
+        }
+        return document;
+    }
+
+    private static JsonElement remove(JsonElement document, String path) {
+        JsonElement parent = resolve(document, path);
+        String token = last(path);
+        if (parent.isJsonArray()) {
+            return parent.getAsJsonArray().remove(Integer.parseInt(token));
+        }
+        assertTrue(parent.getAsJsonObject().has(token), path);
+        return parent.getAsJsonObject().remove(token);
+    }
+
+    private static JsonElement resolve(JsonElement document, String path) {
+        String[] tokens = path.substring(1).split("/");
+        JsonElement current = document;
+        for (String token : Arrays.copyOf(tokens, tokens.length - 1)) {
+            current = current.isJsonArray()
+                    ? current.getAsJsonArray().get(Integer.parseInt(token))
+                    : current.getAsJsonObject().get(token);
+        }
+        return current;
+    }
+
+    private static String last(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,189 @@
+package com.tlcsdm.figma2json.diff;
+
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.NodeField;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for NodeDiff.
+ */
+class NodeDiffTest {
+
+    @Test
+    @DisplayName("equal trees should have no changes")
+    void compare_equalTrees_isEmpty() {
+        DiffResult diff = NodeDiff.compare(page(), page());
+
+        assertTrue(diff.isEmpty());
+        assertEquals(List.of(), diff.getChanges());
+    }
+
+    @Test
+    @DisplayName("a modified leaf should be reported with its changed properties only")
+    void compare_modifiedLeaf_reportsPropertyChanges() {
+        Node changed = page();
+        Node title = changed.getChildren().get(0).getChildren().get(0);
+        title.setName("Heading");
+        title.setOpacity(0.5);
+
+        DiffResult diff = NodeDiff.compare(page(), changed);
+
+        assertEquals(1, diff.getChanges().size());
+        NodeChange change = diff.getChanges().get(0);
+        assertEquals(NodeChange.Kind.MODIFIED, change.getKind());
+        assertEquals("1:3", change.getId());
+        assertEquals(List.of(NodeField.NAME, NodeField.OPACITY),
+                change.getProperties().stream().map(PropertyChange::getField).toList());
+        assertEquals("Title", change.getProperties().get(0).getOldValue());
+        assertEquals("Heading", change.getProperties().get(0).getNewValue());
+        assertNull(change.getProperties().get(1).getOldValue());
+        assertEquals(0.5, change.getProperties().get(1).getNewValue());
+    }
+
+    @Test
+    @DisplayName("added, removed and moved nodes should be found anywhere in the tree")
+    void compare_structuralChanges_reportsKinds() {
+        Node changed = page();
+        Node header = changed.getChildren().get(0);
+        Node footer = changed.getChildren().get(1);
+        Node logo = header.getChildren().remove(1);
+        footer.getChildren().add(logo);
+        footer.getChildren().remove(0);
+        header.getChildren().add(node("1:9", "Subtitle"));
+
+        DiffResult diff = NodeDiff.compare(page(), changed);
+
+        NodeChange moved = single(diff, NodeChange.Kind.MOVED);
+        assertEquals("1:4", moved.getId());
+        assertEquals("1:2", moved.getOldParentId());
+        assertEquals(1, moved.getOldIndex());
+        assertEquals("1:5", moved.getNewParentId());
+        assertEquals(0, moved.getNewIndex());
+        NodeChange removed = single(diff, NodeChange.Kind.REMOVED);
+        assertEquals("1:6", removed.getId());
+        assertEquals("1:5", removed.getOldParentId());
+        NodeChange added = single(diff, NodeChange.Kind.ADDED);
+        assertEquals("1:9", added.getId());
+        assertEquals("1:2", added.getNewParentId());
+        assertEquals(1, added.getNewIndex());
+        assertTrue(diff.getChanges(NodeChange.Kind.MODIFIED).isEmpty());
+    }
+
+    @Test
+    @DisplayName("reordered siblings should only report the nodes that left their order")
+    void compare_reorderedSiblings_reportsFewestMoves() {
+        Node old = node("0:1", "Page");
+        old.setChildren(new ArrayList<>(List.of(node("a", "A"), node("b", "B"), node("c", "C"), node("d", "D"))));
+        Node changed = node("0:1", "Page");
+        changed.setChildren(new ArrayList<>(List.of(node("b", "B"), node("c", "C"), node("d", "D"), node("a", "A"))));
+
+        DiffResult diff = NodeDiff.compare(old, changed);
+
+        NodeChange moved = single(diff, NodeChange.Kind.MOVED);
+        assertEquals(1, diff.getChanges().size());
+        assertEquals("a", moved.getId());
+        assertEquals(0, moved.getOldIndex());
+        assertEquals(3, moved.getNewIndex());
+    }
+
+    @Test
+    @DisplayName("unchanged subtrees should not be matched node by node")
+    void compare_unchangedSubtrees_areSkipped() {
+        Node old = node("0:1", "Page");
+        Node changed = node("0:1", "Page");
+        old.setChildren(new ArrayList<>(List.of(frame("big", 1000), node("small", "Small"))));
+        changed.setChildren(new ArrayList<>(List.of(frame("big", 1000), node("small", "Renamed"))));
+
+        DiffResult diff = NodeDiff.compare(old, changed);
+
+        assertEquals(1, diff.getChanges().size());
+        assertEquals("small", diff.getChanges().get(0).getId());
+        // The root and its two children; the thousand nodes inside the frame are not looked at
+        assertEquals(3, diff.getCounterparts().size());
+    }
+
+    @Test
+    @DisplayName("files should be compared by their documents")
+    void compare_files_comparesDocuments() {
+        FigmaFile old = file(page());
+        Node renamed = page();
+        renamed.setName("Renamed page");
+        FigmaFile changed = file(renamed);
+
+        DiffResult diff = NodeDiff.compare(old, changed);
+
+        NodeChange change = single(diff, NodeChange.Kind.MODIFIED);
+        assertEquals("0:1", change.getId());
+        assertEquals("0:0", diff.getNewRoot().getId());
+        assertThrows(IllegalArgumentException.class, () -> NodeDiff.compare(old, (FigmaFile) null));
+    }
+
+    @Test
+    @DisplayName("roots with different ids should be replaced")
+    void compare_differentRoots_replacesTree() {
+        Node other = page();
+        other.setId("9:9");
+
+        DiffResult diff = NodeDiff.compare(page(), other);
+
+        assertEquals(List.of(NodeChange.Kind.REMOVED, NodeChange.Kind.ADDED),
+                diff.getChanges().stream().map(NodeChange::getKind).toList());
+        assertTrue(NodeDiff.compare((Node) null, null).isEmpty());
+    }
+
+    private static NodeChange single(DiffResult diff, NodeChange.Kind kind) {
+        List<NodeChange> changes = diff.getChanges(kind);
+        assertEquals(1, changes.size(), () -> "Changes: " + diff.getChanges());
+        return changes.get(0);
+    }
+
+    private static FigmaFile file(Node page) {
+        Document document = new Document();
+        document.setId("0:0");
+        document.setName("Document");
+        document.setType("DOCUMENT");
+        document.setChildren(List.of(page));
+        FigmaFile file = new FigmaFile();
+        file.setDocument(document);
+        return file;
+    }
+
+    /**
+     * Page 0:1 with a header 1:2 (title 1:3, logo 1:4) and a footer 1:5 (link 1:6).
+     */
+    static Node page() {
+        Node header = node("1:2", "Header");
+        header.setChildren(new ArrayList<>(List.of(node("1:3", "Title"), node("1:4", "Logo"))));
+        Node footer = node("1:5", "Footer");
+        footer.setChildren(new ArrayList<>(List.of(node("1:6", "Link"))));
+        Node page = node("0:1", "Page");
+        page.setType("CANVAS");
+        page.setChildren(new ArrayList<>(List.of(header, footer)));
+        return page;
+    }
+
+    private static Node frame(String id, int children) {
+        Node frame = node(id, id);
+        frame.setChildren(new ArrayList<>());
+        for (int i = 0; i < children; i++) {
+            frame.getChildren().add(node(id + ":" + i, "Layer " + i));
+        }
+        return frame;
+    }
+
+    static Node node(String id, String name) {
+        Node node = new Node();
+        node.setId(id);
+        node.setName(name);
+        node.setType("FRAME");
+        return node;
+    }
+}
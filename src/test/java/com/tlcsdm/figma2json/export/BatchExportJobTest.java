@@ -0,0 +1,295 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.FigmaConverter;
+import com.tlcsdm.figma2json.converter.JsonConverter;
+import com.tlcsdm.figma2json.converter.OutputProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BatchExportJob.
+ */
+class BatchExportJobTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final JsonConverter converter = new JsonConverter();
+
+    @Test
+    @DisplayName("directory export should write one file per node with unique sanitized names")
+    void start_directory_writesOneFilePerNode() throws Exception {
+        List<Node> nodes = List.of(node("1:1", "Home"), node("1:2", "home"), node("1:3", "a/b: c?"), node("1:4", null));
+        List<ExportProgress> progress = new CopyOnWriteArrayList<>();
+
+        BatchExportResult result = BatchExportJob.builder()
+                .nodes(nodes)
+                .converter(converter)
+                .toDirectory(tempDir.resolve("out"))
+                .parallelism(3)
+                .progressListener(progress::add)
+                .build()
+                .start().get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, result.getExportedCount());
+        assertFalse(result.isCancelled());
+        assertTrue(result.getFailures().isEmpty());
+        assertEquals(converter.convert(nodes.get(0)), Files.readString(tempDir.resolve("out/Home.json")));
+        assertEquals(converter.convert(nodes.get(1)), Files.readString(tempDir.resolve("out/home-2.json")));
+        assertTrue(Files.exists(tempDir.resolve("out/a_b_ c_.json")));
+        assertTrue(Files.exists(tempDir.resolve("out/1_4.json")));
+        assertEquals(List.of(1, 2, 3, 4), progress.stream().map(ExportProgress::getCompleted).toList());
+        assertEquals(result.getBytesWritten(), progress.get(3).getBytesWritten());
+        assertEquals(1.0, progress.get(3).getFraction());
+    }
+
+    @Test
+    @DisplayName("ZIP export should write the entries in job order")
+    void start_zip_writesEntriesInOrder() throws Exception {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            nodes.add(node("1:" + i, "Frame " + i));
+        }
+        Path zipFile = tempDir.resolve("frames.zip");
+
+        BatchExportResult result = BatchExportJob.builder()
+                .nodes(nodes)
+                .converter(converter)
+                .toZip(zipFile)
+                .parallelism(4)
+                .build()
+                .start().get(10, TimeUnit.SECONDS);
+
+        assertEquals(12, result.getExportedCount());
+        Map<String, String> entries = readZip(zipFile);
+        assertEquals(nodes.stream().map(node -> node.getName() + ".json").toList(), List.copyOf(entries.keySet()));
+        assertEquals(converter.convert(nodes.get(7)), entries.get("Frame 7.json"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(zipFile), files.toList(), "spool files must be removed");
+        }
+    }
+
+    @Test
+    @DisplayName("a failing item should be recorded without stopping the job")
+    void start_failingItem_recordsFailure() throws Exception {
+        JsonConverter failing = new JsonConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                if ("bad".equals(node.getName())) {
+                    throw new IOException("broken node");
+                }
+                super.convert(node, writer);
+            }
+        };
+
+        BatchExportResult result = BatchExportJob.builder()
+                .nodes(List.of(node("1:1", "good"), node("1:2", "bad"), node("1:3", "fine")))
+                .converter(failing)
+                .toDirectory(tempDir)
+                .build()
+                .start().get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, result.getExportedCount());
+        assertEquals(Map.of("bad.json", "broken node"), result.getFailures());
+        assertFalse(Files.exists(tempDir.resolve("bad.json")));
+        assertTrue(Files.exists(tempDir.resolve("fine.json")));
+    }
+
+    @Test
+    @DisplayName("a failing re-export should keep the previously exported file")
+    void start_failingReexport_keepsPreviousFile() throws Exception {
+        JsonConverter failing = new JsonConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                writer.write("{\"partial\":");
+                writer.flush();
+                throw new IOException("broken node");
+            }
+        };
+        Files.writeString(tempDir.resolve("bad.json"), "previous");
+
+        BatchExportResult result = BatchExportJob.builder()
+                .nodes(List.of(node("1:1", "bad")))
+                .converter(failing)
+                .toDirectory(tempDir)
+                .build()
+                .start().get(10, TimeUnit.SECONDS);
+
+        assertEquals(Map.of("bad.json", "broken node"), result.getFailures());
+        assertEquals("previous", Files.readString(tempDir.resolve("bad.json")));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(tempDir.resolve("bad.json")), files.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("cancelling a ZIP export should stop the workers and delete the ZIP file")
+    void cancel_zipExport_deletesZipFile() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        JsonConverter endless = new JsonConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                started.countDown();
+                while (true) {
+                    writer.write("[0]");
+                    writer.flush();
+                }
+            }
+        };
+        Path zipFile = tempDir.resolve("cancelled.zip");
+        BatchExportJob job = BatchExportJob.builder()
+                .nodes(List.of(node("1:1", "a"), node("1:2", "b")))
+                .converter(endless)
+                .toZip(zipFile)
+                .build();
+
+        var future = job.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        job.cancel();
+        BatchExportResult result = future.get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.isCancelled());
+        assertEquals(0, result.getExportedCount());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("a job should reject empty selections and a second start")
+    void build_invalidJob_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> BatchExportJob.builder()
+                .converter(converter).toDirectory(tempDir).build());
+        assertThrows(IllegalArgumentException.class, () -> BatchExportJob.builder()
+                .nodes(List.of(node("1:1", "a"))).converter(converter).build());
+        BatchExportJob job = BatchExportJob.builder()
+                .nodes(List.of(node("1:1", "a"))).converter(converter).toDirectory(tempDir).build();
+        job.start().join();
+        assertThrows(IllegalStateException.class, job::start);
+    }
+
+    @Test
+    @DisplayName("incremental export should only rewrite changed nodes and delete files of renamed ones")
+    void start_incremental_rewritesChangedNodesOnly() throws Exception {
+        Path out = tempDir.resolve("out");
+        Node unchanged = node("1:1", "Home");
+        Node changed = node("1:2", "Settings");
+        Node renamed = node("1:3", "Legacy");
+        BatchExportResult first = incrementalExport(out, converter, unchanged, changed, renamed);
+        assertEquals(3, first.getExportedCount());
+        assertTrue(first.getSkipped().isEmpty());
+        String manifest = Files.readString(out.resolve(ExportManifest.FILE_NAME));
+        Files.writeString(out.resolve("Home.json"), "kept");
+
+        changed.setOpacity(0.5);
+        renamed.setName("Archive");
+        List<ExportProgress> progress = new CopyOnWriteArrayList<>();
+        BatchExportResult second = BatchExportJob.builder()
+                .nodes(List.of(unchanged, changed, renamed, node("1:4", "About")))
+                .converter(converter)
+                .toDirectory(out)
+                .incremental(true)
+                .progressListener(progress::add)
+                .build()
+                .start().get(10, TimeUnit.SECONDS);
+
+        assertEquals(3, second.getExportedCount());
+        assertEquals(List.of("Home.json"), second.getSkipped());
+        assertEquals(List.of("Legacy.json"), second.getDeleted());
+        assertEquals(List.of(true, false, false, false), progress.stream().map(ExportProgress::isSkipped).toList());
+        assertEquals("kept", Files.readString(out.resolve("Home.json")));
+        assertEquals(converter.convert(changed), Files.readString(out.resolve("Settings.json")));
+        assertFalse(Files.exists(out.resolve("Legacy.json")));
+        assertTrue(Files.exists(out.resolve("Archive.json")));
+        assertTrue(Files.exists(out.resolve("About.json")));
+        assertNotEquals(manifest, Files.readString(out.resolve(ExportManifest.FILE_NAME)));
+        assertEquals(Set.of("1:1", "1:2", "1:3", "1:4"), ExportManifest.load(out).getEntries().keySet());
+    }
+
+    @Test
+    @DisplayName("incremental export of a smaller selection should keep the files of the other nodes")
+    void start_incrementalSubset_keepsOtherFiles() throws Exception {
+        Path out = tempDir.resolve("out");
+        Node a = node("1:1", "A");
+        Node b = node("1:2", "B");
+        incrementalExport(out, converter, a, b);
+
+        BatchExportResult result = incrementalExport(out, converter, a);
+
+        assertEquals(List.of("A.json"), result.getSkipped());
+        assertTrue(result.getDeleted().isEmpty());
+        assertEquals(converter.convert(b), Files.readString(out.resolve("B.json")));
+        assertEquals(Set.of("1:1", "1:2"), ExportManifest.load(out).getEntries().keySet());
+        // B is still known, so exporting it again is skipped
+        assertEquals(List.of("B.json"), incrementalExport(out, converter, b).getSkipped());
+    }
+
+    @Test
+    @DisplayName("incremental export should rewrite everything after the converter settings change")
+    void start_incrementalOtherProfile_rewritesAllNodes() throws Exception {
+        Path out = tempDir.resolve("out");
+        Node home = node("1:1", "Home");
+        incrementalExport(out, converter, home);
+        String manifest = Files.readString(out.resolve(ExportManifest.FILE_NAME));
+        assertEquals(1, incrementalExport(out, converter, home).getSkipped().size());
+        assertEquals(manifest, Files.readString(out.resolve(ExportManifest.FILE_NAME)));
+
+        JsonConverter compact = converter.withProfile(OutputProfile.COMPACT);
+        BatchExportResult result = incrementalExport(out, compact, home);
+
+        assertEquals(1, result.getExportedCount());
+        assertTrue(result.getSkipped().isEmpty());
+        assertEquals(compact.convert(home), Files.readString(out.resolve("Home.json")));
+    }
+
+    private static BatchExportResult incrementalExport(Path directory, FigmaConverter converter, Node... nodes)
+            throws Exception {
+        return BatchExportJob.builder()
+                .nodes(List.of(nodes))
+                .converter(converter)
+                .toDirectory(directory)
+                .incremental(true)
+                .build()
+                .start().get(10, TimeUnit.SECONDS);
+    }
+
+    private static Map<String, String> readZip(Path zipFile) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (InputStream in = Files.newInputStream(zipFile); ZipInputStream zip = new ZipInputStream(in)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    static Node node(String id, String name) {
+        Node node = new Node();
+        node.setId(id);
+        node.setName(name);
+        node.setType("FRAME");
+        return node;
+    }
+}
@@ -0,0 +1,202 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.JsonConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ExportJob.
+ */
+class ExportJobTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final JsonConverter converter = new JsonConverter();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("an export should replace the target with the converted node and leave no temporary file")
+    void start_existingTarget_replacedWithConvertedNode() throws Exception {
+        Node node = BatchExportJobTest.node("1:1", "Home");
+        Path target = tempDir.resolve("Home.json");
+        Files.writeString(target, "old");
+
+        long written = ExportJob.builder()
+                .node(node)
+                .converter(converter)
+                .toFile(target)
+                .build()
+                .start(executor).get(10, TimeUnit.SECONDS);
+
+        assertEquals(converter.convert(node), Files.readString(target));
+        assertEquals(Files.size(target), written);
+        assertEquals(List.of(target), list(tempDir));
+    }
+
+    @Test
+    @DisplayName("cancelling an export should delete the temporary file and keep the previous target")
+    void cancel_runningExport_keepsPreviousTarget() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        JsonConverter endless = new JsonConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                started.countDown();
+                while (true) {
+                    writer.write("[0]");
+                    writer.flush();
+                }
+            }
+        };
+        Path target = tempDir.resolve("Home.json");
+        Files.writeString(target, "old");
+        ExportJob job = ExportJob.builder()
+                .node(BatchExportJobTest.node("1:1", "Home"))
+                .converter(endless)
+                .toFile(target)
+                .build();
+
+        var future = job.start(executor);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        job.cancel();
+
+        assertThrows(CancellationException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+        assertTrue(job.isCancelled());
+        assertEquals("old", Files.readString(target));
+        assertEquals(List.of(target), list(tempDir));
+    }
+
+    @Test
+    @DisplayName("large exports should report the bytes written as they go")
+    void start_largeOutput_reportsProgress() throws Exception {
+        String chunk = "0".repeat(1024);
+        JsonConverter large = new JsonConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                for (int i = 0; i < 3 * 1024; i++) {
+                    writer.write(chunk);
+                }
+                writer.flush();
+            }
+        };
+        List<Long> progress = new CopyOnWriteArrayList<>();
+
+        long written = ExportJob.builder()
+                .node(BatchExportJobTest.node("1:1", "Home"))
+                .converter(large)
+                .toFile(tempDir.resolve("nested/Home.json"))
+                .progressListener(progress::add)
+                .build()
+                .start(executor).get(10, TimeUnit.SECONDS);
+
+        assertEquals(3L * 1024 * 1024, written);
+        assertTrue(progress.size() >= 2, "progress reports: " + progress);
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) - progress.get(i - 1) >= ExportJob.PROGRESS_INTERVAL_BYTES);
+        }
+        assertTrue(progress.get(progress.size() - 1) <= written);
+    }
+
+    @Test
+    @DisplayName("an export should write a speculated result and reject incomplete jobs")
+    void start_speculatedNode_writesSpeculatedResult() throws Exception {
+        Node node = BatchExportJobTest.node("1:1", "Home");
+        Path target = tempDir.resolve("Home.json");
+        try (SpeculativeConverter speculative = new SpeculativeConverter()) {
+            speculative.speculate(node, "v1", converter);
+            ExportJob job = ExportJob.builder()
+                    .node(node)
+                    .converter(converter)
+                    .toFile(target)
+                    .speculation(speculative, "v1")
+                    .build();
+
+            job.start(executor).get(10, TimeUnit.SECONDS);
+
+            assertEquals(converter.convert(node), Files.readString(target));
+            assertEquals(1, speculative.getHitCount());
+            assertThrows(IllegalStateException.class, () -> job.start(executor));
+        }
+        assertThrows(IllegalArgumentException.class, () -> ExportJob.builder()
+                .converter(converter).toFile(target).build());
+        assertThrows(IllegalArgumentException.class, () -> ExportJob.builder()
+                .node(node).converter(converter).build());
+    }
+
+    @Test
+    @DisplayName("cancelling an export waiting for a speculation should stop waiting right away")
+    void cancel_awaitingSpeculation_stopsWaiting() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JsonConverter blocking = new JsonConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.convert(node, writer);
+            }
+        };
+        Node node = BatchExportJobTest.node("1:1", "Home");
+        Path target = tempDir.resolve("Home.json");
+        Files.writeString(target, "old");
+        try (SpeculativeConverter speculative = new SpeculativeConverter()) {
+            speculative.speculate(node, "v1", blocking);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            ExportJob job = ExportJob.builder()
+                    .node(node)
+                    .converter(blocking)
+                    .toFile(target)
+                    .speculation(speculative, "v1")
+                    .build();
+
+            CountDownLatch running = new CountDownLatch(1);
+            var future = job.start(command -> executor.execute(() -> {
+                running.countDown();
+                command.run();
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            job.cancel();
+
+            assertThrows(CancellationException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertEquals("old", Files.readString(target));
+            assertEquals(List.of(target), list(tempDir));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}
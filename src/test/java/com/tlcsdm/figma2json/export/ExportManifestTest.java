@@ -0,0 +1,44 @@
+package com.tlcsdm.figma2json.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ExportManifest.
+ */
+class ExportManifestTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("a saved manifest should load with the same entries and stable bytes")
+    void save_manifest_roundTrips() throws Exception {
+        Map<String, ExportManifest.Entry> entries = new LinkedHashMap<>();
+        entries.put("2:1", new ExportManifest.Entry("b.json", "bb"));
+        entries.put("1:1", new ExportManifest.Entry("a.json", "aa"));
+        ExportManifest manifest = new ExportManifest("JSON:key", entries);
+
+        manifest.save(tempDir);
+        String saved = Files.readString(tempDir.resolve(ExportManifest.FILE_NAME));
+        ExportManifest loaded = ExportManifest.load(tempDir);
+        loaded.save(tempDir);
+
+        assertEquals("JSON:key", loaded.getOutputKey());
+        assertEquals(List.of("1:1", "2:1"), new ArrayList<>(loaded.getEntries().keySet()));
+        assertEquals(entries, loaded.getEntries());
+        assertEquals(saved, Files.readString(tempDir.resolve(ExportManifest.FILE_NAME)));
+        Files.writeString(tempDir.resolve(ExportManifest.FILE_NAME), "{broken");
+        assertTrue(ExportManifest.load(tempDir).getEntries().isEmpty());
+    }
+}
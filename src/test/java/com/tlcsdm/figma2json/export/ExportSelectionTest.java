@@ -0,0 +1,56 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ExportSelection.
+ */
+class ExportSelectionTest {
+
+    @Test
+    @DisplayName("topLevelFrames should only select frame-like children of the page")
+    void topLevelFrames_page_returnsFrames() {
+        Node page = node("CANVAS", "Page", node("FRAME", "Home"), node("TEXT", "Note"),
+                node("COMPONENT", "Button"), node("SECTION", "Flows"));
+
+        List<String> names = ExportSelection.topLevelFrames(page).stream().map(Node::getName).toList();
+
+        assertEquals(List.of("Home", "Button", "Flows"), names);
+        assertTrue(ExportSelection.topLevelFrames(node("CANVAS", "Empty")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("query should match name and type in document order without nested matches")
+    void query_nameAndType_returnsOutermostMatches() {
+        Node page = node("CANVAS", "Page",
+                node("FRAME", "Login Screen", node("FRAME", "Login Form"), node("TEXT", "login label")),
+                node("GROUP", "Wrapper", node("FRAME", "Settings"), node("FRAME", "LOGIN footer")));
+
+        assertEquals(List.of("Login Screen", "LOGIN footer"), names(ExportSelection.query(page, " login ", null)));
+        assertEquals(List.of("login label"), names(ExportSelection.query(page, "login", List.of("text"))));
+        assertEquals(List.of("Login Screen", "Settings", "LOGIN footer"),
+                names(ExportSelection.query(page, "", Arrays.asList("frame", " "))));
+    }
+
+    private static List<String> names(List<Node> nodes) {
+        return nodes.stream().map(Node::getName).toList();
+    }
+
+    private static Node node(String type, String name, Node... children) {
+        Node node = new Node();
+        node.setType(type);
+        node.setName(name);
+        if (children.length > 0) {
+            node.setChildren(new ArrayList<>(Arrays.asList(children)));
+        }
+        return node;
+    }
+}
@@ -0,0 +1,71 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.JsonConverter;
+import com.tlcsdm.figma2json.converter.NodeField;
+import com.tlcsdm.figma2json.converter.OutputProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares exporting a large tree with three JSON profiles one after the other
+ * with a fan-out export of the same profiles. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class FanOutExportBenchmarkTest {
+
+    private static final int DEPTH = 5;
+    private static final int FANOUT = 8;
+    private static final int ROUNDS = 5;
+
+    @Test
+    @DisplayName("fan-out export should cost close to one traversal per tree")
+    void export_threeProfiles_comparedWithSeparateConversions() throws IOException {
+        Node root = tree(DEPTH);
+        List<JsonConverter> converters = List.of(new JsonConverter(), new JsonConverter(OutputProfile.COMPACT),
+                new JsonConverter(OutputProfile.builder().prettyPrinting(false)
+                        .fields(NodeField.ID, NodeField.NAME, NodeField.TYPE, NodeField.CHILDREN).build()));
+
+        long separate = Long.MAX_VALUE;
+        long fanOut = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (JsonConverter converter : converters) {
+                converter.convert(root, Writer.nullWriter());
+            }
+            separate = Math.min(separate, System.nanoTime() - start);
+
+            FanOutExport export = new FanOutExport();
+            converters.forEach(converter -> export.add(converter, Writer.nullWriter()));
+            start = System.nanoTime();
+            export.export(root);
+            fanOut = Math.min(fanOut, System.nanoTime() - start);
+        }
+        System.out.printf("Export with %d profiles: separate conversions %d ms, fan-out %d ms%n",
+                converters.size(), separate / 1_000_000, fanOut / 1_000_000);
+    }
+
+    private static Node tree(int depth) {
+        Node node = new Node();
+        node.setId(depth + ":" + System.identityHashCode(node));
+        node.setName("Layer " + depth);
+        node.setType(depth > 0 ? "FRAME" : "RECTANGLE");
+        node.setOpacity(0.5);
+        node.setFills(List.of(Map.of("type", "SOLID")));
+        if (depth > 0) {
+            List<Node> children = new ArrayList<>();
+            for (int i = 0; i < FANOUT; i++) {
+                children.add(tree(depth - 1));
+            }
+            node.setChildren(children);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,127 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.FigmaConverter;
+import com.tlcsdm.figma2json.converter.JsonConverter;
+import com.tlcsdm.figma2json.converter.OutputProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for FanOutExport.
+ */
+class FanOutExportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("export should write every target with the output of its converter")
+    void export_severalTargets_matchesConverters() throws IOException {
+        Node root = tree();
+        JsonConverter pretty = new JsonConverter();
+        JsonConverter compact = new JsonConverter(OutputProfile.COMPACT);
+        FigmaConverter names = new NameListConverter();
+        StringWriter nameWriter = new StringWriter();
+
+        new FanOutExport()
+                .add(pretty, tempDir.resolve("pretty.json"))
+                .add(compact, tempDir.resolve("compact.json"))
+                .add(names, nameWriter)
+                .export(root);
+
+        assertEquals(pretty.convert(root), Files.readString(tempDir.resolve("pretty.json")));
+        assertEquals(compact.convert(root), Files.readString(tempDir.resolve("compact.json")));
+        assertEquals("Frame,Child", nameWriter.toString());
+    }
+
+    @Test
+    @DisplayName("a failing target should delete the files of the export")
+    void export_failingConverter_deletesFiles() {
+        FigmaConverter failing = new NameListConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        FanOutExport export = new FanOutExport()
+                .add(new JsonConverter(), tempDir.resolve("a.json"))
+                .add(failing, tempDir.resolve("b.txt"));
+
+        assertThrows(IOException.class, () -> export.export(tree()));
+        assertFalse(Files.exists(tempDir.resolve("a.json")));
+        assertFalse(Files.exists(tempDir.resolve("b.txt")));
+    }
+
+    @Test
+    @DisplayName("a failing target should keep files that existed before the export")
+    void export_failingConverter_keepsExistingFiles() throws IOException {
+        FigmaConverter failing = new NameListConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        Files.writeString(tempDir.resolve("a.json"), "previous");
+        FanOutExport export = new FanOutExport()
+                .add(new JsonConverter(), tempDir.resolve("a.json"))
+                .add(failing, tempDir.resolve("b.txt"));
+
+        assertThrows(IOException.class, () -> export.export(tree()));
+        assertEquals("previous", Files.readString(tempDir.resolve("a.json")));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(tempDir.resolve("a.json")), files.toList());
+        }
+    }
+
+    private static Node tree() {
+        Node child = new Node();
+        child.setId("1:2");
+        child.setName("Child");
+        Node root = new Node();
+        root.setId("1:1");
+        root.setName("Frame");
+        root.setChildren(List.of(child));
+        return root;
+    }
+
+    /**
+     * Converter without a streaming sink, writing the names of the root and its children.
+     */
+    private static class NameListConverter implements FigmaConverter {
+        @Override
+        public String getFormat() {
+            return "NAMES";
+        }
+
+        @Override
+        public void convert(Node node, Writer writer) throws IOException {
+            writer.write(node.getName());
+            for (Node child : node.getChildren()) {
+                writer.write("," + child.getName());
+            }
+            writer.flush();
+        }
+
+        @Override
+        public String convertRawJson(String rawJson) {
+            return rawJson;
+        }
+
+        @Override
+        public String getFileExtension() {
+            return "txt";
+        }
+    }
+}
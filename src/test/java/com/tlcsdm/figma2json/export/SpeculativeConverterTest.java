@@ -0,0 +1,126 @@
+package com.tlcsdm.figma2json.export;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.FigmaConverter;
+import com.tlcsdm.figma2json.converter.JsonConverter;
+import com.tlcsdm.figma2json.converter.OutputProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for SpeculativeConverter.
+ */
+class SpeculativeConverterTest {
+
+    private final JsonConverter converter = new JsonConverter();
+
+    @Test
+    @DisplayName("a speculated node should be exported from memory with the same content")
+    void convert_speculatedNode_servedFromMemory() throws Exception {
+        Node node = BatchExportJobTest.node("1:1", "Home");
+        try (SpeculativeConverter speculative = new SpeculativeConverter()) {
+            speculative.speculate(node, "v1", converter);
+
+            assertTrue(convert(speculative, node, "v1", converter).fromSpeculation);
+            Result again = convert(speculative, node, "v1", converter);
+            assertTrue(again.fromSpeculation);
+            assertEquals(converter.convert(node), again.content);
+            assertEquals(2, speculative.getHitCount());
+
+            Result otherVersion = convert(speculative, node, "v2", converter);
+            Result otherProfile = convert(speculative, node, "v1", new JsonConverter(OutputProfile.COMPACT));
+            assertFalse(otherVersion.fromSpeculation);
+            assertFalse(otherProfile.fromSpeculation);
+            assertEquals(new JsonConverter(OutputProfile.COMPACT).convert(node), otherProfile.content);
+            assertEquals(2, speculative.getMissCount());
+            assertEquals(1, speculative.getResultCount());
+        }
+    }
+
+    @Test
+    @DisplayName("moving the selection on should cancel the running speculation")
+    void speculate_otherNode_cancelsRunningConversion() throws Exception {
+        Node slow = BatchExportJobTest.node("1:1", "Slow");
+        Node next = BatchExportJobTest.node("1:2", "Next");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FigmaConverter blocking = new JsonConverter() {
+            @Override
+            public void convert(Node node, Writer writer) throws IOException {
+                if (node == slow) {
+                    started.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.convert(node, writer);
+            }
+        };
+        try (SpeculativeConverter speculative = new SpeculativeConverter()) {
+            speculative.speculate(slow, "v1", blocking);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            speculative.speculate(next, "v1", blocking);
+            release.countDown();
+
+            // The next speculation only runs once the cancelled one has stopped
+            assertTrue(convert(speculative, next, "v1", blocking).fromSpeculation);
+            assertEquals(1, speculative.getResultCount());
+            Result cancelled = convert(speculative, slow, "v1", blocking);
+            assertFalse(cancelled.fromSpeculation);
+            assertEquals(converter.convert(slow), cancelled.content);
+        }
+    }
+
+    @Test
+    @DisplayName("kept results should be evicted least recently used first and never exceed the budget")
+    void speculate_overBudget_evictsLeastRecentlyUsed() throws Exception {
+        Node first = BatchExportJobTest.node("1:1", "First");
+        Node second = BatchExportJobTest.node("1:2", "Second");
+        Node third = BatchExportJobTest.node("1:3", "Third");
+        long size = converter.convert(first).getBytes(StandardCharsets.UTF_8).length;
+        try (SpeculativeConverter speculative = new SpeculativeConverter(2 * size + 1)) {
+            for (Node node : new Node[]{first, second}) {
+                speculative.speculate(node, "v1", converter);
+                convert(speculative, node, "v1", converter);
+            }
+            convert(speculative, first, "v1", converter);
+            speculative.speculate(third, "v1", converter);
+            convert(speculative, third, "v1", converter);
+
+            assertEquals(2, speculative.getResultCount());
+            assertTrue(speculative.getResultBytes() <= 2 * size + 1);
+            assertTrue(convert(speculative, first, "v1", converter).fromSpeculation);
+            assertFalse(convert(speculative, second, "v1", converter).fromSpeculation);
+        }
+        try (SpeculativeConverter tiny = new SpeculativeConverter(size / 2)) {
+            tiny.speculate(first, "v1", converter);
+
+            Result tooLarge = convert(tiny, first, "v1", converter);
+            assertFalse(tooLarge.fromSpeculation);
+            assertEquals(converter.convert(first), tooLarge.content);
+            assertEquals(0, tiny.getResultCount());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SpeculativeConverter(-1));
+    }
+
+    private static Result convert(SpeculativeConverter speculative, Node node, String version,
+                                  FigmaConverter converter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean fromSpeculation = speculative.convert(node, version, converter, out);
+        return new Result(out.toString(StandardCharsets.UTF_8), fromSpeculation);
+    }
+
+    private record Result(String content, boolean fromSpeculation) {
+    }
+}
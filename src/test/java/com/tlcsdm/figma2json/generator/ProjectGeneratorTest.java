@@ -0,0 +1,54 @@
+package com.tlcsdm.figma2json.generator;
+
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.ConverterFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the default methods of ProjectGenerator.
+ */
+class ProjectGeneratorTest {
+
+    @Test
+    @DisplayName("generators that only read JSON should receive the node converted with the default converter")
+    void generate_node_convertsForJsonOnlyGenerator() throws Exception {
+        List<String> received = new ArrayList<>();
+        ProjectGenerator generator = new ProjectGenerator() {
+            @Override
+            public String getName() {
+                return "test";
+            }
+
+            @Override
+            public String getDescription() {
+                return "Test generator";
+            }
+
+            @Override
+            public void generate(String jsonData, Path outputPath) {
+                received.add(jsonData);
+            }
+
+            @Override
+            public boolean canGenerate(String jsonData) {
+                return true;
+            }
+        };
+        Node node = new Node();
+        node.setId("1:1");
+        node.setName("Screen");
+
+        generator.generate(node, Path.of("unused"));
+
+        assertEquals(List.of(ConverterFactory.getDefaultConverter().convert(node)), received);
+        assertTrue(generator.canGenerate(node));
+        assertFalse(generator.canGenerate((Node) null));
+    }
+}
@@ -1,5 +1,7 @@
 package com.tlcsdm.figma2json.generator;
 
+import com.tlcsdm.figma2json.api.Node;
+import com.tlcsdm.figma2json.converter.ConverterFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -7,6 +9,9 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,6 +60,22 @@ class TouchGfxGeneratorTest {
         assertFalse(generator.canGenerate(invalidJson));
     }
 
+    @Test
+    @DisplayName("canGenerate should accept deeply nested JSON and reject trailing content")
+    void canGenerate_deeplyNestedJson_returnsTrue() {
+        String deepJson = "{\"children\":[".repeat(20_000) + "]}".repeat(20_000);
+        assertTrue(generator.canGenerate(deepJson));
+        assertFalse(generator.canGenerate(deepJson + "]"));
+    }
+
+    @Test
+    @DisplayName("canGenerate should accept empty input, which parses as JSON null")
+    void canGenerate_emptyInput_returnsTrue() {
+        assertTrue(generator.canGenerate(""));
+        assertTrue(generator.canGenerate("  \n"));
+        assertFalse(generator.canGenerate((String) null));
+    }
+
     @Test
     @DisplayName("canGenerate should return true for complex JSON")
     void canGenerate_complexJson_returnsTrue() {
@@ -95,6 +116,17 @@ class TouchGfxGeneratorTest {
         assertTrue(Files.exists(outputPath.resolve("gui/screens")));
     }
 
+    @Test
+    @DisplayName("generate should reject JSON that is not an object")
+    void generate_nonObjectJson_throwsException() {
+        Path outputPath = tempDir.resolve("test-project");
+
+        assertThrows(IllegalStateException.class, () -> generator.generate("[{\"id\":\"1\"}]", outputPath));
+        assertThrows(IllegalStateException.class, () -> generator.generate("42", outputPath));
+        assertThrows(IllegalStateException.class, () -> generator.generate("", outputPath));
+        assertFalse(Files.exists(outputPath.resolve("gui/screens/main_screen.json")));
+    }
+
     @Test
     @DisplayName("generate should create project.json config file")
     void generate_validJson_createsProjectConfig() throws Exception {
@@ -170,4 +202,41 @@ class TouchGfxGeneratorTest {
         assertDoesNotThrow(() -> generator.generate(jsonData, outputPath));
         assertTrue(Files.exists(outputPath.resolve("gui/screens/main_screen.json")));
     }
+
+    @Test
+    @DisplayName("generating from a node should write the same project as generating from its JSON")
+    void generate_node_matchesJsonGeneration() throws Exception {
+        Node root = node("1:1", "Main Screen");
+        root.setOpacity(0.5);
+        root.setConstraints(Map.of("vertical", "TOP"));
+        Node child = node("1:2", null);
+        child.setCornerRadius(4.0);
+        root.setChildren(new ArrayList<>(List.of(child, node("1:3", "Label"))));
+        Path fromJson = tempDir.resolve("from-json");
+        Path fromNode = tempDir.resolve("from-node");
+
+        generator.generate(ConverterFactory.getDefaultConverter().convert(root), fromJson);
+        generator.generate(root, fromNode);
+
+        for (String file : List.of("gui/screens/main_screen.json", "config/project.json", "README.md")) {
+            assertEquals(Files.readString(fromJson.resolve(file)), Files.readString(fromNode.resolve(file)), file);
+        }
+        assertFalse(Files.readString(fromNode.resolve("gui/screens/main_screen.json")).contains("null"));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate((Node) null, fromNode));
+    }
+
+    @Test
+    @DisplayName("canGenerate should accept any node without converting it")
+    void canGenerate_node_acceptsNonNullNodes() {
+        assertTrue(generator.canGenerate(node("1:1", "Test")));
+        assertFalse(generator.canGenerate((Node) null));
+    }
+
+    private static Node node(String id, String name) {
+        Node node = new Node();
+        node.setId(id);
+        node.setName(name);
+        node.setType("FRAME");
+        return node;
+    }
 }
@@ -0,0 +1,134 @@
+package com.tlcsdm.figma2json.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CacheIndex.
+ */
+class CacheIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("addStats should keep running totals across put and remove")
+    void addStats_afterPutAndRemove_reportsTotals() {
+        CacheIndex index = new CacheIndex();
+        index.put(entry("a", 100, 1));
+        index.put(new CacheIndex.Entry("b", null, 40, 120, 2, 0, true));
+        index.put(entry("c", 10, 3));
+        index.remove("c");
+
+        Map<String, Object> stats = new HashMap<>();
+        index.addStats(stats);
+
+        assertEquals(2L, stats.get("fileCount"));
+        assertEquals(140L, stats.get("totalSizeBytes"));
+        assertEquals(220L, stats.get("rawSizeBytes"));
+        assertEquals(1L, stats.get("compressedFileCount"));
+        assertEquals(40L, stats.get("compressedSizeBytes"));
+    }
+
+    @Test
+    @DisplayName("selectVictims should pick expired entries and then the oldest over the limit")
+    void selectVictims_expiredAndOverSize_returnsOldestFirst() {
+        CacheIndex index = new CacheIndex();
+        index.put(entry("a", 100, 1));
+        index.put(entry("b", 100, 5));
+        index.put(entry("c", 100, 10));
+        index.put(entry("d", 100, 20));
+
+        assertEquals(List.of("a"), keys(index.selectVictims(2, 0)));
+        assertEquals(List.of("a", "b"), keys(index.selectVictims(Long.MIN_VALUE, 250)));
+        assertEquals(List.of("a", "b", "c"), keys(index.selectVictims(Long.MIN_VALUE, 50)));
+    }
+
+    @Test
+    @DisplayName("persist and load should round trip all entries")
+    void persist_thenLoad_restoresEntries() throws IOException {
+        Path path = tempDir.resolve("index.f2ji");
+        CacheIndex index = new CacheIndex();
+        CacheIndex.Entry entry = new CacheIndex.Entry("key", "42", 100, 300, 7, 0xCAFEBABE, true);
+        index.put(entry);
+        index.put(entry("other", 10, 8));
+
+        assertTrue(index.persist(path));
+        assertFalse(index.persist(path));
+
+        CacheIndex loaded = new CacheIndex();
+        loaded.load(path);
+        assertEquals(entry, loaded.get("key"));
+        assertEquals(110, loaded.getTotalSizeBytes());
+        assertFalse(loaded.persist(path));
+    }
+
+    @Test
+    @DisplayName("concurrent persists should leave the latest entries on disk")
+    void persist_concurrentCallers_writesLatestState() throws Exception {
+        Path path = tempDir.resolve("index.f2ji");
+        CacheIndex index = new CacheIndex();
+        int writers = 4;
+        int rounds = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < rounds; round++) {
+                        index.put(entry("key-" + writer + "-" + round, 1, round));
+                        index.persist(path);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CacheIndex loaded = new CacheIndex();
+        loaded.load(path);
+        assertEquals(writers * rounds, loaded.size());
+        assertFalse(Files.exists(tempDir.resolve("index.f2ji.tmp")));
+    }
+
+    @Test
+    @DisplayName("load should reject files that are not an index")
+    void load_invalidFile_throwsIOException() throws IOException {
+        Path path = tempDir.resolve("index.f2ji");
+        Files.write(path, new byte[]{'J', 'U', 'N', 'K', 0, 0, 0, 1});
+
+        assertThrows(IOException.class, () -> new CacheIndex().load(path));
+    }
+
+    private static CacheIndex.Entry entry(String key, long size, long lastAccess) {
+        return new CacheIndex.Entry(key, null, size, size, lastAccess, 0, false);
+    }
+
+    private static List<String> keys(List<CacheIndex.Entry> entries) {
+        return entries.stream().map(CacheIndex.Entry::key).toList();
+    }
+}
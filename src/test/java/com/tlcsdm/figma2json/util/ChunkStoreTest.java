@@ -0,0 +1,207 @@
+package com.tlcsdm.figma2json.util;
+
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ChunkStore.
+ */
+class ChunkStoreTest {
+
+    private static final String KEY = "chunked-file";
+
+    @TempDir
+    Path tempDir;
+
+    private ChunkStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ChunkStore(tempDir);
+    }
+
+    @Test
+    @DisplayName("save should write one chunk per page and round trip the file")
+    void save_newFile_writesChunkPerPage() throws IOException {
+        ChunkStore.SaveResult result = store.save(KEY, createFile("v1", 3, 5));
+
+        assertEquals(3, result.written());
+        assertEquals(0, result.reused());
+        FigmaFile loaded = store.open(KEY).readFile();
+        assertEquals("v1", loaded.getVersion());
+        assertEquals(3, loaded.getDocument().getChildren().size());
+        assertEquals("page-2-layer-4", loaded.getDocument().getChildren().get(2).getChildren().get(4).getId());
+    }
+
+    @Test
+    @DisplayName("save should only write the pages that changed since the previous version")
+    void save_changedPage_writesOnlyChangedChunk() throws IOException {
+        store.save(KEY, createFile("v1", 3, 5));
+        FigmaFile updated = createFile("v2", 3, 5);
+        updated.getDocument().getChildren().get(1).getChildren().get(0).setName("Renamed");
+
+        ChunkStore.SaveResult result = store.save(KEY, updated);
+
+        assertEquals(1, result.written());
+        assertEquals(2, result.reused());
+        assertEquals(4, countChunks());
+        assertEquals("Renamed", store.open(KEY).readNode("page-1-layer-0").getName());
+        assertEquals("Layer 0", store.open(KEY, "v1").readNode("page-1-layer-0").getName());
+    }
+
+    @Test
+    @DisplayName("listVersions should return the newest version first and prune old versions")
+    void listVersions_moreThanKept_prunesOldest() throws IOException, InterruptedException {
+        store.setVersionsToKeep(2);
+        for (int v = 1; v <= 3; v++) {
+            store.save(KEY, createFile("v" + v, 1, 1));
+            // Versions are ordered by save time
+            Thread.sleep(5);
+        }
+
+        List<ChunkStore.ManifestInfo> versions = store.listVersions(KEY);
+
+        assertEquals(List.of("v3", "v2"), versions.stream().map(ChunkStore.ManifestInfo::version).toList());
+        assertNull(store.open(KEY, "v1"));
+    }
+
+    @Test
+    @DisplayName("collectGarbage should delete chunks no version references")
+    void collectGarbage_removedVersions_deletesOrphanedChunks() throws IOException {
+        store.save(KEY, createFile("v1", 2, 3));
+        store.save("other-file", createFile("v1", 2, 3));
+        store.remove(KEY);
+        FigmaFile changed = createFile("v2", 2, 3);
+        changed.getDocument().getChildren().get(0).setName("Changed");
+        store.save("other-file", changed);
+        store.setVersionsToKeep(1);
+        store.save("other-file", changed);
+        assertEquals(3, countChunks());
+
+        ChunkStore.GcResult result = store.collectGarbage();
+
+        assertEquals(1, result.removedChunks());
+        assertEquals(2, countChunks());
+        assertNotNull(store.open("other-file").readPage(0));
+        Map<String, Object> stats = new HashMap<>();
+        store.addStats(stats);
+        assertEquals(2L, stats.get("chunkCount"));
+    }
+
+    @Test
+    @DisplayName("an open handle should stay readable after its version is pruned and collected")
+    void collectGarbage_openHandle_keepsItsChunks() throws IOException {
+        store.setVersionsToKeep(1);
+        store.save(KEY, createFile("v1", 2, 3));
+        ChunkStore.ChunkedSource opened = store.open(KEY);
+        FigmaFile changed = createFile("v2", 2, 3);
+        changed.getDocument().getChildren().get(1).setName("Changed");
+        store.save(KEY, changed);
+        assertNull(store.open(KEY, "v1"));
+
+        ChunkStore.GcResult result = store.collectGarbage();
+
+        assertEquals(0, result.removedChunks());
+        assertEquals("Page 1", opened.readPage(1).getName());
+        assertEquals("Changed", store.open(KEY).readPage(1).getName());
+    }
+
+    @Test
+    @DisplayName("save should split large pages into one chunk per top-level frame")
+    void save_largePage_splitsIntoFrameChunks() throws IOException {
+        int framesPerPage = 4;
+        int childrenPerFrame = ChunkStore.LARGE_PAGE_NODE_COUNT / framesPerPage;
+        FigmaFile file = createFile("v1", 1, framesPerPage);
+        for (Node frame : file.getDocument().getChildren().get(0).getChildren()) {
+            List<Node> children = new ArrayList<>();
+            for (int i = 0; i < childrenPerFrame; i++) {
+                Node child = new Node();
+                child.setId(frame.getId() + "-" + i);
+                child.setType("RECTANGLE");
+                children.add(child);
+            }
+            frame.setChildren(children);
+        }
+        store.save(KEY, file);
+        file.getDocument().getChildren().get(0).getChildren().get(3).getChildren().get(0).setName("Edited");
+
+        ChunkStore.SaveResult result = store.save(KEY, file);
+
+        assertEquals(1, result.written());
+        assertEquals(framesPerPage, result.reused());
+        ChunkStore.ChunkedSource source = store.open(KEY);
+        Node page = source.readPage(0);
+        assertEquals("page-0", page.getId());
+        assertEquals(framesPerPage, page.getChildren().size());
+        assertEquals("Edited", source.readNode("page-0-layer-3-0").getName());
+        assertEquals(framesPerPage, source.readNode("page-0").getChildren().size());
+    }
+
+    @Test
+    @DisplayName("readPage should reject a chunk whose contents do not match its hash")
+    void readPage_corruptChunk_throwsIOException() throws IOException {
+        store.save(KEY, createFile("v1", 1, 2));
+        Path chunk;
+        try (Stream<Path> files = Files.walk(tempDir.resolve("objects"))) {
+            chunk = files.filter(Files::isRegularFile).findFirst().orElseThrow();
+        }
+        byte[] data = Files.readAllBytes(chunk);
+        data[data.length - 1] ^= 1;
+        Files.write(chunk, data);
+
+        ChunkStore.ChunkedSource source = store.open(KEY);
+
+        assertThrows(IOException.class, () -> source.readPage(0));
+    }
+
+    private long countChunks() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir.resolve("objects"))) {
+            return files.filter(path -> path.toString().endsWith(".f2jc")).count();
+        }
+    }
+
+    private FigmaFile createFile(String version, int pageCount, int layersPerPage) {
+        FigmaFile file = new FigmaFile();
+        file.setName("Chunked File");
+        file.setVersion(version);
+        Document document = new Document();
+        document.setId("0:0");
+        document.setType("DOCUMENT");
+        List<Node> pages = new ArrayList<>();
+        for (int p = 0; p < pageCount; p++) {
+            Node page = new Node();
+            page.setId("page-" + p);
+            page.setName("Page " + p);
+            page.setType("CANVAS");
+            List<Node> layers = new ArrayList<>();
+            for (int l = 0; l < layersPerPage; l++) {
+                Node layer = new Node();
+                layer.setId("page-" + p + "-layer-" + l);
+                layer.setName("Layer " + l);
+                layer.setType("FRAME");
+                layers.add(layer);
+            }
+            page.setChildren(layers);
+            pages.add(page);
+        }
+        document.setChildren(pages);
+        file.setDocument(document);
+        return file;
+    }
+}
@@ -1,5 +1,6 @@
 package com.tlcsdm.figma2json.util;
 
+import com.tlcsdm.figma2json.api.BoundingBox;
 import com.tlcsdm.figma2json.api.Document;
 import com.tlcsdm.figma2json.api.FigmaFile;
 import com.tlcsdm.figma2json.api.Node;
@@ -7,13 +8,21 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +34,9 @@ class FigmaFileCacheTest {
     private FigmaFileCache cache;
     private static final String TEST_FILE_KEY = "test-file-key-123";
 
+    @TempDir
+    Path tempDir;
+
     @BeforeEach
     void setUp() {
         cache = new FigmaFileCache();
@@ -34,6 +46,8 @@ class FigmaFileCacheTest {
 
     @AfterEach
     void tearDown() {
+        // Let background compression finish so it cannot recreate files of later tests
+        cache.awaitBackgroundTasks();
         // Clean up test cache
         cache.clearCachedFile(TEST_FILE_KEY);
     }
@@ -161,6 +175,668 @@ class FigmaFileCacheTest {
                      loadedFile.getDocument().getChildren().size());
     }
 
+    @Test
+    @DisplayName("binary cache should round-trip all node properties")
+    void binaryCache_detailedNode_roundTripsProperties() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        FigmaFile originalFile = createTestFigmaFile();
+        Node layer = originalFile.getDocument().getChildren().get(0).getChildren().get(0);
+        populateDetails(layer);
+
+        tempCache.saveCachedFile(TEST_FILE_KEY, originalFile);
+        FigmaFile loadedFile = tempCache.loadCachedFile(TEST_FILE_KEY);
+
+        assertTrue(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jc")));
+        Node loaded = loadedFile.getDocument().getChildren().get(0).getChildren().get(0);
+        assertEquals("layer-1", loaded.getId());
+        assertEquals(Boolean.TRUE, loaded.getVisible());
+        assertEquals(10.5, loaded.getAbsoluteBoundingBox().getX());
+        assertEquals(-20.0, loaded.getAbsoluteBoundingBox().getY());
+        assertEquals(2.0, loaded.getStrokeWeight());
+        assertEquals(0.75, loaded.getOpacity());
+        assertEquals("NORMAL", loaded.getBlendMode());
+        assertEquals(layer.getFills(), loaded.getFills());
+        assertEquals(layer.getConstraints(), loaded.getConstraints());
+        assertEquals(layer.getStyles(), loaded.getStyles());
+        assertNull(loaded.getStrokes());
+        assertEquals(1, loaded.getChildren().size());
+        assertEquals("child-1", loaded.getChildren().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("binary cache should be smaller than the JSON cache")
+    void binaryCache_largeDocument_smallerThanJson() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        FigmaFile file = createTestFigmaFile();
+        Node page = file.getDocument().getChildren().get(0);
+        for (int i = 0; i < 200; i++) {
+            Node layer = new Node();
+            layer.setId("layer-" + i);
+            layer.setName("Layer");
+            layer.setType("RECTANGLE");
+            populateDetails(layer);
+            page.getChildren().add(layer);
+        }
+
+        tempCache.setBinaryFormat(false);
+        tempCache.saveCachedFile("json-key", file);
+        tempCache.setBinaryFormat(true);
+        tempCache.saveCachedFile("binary-key", file);
+
+        long jsonSize = Files.size(tempDir.resolve("json-key.json"));
+        long binarySize = Files.size(tempDir.resolve("binary-key.f2jc"));
+        assertTrue(binarySize * 3 < jsonSize, "binary " + binarySize + " vs json " + jsonSize);
+    }
+
+    @Test
+    @DisplayName("loadCachedFile should fall back to a JSON cache file")
+    void loadCachedFile_jsonOnly_loadsFromJson() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.setBinaryFormat(false);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createTestFigmaFile());
+
+        FigmaFile loadedFile = newUncompressedCache().loadCachedFile(TEST_FILE_KEY);
+
+        assertNotNull(loadedFile);
+        assertEquals("Test Figma File", loadedFile.getName());
+    }
+
+    @Test
+    @DisplayName("loadCachedFile should treat a corrupt binary file as a cache miss")
+    void loadCachedFile_corruptBinary_returnsNull() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        Files.write(tempDir.resolve(TEST_FILE_KEY + ".f2jc"), new byte[]{'F', '2', 'J', 'C', 99});
+
+        assertTrue(tempCache.hasCachedFile(TEST_FILE_KEY));
+        assertNull(tempCache.loadCachedFile(TEST_FILE_KEY));
+    }
+
+    @Test
+    @DisplayName("a binary file with a damaged header should be a cache miss, not a huge allocation")
+    void loadCachedFile_corruptHeaderCounts_returnsNull() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+        Path binary = tempDir.resolve(TEST_FILE_KEY + ".f2jc");
+        for (int field : new int[]{CacheFormat.HEADER_STRING_COUNT, CacheFormat.HEADER_NODE_COUNT}) {
+            for (int value : new int[]{-1, Integer.MAX_VALUE}) {
+                byte[] data = Files.readAllBytes(binary);
+                ByteBuffer.wrap(data).putInt(field, value);
+                FigmaFileCache reopened = newUncompressedCache();
+                Path damaged = tempDir.resolve("damaged.f2jc");
+                Files.write(damaged, data);
+
+                assertNull(reopened.loadCachedFile("damaged"));
+                assertNull(reopened.openCachedFile("damaged"));
+                Files.deleteIfExists(damaged);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a JSON cache file that cannot be parsed should be evicted instead of failing the load")
+    void loadCachedFile_corruptJson_evictsEntry() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        Files.writeString(tempDir.resolve(TEST_FILE_KEY + ".json"), "{\"name\": [unterminated");
+
+        assertTrue(tempCache.hasCachedFile(TEST_FILE_KEY));
+        assertNull(tempCache.loadCachedFile(TEST_FILE_KEY));
+        assertFalse(tempCache.hasCachedFile(TEST_FILE_KEY));
+    }
+
+    @Test
+    @DisplayName("openCachedFile should expose pages without decoding their contents")
+    void openCachedFile_binaryCache_returnsPageStubs() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(3));
+
+        CachedFigmaFile cachedFile = tempCache.openCachedFile(TEST_FILE_KEY);
+
+        assertNotNull(cachedFile);
+        assertEquals("1.0", cachedFile.getVersion());
+        assertEquals(3, cachedFile.getPageCount());
+        Node stub = cachedFile.getPages().get(1);
+        assertEquals("page-1", stub.getId());
+        assertEquals("Page 1", stub.getName());
+        assertNull(stub.getChildren());
+
+        Node page = cachedFile.loadPage(1);
+        assertEquals(5, page.getChildren().size());
+        assertEquals("page-1-layer-4", page.getChildren().get(4).getId());
+        assertEquals("page-1", cachedFile.loadPage("page-1").getId());
+    }
+
+    @Test
+    @DisplayName("openCachedFile should load any node by id")
+    void openCachedFile_binaryCache_loadsNodeById() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(4));
+
+        CachedFigmaFile cachedFile = tempCache.openCachedFile(TEST_FILE_KEY);
+
+        Node layer = cachedFile.loadNode("page-2-layer-3");
+        assertNotNull(layer);
+        assertEquals("Layer 3", layer.getName());
+        assertEquals("page-2-layer-3-child", layer.getChildren().get(0).getId());
+        assertNull(cachedFile.loadNode("missing"));
+    }
+
+    @Test
+    @DisplayName("openCachedFile should serve JSON cache entries from memory")
+    void openCachedFile_jsonCache_loadsPages() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.setBinaryFormat(false);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+
+        CachedFigmaFile cachedFile = tempCache.openCachedFile(TEST_FILE_KEY);
+
+        assertEquals(2, cachedFile.getPageCount());
+        assertEquals("page-1-layer-2", cachedFile.loadNode("page-1-layer-2").getId());
+    }
+
+    private FigmaFile createMultiPageFigmaFile(int pageCount) {
+        FigmaFile file = createTestFigmaFile();
+        List<Node> pages = new ArrayList<>();
+        for (int p = 0; p < pageCount; p++) {
+            Node page = new Node();
+            page.setId("page-" + p);
+            page.setName("Page " + p);
+            page.setType("CANVAS");
+            List<Node> layers = new ArrayList<>();
+            for (int l = 0; l < 5; l++) {
+                Node layer = new Node();
+                layer.setId("page-" + p + "-layer-" + l);
+                layer.setName("Layer " + l);
+                layer.setType("FRAME");
+                Node child = new Node();
+                child.setId(layer.getId() + "-child");
+                child.setType("TEXT");
+                layer.setChildren(new ArrayList<>(List.of(child)));
+                layers.add(layer);
+            }
+            page.setChildren(layers);
+            pages.add(page);
+        }
+        file.getDocument().setChildren(pages);
+        return file;
+    }
+
+    @Test
+    @DisplayName("compressCachedFile should replace the binary file and stay loadable")
+    void compressCachedFile_binaryCache_loadsCompressedEntry() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(3));
+        tempCache.setCompressionLevel(Deflater.BEST_COMPRESSION);
+
+        tempCache.compressCachedFile(TEST_FILE_KEY);
+
+        assertFalse(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jc")));
+        assertTrue(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jz")));
+        assertTrue(tempCache.hasCachedFile(TEST_FILE_KEY));
+        CachedFigmaFile cachedFile = tempCache.openCachedFile(TEST_FILE_KEY);
+        assertEquals(3, cachedFile.getPageCount());
+        assertEquals("page-2-layer-1", cachedFile.loadNode("page-2-layer-1").getId());
+    }
+
+    @Test
+    @DisplayName("saveCachedFile should keep binary entries uncompressed by default")
+    void saveCachedFile_defaultLevel_keepsMappableFile() {
+        FigmaFileCache tempCache = new FigmaFileCache(tempDir);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+
+        tempCache.awaitBackgroundTasks();
+
+        assertEquals(Deflater.NO_COMPRESSION, tempCache.getCompressionLevel());
+        assertTrue(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jc")));
+        assertFalse(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jz")));
+    }
+
+    @Test
+    @DisplayName("saveCachedFile should compress entries in the background")
+    void saveCachedFile_compressionEnabled_compressesInBackground() {
+        FigmaFileCache tempCache = new FigmaFileCache(tempDir);
+        tempCache.setCompressionLevel(Deflater.DEFAULT_COMPRESSION);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+
+        tempCache.awaitBackgroundTasks();
+
+        assertTrue(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jz")));
+        assertEquals("Test Figma File", tempCache.loadCachedFile(TEST_FILE_KEY).getName());
+    }
+
+    @Test
+    @DisplayName("getCacheStats should report compressed size, raw size and ratio")
+    void getCacheStats_compressedEntry_reportsRatio() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(10));
+        tempCache.setCompressionLevel(Deflater.DEFAULT_COMPRESSION);
+        tempCache.compressCachedFile(TEST_FILE_KEY);
+
+        Map<String, Object> stats = tempCache.getCacheStats();
+
+        assertEquals(1L, stats.get("compressedFileCount"));
+        long compressed = (Long) stats.get("compressedSizeBytes");
+        long raw = (Long) stats.get("rawSizeBytes");
+        assertTrue(compressed > 0 && compressed < raw);
+        assertEquals((double) raw / compressed, (Double) stats.get("compressionRatio"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("clearCachedFile should remove compressed entries")
+    void clearCachedFile_compressedEntry_removesAllFormats() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createTestFigmaFile());
+        tempCache.setCompressionLevel(Deflater.BEST_SPEED);
+        tempCache.compressCachedFile(TEST_FILE_KEY);
+
+        tempCache.clearCachedFile(TEST_FILE_KEY);
+
+        assertFalse(tempCache.hasCachedFile(TEST_FILE_KEY));
+    }
+
+    @Test
+    @DisplayName("loadCachedFile should serve repeated loads from memory")
+    void loadCachedFile_repeatedLoads_hitsMemoryTier() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createTestFigmaFile());
+        FigmaFileCache reopened = newUncompressedCache();
+
+        FigmaFile first = reopened.loadCachedFile(TEST_FILE_KEY);
+        FigmaFile second = reopened.loadCachedFile(TEST_FILE_KEY);
+
+        assertSame(first, second);
+        Map<String, Object> stats = reopened.getCacheStats();
+        assertEquals(1L, stats.get("memoryMisses"));
+        assertEquals(1L, stats.get("memoryHits"));
+    }
+
+    @Test
+    @DisplayName("clearCachedFile should also drop the in-memory copy")
+    void clearCachedFile_afterLoad_dropsMemoryCopy() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createTestFigmaFile());
+
+        tempCache.clearCachedFile(TEST_FILE_KEY);
+
+        assertNull(tempCache.loadCachedFile(TEST_FILE_KEY));
+        assertNull(tempCache.openCachedFile(TEST_FILE_KEY));
+    }
+
+    @Test
+    @DisplayName("a loaded entry should not keep its file mapped, so it can be overwritten and cleared")
+    void loadCachedFile_thenOverwriteAndClear_releasesFile() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.setMemoryBudget(0);
+        tempCache.setSoftReferences(false);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+        assertEquals(2, tempCache.loadCachedFile(TEST_FILE_KEY).getDocument().getChildren().size());
+
+        FigmaFile updated = createMultiPageFigmaFile(3);
+        updated.setVersion("2");
+        tempCache.saveCachedFile(TEST_FILE_KEY, updated);
+        FigmaFile reloaded = tempCache.loadCachedFile(TEST_FILE_KEY);
+        tempCache.clearAllCache();
+
+        assertEquals("2", reloaded.getVersion());
+        assertEquals(3, reloaded.getDocument().getChildren().size());
+        assertFalse(tempCache.hasCachedFile(TEST_FILE_KEY));
+        assertFalse(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jc")));
+    }
+
+    @Test
+    @DisplayName("openCachedFile without mapping should decode pages on demand and not hold the file")
+    void openCachedFile_unmapped_thenOverwriteAndClear_releasesFile() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.setMemoryBudget(0);
+        tempCache.setSoftReferences(false);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+        CachedFigmaFile opened = tempCache.openCachedFile(TEST_FILE_KEY, false);
+
+        FigmaFile updated = createMultiPageFigmaFile(3);
+        updated.setVersion("2");
+        tempCache.saveCachedFile(TEST_FILE_KEY, updated);
+        tempCache.clearAllCache();
+
+        assertEquals(2, opened.getPageCount());
+        assertEquals(opened.getPages().get(1).getId(), opened.loadPage(1).getId());
+        assertNotNull(opened.loadPage(1).getChildren());
+        assertFalse(tempCache.hasCachedFile(TEST_FILE_KEY));
+        assertFalse(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jc")));
+    }
+
+    @Test
+    @DisplayName("getCacheStats should be answered from the persistent index")
+    void getCacheStats_afterReopen_readsPersistedIndex() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile("key1", createMultiPageFigmaFile(2));
+        tempCache.saveCachedFile("key2", createMultiPageFigmaFile(3));
+        tempCache.awaitBackgroundTasks();
+        long expectedSize = Files.size(tempDir.resolve("key1.f2jc")) + Files.size(tempDir.resolve("key2.f2jc"));
+
+        Map<String, Object> stats = new FigmaFileCache(tempDir).getCacheStats();
+
+        assertTrue(Files.exists(tempDir.resolve("cache-index.f2ji")));
+        assertEquals(2L, stats.get("fileCount"));
+        assertEquals(expectedSize, stats.get("totalSizeBytes"));
+    }
+
+    @Test
+    @DisplayName("index should be rebuilt from the cache files when it is missing")
+    void getCacheStats_indexMissing_rebuildsFromFiles() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+        tempCache.awaitBackgroundTasks();
+        Files.delete(tempDir.resolve("cache-index.f2ji"));
+
+        Map<String, Object> stats = new FigmaFileCache(tempDir).getCacheStats();
+
+        assertEquals(1L, stats.get("fileCount"));
+        assertEquals(Files.size(tempDir.resolve(TEST_FILE_KEY + ".f2jc")), stats.get("totalSizeBytes"));
+    }
+
+    @Test
+    @DisplayName("runJanitor should evict least recently used entries over the size limit")
+    void runJanitor_overMaxSize_evictsLeastRecentlyUsed() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < 3; i++) {
+            tempCache.setClock(Clock.fixed(start.plusSeconds(i), ZoneOffset.UTC));
+            tempCache.saveCachedFile("key" + i, createMultiPageFigmaFile(2));
+        }
+        tempCache.setClock(Clock.fixed(start.plusSeconds(10), ZoneOffset.UTC));
+        tempCache.loadCachedFile("key0");
+        long entrySize = (Long) tempCache.getCacheStats().get("totalSizeBytes") / 3;
+
+        tempCache.setMaxCacheSize(entrySize * 2);
+        tempCache.runJanitor();
+
+        assertTrue(tempCache.hasCachedFile("key0"));
+        assertFalse(tempCache.hasCachedFile("key1"));
+        assertTrue(tempCache.hasCachedFile("key2"));
+        assertEquals(2L, tempCache.getCacheStats().get("fileCount"));
+    }
+
+    @Test
+    @DisplayName("runJanitor should evict entries unused for longer than the time to live")
+    void runJanitor_expiredEntry_evictsEntry() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        tempCache.setClock(Clock.fixed(start, ZoneOffset.UTC));
+        tempCache.saveCachedFile("old", createTestFigmaFile());
+        tempCache.setClock(Clock.fixed(start.plus(Duration.ofDays(5)), ZoneOffset.UTC));
+        tempCache.saveCachedFile("recent", createTestFigmaFile());
+
+        tempCache.setTimeToLive(Duration.ofDays(3));
+        tempCache.runJanitor();
+
+        assertFalse(tempCache.hasCachedFile("old"));
+        assertNull(tempCache.loadCachedFile("old"));
+        assertTrue(tempCache.hasCachedFile("recent"));
+    }
+
+    @Test
+    @DisplayName("loadCachedFile should reject compressed entries with a wrong checksum")
+    void loadCachedFile_checksumMismatch_returnsNull() throws IOException {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+        Path binary = tempDir.resolve(TEST_FILE_KEY + ".f2jc");
+        byte[] data = Files.readAllBytes(binary);
+        // Flip a byte in the node table, which the format itself does not validate
+        data[data.length - 2] ^= 0x01;
+        Files.write(binary, data);
+        tempCache.setCompressionLevel(Deflater.BEST_SPEED);
+        tempCache.compressCachedFile(TEST_FILE_KEY);
+        tempCache.setSoftReferences(false);
+        tempCache.setMemoryBudget(0);
+
+        assertNull(tempCache.loadCachedFile(TEST_FILE_KEY));
+    }
+
+    @Test
+    @DisplayName("saveCachedFileAsync should serve the file immediately and write it on flush")
+    void saveCachedFileAsync_thenFlush_writesFile() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        FigmaFile file = createMultiPageFigmaFile(2);
+
+        tempCache.saveCachedFileAsync(TEST_FILE_KEY, file);
+
+        assertTrue(tempCache.hasCachedFile(TEST_FILE_KEY));
+        assertSame(file, tempCache.loadCachedFile(TEST_FILE_KEY));
+        assertTrue(tempCache.flush(Duration.ofSeconds(10)));
+        assertEquals(0, tempCache.getPendingWriteCount());
+        assertEquals(Duration.ZERO, tempCache.getWriteLag());
+        assertTrue(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jc")));
+        assertEquals("Test Figma File", newUncompressedCache().loadCachedFile(TEST_FILE_KEY).getName());
+    }
+
+    @Test
+    @DisplayName("saveCachedFileAsync should coalesce repeated saves and keep the latest file")
+    void saveCachedFileAsync_repeatedSaves_writesLatest() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        for (int i = 0; i < 20; i++) {
+            FigmaFile file = createTestFigmaFile();
+            file.setVersion("v" + i);
+            tempCache.saveCachedFileAsync(TEST_FILE_KEY, file);
+        }
+
+        assertTrue(tempCache.flush(Duration.ofSeconds(10)));
+
+        assertEquals("v19", newUncompressedCache().loadCachedFile(TEST_FILE_KEY).getVersion());
+        long coalesced = (Long) tempCache.getCacheStats().get("coalescedWriteCount");
+        assertTrue(coalesced >= 0 && coalesced <= 19);
+    }
+
+    @Test
+    @DisplayName("clearCachedFile should drop a queued write")
+    void clearCachedFile_pendingWrite_dropsWrite() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFileAsync(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+
+        tempCache.clearCachedFile(TEST_FILE_KEY);
+        tempCache.flush(Duration.ofSeconds(10));
+
+        assertFalse(tempCache.hasCachedFile(TEST_FILE_KEY));
+        assertNull(newUncompressedCache().loadCachedFile(TEST_FILE_KEY));
+    }
+
+    @Test
+    @DisplayName("close should flush queued writes without leaving temp files")
+    void close_pendingWrites_flushesToDisk() throws IOException {
+        FigmaFileCache tempCache = new FigmaFileCache(tempDir);
+        tempCache.saveCachedFileAsync("key1", createMultiPageFigmaFile(2));
+        tempCache.saveCachedFileAsync("key2", createMultiPageFigmaFile(3));
+
+        tempCache.close();
+
+        FigmaFileCache reopened = new FigmaFileCache(tempDir);
+        assertEquals(2L, reopened.getCacheStats().get("fileCount"));
+        assertEquals(3, reopened.openCachedFile("key2").getPageCount());
+        try (var files = Files.list(tempDir)) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")));
+        }
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("saveSession and loadSession should round trip the view state")
+    void saveSession_thenLoadSession_restoresState() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        SessionState session = new SessionState("0:1", "I12:34;56:78", List.of("0:1", "12:3", "12:4"));
+
+        tempCache.saveSession(TEST_FILE_KEY, session);
+        SessionState loaded = newUncompressedCache().loadSession(TEST_FILE_KEY);
+
+        assertEquals("0:1", loaded.getPageId());
+        assertEquals("I12:34;56:78", loaded.getLayerId());
+        assertEquals(List.of("0:1", "12:3", "12:4"), loaded.getExpandedNodeIds());
+    }
+
+    @Test
+    @DisplayName("loadSession should return null when no session was saved")
+    void loadSession_noSession_returnsNull() {
+        FigmaFileCache tempCache = newUncompressedCache();
+
+        assertNull(tempCache.loadSession(TEST_FILE_KEY));
+        assertNull(tempCache.loadSession(null));
+    }
+
+    @Test
+    @DisplayName("sessions should survive clearing the cached file")
+    void clearCachedFile_savedSession_keepsSession() {
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createTestFigmaFile());
+        tempCache.saveSession(TEST_FILE_KEY, new SessionState("0:1", null, List.of()));
+
+        tempCache.clearCachedFile(TEST_FILE_KEY);
+        tempCache.clearAllCache();
+
+        SessionState loaded = tempCache.loadSession(TEST_FILE_KEY);
+        assertEquals("0:1", loaded.getPageId());
+        assertNull(loaded.getLayerId());
+        assertTrue(loaded.getExpandedNodeIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("chunked storage should round trip files and keep previous versions")
+    void saveCachedFile_chunkedStorage_keepsVersions() throws IOException {
+        FigmaFileCache tempCache = new FigmaFileCache(tempDir);
+        tempCache.setChunkedStorage(true);
+        tempCache.setMemoryBudget(0);
+        tempCache.setSoftReferences(false);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(3));
+        FigmaFile updated = createMultiPageFigmaFile(3);
+        updated.setVersion("2.0");
+        updated.getDocument().getChildren().get(2).setName("Renamed");
+        tempCache.saveCachedFile(TEST_FILE_KEY, updated);
+
+        CachedFigmaFile cachedFile = tempCache.openCachedFile(TEST_FILE_KEY);
+
+        assertEquals("2.0", cachedFile.getVersion());
+        assertEquals("Renamed", cachedFile.loadPage(2).getName());
+        assertEquals(List.of("2.0", "1.0"), tempCache.getCachedVersions(TEST_FILE_KEY));
+        assertEquals("Page 2", tempCache.openCachedVersion(TEST_FILE_KEY, "1.0").loadPage(2).getName());
+        assertFalse(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jc")));
+        assertEquals(4L, tempCache.getCacheStats().get("chunkCount"));
+    }
+
+    @Test
+    @DisplayName("clearCachedFile should remove chunked entries and the janitor their chunks")
+    void clearCachedFile_chunkedStorage_removesChunksOnJanitorRun() {
+        FigmaFileCache tempCache = new FigmaFileCache(tempDir);
+        tempCache.setChunkedStorage(true);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createMultiPageFigmaFile(2));
+        assertTrue(tempCache.hasCachedFile(TEST_FILE_KEY));
+
+        tempCache.clearCachedFile(TEST_FILE_KEY);
+        tempCache.runJanitor();
+
+        assertFalse(tempCache.hasCachedFile(TEST_FILE_KEY));
+        assertNull(tempCache.openCachedFile(TEST_FILE_KEY));
+        assertEquals(0L, tempCache.getCacheStats().get("chunkCount"));
+    }
+
+    @Test
+    @DisplayName("JSON cache entries should store and load groups nested beyond Gson's nesting limit")
+    void loadCachedFile_deeplyNestedJson_roundTrips() {
+        // Pretty-printed, so deeper trees would mostly be indentation
+        int levels = 1_000;
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.setBinaryFormat(false);
+        tempCache.saveCachedFile(TEST_FILE_KEY, createDeeplyNestedFigmaFile(levels));
+        tempCache.close();
+
+        FigmaFileCache reopened = new FigmaFileCache(tempDir);
+        FigmaFile loaded = reopened.loadCachedFile(TEST_FILE_KEY);
+        reopened.close();
+
+        assertNestedDepth(loaded, levels);
+    }
+
+    @Test
+    @DisplayName("binary cache entries should write, read and search groups nested 10,000 levels deep")
+    void loadCachedFile_deeplyNestedBinary_roundTrips() throws IOException {
+        int levels = 10_000;
+        String deepest = "group-" + (levels - 1);
+        FigmaFileCache tempCache = newUncompressedCache();
+        tempCache.saveCachedFile(TEST_FILE_KEY, createDeeplyNestedFigmaFile(levels));
+        tempCache.close();
+        assertTrue(Files.exists(tempDir.resolve(TEST_FILE_KEY + ".f2jc")));
+
+        FigmaFileCache reopened = new FigmaFileCache(tempDir);
+        // Mapped and decoded on demand, found through the node index
+        assertEquals(deepest, reopened.openCachedFile(TEST_FILE_KEY).loadNode(deepest).getId());
+        FigmaFile loaded = reopened.loadCachedFile(TEST_FILE_KEY);
+        // Served from the memory tier, found by searching the decoded tree
+        assertEquals(deepest, reopened.openCachedFile(TEST_FILE_KEY).loadNode(deepest).getId());
+        reopened.close();
+
+        assertNestedDepth(loaded, levels);
+    }
+
+    private FigmaFile createDeeplyNestedFigmaFile(int levels) {
+        FigmaFile file = createTestFigmaFile();
+        Node group = file.getDocument().getChildren().get(0);
+        for (int level = 0; level < levels; level++) {
+            Node child = new Node();
+            child.setId("group-" + level);
+            child.setType("GROUP");
+            group.setChildren(new ArrayList<>(List.of(child)));
+            group = child;
+        }
+        return file;
+    }
+
+    private static void assertNestedDepth(FigmaFile file, int levels) {
+        Node node = file.getDocument().getChildren().get(0);
+        int depth = 0;
+        while (node.getChildren() != null) {
+            node = node.getChildren().get(0);
+            depth++;
+        }
+        assertEquals(levels, depth);
+        assertEquals("group-" + (levels - 1), node.getId());
+    }
+
+    private FigmaFileCache newUncompressedCache() {
+        FigmaFileCache tempCache = new FigmaFileCache(tempDir);
+        tempCache.setCompressionLevel(Deflater.NO_COMPRESSION);
+        return tempCache;
+    }
+
+    private void populateDetails(Node layer) {
+        layer.setVisible(true);
+        BoundingBox box = new BoundingBox();
+        box.setX(10.5);
+        box.setY(-20.0);
+        box.setWidth(100.0);
+        box.setHeight(50.0);
+        layer.setAbsoluteBoundingBox(box);
+        layer.setStrokeWeight(2.0);
+        layer.setOpacity(0.75);
+        layer.setBlendMode("NORMAL");
+
+        Map<String, Object> color = new LinkedHashMap<>();
+        color.put("r", 0.2);
+        color.put("g", 1.0);
+        color.put("b", 0.0);
+        color.put("a", 1.0);
+        Map<String, Object> fill = new LinkedHashMap<>();
+        fill.put("type", "SOLID");
+        fill.put("visible", true);
+        fill.put("color", color);
+        layer.setFills(new ArrayList<>(List.of(fill)));
+
+        Map<String, Object> constraints = new LinkedHashMap<>();
+        constraints.put("vertical", "TOP");
+        constraints.put("horizontal", "LEFT");
+        layer.setConstraints(constraints);
+        layer.setStyles(Map.of("fill", "S:1"));
+
+        Node child = new Node();
+        child.setId("child-1");
+        child.setType("TEXT");
+        layer.setChildren(new ArrayList<>(List.of(child)));
+    }
+
     private FigmaFile createTestFigmaFile() {
         FigmaFile file = new FigmaFile();
         file.setName("Test Figma File");
@@ -0,0 +1,122 @@
+package com.tlcsdm.figma2json.util;
+
+import com.tlcsdm.figma2json.api.Document;
+import com.tlcsdm.figma2json.api.FigmaFile;
+import com.tlcsdm.figma2json.api.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for MemoryCacheTier.
+ */
+class MemoryCacheTierTest {
+
+    @Test
+    @DisplayName("estimateWeight should scale with the node count")
+    void estimateWeight_nestedNodes_countsAllNodes() {
+        FigmaFile file = createFile(10);
+
+        // document + page + 10 layers
+        assertEquals(12 * MemoryCacheTier.ESTIMATED_BYTES_PER_NODE, MemoryCacheTier.estimateWeight(file));
+    }
+
+    @Test
+    @DisplayName("get should return a file that was put")
+    void get_afterPut_returnsSameInstance() {
+        MemoryCacheTier tier = new MemoryCacheTier(1024 * 1024, false);
+        FigmaFile file = createFile(5);
+
+        tier.put("a", file);
+
+        assertSame(file, tier.get("a"));
+        assertNull(tier.get("b"));
+    }
+
+    @Test
+    @DisplayName("put should evict the least recently used entry when over budget")
+    void put_overBudget_evictsLeastRecentlyUsed() {
+        long weight = MemoryCacheTier.estimateWeight(createFile(10));
+        MemoryCacheTier tier = new MemoryCacheTier(weight * 2, false);
+        tier.put("a", createFile(10));
+        tier.put("b", createFile(10));
+        tier.get("a");
+
+        tier.put("c", createFile(10));
+
+        assertNotNull(tier.get("a"));
+        assertNull(tier.get("b"));
+        assertNotNull(tier.get("c"));
+    }
+
+    @Test
+    @DisplayName("get should recover evicted entries through soft references")
+    void get_evictedWithSoftReferences_recoversEntry() {
+        long weight = MemoryCacheTier.estimateWeight(createFile(10));
+        MemoryCacheTier tier = new MemoryCacheTier(weight, true);
+        FigmaFile first = createFile(10);
+        tier.put("a", first);
+        tier.put("b", createFile(10));
+
+        assertSame(first, tier.get("a"));
+
+        Map<String, Object> stats = new HashMap<>();
+        tier.addStats(stats);
+        assertEquals(1L, stats.get("memorySoftHits"));
+    }
+
+    @Test
+    @DisplayName("addStats should report hits, misses and evictions")
+    void addStats_afterAccesses_reportsCounters() {
+        long weight = MemoryCacheTier.estimateWeight(createFile(10));
+        MemoryCacheTier tier = new MemoryCacheTier(weight, false);
+        tier.put("a", createFile(10));
+        tier.get("a");
+        tier.get("missing");
+        tier.put("b", createFile(10));
+
+        Map<String, Object> stats = new HashMap<>();
+        tier.addStats(stats);
+
+        assertEquals(1L, stats.get("memoryHits"));
+        assertEquals(1L, stats.get("memoryMisses"));
+        assertEquals(1L, stats.get("memoryEvictions"));
+        assertEquals(1L, stats.get("memoryEntryCount"));
+        assertEquals(weight, stats.get("memoryWeightBytes"));
+        assertEquals(weight, stats.get("memoryBudgetBytes"));
+    }
+
+    @Test
+    @DisplayName("setBudgetBytes to zero should empty the tier")
+    void setBudgetBytes_zero_evictsEverything() {
+        MemoryCacheTier tier = new MemoryCacheTier(1024 * 1024, false);
+        tier.put("a", createFile(3));
+
+        tier.setBudgetBytes(0);
+
+        assertNull(tier.get("a"));
+    }
+
+    private FigmaFile createFile(int layerCount) {
+        FigmaFile file = new FigmaFile();
+        Document document = new Document();
+        Node page = new Node();
+        page.setId("page");
+        List<Node> layers = new ArrayList<>();
+        for (int i = 0; i < layerCount; i++) {
+            Node layer = new Node();
+            layer.setId("layer-" + i);
+            layers.add(layer);
+        }
+        page.setChildren(layers);
+        document.setChildren(new ArrayList<>(List.of(page)));
+        file.setDocument(document);
+        return file;
+    }
+}
@@ -193,4 +193,64 @@ class SettingsManagerTest {
     void getDefaultOAuthRedirectUri_returnsStaticDefault() {
         assertEquals("http://localhost:8888/callback", SettingsManager.getDefaultOAuthRedirectUri());
     }
+
+    @Test
+    @DisplayName("getCacheCompressionLevel should return 0 by default")
+    void getCacheCompressionLevel_default_returnsZero() {
+        assertEquals(0, settingsManager.getCacheCompressionLevel());
+    }
+
+    @Test
+    @DisplayName("setCacheCompressionLevel should clamp out-of-range values")
+    void setCacheCompressionLevel_outOfRange_clampsValue() {
+        settingsManager.setCacheCompressionLevel(42);
+        assertEquals(9, settingsManager.getCacheCompressionLevel());
+        settingsManager.setCacheCompressionLevel(-3);
+        assertEquals(0, settingsManager.getCacheCompressionLevel());
+    }
+
+    @Test
+    @DisplayName("cache size limit and time to live should have defaults and reject negatives")
+    void setCacheMaxSizeMb_negative_storesZero() {
+        assertEquals(1024, settingsManager.getCacheMaxSizeMb());
+        assertEquals(30, settingsManager.getCacheTtlDays());
+        settingsManager.setCacheMaxSizeMb(-1);
+        settingsManager.setCacheTtlDays(-5);
+        assertEquals(0, settingsManager.getCacheMaxSizeMb());
+        assertEquals(0, settingsManager.getCacheTtlDays());
+    }
+
+    @Test
+    @DisplayName("cache-first open should be enabled by default")
+    void isCacheFirstOpen_default_returnsTrue() {
+        assertTrue(settingsManager.isCacheFirstOpen());
+        settingsManager.setCacheFirstOpen(false);
+        assertFalse(settingsManager.isCacheFirstOpen());
+    }
+
+    @Test
+    @DisplayName("export profile should default to the full profile and reject unknown values")
+    void getExportProfile_unknownValue_returnsDefault() {
+        assertEquals(SettingsManager.EXPORT_PROFILE_DEFAULT, settingsManager.getExportProfile());
+        settingsManager.setExportProfile(SettingsManager.EXPORT_PROFILE_COMPACT);
+        assertEquals(SettingsManager.EXPORT_PROFILE_COMPACT, settingsManager.getExportProfile());
+        settingsManager.setExportProfile("tiny");
+        assertEquals(SettingsManager.EXPORT_PROFILE_DEFAULT, settingsManager.getExportProfile());
+    }
+
+    @Test
+    @DisplayName("sharded download should be disabled by default")
+    void isShardedDownload_default_returnsFalse() {
+        assertFalse(settingsManager.isShardedDownload());
+        settingsManager.setShardedDownload(true);
+        assertTrue(settingsManager.isShardedDownload());
+    }
+
+    @Test
+    @DisplayName("chunked cache storage should be disabled by default")
+    void isCacheChunkedStorage_default_returnsFalse() {
+        assertFalse(settingsManager.isCacheChunkedStorage());
+        settingsManager.setCacheChunkedStorage(true);
+        assertTrue(settingsManager.isCacheChunkedStorage());
+    }
 }
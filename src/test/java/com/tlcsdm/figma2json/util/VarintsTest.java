@@ -0,0 +1,48 @@
+package com.tlcsdm.figma2json.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Varints.
+ */
+class VarintsTest {
+
+    @Test
+    @DisplayName("putVarlong should use one byte per 7 bits and at most 10 bytes")
+    void putVarlong_values_writesShortestEncoding() {
+        byte[] buffer = new byte[Varints.MAX_VARLONG_SIZE];
+
+        assertEquals(1, Varints.putVarlong(buffer, 0, 127));
+        assertEquals(2, Varints.putVarlong(buffer, 0, 128));
+        assertEquals((byte) 0x80, buffer[0]);
+        assertEquals(1, buffer[1]);
+        assertEquals(5, Varints.putVarlong(buffer, 0, Integer.toUnsignedLong(-1)));
+        assertEquals(Varints.MAX_VARLONG_SIZE, Varints.putVarlong(buffer, 0, -1L));
+    }
+
+    @Test
+    @DisplayName("zigZag should keep small negative values small and round-trip")
+    void zigZag_signedValues_roundTrips() {
+        assertEquals(0, Varints.zigZag(0));
+        assertEquals(1, Varints.zigZag(-1));
+        assertEquals(2, Varints.zigZag(1));
+        for (long value : new long[]{0, -1, 1, Long.MIN_VALUE, Long.MAX_VALUE, -123456789L}) {
+            assertEquals(value, Varints.unZigZag(Varints.zigZag(value)));
+        }
+    }
+
+    @Test
+    @DisplayName("isIntegral should reject fractions, negative zero and values beyond 2^53")
+    void isIntegral_values_matchesExactIntegers() {
+        assertTrue(Varints.isIntegral(42.0));
+        assertTrue(Varints.isIntegral(-3.0));
+        assertFalse(Varints.isIntegral(0.5));
+        assertFalse(Varints.isIntegral(-0.0));
+        assertFalse(Varints.isIntegral(Varints.MAX_EXACT_INT));
+        assertFalse(Varints.isIntegral(Double.NaN));
+        assertFalse(Varints.isIntegral(Double.POSITIVE_INFINITY));
+    }
+}